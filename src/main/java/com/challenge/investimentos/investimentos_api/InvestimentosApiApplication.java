@@ -2,12 +2,15 @@ package com.challenge.investimentos.investimentos_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principal responsável por inicializar a aplicação Spring Boot da API de Investimentos.
  * Esta classe contém o método main que executa a aplicação.
+ * O agendamento fica habilitado para a compactação do log de alterações das carteiras.
  */
 @SpringBootApplication
+@EnableScheduling
 public class InvestimentosApiApplication {
 
     /**
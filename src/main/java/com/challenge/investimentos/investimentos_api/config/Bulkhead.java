@@ -0,0 +1,22 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca o endpoint como pertencente a um bulkhead: a requisição só é atendida se
+ * houver vaga nele e, durante o atendimento, usa o pool de conexões desse bulkhead.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    /**
+     * Bulkhead do endpoint.
+     */
+    TipoBulkhead value();
+}
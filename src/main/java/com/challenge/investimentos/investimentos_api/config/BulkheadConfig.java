@@ -0,0 +1,28 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.challenge.investimentos.investimentos_api.service.Bulkheads;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra o {@link BulkheadInterceptor} nos endpoints da API.
+ */
+@Configuration
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final Bulkheads bulkheads;
+
+    /**
+     * @param bulkheads limites de concorrência por classe de carga
+     */
+    public BulkheadConfig(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new BulkheadInterceptor(bulkheads)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,51 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.challenge.investimentos.investimentos_api.service.Bulkheads;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Ocupa uma vaga do bulkhead dos endpoints anotados com {@link Bulkhead} antes de
+ * chamá-los e a libera ao fim da requisição.
+ */
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String ATRIBUTO = BulkheadInterceptor.class.getName();
+
+    private final Bulkheads bulkheads;
+
+    /**
+     * @param bulkheads limites de concorrência por classe de carga
+     */
+    public BulkheadInterceptor(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (handler instanceof HandlerMethod metodo) {
+            Bulkhead bulkhead = metodo.getMethodAnnotation(Bulkhead.class);
+            if (bulkhead != null) {
+                bulkheads.entrar(bulkhead.value());
+                request.setAttribute(ATRIBUTO, bulkhead.value());
+                RoteamentoBulkhead.usar(bulkhead.value());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        if (request.getAttribute(ATRIBUTO) instanceof TipoBulkhead tipo) {
+            request.removeAttribute(ATRIBUTO);
+            RoteamentoBulkhead.limpar();
+            bulkheads.sair(tipo);
+        }
+    }
+}
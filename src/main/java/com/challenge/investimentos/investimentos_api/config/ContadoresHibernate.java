@@ -0,0 +1,115 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Trabalho do Hibernate feito durante uma requisição: comandos SQL, lotes JDBC,
+ * entidades carregadas e flushes.
+ *
+ * As estatísticas globais do Hibernate somam todas as requisições; estes contadores
+ * ficam presos à thread da requisição (entre {@link #iniciar()} e {@link #encerrar()})
+ * e são preenchidos por um {@link SessionEventListener} registrado em toda sessão e
+ * por um {@link PostLoadEventListener}. Fora de uma requisição, nada é contado.
+ */
+public final class ContadoresHibernate {
+
+    private static final ThreadLocal<ContadoresHibernate> ATUAIS = new ThreadLocal<>();
+
+    private long comandos;
+    private long lotes;
+    private long carregamentos;
+    private long flushes;
+
+    private ContadoresHibernate() {}
+
+    /** Começa a contar na thread atual. */
+    static void iniciar() {
+        ATUAIS.set(new ContadoresHibernate());
+    }
+
+    /**
+     * Para de contar na thread atual.
+     *
+     * @return contadores da requisição, ou {@code null} se não houve {@link #iniciar()}
+     */
+    static ContadoresHibernate encerrar() {
+        ContadoresHibernate contadores = ATUAIS.get();
+        ATUAIS.remove();
+        return contadores;
+    }
+
+    /** Comandos SQL enviados um a um (consultas, inserts, updates e deletes fora de lote). */
+    long comandos() {
+        return comandos;
+    }
+
+    /** Lotes JDBC enviados ({@code executeBatch}). */
+    long lotes() {
+        return lotes;
+    }
+
+    /** Entidades carregadas do banco. */
+    long carregamentos() {
+        return carregamentos;
+    }
+
+    /** Flushes do contexto de persistência. */
+    long flushes() {
+        return flushes;
+    }
+
+    /**
+     * Listener instanciado pelo Hibernate em cada sessão
+     * ({@code hibernate.session.events.auto}).
+     */
+    public static class Sessao implements SessionEventListener {
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            ContadoresHibernate contadores = ATUAIS.get();
+            if (contadores != null) contadores.comandos++;
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            ContadoresHibernate contadores = ATUAIS.get();
+            if (contadores != null) contadores.lotes++;
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            ContadoresHibernate contadores = ATUAIS.get();
+            if (contadores != null) contadores.flushes++;
+        }
+    }
+
+    /** Registra a contagem de entidades carregadas ({@code hibernate.integrator_provider}). */
+    static class Integracao implements Integrator, PostLoadEventListener {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, this);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        @Override
+        public void onPostLoad(PostLoadEvent event) {
+            ContadoresHibernate contadores = ATUAIS.get();
+            if (contadores != null) contadores.carregamentos++;
+        }
+    }
+}
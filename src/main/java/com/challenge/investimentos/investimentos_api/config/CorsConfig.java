@@ -25,8 +25,9 @@ public class CorsConfig {
             public void addCorsMappings(@NonNull CorsRegistry registry) {
                 registry.addMapping("/**")
                         .allowedOrigins("http://localhost:3000")
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Proximo-Cursor", "X-Linhas-Alteradas", "X-Cache", "ETag", "X-Sequencia-Alteracoes", "Retry-After")
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,24 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do Jackson usado pela API.
+ * Sem seleção de campos na requisição, os DTOs com {@code @JsonFilter} são serializados por inteiro.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Registra um provedor de filtros que ignora filtros não informados na resposta.
+     *
+     * @return customizador do ObjectMapper
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtrosPadrao() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
@@ -0,0 +1,76 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Origem das conexões das transações somente leitura: a réplica, com desvio para a
+ * primária quando ela não responde.
+ *
+ * Se a réplica falhar ao entregar uma conexão, a leitura segue na primária e a réplica
+ * fica fora por {@code intervaloMs}; passado esse tempo, a próxima leitura volta a
+ * tentá-la. Assim uma réplica parada custa no máximo um timeout por intervalo, e não
+ * um por requisição.
+ */
+public class LeituraComFallback extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(LeituraComFallback.class);
+
+    private final DataSource primaria;
+    private final long intervaloMs;
+    private final LongAdder desvios = new LongAdder();
+    private volatile long indisponivelAte;
+
+    /**
+     * @param replica pool da réplica de leitura
+     * @param primaria pool da primária, usado enquanto a réplica estiver indisponível
+     * @param intervaloMs tempo sem tentar a réplica depois de uma falha
+     */
+    public LeituraComFallback(DataSource replica, DataSource primaria, long intervaloMs) {
+        super(replica);
+        this.primaria = primaria;
+        this.intervaloMs = intervaloMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicaDisponivel()) {
+            desvios.increment();
+            return primaria.getConnection();
+        }
+        try {
+            return obtainTargetDataSource().getConnection();
+        } catch (SQLException e) {
+            indisponivelAte = System.currentTimeMillis() + intervaloMs;
+            desvios.increment();
+            log.warn("Réplica de leitura indisponível; leituras na primária pelos próximos {} ms: {}",
+                    intervaloMs, e.getMessage());
+            return primaria.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Indica se a réplica está sendo usada (ou seja, não falhou no último intervalo).
+     */
+    public boolean replicaDisponivel() {
+        return System.currentTimeMillis() >= indisponivelAte;
+    }
+
+    /**
+     * Retorna quantas leituras foram atendidas pela primária por indisponibilidade da réplica.
+     */
+    public long desvios() {
+        return desvios.sum();
+    }
+}
@@ -0,0 +1,164 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.challenge.investimentos.investimentos_api.service.Bulkheads;
+import com.challenge.investimentos.investimentos_api.service.CacheCarteiras;
+import com.challenge.investimentos.investimentos_api.service.NotificacoesCarteira;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas expostas em {@code /actuator/prometheus}, além das que o Spring Boot já
+ * registra sozinho ({@code http.server.requests}, pools Hikari, estatísticas do
+ * Hibernate, JVM).
+ * <ul>
+ *   <li>Tempo de cada método dos serviços anotados com {@code @Timed}
+ *       ({@code investimentos.servico}).</li>
+ *   <li>Comandos SQL, lotes, entidades carregadas e flushes por requisição
+ *       ({@link MetricasHibernateInterceptor}).</li>
+ *   <li>Cache de carteiras, notificações SSE, bulkheads e réplica de leitura, lidos
+ *       dos contadores que esses componentes já mantêm.</li>
+ * </ul>
+ */
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    /**
+     * @param registry registro de métricas
+     */
+    public MetricasConfig(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new MetricasHibernateInterceptor(registry.getObject())).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Habilita {@code @Timed} em classes e métodos de beans.
+     *
+     * @param registry registro de métricas
+     * @return aspecto que cronometra os métodos anotados
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Registra em toda sessão do Hibernate os listeners de {@link ContadoresHibernate}.
+     *
+     * @return ajuste das propriedades do Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer contadoresHibernate() {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, ContadoresHibernate.Sessao.class.getName());
+            propriedades.put(JpaSettings.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new ContadoresHibernate.Integracao()));
+        };
+    }
+
+    /**
+     * Acertos, faltas, descartes e ocupação do cache de carteiras.
+     *
+     * @param cache cache de respostas de carteira
+     * @return métricas do cache
+     */
+    @Bean
+    public MeterBinder metricasCacheCarteiras(CacheCarteiras cache) {
+        return registry -> {
+            contador(registry, "investimentos.cache.carteiras.acessos", "Leituras de carteira por resultado no cache",
+                    cache, c -> c.estatisticas().acertos(), "resultado", "acerto");
+            contador(registry, "investimentos.cache.carteiras.acessos", "Leituras de carteira por resultado no cache",
+                    cache, c -> c.estatisticas().faltas(), "resultado", "falta");
+            contador(registry, "investimentos.cache.carteiras.descartes", "Entradas removidas pelo limite de bytes",
+                    cache, c -> c.estatisticas().descartes());
+            contador(registry, "investimentos.cache.carteiras.invalidacoes", "CPFs invalidados por escrita",
+                    cache, c -> c.estatisticas().invalidacoes());
+            Gauge.builder("investimentos.cache.carteiras.entradas", cache, c -> c.estatisticas().entradas())
+                    .description("Respostas guardadas no cache").register(registry);
+            Gauge.builder("investimentos.cache.carteiras.bytes", cache, c -> c.estatisticas().bytes())
+                    .description("Bytes guardados no cache").baseUnit("bytes").register(registry);
+        };
+    }
+
+    /**
+     * Conexões SSE abertas e assinantes desconectados por lentidão.
+     *
+     * @param notificacoes envio das notificações de carteira
+     * @return métricas das notificações
+     */
+    @Bean
+    public MeterBinder metricasNotificacoes(NotificacoesCarteira notificacoes) {
+        return registry -> {
+            Gauge.builder("investimentos.notificacoes.assinantes", notificacoes, NotificacoesCarteira::totalAssinantes)
+                    .description("Conexões SSE abertas").register(registry);
+            contador(registry, "investimentos.notificacoes.descartados", "Assinantes desconectados por fila cheia",
+                    notificacoes, NotificacoesCarteira::descartados);
+        };
+    }
+
+    /**
+     * Ocupação e contadores de cada bulkhead.
+     *
+     * @param bulkheads limites de concorrência por classe de carga
+     * @return métricas dos bulkheads
+     */
+    @Bean
+    public MeterBinder metricasBulkheads(Bulkheads bulkheads) {
+        return registry -> {
+            for (TipoBulkhead tipo : TipoBulkhead.values()) {
+                String nome = bulkheads.estatisticas(tipo).nome();
+                Gauge.builder("investimentos.bulkhead.em.uso", bulkheads, b -> b.estatisticas(tipo).emUso())
+                        .description("Vagas ocupadas").tag("bulkhead", nome).register(registry);
+                Gauge.builder("investimentos.bulkhead.aguardando", bulkheads, b -> b.estatisticas(tipo).aguardando())
+                        .description("Requisições na fila por uma vaga").tag("bulkhead", nome).register(registry);
+                contador(registry, "investimentos.bulkhead.requisicoes", "Requisições por bulkhead e resultado",
+                        bulkheads, b -> b.estatisticas(tipo).admitidas(), "bulkhead", nome, "resultado", "admitida");
+                contador(registry, "investimentos.bulkhead.requisicoes", "Requisições por bulkhead e resultado",
+                        bulkheads, b -> b.estatisticas(tipo).rejeitadas(), "bulkhead", nome, "resultado", "rejeitada");
+            }
+        };
+    }
+
+    /**
+     * Situação da réplica de leitura, quando configurada.
+     *
+     * @param leitura roteamento de leituras para a réplica
+     * @return métricas da réplica (nenhuma sem réplica)
+     */
+    @Bean
+    public MeterBinder metricasReplica(ObjectProvider<LeituraComFallback> leitura) {
+        return registry -> leitura.ifAvailable(replica -> {
+            Gauge.builder("investimentos.datasource.replica.disponivel", replica, r -> r.replicaDisponivel() ? 1 : 0)
+                    .description("1 enquanto as leituras vão para a réplica").register(registry);
+            contador(registry, "investimentos.datasource.replica.desvios", "Leituras atendidas pela primária por falha da réplica",
+                    replica, LeituraComFallback::desvios);
+        });
+    }
+
+    private static <T> void contador(MeterRegistry registry, String nome, String descricao, T origem,
+                                     ToDoubleFunction<T> valor, String... tags) {
+        FunctionCounter.builder(nome, origem, valor).description(descricao).tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Conta o trabalho do Hibernate de cada requisição ({@link ContadoresHibernate}) e o
+ * registra em histogramas por endpoint ({@code uri} e {@code method}, como em
+ * {@code http.server.requests}).
+ *
+ * Em requisições assíncronas (exportação, SSE) só a parte executada na thread do
+ * servlet é contada.
+ */
+public class MetricasHibernateInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    /**
+     * @param registry registro de métricas
+     */
+    public MetricasHibernateInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            ContadoresHibernate.iniciar();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        registrar(request, ContadoresHibernate.encerrar());
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        registrar(request, ContadoresHibernate.encerrar());
+    }
+
+    private void registrar(HttpServletRequest request, ContadoresHibernate contadores) {
+        if (contadores == null) return;
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("uri", padrao != null ? padrao.toString() : "UNKNOWN", "method", request.getMethod());
+        resumo("investimentos.requisicao.sql.comandos", "Comandos SQL enviados um a um por requisição", tags)
+                .record(contadores.comandos());
+        resumo("investimentos.requisicao.sql.lotes", "Lotes JDBC enviados por requisição", tags)
+                .record(contadores.lotes());
+        resumo("investimentos.requisicao.entidades.carregadas", "Entidades carregadas pelo Hibernate por requisição", tags)
+                .record(contadores.carregamentos());
+        resumo("investimentos.requisicao.flushes", "Flushes do contexto de persistência por requisição", tags)
+                .record(contadores.flushes());
+    }
+
+    private DistributionSummary resumo(String nome, String descricao, Tags tags) {
+        return DistributionSummary.builder(nome)
+                .description(descricao)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(10_000.0)
+                .register(registry);
+    }
+}
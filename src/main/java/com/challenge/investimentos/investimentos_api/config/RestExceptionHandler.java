@@ -1,11 +1,18 @@
 package com.challenge.investimentos.investimentos_api.config;
 
+import com.challenge.investimentos.investimentos_api.service.BulkheadSaturadoException;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
 import java.time.format.DateTimeParseException;
@@ -72,6 +79,25 @@ public class RestExceptionHandler {
                 .body("Data em formato inválido. Use o formato dd-MM-yyyy.");
     }
 
+    /**
+     * Trata parâmetros de consulta ou de caminho que não puderam ser convertidos,
+     * como datas from/to fora do formato dd-MM-yyyy ou IDs não numéricos.
+     *
+     * @param ex exceção de conversão do parâmetro
+     * @return ResponseEntity com mensagem de erro e status 400 (Bad Request)
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        if (java.time.LocalDate.class.equals(ex.getRequiredType())) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body("Data em formato inválido no parâmetro " + ex.getName() + ". Use o formato dd-MM-yyyy.");
+        }
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body("Valor inválido no parâmetro " + ex.getName() + ".");
+    }
+
     /**
      * Trata erros de validação de campos dos DTOs.
      * 
@@ -90,6 +116,79 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mensagem);
     }
 
+    /**
+     * Trata erros de validação em corpos que são listas (por exemplo, a lista de
+     * rentabilidades do PATCH), validados no nível do método do controller.
+     *
+     * @param ex exceção de validação do método
+     * @return ResponseEntity com as mensagens de validação e status 400 (Bad Request)
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<String> handleMethodValidationException(HandlerMethodValidationException ex) {
+        String mensagem = ex.getAllErrors().stream()
+            .map(MessageSourceResolvable::getDefaultMessage)
+            .distinct()
+            .reduce((a, b) -> a + "; " + b)
+            .orElse("Erro de validação nos campos.");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(mensagem);
+    }
+
+    /**
+     * Trata argumentos inválidos detectados pelas camadas de serviço e domínio,
+     * como cursor de paginação malformado ou CPF inválido.
+     *
+     * @param ex exceção de argumento inválido
+     * @return ResponseEntity com a mensagem da exceção e status 400 (Bad Request)
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    /**
+     * Trata violações de integridade no banco, como duas rentabilidades diárias
+     * gravadas em paralelo para o mesmo investimento e data.
+     *
+     * @param ex exceção de integridade de dados
+     * @return ResponseEntity com mensagem de erro e status 409 (Conflict)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body("Conflito ao gravar os dados: registro duplicado ou alterado em paralelo. Tente novamente.");
+    }
+
+    /**
+     * Trata escritas concorrentes detectadas pela coluna de versão: outra transação
+     * alterou a mesma carteira ou investimento entre a leitura e o commit.
+     *
+     * @param ex exceção de controle otimista
+     * @return ResponseEntity com mensagem de erro e status 409 (Conflict)
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body("Conflito ao gravar os dados: a carteira foi alterada em paralelo. Leia novamente e reenvie.");
+    }
+
+    /**
+     * Trata requisições recusadas por falta de vaga no bulkhead do endpoint, sem
+     * deixá-las esperando indefinidamente por uma conexão.
+     *
+     * @param ex exceção de bulkhead saturado
+     * @return ResponseEntity com cabeçalho Retry-After e status 503 (Service Unavailable)
+     */
+    @ExceptionHandler(BulkheadSaturadoException.class)
+    public ResponseEntity<String> handleBulkheadSaturado(BulkheadSaturadoException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSegundos()))
+                .body("Serviço ocupado (" + ex.getMessage() + "). Tente novamente em "
+                        + ex.getRetryAfterSegundos() + " s.");
+    }
+
     /**
      * Fallback para exceções não tratadas pelos outros handlers.
      *
@@ -0,0 +1,49 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.function.Supplier;
+
+/**
+ * Escolhe o pool de conexões pelo bulkhead da requisição em andamento. Bulkheads sem
+ * pool próprio (e código fora de requisições) usam o pool padrão.
+ */
+public class RoteamentoBulkhead extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<TipoBulkhead> ATUAL = new ThreadLocal<>();
+
+    static void usar(TipoBulkhead tipo) {
+        ATUAL.set(tipo);
+    }
+
+    static void limpar() {
+        ATUAL.remove();
+    }
+
+    /**
+     * Executa a ação no pool padrão, mesmo dentro de uma requisição com pool próprio.
+     *
+     * Usado pelo trabalho feito após o commit, que abre outra transação enquanto a
+     * conexão da escrita ainda está presa à thread: com todas as vagas ocupadas, cada
+     * thread esperaria por uma segunda conexão do pool {@code lote} que nenhuma libera.
+     *
+     * @param acao trabalho que pode obter conexões
+     * @return resultado da ação
+     */
+    public static <T> T naPrimaria(Supplier<T> acao) {
+        TipoBulkhead anterior = ATUAL.get();
+        if (anterior == null) return acao.get();
+        ATUAL.remove();
+        try {
+            return acao.get();
+        } finally {
+            ATUAL.set(anterior);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ATUAL.get();
+    }
+}
@@ -0,0 +1,125 @@
+package com.challenge.investimentos.investimentos_api.config;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Pools de conexão da aplicação e o roteamento entre eles.
+ *
+ * O {@code DataSource} da aplicação é um {@link LazyConnectionDataSourceProxy}: a
+ * conexão física só é obtida no primeiro comando SQL, quando já se sabe se a transação
+ * é somente leitura e em qual bulkhead a requisição está.
+ * <ul>
+ *   <li>Transações {@code @Transactional(readOnly = true)} vão para a réplica, se houver
+ *       uma em {@code investimentos.datasource.replica.*} (com {@link LeituraComFallback}).</li>
+ *   <li>As demais transações de endpoints do bulkhead {@link TipoBulkhead#ESCRITA} usam o
+ *       pool {@code lote}, para que escritas longas não esgotem o pool principal.</li>
+ *   <li>Todo o resto, inclusive o Flyway, usa o pool {@code primaria}.</li>
+ * </ul>
+ */
+@Configuration
+public class RoteamentoDataSourceConfig {
+
+    /**
+     * Pool da primária, com as mesmas propriedades {@code spring.datasource.*} do pool padrão.
+     *
+     * @param propriedades propriedades {@code spring.datasource.*}
+     * @return pool de escrita
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaria(DataSourceProperties propriedades) {
+        HikariDataSource pool = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primaria");
+        return pool;
+    }
+
+    /**
+     * Pool das escritas em lote, na mesma base da primária. Tem uma conexão por vaga do
+     * bulkhead de escrita; o que roda após o commit usa o pool padrão
+     * ({@link RoteamentoBulkhead#naPrimaria}). Demais propriedades Hikari em
+     * {@code investimentos.bulkheads.escrita.pool.*}.
+     *
+     * @param propriedades propriedades {@code spring.datasource.*}
+     * @param concorrencia vagas do bulkhead de escrita
+     * @return pool das escritas em lote
+     */
+    @Bean
+    @ConfigurationProperties("investimentos.bulkheads.escrita.pool")
+    public HikariDataSource dataSourceLote(DataSourceProperties propriedades,
+                                           @Value("${investimentos.bulkheads.escrita.concorrencia:4}") int concorrencia) {
+        HikariDataSource pool = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("lote");
+        pool.setMaximumPoolSize(concorrencia);
+        pool.setMinimumIdle(0);
+        return pool;
+    }
+
+    /**
+     * Pool da réplica. Não impede a subida da aplicação se a réplica estiver fora e
+     * desiste de uma conexão em 2 s, para o desvio à primária ser rápido.
+     *
+     * @return pool de leitura
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "investimentos.datasource.replica", name = "jdbc-url")
+    @ConfigurationProperties("investimentos.datasource.replica")
+    public HikariDataSource dataSourceReplica() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica");
+        pool.setInitializationFailTimeout(-1);
+        pool.setConnectionTimeout(2000);
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    /**
+     * Conexões de leitura: réplica, ou primária enquanto a réplica estiver indisponível.
+     *
+     * @param dataSourceReplica pool de leitura
+     * @param dataSourcePrimaria pool de escrita
+     * @param intervaloMs tempo sem tentar a réplica depois de uma falha
+     * @return origem das conexões somente leitura
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "investimentos.datasource.replica", name = "jdbc-url")
+    public LeituraComFallback leituraComFallback(HikariDataSource dataSourceReplica,
+                                                 HikariDataSource dataSourcePrimaria,
+                                                 @Value("${investimentos.datasource.fallback.intervalo-ms:30000}") long intervaloMs) {
+        return new LeituraComFallback(dataSourceReplica, dataSourcePrimaria, intervaloMs);
+    }
+
+    /**
+     * {@code DataSource} usado por JPA, Flyway e {@code JdbcTemplate}.
+     *
+     * @param dataSourcePrimaria pool padrão
+     * @param dataSourceLote pool das escritas em lote
+     * @param leituraComFallback origem das conexões somente leitura, se houver réplica
+     * @return proxy que escolhe o pool conforme a transação e o bulkhead
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimaria, HikariDataSource dataSourceLote,
+                                 ObjectProvider<LeituraComFallback> leituraComFallback) {
+        RoteamentoBulkhead porBulkhead = new RoteamentoBulkhead();
+        porBulkhead.setTargetDataSources(Map.of(TipoBulkhead.ESCRITA, dataSourceLote));
+        porBulkhead.setDefaultTargetDataSource(dataSourcePrimaria);
+        porBulkhead.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy roteamento = new LazyConnectionDataSourceProxy(porBulkhead);
+        leituraComFallback.ifAvailable(roteamento::setReadOnlyDataSource);
+        return roteamento;
+    }
+}
@@ -1,5 +1,7 @@
 package com.challenge.investimentos.investimentos_api.controller;
 
+import com.challenge.investimentos.investimentos_api.config.Bulkhead;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
 import com.challenge.investimentos.investimentos_api.service.BancoService;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -42,6 +44,7 @@ public class BancoController {
         @ApiResponse(responseCode = "404", description = "Nenhum banco encontrado para o CPF informado"),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
+    @Bulkhead(TipoBulkhead.LEITURA)
     @GetMapping("/{cpf}")
     public List<String> listarBancosPorCpf(@PathVariable String cpf) {
         return bancoService.listarBancosPorCpf(cpf);
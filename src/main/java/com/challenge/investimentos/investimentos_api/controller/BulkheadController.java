@@ -0,0 +1,45 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasBulkheadDTO;
+import com.challenge.investimentos.investimentos_api.service.Bulkheads;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller que expõe a ocupação dos bulkheads de leitura e de escrita em lote.
+ */
+@RestController
+@RequestMapping("/api/bulkheads")
+@Tag(name = "Bulkheads", description = "Ocupação dos limites de concorrência por classe de carga")
+public class BulkheadController {
+
+    private final Bulkheads bulkheads;
+
+    /**
+     * Construtor para injeção dos bulkheads.
+     * @param bulkheads limites de concorrência por classe de carga
+     */
+    public BulkheadController(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Retorna vagas em uso, fila e contadores de cada bulkhead.
+     *
+     * @return estatísticas dos bulkheads
+     */
+    @Operation(summary = "Estatísticas dos bulkheads", description = "Vagas em uso, requisições na fila, admitidas e recusadas com 503 por bulkhead")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @GetMapping
+    public List<EstatisticasBulkheadDTO> estatisticas() {
+        return bulkheads.estatisticas();
+    }
+}
@@ -0,0 +1,43 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasCacheDTO;
+import com.challenge.investimentos.investimentos_api.service.CacheCarteiras;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller que expõe os contadores do cache de respostas de carteira.
+ */
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Cache", description = "Estatísticas do cache de respostas de carteira por CPF")
+public class CacheController {
+
+    private final CacheCarteiras cacheCarteiras;
+
+    /**
+     * Construtor para injeção do cache de carteiras.
+     * @param cacheCarteiras cache de respostas de carteira
+     */
+    public CacheController(CacheCarteiras cacheCarteiras) {
+        this.cacheCarteiras = cacheCarteiras;
+    }
+
+    /**
+     * Retorna acertos, faltas, descartes, invalidações e ocupação do cache de carteiras.
+     *
+     * @return estatísticas do cache
+     */
+    @Operation(summary = "Estatísticas do cache de carteiras", description = "Acertos, faltas, descartes por tamanho, invalidações e bytes ocupados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @GetMapping("/carteiras")
+    public EstatisticasCacheDTO estatisticasCarteiras() {
+        return cacheCarteiras.estatisticas();
+    }
+}
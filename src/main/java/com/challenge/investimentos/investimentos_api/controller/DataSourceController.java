@@ -0,0 +1,43 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasDataSourceDTO;
+import com.challenge.investimentos.investimentos_api.service.PoolsConexao;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller que expõe os contadores dos pools de conexão.
+ */
+@RestController
+@RequestMapping("/api/datasource")
+@Tag(name = "DataSource", description = "Pools de conexão da primária e da réplica de leitura")
+public class DataSourceController {
+
+    private final PoolsConexao poolsConexao;
+
+    /**
+     * Construtor para injeção dos pools de conexão.
+     * @param poolsConexao leitura dos contadores dos pools
+     */
+    public DataSourceController(PoolsConexao poolsConexao) {
+        this.poolsConexao = poolsConexao;
+    }
+
+    /**
+     * Retorna as conexões de cada pool e a situação da réplica de leitura.
+     *
+     * @return estatísticas dos pools
+     */
+    @Operation(summary = "Estatísticas dos pools de conexão", description = "Conexões ativas, ociosas e em espera por pool; leituras desviadas da réplica para a primária")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @GetMapping("/pools")
+    public EstatisticasDataSourceDTO estatisticasPools() {
+        return poolsConexao.estatisticas();
+    }
+}
@@ -0,0 +1,59 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.config.Bulkhead;
+import com.challenge.investimentos.investimentos_api.dto.ResultadoIndiceDTO;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.challenge.investimentos.investimentos_api.service.IndiceCarteiras;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller responsável pelas consultas ao índice invertido de carteiras
+ * ("quais usuários possuem X no banco Y").
+ */
+@RestController
+@RequestMapping("/api/indice")
+@Tag(name = "Índice de Carteiras", description = "Consultas de usuários por banco, tipo e nome de investimento")
+public class IndiceController {
+
+    private final IndiceCarteiras indiceCarteiras;
+
+    /**
+     * Construtor para injeção do índice de carteiras.
+     * @param indiceCarteiras índice invertido de carteiras
+     */
+    public IndiceController(IndiceCarteiras indiceCarteiras) {
+        this.indiceCarteiras = indiceCarteiras;
+    }
+
+    /**
+     * Lista os usuários que atendem a uma expressão AND/OR sobre bancos, tipos e nomes de investimento.
+     *
+     * @param q expressão de consulta
+     * @param limite quantidade máxima de CPFs devolvidos
+     * @return total de usuários encontrados e os CPFs dos primeiros
+     */
+    @Operation(
+        summary = "Consulta usuários no índice de carteiras",
+        description = "Combina termos banco:, tipo: e nome: com AND, OR e parênteses. "
+                + "Exemplo: tipo:CDB AND (banco:Nubank OR banco:\"Banco do Brasil\")."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Consulta executada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Expressão de consulta inválida"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @Bulkhead(TipoBulkhead.LEITURA)
+    @GetMapping("/usuarios")
+    public ResultadoIndiceDTO consultarUsuarios(
+            @Parameter(description = "Expressão de consulta, ex.: tipo:CDB AND banco:Nubank")
+            @RequestParam String q,
+            @Parameter(description = "Quantidade máxima de CPFs devolvidos (padrão 100, máximo 500)")
+            @RequestParam(required = false) Integer limite) {
+        return indiceCarteiras.consultar(q, limite);
+    }
+}
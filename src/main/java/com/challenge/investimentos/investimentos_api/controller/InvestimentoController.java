@@ -1,18 +1,34 @@
 package com.challenge.investimentos.investimentos_api.controller;
 
+import com.challenge.investimentos.investimentos_api.config.Bulkhead;
+import com.challenge.investimentos.investimentos_api.dto.AnaliseCarteiraDTO;
 import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
 import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
-import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.enums.FormatoExportacao;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.challenge.investimentos.investimentos_api.service.AnaliseCarteiraService;
+import com.challenge.investimentos.investimentos_api.service.CacheCarteiras;
+import com.challenge.investimentos.investimentos_api.service.ExportacaoService;
 import com.challenge.investimentos.investimentos_api.service.InvestimentoService;
+import com.challenge.investimentos.investimentos_api.service.SelecaoCampos;
+import com.challenge.investimentos.investimentos_api.service.VersoesCarteira;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -25,14 +41,28 @@ import java.util.List;
 public class InvestimentoController {
 
     private final InvestimentoService investimentoService;
+    private final ExportacaoService exportacaoService;
+    private final CacheCarteiras cacheCarteiras;
+    private final VersoesCarteira versoesCarteira;
+    private final AnaliseCarteiraService analiseCarteiraService;
 
     /**
-     * Injeta o serviço de investimentos.
+     * Injeta os serviços de investimentos, de exportação e de análise, o cache e as versões de carteira.
      * @param investimentoService serviço de investimentos
+     * @param exportacaoService serviço de exportação
+     * @param cacheCarteiras cache de respostas de carteira por CPF
+     * @param versoesCarteira ETags e pré-condições por versão
+     * @param analiseCarteiraService indicadores de desempenho da carteira
      */
     @Autowired
-    public InvestimentoController(InvestimentoService investimentoService) {
+    public InvestimentoController(InvestimentoService investimentoService, ExportacaoService exportacaoService,
+                                  CacheCarteiras cacheCarteiras, VersoesCarteira versoesCarteira,
+                                  AnaliseCarteiraService analiseCarteiraService) {
         this.investimentoService = investimentoService;
+        this.exportacaoService = exportacaoService;
+        this.cacheCarteiras = cacheCarteiras;
+        this.versoesCarteira = versoesCarteira;
+        this.analiseCarteiraService = analiseCarteiraService;
     }
 
     /**
@@ -41,6 +71,7 @@ public class InvestimentoController {
      * @param dto DTO contendo os dados do usuário e seus investimentos
      * @return ResponseEntity com mensagem de sucesso ou erro
      */
+    @Bulkhead(TipoBulkhead.ESCRITA)
     @PostMapping
     @Operation(summary = "Criar novo investimento para o usuário", description = "Cria um novo investimento para o usuário informado")
     @ApiResponses(value = {
@@ -58,15 +89,21 @@ public class InvestimentoController {
      * @param dto DTO contendo os dados do usuário e seus investimentos
      * @return ResponseEntity com mensagem de sucesso ou erro
      */
+    @Bulkhead(TipoBulkhead.ESCRITA)
     @PutMapping
     @Operation(summary = "Salvar ou atualizar investimentos do usuário", description = "Recebe os dados de investimentos e salva ou atualiza para o usuário informado")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Investimentos salvos com sucesso"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos enviados"),
+            @ApiResponse(responseCode = "409", description = "Carteira alterada em paralelo"),
+            @ApiResponse(responseCode = "412", description = "Carteira alterada desde a ETag enviada em If-Match"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<String> salvarInvestimentos(@Valid @RequestBody UsuarioInvestimentoDTO dto) {
-        return investimentoService.salvarInvestimentos(dto);
+    public ResponseEntity<String> salvarInvestimentos(
+            @Valid @RequestBody UsuarioInvestimentoDTO dto,
+            @Parameter(description = "ETag da carteira (GET /api/usuario-investimentos/{cpf}); a gravação só ocorre se ela ainda for a atual")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String seCorresponder) {
+        return investimentoService.salvarInvestimentos(dto, seCorresponder);
     }
 
     /**
@@ -82,51 +119,200 @@ public class InvestimentoController {
             @ApiResponse(responseCode = "200", description = "Investimento atualizado com sucesso"),
             @ApiResponse(responseCode = "404", description = "Investimento não encontrado"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos enviados"),
+            @ApiResponse(responseCode = "409", description = "Investimento alterado em paralelo"),
+            @ApiResponse(responseCode = "412", description = "Investimento alterado desde a ETag enviada em If-Match"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<String> atualizarInvestimento(@PathVariable Long id, @Valid @RequestBody InvestimentoDTO dto) {
-        return investimentoService.atualizarInvestimento(id, dto);
+    public ResponseEntity<String> atualizarInvestimento(
+            @PathVariable Long id,
+            @Valid @RequestBody InvestimentoDTO dto,
+            @Parameter(description = "ETag do investimento (GET /api/investimentos/{id}/rentabilidade); a gravação só ocorre se ela ainda for a atual")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String seCorresponder) {
+        return investimentoService.atualizarInvestimento(id, dto, seCorresponder);
     }
 
     /**
-     * Lista todos os investimentos cadastrados.
+     * Insere ou atualiza, por data, pontos da série de rentabilidade de um investimento.
      *
-     * @return ResponseEntity com a lista de investimentos
+     * @param id ID do investimento
+     * @param pontos pontos novos ou alterados (somente esses são enviados)
+     * @return ResponseEntity com a quantidade de linhas alteradas
+     */
+    @Bulkhead(TipoBulkhead.ESCRITA)
+    @PatchMapping("/{id}/rentabilidade")
+    @Operation(summary = "Acrescentar ou corrigir rentabilidades diárias",
+            description = "Recebe somente os dias novos ou alterados e faz upsert por data, sem regravar o histórico. "
+                    + "A quantidade de linhas alteradas segue no cabeçalho X-Linhas-Alteradas.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rentabilidades atualizadas com sucesso"),
+            @ApiResponse(responseCode = "404", description = "Investimento não encontrado"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos enviados"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<String> acrescentarRentabilidades(@PathVariable Long id,
+                                                            @Valid @RequestBody List<RentabilidadeDiariaDTO> pontos) {
+        return investimentoService.acrescentarRentabilidades(id, pontos);
+    }
+
+    /**
+     * Lista os investimentos cadastrados, paginados por cursor.
+     *
+     * @param cursor cursor da próxima página, recebido no cabeçalho {@code X-Proximo-Cursor}
+     * @param limite quantidade máxima de investimentos por página
+     * @param fields campos do investimento a retornar (opcional)
+     * @param include relações a carregar, como {@code rentabilidadeDiaria} (opcional)
+     * @return ResponseEntity com a página de investimentos
      */
+    @Bulkhead(TipoBulkhead.LEITURA)
     @GetMapping
-    @Operation(summary = "Listar todos os investimentos", description = "Retorna uma lista com todos os investimentos cadastrados")
+    @Operation(summary = "Listar todos os investimentos", description = "Retorna uma página de investimentos ordenada por ID. "
+            + "Quando houver mais registros, o cabeçalho X-Proximo-Cursor traz o cursor da próxima página. "
+            + "fields/include limitam os campos retornados; sem a série diária, ela não é consultada")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de investimentos retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor de paginação ou campo inválido"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<MappingJacksonValue> listarTodosInvestimentos(
+            @Parameter(description = "Cursor opaco da próxima página") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (padrão 100, máximo 500)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos do investimento a retornar, separados por vírgula (padrão: todos)")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Relações a carregar: rentabilidadeDiaria (vazio para nenhuma)")
+            @RequestParam(required = false) String include) {
+        SelecaoCampos selecao = SelecaoCampos.de(fields, include);
+        return selecao.aplicar(investimentoService.listarTodos(cursor, limite, selecao));
+    }
+
+    /**
+     * Exporta todos os investimentos e suas rentabilidades diárias em streaming.
+     *
+     * O corpo é escrito direto no stream da resposta, à medida que as linhas são
+     * lidas do banco, sem montar a lista completa em memória.
+     *
+     * @param formato formato de saída (NDJSON ou CSV)
+     * @return ResponseEntity com o corpo em streaming
+     */
+    @GetMapping("/exportacao")
+    @Operation(summary = "Exportar investimentos e rentabilidades", description = "Exporta todos os investimentos com suas rentabilidades diárias "
+            + "em NDJSON (um investimento por linha) ou CSV (uma linha por rentabilidade diária), em streaming")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Formato inválido"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<List<InvestimentoDTO>> listarTodosInvestimentos() {
-        ResponseEntity<List<Investimento>> resp = investimentoService.listarTodos();
-        List<Investimento> body = resp.getBody();
-        List<InvestimentoDTO> dtos = body != null ? body.stream().map(InvestimentoDTO::fromEntity).toList() : List.of();
-        return ResponseEntity.status(resp.getStatusCode()).body(dtos);
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Formato de saída: NDJSON ou CSV") @RequestParam(defaultValue = "NDJSON") FormatoExportacao formato) {
+        StreamingResponseBody corpo = saida -> exportacaoService.exportar(formato, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"investimentos." + formato.getExtensao() + "\"")
+                .body(corpo);
     }
 
     /**
      * Lista todos os investimentos de um usuário pelo CPF.
      *
      * @param cpf CPF do usuário
+     * @param de primeira data das rentabilidades diárias (opcional)
+     * @param ate última data das rentabilidades diárias (opcional)
+     * @param fields campos do investimento a retornar (opcional)
+     * @param include relações a carregar, como {@code rentabilidadeDiaria} (opcional)
      * @return ResponseEntity com a lista de investimentos do usuário
      */
+    @Bulkhead(TipoBulkhead.LEITURA)
     @GetMapping("/usuario/{cpf}")
-    @Operation(summary = "Listar investimentos por CPF do usuário", description = "Retorna uma lista de investimentos do usuário informado pelo CPF")
+    @Operation(summary = "Listar investimentos por CPF do usuário", description = "Retorna uma lista de investimentos do usuário informado pelo CPF. "
+            + "Com from/to, a série de rentabilidades diárias traz somente os dias do período; "
+            + "fields/include limitam os campos retornados. A resposta completa é servida de cache (cabeçalho X-Cache).")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de investimentos do usuário retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Período ou campo inválido"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<List<InvestimentoDTO>> listarPorCpf(@PathVariable String cpf) {
-        ResponseEntity<List<Investimento>> resp = investimentoService.listarPorCpf(cpf);
-        if (!resp.getStatusCode().is2xxSuccessful()) {
-            return ResponseEntity.status(resp.getStatusCode()).build();
+    public ResponseEntity<?> listarPorCpf(
+            @PathVariable String cpf,
+            @Parameter(description = "Primeira data da série (dd-MM-yyyy)")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate de,
+            @Parameter(description = "Última data da série (dd-MM-yyyy)")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate ate,
+            @Parameter(description = "Campos do investimento a retornar, separados por vírgula (padrão: todos)")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Relações a carregar: rentabilidadeDiaria (vazio para nenhuma)")
+            @RequestParam(required = false) String include,
+            @Parameter(description = "ETag já recebida; se a carteira não mudou, a resposta é 304")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        if (fields == null && include == null && de == null && ate == null) {
+            return cacheCarteiras.obter(cpf, CacheCarteiras.Visao.INVESTIMENTOS, seNenhumCorresponder,
+                    () -> versoesCarteira.lerCarteira(cpf, null, null, SelecaoCampos.COMPLETA, seNenhumCorresponder,
+                            () -> investimentoService.listarPorCpf(cpf, null, null, SelecaoCampos.COMPLETA)));
         }
-        List<Investimento> body = resp.getBody();
-        List<InvestimentoDTO> dtos = body != null ? body.stream().map(InvestimentoDTO::fromEntity).toList() : List.of();
-        return ResponseEntity.ok(dtos);
+        SelecaoCampos selecao = SelecaoCampos.de(fields, include);
+        return versoesCarteira.lerCarteira(cpf, de, ate, selecao, seNenhumCorresponder,
+                () -> selecao.aplicar(investimentoService.listarPorCpf(cpf, de, ate, selecao)));
+    }
+
+    /**
+     * Calcula os indicadores de desempenho de cada investimento e da carteira de um usuário.
+     *
+     * @param cpf CPF do usuário
+     * @param de primeira data da série (opcional)
+     * @param ate última data da série (opcional)
+     * @param taxaLivreRisco taxa anual livre de risco, como fração
+     * @return ResponseEntity com a análise da carteira
+     */
+    @Bulkhead(TipoBulkhead.LEITURA)
+    @GetMapping("/usuario/{cpf}/analise")
+    @Operation(summary = "Analisar desempenho da carteira", description = "Calcula, por investimento e para a carteira "
+            + "consolidada, o retorno ponderado pelo tempo (acumulado e anualizado), a volatilidade anualizada, "
+            + "a maior queda (max drawdown), o índice de Sharpe e o melhor e o pior dia, sobre os montantes diários "
+            + "do período from/to. Na carteira, investimentos que começam no meio do período entram como aporte.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Análise calculada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Período ou taxa livre de risco inválidos"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<AnaliseCarteiraDTO> analisarCarteira(
+            @PathVariable String cpf,
+            @Parameter(description = "Primeira data da série (dd-MM-yyyy)")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate de,
+            @Parameter(description = "Última data da série (dd-MM-yyyy)")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate ate,
+            @Parameter(description = "Taxa anual livre de risco para o índice de Sharpe, como fração (ex.: 0.1075)")
+            @RequestParam(defaultValue = "0") double taxaLivreRisco) {
+        return analiseCarteiraService.analisar(cpf, de, ate, taxaLivreRisco);
+    }
+
+    /**
+     * Lista as rentabilidades diárias de um investimento em um período.
+     *
+     * @param id ID do investimento
+     * @param de primeira data (opcional)
+     * @param ate última data (opcional)
+     * @return ResponseEntity com a série ordenada por data
+     */
+    @Bulkhead(TipoBulkhead.LEITURA)
+    @GetMapping("/{id}/rentabilidade")
+    @Operation(summary = "Listar rentabilidades diárias do investimento", description = "Retorna a série do investimento, "
+            + "ordenada por data, limitada ao período from/to quando informado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Série retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Período inválido"),
+            @ApiResponse(responseCode = "404", description = "Investimento não encontrado"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<?> listarRentabilidades(
+            @PathVariable Long id,
+            @Parameter(description = "Primeira data da série (dd-MM-yyyy)")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate de,
+            @Parameter(description = "Última data da série (dd-MM-yyyy)")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate ate,
+            @Parameter(description = "ETag já recebida; se o investimento não mudou, a resposta é 304")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        return versoesCarteira.lerInvestimento(id, de, ate, seNenhumCorresponder,
+                () -> investimentoService.listarRentabilidades(id, de, ate));
     }
 
     /**
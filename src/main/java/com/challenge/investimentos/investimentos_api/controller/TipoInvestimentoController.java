@@ -1,6 +1,8 @@
 package com.challenge.investimentos.investimentos_api.controller;
 
+import com.challenge.investimentos.investimentos_api.config.Bulkhead;
 import com.challenge.investimentos.investimentos_api.dto.TipoInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
 import com.challenge.investimentos.investimentos_api.service.TipoInvestimentoService;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -43,6 +45,7 @@ public class TipoInvestimentoController {
         @ApiResponse(responseCode = "404", description = "Nenhum tipo de investimento encontrado para o CPF informado"),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
+    @Bulkhead(TipoBulkhead.LEITURA)
     @GetMapping("/{cpf}")
     public List<TipoInvestimentoDTO> listarTiposPorCpf(@PathVariable String cpf) {
         return tipoInvestimentoService.listarTiposPorCpf(cpf);
@@ -1,19 +1,35 @@
 package com.challenge.investimentos.investimentos_api.controller;
 
+import com.challenge.investimentos.investimentos_api.config.Bulkhead;
+import com.challenge.investimentos.investimentos_api.dto.AlteracoesCarteiraDTO;
+import com.challenge.investimentos.investimentos_api.dto.BuscaLoteDTO;
+import com.challenge.investimentos.investimentos_api.dto.CadastroLoteDTO;
+import com.challenge.investimentos.investimentos_api.dto.ResultadoCadastroLoteDTO;
 import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
-import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.challenge.investimentos.investimentos_api.service.AlteracoesCarteira;
+import com.challenge.investimentos.investimentos_api.service.CacheCarteiras;
+import com.challenge.investimentos.investimentos_api.service.NotificacoesCarteira;
+import com.challenge.investimentos.investimentos_api.service.SelecaoCampos;
 import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.service.VersoesCarteira;
 import com.challenge.investimentos.investimentos_api.dto.UsuarioCadastroDTO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import jakarta.validation.Valid;
 
-import java.util.List;
+import java.time.LocalDate;
 
 /**
  * Controller responsável pelos endpoints relacionados a usuários investidores.
@@ -27,6 +43,18 @@ public class UsuarioInvestimentoController {
     @Autowired
     private UsuarioInvestimentoService service;
 
+    @Autowired
+    private CacheCarteiras cacheCarteiras;
+
+    @Autowired
+    private VersoesCarteira versoesCarteira;
+
+    @Autowired
+    private AlteracoesCarteira alteracoesCarteira;
+
+    @Autowired
+    private NotificacoesCarteira notificacoesCarteira;
+
     /**
      * Salva ou atualiza todos os investimentos associados a um usuário investidor.
      * Essa operação sobrescreve os investimentos existentes do usuário.
@@ -34,6 +62,7 @@ public class UsuarioInvestimentoController {
      * @param dto DTO contendo o CPF do usuário e a lista de investimentos
      * @return ResponseEntity com mensagem de sucesso ou erro
      */
+    @Bulkhead(TipoBulkhead.ESCRITA)
     @PutMapping
     @Operation(
         summary = "Salvar ou atualizar todos os investimentos do usuário",
@@ -42,60 +71,183 @@ public class UsuarioInvestimentoController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Investimentos salvos com sucesso"),
             @ApiResponse(responseCode = "400", description = "Dados inválidos enviados"),
+            @ApiResponse(responseCode = "409", description = "Carteira alterada em paralelo"),
+            @ApiResponse(responseCode = "412", description = "Carteira alterada desde a ETag enviada em If-Match"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<String> salvarInvestimentos(@Valid @RequestBody UsuarioInvestimentoDTO dto) {
-        return service.salvarInvestimentos(dto);
+    public ResponseEntity<String> salvarInvestimentos(
+            @Valid @RequestBody UsuarioInvestimentoDTO dto,
+            @Parameter(description = "ETag da carteira (GET /api/usuario-investimentos/{cpf}); a gravação só ocorre se ela ainda for a atual")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String seCorresponder) {
+        return service.salvarInvestimentos(dto, seCorresponder);
     }
 
     /**
-     * Lista todos os usuários investidores cadastrados.
+     * Lista os usuários investidores cadastrados, paginados por cursor.
      *
-     * @return ResponseEntity com a lista de usuários investidores
+     * @param cursor cursor da próxima página, recebido no cabeçalho {@code X-Proximo-Cursor}
+     * @param limite quantidade máxima de usuários por página
+     * @param fields campos do investimento a retornar (opcional)
+     * @param include relações a carregar, como {@code rentabilidadeDiaria} (opcional)
+     * @return ResponseEntity com a página de usuários investidores
      */
+    @Bulkhead(TipoBulkhead.LEITURA)
     @GetMapping
     @Operation(
         summary = "Listar todos os usuários investidores",
-        description = "Retorna a lista completa de usuários investidores cadastrados"
+        description = "Retorna uma página de usuários investidores ordenada por ID. "
+            + "Quando houver mais registros, o cabeçalho X-Proximo-Cursor traz o cursor da próxima página. "
+            + "fields/include limitam os campos retornados dos investimentos"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor de paginação ou campo inválido"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<List<UsuarioInvestimentoDTO>> listarTodosUsuarios() {
-        ResponseEntity<List<UsuarioInvestimento>> resp = service.listarTodosUsuarios();
-        List<UsuarioInvestimento> body = resp.getBody();
-        List<UsuarioInvestimentoDTO> dtos = body != null ? body.stream().map(UsuarioInvestimentoDTO::fromEntity).toList() : List.of();
-        return ResponseEntity.status(resp.getStatusCode()).body(dtos);
+    public ResponseEntity<MappingJacksonValue> listarTodosUsuarios(
+            @Parameter(description = "Cursor opaco da próxima página") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (padrão 100, máximo 500)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos do investimento a retornar, separados por vírgula (padrão: todos)")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Relações a carregar: rentabilidadeDiaria (vazio para nenhuma)")
+            @RequestParam(required = false) String include) {
+        SelecaoCampos selecao = SelecaoCampos.de(fields, include);
+        return selecao.aplicar(service.listarTodosUsuarios(cursor, limite, selecao));
     }
 
     /**
      * Busca um usuário investidor pelo CPF informado.
      *
      * @param cpf CPF do usuário investidor
+     * @param de primeira data das rentabilidades diárias (opcional)
+     * @param ate última data das rentabilidades diárias (opcional)
+     * @param fields campos do investimento a retornar (opcional)
+     * @param include relações a carregar, como {@code rentabilidadeDiaria} (opcional)
      * @return ResponseEntity com o usuário encontrado ou mensagem de erro
      */
+    @Bulkhead(TipoBulkhead.LEITURA)
     @GetMapping("/{cpf}")
     @Operation(
         summary = "Buscar usuário investidor pelo CPF",
-        description = "Retorna o usuário investidor que possui o CPF informado"
+        description = "Retorna o usuário investidor que possui o CPF informado. "
+                + "Com from/to, a série de rentabilidades diárias traz somente os dias do período; "
+                + "fields/include limitam os campos retornados dos investimentos. "
+                + "A resposta completa é servida de cache (cabeçalho X-Cache)."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuário encontrado"),
+            @ApiResponse(responseCode = "400", description = "Período ou campo inválido"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<?> buscarPorCpf(@PathVariable String cpf) {
-        ResponseEntity<?> resp = service.buscarPorCpf(cpf);
-        if (!resp.getStatusCode().is2xxSuccessful()) {
-            return ResponseEntity.status(resp.getStatusCode()).build();
-        }
-        Object body = resp.getBody();
-        if (body instanceof UsuarioInvestimento usuario) {
-            UsuarioInvestimentoDTO dto = UsuarioInvestimentoDTO.fromEntity(usuario);
-            return ResponseEntity.ok(dto);
+    public ResponseEntity<?> buscarPorCpf(
+            @PathVariable String cpf,
+            @Parameter(description = "Primeira data da série (dd-MM-yyyy)")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate de,
+            @Parameter(description = "Última data da série (dd-MM-yyyy)")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate ate,
+            @Parameter(description = "Campos do investimento a retornar, separados por vírgula (padrão: todos)")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Relações a carregar: rentabilidadeDiaria (vazio para nenhuma)")
+            @RequestParam(required = false) String include,
+            @Parameter(description = "ETag já recebida; se a carteira não mudou, a resposta é 304")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder) {
+        if (fields == null && include == null && de == null && ate == null) {
+            return cacheCarteiras.obter(cpf, CacheCarteiras.Visao.USUARIO, seNenhumCorresponder,
+                    () -> versoesCarteira.lerCarteira(cpf, null, null, SelecaoCampos.COMPLETA, seNenhumCorresponder,
+                            () -> service.buscarPorCpf(cpf, null, null, SelecaoCampos.COMPLETA)));
         }
-        return ResponseEntity.ok().build();
+        SelecaoCampos selecao = SelecaoCampos.de(fields, include);
+        return versoesCarteira.lerCarteira(cpf, de, ate, selecao, seNenhumCorresponder,
+                () -> selecao.aplicar(service.buscarPorCpf(cpf, de, ate, selecao)));
+    }
+
+    /**
+     * Busca vários usuários investidores pelos CPFs informados.
+     *
+     * @param dto DTO com a lista de CPFs
+     * @param de primeira data das rentabilidades diárias (opcional)
+     * @param ate última data das rentabilidades diárias (opcional)
+     * @param fields campos do investimento a retornar (opcional)
+     * @param include relações a carregar, como {@code rentabilidadeDiaria} (opcional)
+     * @return ResponseEntity com os usuários encontrados e os CPFs não encontrados
+     */
+    @Bulkhead(TipoBulkhead.LEITURA)
+    @PostMapping("/busca")
+    @Operation(
+        summary = "Buscar usuários investidores por vários CPFs",
+        description = "Retorna, na ordem dos CPFs enviados (até 5.000), os usuários encontrados com seus investimentos, "
+                + "e lista à parte os CPFs inválidos ou não cadastrados. "
+                + "from/to filtram a série de rentabilidades diárias; fields/include limitam os campos dos investimentos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Busca realizada"),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou acima do limite, período ou campo inválido"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<MappingJacksonValue> buscarPorCpfs(
+            @Valid @RequestBody BuscaLoteDTO dto,
+            @Parameter(description = "Primeira data da série (dd-MM-yyyy)")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate de,
+            @Parameter(description = "Última data da série (dd-MM-yyyy)")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "dd-MM-yyyy") LocalDate ate,
+            @Parameter(description = "Campos do investimento a retornar, separados por vírgula (padrão: todos)")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Relações a carregar: rentabilidadeDiaria (vazio para nenhuma)")
+            @RequestParam(required = false) String include) {
+        SelecaoCampos selecao = SelecaoCampos.de(fields, include);
+        return selecao.aplicar(service.buscarPorCpfs(dto.getCpfs(), de, ate, selecao));
+    }
+
+    /**
+     * Lista as alterações da carteira do usuário desde a última sincronização do cliente.
+     *
+     * @param cpf CPF do usuário investidor
+     * @param desde última sequência já aplicada pelo cliente ({@code 0} para todas)
+     * @return ResponseEntity com as alterações, ou mensagem de erro
+     */
+    @Bulkhead(TipoBulkhead.LEITURA)
+    @GetMapping("/{cpf}/changes")
+    @Operation(
+        summary = "Listar alterações da carteira desde uma sequência",
+        description = "Retorna somente os investimentos e as faixas da série diária alterados depois de since. "
+                + "O campo ate (e o cabeçalho X-Sequencia-Alteracoes) é o since da próxima sincronização."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Alterações desde a sequência informada"),
+            @ApiResponse(responseCode = "400", description = "Sequência inválida"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "410", description = "Alterações já compactadas: baixe a carteira completa"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<?> listarAlteracoes(
+            @PathVariable String cpf,
+            @Parameter(description = "Última sequência já aplicada pelo cliente (0 para todas)")
+            @RequestParam(name = "since", defaultValue = "0") long desde) {
+        ResponseEntity<?> resposta = alteracoesCarteira.listarDesde(cpf, desde);
+        return resposta.getBody() instanceof AlteracoesCarteiraDTO
+                ? SelecaoCampos.de(null, "").aplicar(resposta) : resposta;
+    }
+
+    /**
+     * Abre uma conexão Server-Sent Events que avisa quando a carteira do usuário muda.
+     *
+     * @param cpf CPF do usuário investidor
+     * @return ResponseEntity com o fluxo de eventos, ou 404 se o usuário não existir
+     */
+    @GetMapping(value = "/{cpf}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Assinar alterações da carteira (SSE)",
+        description = "Envia um evento 'carteira' com a sequência atual na conexão e a cada escrita confirmada; "
+                + "o conteúdo alterado é buscado em /changes?since=N. Envia 'removida' e encerra se o usuário for removido."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fluxo de eventos aberto"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<SseEmitter> assinarAlteracoes(@PathVariable String cpf) {
+        return notificacoesCarteira.assinar(cpf);
     }
 
     /**
@@ -113,6 +265,28 @@ public class UsuarioInvestimentoController {
         return service.criarUsuarioInvestimento(dto.getCpfIdentificacao());
     }
 
+    /**
+     * Cadastra vários usuários investidores de uma vez.
+     *
+     * @param dto DTO com a lista de CPFs
+     * @return ResponseEntity com os totais e a situação de cada CPF
+     */
+    @Bulkhead(TipoBulkhead.ESCRITA)
+    @PostMapping("/lote")
+    @Operation(
+        summary = "Cadastrar usuários investidores em lote",
+        description = "Cadastra até 10.000 CPFs por requisição. Cada CPF recebe uma situação: "
+                + "CRIADO, EXISTENTE, INVALIDO ou REPETIDO; os inválidos não impedem o cadastro dos demais."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote processado; situação de cada CPF no corpo"),
+            @ApiResponse(responseCode = "400", description = "Lista vazia ou acima do limite"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<ResultadoCadastroLoteDTO> cadastrarEmLote(@Valid @RequestBody CadastroLoteDTO dto) {
+        return service.cadastrarEmLote(dto.getCpfs());
+    }
+
     /**
      * Deleta um usuário investidor identificado pelo CPF informado.
      *
@@ -0,0 +1,16 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import com.challenge.investimentos.investimentos_api.enums.EntidadeAlteracao;
+
+import java.time.LocalDate;
+
+/**
+ * Chave alterada registrada no log de alterações da carteira.
+ *
+ * @param entidade investimento ou faixa da série diária
+ * @param investimentoId ID do investimento
+ * @param dataInicial primeira data da faixa ({@code null} para investimento)
+ * @param dataFinal última data da faixa ({@code null} para investimento)
+ */
+public record AlteracaoProjecao(EntidadeAlteracao entidade, Long investimentoId, LocalDate dataInicial, LocalDate dataFinal) {
+}
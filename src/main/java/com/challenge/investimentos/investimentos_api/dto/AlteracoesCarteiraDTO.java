@@ -0,0 +1,17 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.util.List;
+
+/**
+ * Alterações da carteira de um usuário desde uma sequência conhecida pelo cliente.
+ *
+ * @param cpf CPF do usuário
+ * @param desde sequência informada pelo cliente ({@code since})
+ * @param ate última sequência incluída; é o {@code since} da próxima sincronização
+ * @param investimentos investimentos inseridos ou alterados, no estado atual e sem a série diária
+ * @param investimentosRemovidos IDs dos investimentos removidos (com toda a sua série)
+ * @param rentabilidades faixas alteradas da série diária dos investimentos que continuam na carteira
+ */
+public record AlteracoesCarteiraDTO(String cpf, long desde, long ate, List<InvestimentoDTO> investimentos,
+                                    List<Long> investimentosRemovidos, List<FaixaRentabilidadeDTO> rentabilidades) {
+}
@@ -0,0 +1,15 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.util.List;
+
+/**
+ * Análise de desempenho da carteira de um usuário: a carteira consolidada e cada investimento.
+ *
+ * @param cpfIdentificacao CPF do usuário
+ * @param taxaLivreRisco taxa anual livre de risco usada no índice de Sharpe
+ * @param carteira indicadores da carteira consolidada
+ * @param investimentos indicadores de cada investimento, em ordem de ID
+ */
+public record AnaliseCarteiraDTO(String cpfIdentificacao, double taxaLivreRisco, IndicadoresRentabilidadeDTO carteira,
+                                 List<AnaliseInvestimentoDTO> investimentos) {
+}
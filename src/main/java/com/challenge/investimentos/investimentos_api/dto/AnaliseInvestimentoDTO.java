@@ -0,0 +1,14 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Indicadores de desempenho de um investimento da carteira.
+ *
+ * @param investimentoId ID do investimento
+ * @param nomeBanco nome do banco
+ * @param tipoInvestimento tipo do investimento
+ * @param nomeInvestimento nome do investimento
+ * @param indicadores indicadores da série do investimento no período
+ */
+public record AnaliseInvestimentoDTO(Long investimentoId, String nomeBanco, String tipoInvestimento,
+                                     String nomeInvestimento, IndicadoresRentabilidadeDTO indicadores) {
+}
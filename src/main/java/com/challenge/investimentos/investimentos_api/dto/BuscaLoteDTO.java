@@ -0,0 +1,41 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO utilizado para buscar vários usuários investidores de uma vez.
+ * CPFs inválidos ou não cadastrados não impedem a busca dos demais.
+ */
+public class BuscaLoteDTO {
+
+    /** Quantidade máxima de CPFs por requisição. */
+    public static final int MAXIMO_CPFS = 5_000;
+
+    /**
+     * CPFs a buscar (apenas dígitos ou com máscara).
+     */
+    @Schema(example = "[\"12345678909\", \"529.982.247-25\"]")
+    @NotEmpty(message = "cpfs é obrigatório")
+    @Size(max = MAXIMO_CPFS, message = "cpfs deve ter no máximo " + MAXIMO_CPFS + " itens")
+    private List<String> cpfs;
+
+    /**
+     * Obtém os CPFs a buscar.
+     * @return lista de CPFs
+     */
+    public List<String> getCpfs() {
+        return cpfs;
+    }
+
+    /**
+     * Define os CPFs a buscar.
+     * @param cpfs lista de CPFs
+     */
+    public void setCpfs(List<String> cpfs) {
+        this.cpfs = cpfs;
+    }
+}
@@ -0,0 +1,16 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+
+/**
+ * Projeção das chaves de um investimento usadas pelo índice invertido de carteiras.
+ *
+ * @param usuarioId ID do usuário dono do investimento
+ * @param cpfIdentificacao CPF do usuário dono do investimento
+ * @param nomeBanco nome do banco
+ * @param tipoInvestimento tipo do investimento
+ * @param nomeInvestimento nome do instrumento
+ */
+public record ChaveIndiceProjecao(Long usuarioId, String cpfIdentificacao, String nomeBanco,
+                                  TipoInvestimentoEnum tipoInvestimento, String nomeInvestimento) {
+}
@@ -0,0 +1,16 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Ocupação e contadores de um bulkhead.
+ *
+ * @param nome nome do bulkhead
+ * @param concorrencia vagas (requisições atendidas ao mesmo tempo)
+ * @param emUso vagas ocupadas
+ * @param fila lugares na fila de espera
+ * @param aguardando requisições esperando uma vaga
+ * @param admitidas requisições atendidas desde a subida
+ * @param rejeitadas requisições recusadas com 503 desde a subida
+ */
+public record EstatisticasBulkheadDTO(String nome, int concorrencia, int emUso, int fila, int aguardando,
+                                      long admitidas, long rejeitadas) {
+}
@@ -0,0 +1,16 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Contadores de uso do cache de respostas de carteira por CPF.
+ *
+ * @param acertos respostas servidas do cache
+ * @param faltas respostas montadas a partir do banco
+ * @param descartes entradas removidas para respeitar o limite de bytes
+ * @param invalidacoes alterações de carteira que invalidaram um CPF
+ * @param entradas quantidade de respostas guardadas
+ * @param bytes total de bytes guardados
+ * @param limiteBytes limite de bytes configurado
+ */
+public record EstatisticasCacheDTO(long acertos, long faltas, long descartes, long invalidacoes,
+                                   int entradas, long bytes, long limiteBytes) {
+}
@@ -0,0 +1,28 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.util.List;
+
+/**
+ * Situação dos pools de conexão e do roteamento de leituras para a réplica.
+ *
+ * @param replicaConfigurada se há réplica de leitura configurada
+ * @param replicaDisponivel se as leituras estão indo para a réplica (falso durante o desvio à primária)
+ * @param leiturasDesviadas leituras atendidas pela primária por indisponibilidade da réplica
+ * @param pools contadores de cada pool
+ */
+public record EstatisticasDataSourceDTO(boolean replicaConfigurada, boolean replicaDisponivel,
+                                        long leiturasDesviadas, List<Pool> pools) {
+
+    /**
+     * Contadores de um pool Hikari.
+     *
+     * @param nome nome do pool
+     * @param ativas conexões em uso
+     * @param ociosas conexões livres
+     * @param aguardando threads esperando por uma conexão
+     * @param total conexões abertas
+     * @param maximo tamanho máximo do pool
+     */
+    public record Pool(String nome, int ativas, int ociosas, int aguardando, int total, int maximo) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Projeção das máscaras de facetas (bancos e tipos) de um usuário investidor.
+ *
+ * @param mascaraBancos máscara de bits dos bancos presentes na carteira
+ * @param mascaraTipos máscara de bits dos tipos de investimento presentes na carteira
+ */
+public record FacetasProjecao(int mascaraBancos, int mascaraTipos) {
+}
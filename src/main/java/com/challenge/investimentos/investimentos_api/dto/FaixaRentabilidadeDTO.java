@@ -0,0 +1,16 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.util.List;
+
+/**
+ * Faixa alterada da série diária de um investimento: o cliente substitui os dias
+ * que tem entre {@code de} e {@code ate} pelos dias listados (dias ausentes foram removidos).
+ *
+ * @param investimentoId ID do investimento
+ * @param de primeira data da faixa (dd-MM-yyyy)
+ * @param ate última data da faixa (dd-MM-yyyy)
+ * @param rentabilidadeDiaria dias existentes na faixa, em ordem de data
+ */
+public record FaixaRentabilidadeDTO(Long investimentoId, String de, String ate,
+                                    List<RentabilidadeDiariaDTO> rentabilidadeDiaria) {
+}
@@ -0,0 +1,27 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Indicadores de desempenho de uma série de montantes diários (de um investimento ou
+ * da carteira). Taxas são frações ({@code 0.05} = 5%); datas em {@code dd-MM-yyyy}.
+ * Indicadores que não se aplicam (série com menos de dois pontos, por exemplo) vêm nulos.
+ *
+ * @param observacoes quantidade de retornos diários usados no cálculo
+ * @param inicio data do primeiro ponto
+ * @param fim data do último ponto
+ * @param retornoAcumulado retorno ponderado pelo tempo (TWR) no período
+ * @param retornoAnualizado retorno acumulado convertido em taxa anual equivalente
+ * @param volatilidadeAnual desvio padrão dos retornos diários, anualizado
+ * @param maxDrawdown maior queda relativa desde um pico
+ * @param inicioDrawdown data do pico que antecede a maior queda
+ * @param fimDrawdown data do fundo da maior queda
+ * @param sharpe retorno em excesso à taxa livre de risco sobre a volatilidade, anualizado
+ * @param dataMelhorDia data do maior retorno diário
+ * @param melhorDia maior retorno diário
+ * @param dataPiorDia data do menor retorno diário
+ * @param piorDia menor retorno diário
+ */
+public record IndicadoresRentabilidadeDTO(int observacoes, String inicio, String fim, Double retornoAcumulado,
+                                          Double retornoAnualizado, Double volatilidadeAnual, Double maxDrawdown,
+                                          String inicioDrawdown, String fimDrawdown, Double sharpe,
+                                          String dataMelhorDia, Double melhorDia, String dataPiorDia, Double piorDia) {
+}
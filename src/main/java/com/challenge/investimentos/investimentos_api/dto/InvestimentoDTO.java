@@ -2,7 +2,9 @@ package com.challenge.investimentos.investimentos_api.dto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import io.swagger.v3.oas.annotations.media.Schema;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.challenge.investimentos.investimentos_api.model.Investimento;
 import java.util.stream.Collectors;
 import jakarta.validation.Valid;
@@ -13,8 +15,16 @@ import jakarta.validation.constraints.PositiveOrZero;
 
 /**
  * DTO que representa os dados de um investimento.
+ *
+ * Serializado com o filtro {@link #FILTRO_CAMPOS}, que atende à seleção de campos
+ * ({@code fields}/{@code include}) dos endpoints de leitura.
  */
+@JsonFilter(InvestimentoDTO.FILTRO_CAMPOS)
 public class InvestimentoDTO {
+
+    /** ID do filtro Jackson que seleciona os campos serializados. */
+    public static final String FILTRO_CAMPOS = "camposInvestimento";
+
     @Schema(example = "1")
     private Long id;
 
@@ -124,6 +134,22 @@ public class InvestimentoDTO {
         this.rentabilidadeDiaria = rentabilidadeDiaria;
     }
 
+    /**
+     * Anexa rentabilidades projetadas aos DTOs de investimento correspondentes.
+     * Linhas cujo investimento não está no mapa são ignoradas.
+     *
+     * @param porId DTOs de investimento indexados pelo ID
+     * @param rentabilidades projeções de rentabilidade diária
+     */
+    public static void anexarRentabilidades(Map<Long, InvestimentoDTO> porId, List<RentabilidadeDiariaProjecao> rentabilidades) {
+        for (RentabilidadeDiariaProjecao rd : rentabilidades) {
+            InvestimentoDTO dto = porId.get(rd.investimentoId());
+            if (dto != null) {
+                dto.getRentabilidadeDiaria().add(rd.toDTO());
+            }
+        }
+    }
+
     /** Mapper: entidade -> DTO */
     public static InvestimentoDTO fromEntity(Investimento inv) {
         if (inv == null) return null;
@@ -0,0 +1,52 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+/**
+ * Projeção plana de um investimento, carregada por consulta JPQL com expressão construtora.
+ *
+ * Não passa pelo contexto de persistência: os dados vêm direto das colunas de
+ * {@code INVESTIMENTO}, sem carregar o usuário nem as rentabilidades diárias.
+ *
+ * @param usuarioId ID do usuário investidor dono do investimento
+ * @param id ID do investimento
+ * @param nomeBanco nome do banco
+ * @param tipoInvestimento tipo do investimento
+ * @param nomeInvestimento nome do investimento
+ * @param montanteInicial montante inicial
+ * @param valorInicialAcao valor inicial da ação
+ * @param taxaRentabilidade taxa de rentabilidade
+ * @param numeroAcoesInicial número inicial de ações
+ */
+public record InvestimentoProjecao(
+        Long usuarioId,
+        Long id,
+        String nomeBanco,
+        TipoInvestimentoEnum tipoInvestimento,
+        String nomeInvestimento,
+        BigDecimal montanteInicial,
+        BigDecimal valorInicialAcao,
+        BigDecimal taxaRentabilidade,
+        Integer numeroAcoesInicial) {
+
+    /**
+     * Converte a projeção em DTO, com a lista de rentabilidades vazia e pronta para ser preenchida.
+     * @return DTO do investimento
+     */
+    public InvestimentoDTO toDTO() {
+        InvestimentoDTO dto = new InvestimentoDTO();
+        dto.setId(id);
+        dto.setNomeBanco(nomeBanco);
+        dto.setTipoInvestimento(tipoInvestimento != null ? tipoInvestimento.name() : null);
+        dto.setNomeInvestimento(nomeInvestimento);
+        dto.setMontanteInicial(montanteInicial);
+        dto.setValorInicialAcao(valorInicialAcao);
+        dto.setTaxaRentabilidade(taxaRentabilidade);
+        dto.setNumeroAcoesInicial(numeroAcoesInicial);
+        dto.setRentabilidadeDiaria(new ArrayList<>());
+        return dto;
+    }
+}
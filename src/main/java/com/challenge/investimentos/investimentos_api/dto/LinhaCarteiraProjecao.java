@@ -0,0 +1,44 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha da carteira de um CPF: o usuário (ID e versão) com um dos seus investimentos,
+ * lida por left join, de modo que um usuário sem investimentos ainda gera uma linha
+ * (com os campos do investimento nulos).
+ *
+ * @param usuarioId ID do usuário investidor
+ * @param versaoUsuario versão da carteira do usuário
+ * @param id ID do investimento ({@code null} se o usuário não tiver investimentos)
+ * @param nomeBanco nome do banco
+ * @param tipoInvestimento tipo do investimento
+ * @param nomeInvestimento nome do investimento
+ * @param montanteInicial montante inicial
+ * @param valorInicialAcao valor inicial da ação
+ * @param taxaRentabilidade taxa de rentabilidade
+ * @param numeroAcoesInicial número inicial de ações
+ */
+public record LinhaCarteiraProjecao(
+        Long usuarioId,
+        Long versaoUsuario,
+        Long id,
+        String nomeBanco,
+        TipoInvestimentoEnum tipoInvestimento,
+        String nomeInvestimento,
+        BigDecimal montanteInicial,
+        BigDecimal valorInicialAcao,
+        BigDecimal taxaRentabilidade,
+        Integer numeroAcoesInicial) {
+
+    /**
+     * Converte o investimento da linha em projeção plana.
+     * @return projeção do investimento, ou {@code null} se a linha não tiver investimento
+     */
+    public InvestimentoProjecao investimento() {
+        if (id == null) return null;
+        return new InvestimentoProjecao(usuarioId, id, nomeBanco, tipoInvestimento, nomeInvestimento,
+                montanteInicial, valorInicialAcao, taxaRentabilidade, numeroAcoesInicial);
+    }
+}
@@ -0,0 +1,14 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Ponto da série de um investimento reduzido ao que a análise de desempenho usa:
+ * a data e o montante acumulado em centavos, já convertido pelo banco para inteiro.
+ *
+ * @param investimentoId ID do investimento ao qual o ponto pertence
+ * @param data data da rentabilidade
+ * @param centavos montante acumulado no dia, em centavos ({@code null} se não informado)
+ */
+public record MontanteDiarioProjecao(Long investimentoId, LocalDate data, Long centavos) {
+}
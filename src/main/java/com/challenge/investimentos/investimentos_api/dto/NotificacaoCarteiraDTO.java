@@ -0,0 +1,13 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Corpo dos eventos enviados aos assinantes de {@code GET /api/usuario-investimentos/{cpf}/eventos}.
+ *
+ * O evento só avisa que a carteira mudou; o cliente busca o conteúdo em
+ * {@code /changes?since=N}, a partir da última sequência que já aplicou.
+ *
+ * @param cpf CPF cuja carteira mudou
+ * @param sequencia sequência de alterações atual da carteira ({@code null} se o usuário foi removido)
+ */
+public record NotificacaoCarteiraDTO(String cpf, Long sequencia) {
+}
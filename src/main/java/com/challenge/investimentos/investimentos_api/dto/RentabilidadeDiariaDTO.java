@@ -14,6 +14,9 @@ import jakarta.validation.constraints.Pattern;
  */
 public class RentabilidadeDiariaDTO {
 
+    /** Formato de data usado na API ("dd-MM-yyyy"). */
+    public static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
     /** Data da rentabilidade diária no formato "dd-MM-yyyy". */
     @Schema(example = "01-01-2025")
     @NotBlank(message = "dataRentabilidadeDiaria é obrigatória")
@@ -72,8 +75,7 @@ public class RentabilidadeDiariaDTO {
     public static RentabilidadeDiariaDTO fromEntity(RentabilidadeDiaria rd) {
         if (rd == null) return null;
         RentabilidadeDiariaDTO dto = new RentabilidadeDiariaDTO();
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-        dto.setDataRentabilidadeDiaria(rd.getDataRentabilidadeDiaria() != null ? rd.getDataRentabilidadeDiaria().format(fmt) : null);
+        dto.setDataRentabilidadeDiaria(rd.getDataRentabilidadeDiaria() != null ? rd.getDataRentabilidadeDiaria().format(FORMATO_DATA) : null);
         dto.setValorDiarioAcao(rd.getValorDiarioAcao());
         dto.setTaxaDiarioRentabilidade(rd.getTaxaDiarioRentabilidade());
         dto.setMontanteAcumuladoDiario(rd.getMontanteAcumuladoDiario());
@@ -0,0 +1,38 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção plana de uma rentabilidade diária, carregada por consulta JPQL com expressão construtora.
+ *
+ * Traz o ID do investimento para que as linhas possam ser agrupadas em memória
+ * sem carregar as entidades.
+ *
+ * @param investimentoId ID do investimento ao qual a rentabilidade pertence
+ * @param dataRentabilidadeDiaria data da rentabilidade
+ * @param valorDiarioAcao valor diário da ação
+ * @param taxaDiarioRentabilidade taxa diária de rentabilidade
+ * @param montanteAcumuladoDiario montante acumulado no dia
+ */
+public record RentabilidadeDiariaProjecao(
+        Long investimentoId,
+        LocalDate dataRentabilidadeDiaria,
+        BigDecimal valorDiarioAcao,
+        BigDecimal taxaDiarioRentabilidade,
+        BigDecimal montanteAcumuladoDiario) {
+
+    /**
+     * Converte a projeção em DTO.
+     * @return DTO da rentabilidade diária
+     */
+    public RentabilidadeDiariaDTO toDTO() {
+        RentabilidadeDiariaDTO dto = new RentabilidadeDiariaDTO();
+        dto.setDataRentabilidadeDiaria(dataRentabilidadeDiaria != null
+                ? dataRentabilidadeDiaria.format(RentabilidadeDiariaDTO.FORMATO_DATA) : null);
+        dto.setValorDiarioAcao(valorDiarioAcao);
+        dto.setTaxaDiarioRentabilidade(taxaDiarioRentabilidade);
+        dto.setMontanteAcumuladoDiario(montanteAcumuladoDiario);
+        return dto;
+    }
+}
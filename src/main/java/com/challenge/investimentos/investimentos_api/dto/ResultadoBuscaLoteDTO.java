@@ -0,0 +1,13 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.util.List;
+
+/**
+ * Resposta da busca em lote: os usuários encontrados, na ordem em que os CPFs
+ * foram enviados, e os CPFs sem usuário correspondente.
+ *
+ * @param usuarios usuários encontrados, com seus investimentos
+ * @param naoEncontrados CPFs (como enviados) inválidos ou não cadastrados
+ */
+public record ResultadoBuscaLoteDTO(List<UsuarioInvestimentoDTO> usuarios, List<String> naoEncontrados) {
+}
@@ -0,0 +1,28 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import com.challenge.investimentos.investimentos_api.enums.SituacaoCadastro;
+
+import java.util.List;
+
+/**
+ * Resposta do cadastro em lote: totais por situação e o resultado de cada CPF,
+ * na ordem em que foram enviados.
+ *
+ * @param criados usuários criados
+ * @param existentes CPFs que já estavam cadastrados
+ * @param invalidos CPFs rejeitados pela validação
+ * @param repetidos CPFs repetidos na própria requisição (contados só na primeira ocorrência)
+ * @param resultados resultado de cada CPF enviado
+ */
+public record ResultadoCadastroLoteDTO(int criados, int existentes, int invalidos, int repetidos,
+                                       List<Resultado> resultados) {
+
+    /**
+     * Resultado de um CPF.
+     *
+     * @param cpf CPF como enviado
+     * @param situacao situação do cadastro
+     */
+    public record Resultado(String cpf, SituacaoCadastro situacao) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de uma consulta ao índice invertido de carteiras.
+ *
+ * @param total quantidade de usuários que atendem à consulta
+ * @param cpfs CPFs dos primeiros usuários encontrados, em ordem de ID (limitados pelo parâmetro {@code limite})
+ */
+public record ResultadoIndiceDTO(long total, List<String> cpfs) {
+}
@@ -0,0 +1,11 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Posição do log de alterações de um usuário.
+ *
+ * @param usuarioId ID do usuário
+ * @param atual última sequência registrada
+ * @param compactada maior sequência já removida pela compactação
+ */
+public record SequenciaAlteracoesProjecao(Long usuarioId, long atual, long compactada) {
+}
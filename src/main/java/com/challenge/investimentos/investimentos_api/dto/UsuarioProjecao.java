@@ -0,0 +1,10 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Projeção plana de um usuário investidor (ID e CPF), sem a coleção de investimentos.
+ *
+ * @param id ID do usuário investidor
+ * @param cpfIdentificacao CPF normalizado (somente dígitos)
+ */
+public record UsuarioProjecao(Long id, String cpfIdentificacao) {
+}
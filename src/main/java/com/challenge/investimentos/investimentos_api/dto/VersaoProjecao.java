@@ -0,0 +1,11 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+/**
+ * Projeção com o ID e a versão (coluna {@code VERSAO}) de um usuário ou investimento,
+ * usada para responder requisições condicionais sem carregar a carteira.
+ *
+ * @param id ID do registro
+ * @param versao versão atual do registro
+ */
+public record VersaoProjecao(Long id, Long versao) {
+}
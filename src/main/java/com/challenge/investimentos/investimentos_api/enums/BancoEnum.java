@@ -3,6 +3,9 @@ package com.challenge.investimentos.investimentos_api.enums;
 /**
  * Enum que representa os bancos e seus códigos.
  * Útil para preencher automaticamente o código do banco pelo nome.
+ *
+ * A ordem das constantes define o bit de cada banco em {@code USUARIO_INVESTIMENTO.MASCARA_BANCOS}:
+ * novos bancos devem ser adicionados sempre no final.
  */
 public enum BancoEnum {
     NUBANK("Nubank", 260),
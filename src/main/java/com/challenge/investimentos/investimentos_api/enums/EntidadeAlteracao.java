@@ -0,0 +1,11 @@
+package com.challenge.investimentos.investimentos_api.enums;
+
+/**
+ * Entidade afetada por uma linha do log de alterações da carteira.
+ */
+public enum EntidadeAlteracao {
+    /** Dados do investimento (sem a série diária). */
+    INVESTIMENTO,
+    /** Faixa contínua de datas da série de rentabilidades diárias de um investimento. */
+    RENTABILIDADE_DIARIA
+}
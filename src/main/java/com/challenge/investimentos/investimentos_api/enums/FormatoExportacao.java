@@ -0,0 +1,27 @@
+package com.challenge.investimentos.investimentos_api.enums;
+
+/**
+ * Formatos disponíveis para a exportação de investimentos e rentabilidades diárias.
+ */
+public enum FormatoExportacao {
+    /** Um objeto JSON por linha: cada investimento com sua série diária aninhada. */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /** Uma linha por rentabilidade diária, com os dados do investimento repetidos. */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extensao;
+
+    FormatoExportacao(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+}
@@ -0,0 +1,10 @@
+package com.challenge.investimentos.investimentos_api.enums;
+
+/**
+ * Operação registrada no log de alterações da carteira.
+ */
+public enum OperacaoAlteracao {
+    INSERCAO,
+    ATUALIZACAO,
+    REMOCAO
+}
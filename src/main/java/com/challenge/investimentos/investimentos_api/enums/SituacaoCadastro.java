@@ -0,0 +1,11 @@
+package com.challenge.investimentos.investimentos_api.enums;
+
+/**
+ * Resultado do cadastro de um CPF no cadastro em lote de usuários.
+ */
+public enum SituacaoCadastro {
+    CRIADO,
+    EXISTENTE,
+    INVALIDO,
+    REPETIDO
+}
@@ -0,0 +1,11 @@
+package com.challenge.investimentos.investimentos_api.enums;
+
+/**
+ * Classes de carga isoladas umas das outras: cada uma tem vagas, fila e pool de conexões próprios.
+ */
+public enum TipoBulkhead {
+    /** Leituras interativas (buscas e listagens). */
+    LEITURA,
+    /** Escritas em lote (carteiras inteiras, séries diárias, cadastro em lote). */
+    ESCRITA
+}
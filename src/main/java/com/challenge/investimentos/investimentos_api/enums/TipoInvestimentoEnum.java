@@ -3,6 +3,9 @@ package com.challenge.investimentos.investimentos_api.enums;
 /**
  * Enum que representa os tipos de investimento disponíveis no sistema.
  * Pode ser utilizado para categorizar investimentos de acordo com sua natureza.
+ *
+ * A ordem das constantes define o bit de cada tipo em {@code USUARIO_INVESTIMENTO.MASCARA_TIPOS}:
+ * novos tipos devem ser adicionados sempre no final.
  */
 public enum TipoInvestimentoEnum {
     RENDA_FIXA,
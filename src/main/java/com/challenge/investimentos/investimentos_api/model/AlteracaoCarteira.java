@@ -0,0 +1,124 @@
+package com.challenge.investimentos.investimentos_api.model;
+
+import com.challenge.investimentos.investimentos_api.enums.EntidadeAlteracao;
+import com.challenge.investimentos.investimentos_api.enums.OperacaoAlteracao;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Linha do log de alterações da carteira de um usuário, usado pela sincronização
+ * incremental ({@code GET /api/usuario-investimentos/{cpf}/changes?since=N}).
+ *
+ * Identificada pelo usuário e por uma sequência crescente por usuário. Não guarda
+ * os valores alterados, só a chave: um investimento, ou uma faixa contínua de datas
+ * da série de um investimento ({@code dataInicial} a {@code dataFinal}). A leitura
+ * devolve o estado atual das chaves alteradas.
+ */
+@Entity
+@Table(name = "ALTERACAO_CARTEIRA")
+@IdClass(AlteracaoCarteira.Chave.class)
+public class AlteracaoCarteira implements Serializable {
+
+    @Id
+    @Column(name = "USUARIO_INVESTIMENTO_ID")
+    private Long usuarioId;
+
+    @Id
+    @Column(name = "SEQUENCIA")
+    private Long sequencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ENTIDADE", nullable = false, length = 20)
+    private EntidadeAlteracao entidade;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "OPERACAO", nullable = false, length = 20)
+    private OperacaoAlteracao operacao;
+
+    @Column(name = "INVESTIMENTO_ID", nullable = false)
+    private Long investimentoId;
+
+    @Column(name = "DATA_INICIAL")
+    private LocalDate dataInicial;
+
+    @Column(name = "DATA_FINAL")
+    private LocalDate dataFinal;
+
+    @Column(name = "DATA_REGISTRO", nullable = false)
+    private LocalDateTime dataRegistro;
+
+    /** Construtor padrão exigido pelo JPA. */
+    public AlteracaoCarteira() {}
+
+    public AlteracaoCarteira(Long usuarioId, Long sequencia, EntidadeAlteracao entidade, OperacaoAlteracao operacao,
+                             Long investimentoId, LocalDate dataInicial, LocalDate dataFinal, LocalDateTime dataRegistro) {
+        this.usuarioId = usuarioId;
+        this.sequencia = sequencia;
+        this.entidade = entidade;
+        this.operacao = operacao;
+        this.investimentoId = investimentoId;
+        this.dataInicial = dataInicial;
+        this.dataFinal = dataFinal;
+        this.dataRegistro = dataRegistro;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Long getSequencia() {
+        return sequencia;
+    }
+
+    public EntidadeAlteracao getEntidade() {
+        return entidade;
+    }
+
+    public OperacaoAlteracao getOperacao() {
+        return operacao;
+    }
+
+    public Long getInvestimentoId() {
+        return investimentoId;
+    }
+
+    public LocalDate getDataInicial() {
+        return dataInicial;
+    }
+
+    public LocalDate getDataFinal() {
+        return dataFinal;
+    }
+
+    public LocalDateTime getDataRegistro() {
+        return dataRegistro;
+    }
+
+    /** Chave composta: usuário e sequência. */
+    public static class Chave implements Serializable {
+        private Long usuarioId;
+        private Long sequencia;
+
+        public Chave() {}
+
+        public Chave(Long usuarioId, Long sequencia) {
+            this.usuarioId = usuarioId;
+            this.sequencia = sequencia;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Chave chave && Objects.equals(usuarioId, chave.usuarioId)
+                    && Objects.equals(sequencia, chave.sequencia);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(usuarioId, sequencia);
+        }
+    }
+}
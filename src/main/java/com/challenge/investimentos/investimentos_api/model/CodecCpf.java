@@ -0,0 +1,98 @@
+package com.challenge.investimentos.investimentos_api.model;
+
+/**
+ * Conversão de CPF entre texto e chave numérica, sem expressões regulares nem alocação.
+ *
+ * Os 11 dígitos do CPF cabem em um {@code long} (o maior valor, 99.999.999.999, usa
+ * 37 bits). É essa chave que fica na coluna {@code CPF_NUMERO}, com índice único, e
+ * que as consultas por CPF usam; o texto de 11 dígitos continua guardado para exibição.
+ *
+ * {@link #codificar(CharSequence)} percorre a entrada uma única vez: ignora tudo o que
+ * não é dígito (pontos, traço, espaços), acumula o número e as somas dos dígitos
+ * verificadores (módulo 11) e devolve {@link #INVALIDO} assim que algo não confere.
+ * Aceita exatamente as mesmas entradas que a validação original de {@link CpfVO}.
+ */
+public final class CodecCpf {
+
+    /** Valor devolvido para entradas que não são um CPF válido. */
+    public static final long INVALIDO = -1L;
+
+    private static final int DIGITOS = 11;
+
+    private CodecCpf() {}
+
+    /**
+     * Valida o CPF e o converte na chave numérica.
+     *
+     * @param texto CPF com ou sem máscara (pode ser {@code null})
+     * @return os 11 dígitos como número, ou {@link #INVALIDO}
+     */
+    public static long codificar(CharSequence texto) {
+        if (texto == null) return INVALIDO;
+        long numero = 0;
+        int digitos = 0;
+        int soma1 = 0;
+        int soma2 = 0;
+        int primeiro = 0;
+        boolean todosIguais = true;
+        for (int i = 0, n = texto.length(); i < n; i++) {
+            int d = texto.charAt(i) - '0';
+            if (d < 0 || d > 9) continue;
+            if (digitos < 9) {
+                soma1 += d * (10 - digitos);
+                soma2 += d * (11 - digitos);
+            } else if (digitos == 9) {
+                if (d != digitoVerificador(soma1)) return INVALIDO;
+                soma2 += d * 2;
+            } else if (digitos == 10) {
+                if (d != digitoVerificador(soma2)) return INVALIDO;
+            } else {
+                return INVALIDO;
+            }
+            if (digitos == 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                todosIguais = false;
+            }
+            numero = numero * 10 + d;
+            digitos++;
+        }
+        return digitos == DIGITOS && !todosIguais ? numero : INVALIDO;
+    }
+
+    /**
+     * Formata a chave numérica como os 11 dígitos do CPF, com zeros à esquerda.
+     *
+     * @param numero chave obtida em {@link #codificar(CharSequence)}
+     * @return CPF somente com dígitos
+     * @throws IllegalArgumentException se o número não couber em 11 dígitos
+     */
+    public static String formatar(long numero) {
+        if (numero < 0 || numero > 99_999_999_999L) {
+            throw new IllegalArgumentException("Chave de CPF inválida: " + numero);
+        }
+        char[] texto = new char[DIGITOS];
+        for (int i = DIGITOS - 1; i >= 0; i--) {
+            texto[i] = (char) ('0' + numero % 10);
+            numero /= 10;
+        }
+        return new String(texto);
+    }
+
+    /**
+     * Normaliza o CPF para os 11 dígitos, sem máscara: a forma guardada no banco e
+     * usada como chave em memória.
+     *
+     * @param texto CPF com ou sem máscara (pode ser {@code null})
+     * @return CPF somente com dígitos, ou {@code null} se não for válido
+     */
+    public static String normalizar(CharSequence texto) {
+        long numero = codificar(texto);
+        return numero == INVALIDO ? null : formatar(numero);
+    }
+
+    private static int digitoVerificador(int soma) {
+        int dv = 11 - (soma % 11);
+        return dv >= 10 ? 0 : dv;
+    }
+}
@@ -2,20 +2,22 @@ package com.challenge.investimentos.investimentos_api.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
-import java.util.Objects;
 
 /**
  * Valor-objeto imutável que representa um CPF válido.
  *
- * Normaliza a entrada para apenas dígitos e valida utilizando o algoritmo
- * dos dígitos verificadores (módulo 11). Usado como componente incorporável
- * em entidades JPA.
+ * Normaliza a entrada para apenas dígitos e valida os dígitos verificadores
+ * (módulo 11) com {@link CodecCpf}, que também fornece a chave numérica guardada
+ * ao lado do texto. Usado como componente incorporável em entidades JPA.
  */
 @Embeddable
 public final class CpfVO {
     @Column(name = "cpf", length = 11, nullable = false, updatable = false)
     private String cpf;
 
+    @Column(name = "cpf_numero", nullable = false, updatable = false)
+    private long numero;
+
     /**
      * Construtor protegido exigido pelo JPA.
      */
@@ -32,11 +34,12 @@ public final class CpfVO {
      * @throws IllegalArgumentException se o CPF for inválido
      */
     public CpfVO(String cpf) {
-        String onlyDigits = normalize(cpf);
-        if (!isValidCpf(onlyDigits)) {
+        long numero = CodecCpf.codificar(cpf);
+        if (numero == CodecCpf.INVALIDO) {
             throw new IllegalArgumentException("CPF inválido: " + cpf);
         }
-        this.cpf = onlyDigits;
+        this.numero = numero;
+        this.cpf = CodecCpf.formatar(numero);
     }
 
     /**
@@ -48,55 +51,21 @@ public final class CpfVO {
     }
 
     /**
-     * Remove todos os caracteres não numéricos da string.
-     * @param cpf valor de entrada do CPF
-     * @return apenas dígitos ou {@code null} se a entrada for {@code null}
+     * Retorna a chave numérica do CPF (ver {@link CodecCpf}).
+     * @return os 11 dígitos como número
      */
-    private static String normalize(String cpf) {
-        if (cpf == null) return null;
-        return cpf.replaceAll("\\D", "");
-    }
-
-    /**
-     * Valida o CPF utilizando o algoritmo clássico dos dígitos verificadores (módulo 11).
-     * 
-     * Rejeita CPFs nulos, com tamanho incorreto, com todos os dígitos iguais,
-     * e verifica os dois dígitos verificadores.
-     *
-     * @param cpf CPF somente com dígitos
-     * @return {@code true} se for válido; caso contrário {@code false}
-     */
-    private static boolean isValidCpf(String cpf) {
-        if (cpf == null) return false;
-        if (!cpf.matches("\\d{11}")) return false;
-        if (cpf.matches("(\\d)\\1{10}")) return false;
-
-        try {
-            int[] digits = cpf.chars().map(c -> c - '0').toArray();
-            int sum = 0;
-            for (int i = 0; i < 9; i++) sum += digits[i] * (10 - i);
-            int dv1 = 11 - (sum % 11);
-            if (dv1 >= 10) dv1 = 0;
-            if (dv1 != digits[9]) return false;
-
-            sum = 0;
-            for (int i = 0; i < 10; i++) sum += digits[i] * (11 - i);
-            int dv2 = 11 - (sum % 11);
-            if (dv2 >= 10) dv2 = 0;
-            return dv2 == digits[10];
-        } catch (Exception e) {
-            return false;
-        }
+    public long getNumero() {
+        return numero;
     }
 
     /** {@inheritDoc} */
     @Override public boolean equals(Object o){
         if(this == o) return true;
         if(!(o instanceof CpfVO)) return false;
-        return Objects.equals(cpf, ((CpfVO)o).cpf);
+        return numero == ((CpfVO)o).numero;
     }
     /** {@inheritDoc} */
-    @Override public int hashCode(){ return Objects.hash(cpf); }
+    @Override public int hashCode(){ return Long.hashCode(numero); }
 
     /**
      * Retorna o CPF em sua forma normalizada (somente dígitos).
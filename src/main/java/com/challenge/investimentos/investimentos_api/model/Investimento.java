@@ -3,6 +3,8 @@ package com.challenge.investimentos.investimentos_api.model;
 import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,9 +19,10 @@ import java.util.List;
 @Table(name = "INVESTIMENTO")
 public class Investimento {
 
+    /** IDs reservados em blocos de 50 por NEXTVAL (otimizador pooled, ver V2__sequencias_pooled.sql). */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "investimento_seq")
-    @SequenceGenerator(name = "investimento_seq", sequenceName = "INVESTIMENTO_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "investimento_seq", sequenceName = "INVESTIMENTO_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "NOME_BANCO")
@@ -46,16 +49,29 @@ public class Investimento {
     private TipoInvestimentoEnum tipoInvestimento;
 
     /**
-     * Associação N:1 com o usuário investidor.
+     * Versão do investimento (controle otimista), incrementada a cada alteração dos
+     * seus dados ou da sua série diária. Usada como ETag e na pré-condição If-Match.
+     */
+    @Version
+    @Column(name = "VERSAO", nullable = false)
+    private long versao;
+
+    /**
+     * Associação N:1 com o usuário investidor (carregamento sob demanda).
      * Marcado com {@link JsonBackReference} para evitar recursão na serialização JSON.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "USUARIO_INVESTIMENTO_ID")
     @JsonBackReference
     private UsuarioInvestimento usuarioInvestimento;
 
-    /** Rentabilidades diárias associadas ao investimento (cascade + orphanRemoval). */
+    /**
+     * Rentabilidades diárias associadas ao investimento (cascade + orphanRemoval).
+     * Carregadas por subselect: ao acessar a primeira coleção, as rentabilidades de
+     * todos os investimentos da mesma consulta vêm em uma única query.
+     */
     @OneToMany(mappedBy = "investimento", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private List<RentabilidadeDiaria> rentabilidadeDiaria = new ArrayList<>();
 
     public Long getId() {
@@ -137,4 +153,8 @@ public class Investimento {
     public void setRentabilidadeDiaria(List<RentabilidadeDiaria> rentabilidadeDiaria) {
         this.rentabilidadeDiaria = rentabilidadeDiaria;
     }
-}
\ No newline at end of file
+
+    public long getVersao() {
+        return versao;
+    }
+}
@@ -10,15 +10,19 @@ import java.time.LocalDate;
  * Entidade que representa a rentabilidade diária de um {@link Investimento}.
  * 
  * Armazena data, valor diário da ação, taxa diária de rentabilidade e o
- * montante acumulado para o dia.
+ * montante acumulado para o dia. Há no máximo uma por investimento e data
+ * (ver V4__rentabilidade_unica_por_data.sql).
  */
 @Entity
-@Table(name = "RENTABILIDADE_DIARIA_TABLE")
+@Table(name = "RENTABILIDADE_DIARIA_TABLE",
+        uniqueConstraints = @UniqueConstraint(name = "UK_RENT_INV_DATA",
+                columnNames = {"INVESTIMENTO_ID", "DATA_RENTABILIDADE_DIARIA"}))
 public class RentabilidadeDiaria implements Serializable {
 
+    /** IDs reservados em blocos de 50 por NEXTVAL (otimizador pooled, ver V2__sequencias_pooled.sql). */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentabilidade_diaria_sequence")
-    @SequenceGenerator(name = "rentabilidade_diaria_sequence", sequenceName = "RENTABILIDADE_DIARIA_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "rentabilidade_diaria_sequence", sequenceName = "RENTABILIDADE_DIARIA_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "DATA_RENTABILIDADE_DIARIA")
@@ -34,10 +38,10 @@ public class RentabilidadeDiaria implements Serializable {
     private BigDecimal montanteAcumuladoDiario;
 
     /**
-     * Relação N:1 com o investimento ao qual esta rentabilidade pertence.
+     * Relação N:1 com o investimento ao qual esta rentabilidade pertence (carregamento sob demanda).
      * A anotação {@link JsonBackReference} evita recursão na serialização JSON.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     private Investimento investimento;
 
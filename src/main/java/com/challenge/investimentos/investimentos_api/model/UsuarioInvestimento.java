@@ -2,6 +2,8 @@ package com.challenge.investimentos.investimentos_api.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,23 +18,58 @@ import java.util.List;
 public class UsuarioInvestimento implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_investimento_seq")
+    @SequenceGenerator(name = "usuario_investimento_seq", sequenceName = "USUARIO_INVESTIMENTO_SEQ", allocationSize = 50)
     private Long id;
 
-    /** CPF do investidor como Value Object. */
+    /**
+     * CPF do investidor como Value Object: o texto de 11 dígitos, para exibição, e a
+     * chave numérica ({@code CPF_NUMERO}, índice único) usada nas consultas por CPF.
+     */
     @Embedded
     @AttributeOverride(name = "cpf", column = @Column(name = "CPF_IDENTIFICACAO", nullable = false, unique = true, length = 11, updatable = false))
+    @AttributeOverride(name = "numero", column = @Column(name = "CPF_NUMERO", nullable = false, unique = true, updatable = false))
     private CpfVO cpf;
 
     /**
      * Relação 1:N com os investimentos do usuário.
      * A anotação {@link JsonManagedReference} complementa o {@code @JsonBackReference}
      * em {@link Investimento} para evitar recursão na serialização JSON.
+     * Carregada por subselect, assim como as rentabilidades de cada investimento.
      */
     @OneToMany(mappedBy = "usuarioInvestimento", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @JsonManagedReference
     private List<Investimento> investimentos = new ArrayList<>();
 
+    /** Bancos presentes na carteira, como máscara de bits (ver {@code FacetasCarteira}). */
+    @Column(name = "MASCARA_BANCOS", nullable = false)
+    private int mascaraBancos;
+
+    /** Tipos de investimento presentes na carteira, como máscara de bits (ver {@code FacetasCarteira}). */
+    @Column(name = "MASCARA_TIPOS", nullable = false)
+    private int mascaraTipos;
+
+    /**
+     * Versão da carteira (controle otimista), incrementada a cada alteração dos
+     * investimentos do usuário. Usada como ETag e na pré-condição If-Match.
+     */
+    @Version
+    @Column(name = "VERSAO", nullable = false)
+    private long versao;
+
+    /**
+     * Última sequência usada no log de alterações da carteira ({@code ALTERACAO_CARTEIRA}).
+     * Avança na mesma transação das escritas e, por ser uma coluna comum, faz a
+     * {@link #versao} subir no mesmo UPDATE.
+     */
+    @Column(name = "SEQUENCIA_ALTERACOES", nullable = false)
+    private long sequenciaAlteracoes;
+
+    /** Maior sequência já removida do log pela compactação (mantida só pelo banco). */
+    @Column(name = "SEQUENCIA_COMPACTADA", nullable = false, insertable = false, updatable = false)
+    private long sequenciaCompactada;
+
     public Long getId() {
         return id;
     }
@@ -62,4 +99,44 @@ public class UsuarioInvestimento implements Serializable {
     public void setInvestimentos(List<Investimento> investimentos) {
         this.investimentos = investimentos;
     }
-}
\ No newline at end of file
+
+    public int getMascaraBancos() {
+        return mascaraBancos;
+    }
+
+    public void setMascaraBancos(int mascaraBancos) {
+        this.mascaraBancos = mascaraBancos;
+    }
+
+    public int getMascaraTipos() {
+        return mascaraTipos;
+    }
+
+    public void setMascaraTipos(int mascaraTipos) {
+        this.mascaraTipos = mascaraTipos;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public long getSequenciaAlteracoes() {
+        return sequenciaAlteracoes;
+    }
+
+    /**
+     * Reserva as próximas sequências do log de alterações.
+     *
+     * @param quantidade quantidade de linhas a numerar
+     * @return primeira sequência reservada
+     */
+    public long reservarSequencias(int quantidade) {
+        long primeira = sequenciaAlteracoes + 1;
+        sequenciaAlteracoes += quantidade;
+        return primeira;
+    }
+
+    public long getSequenciaCompactada() {
+        return sequenciaCompactada;
+    }
+}
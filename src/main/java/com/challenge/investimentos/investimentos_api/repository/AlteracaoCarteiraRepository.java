@@ -0,0 +1,117 @@
+package com.challenge.investimentos.investimentos_api.repository;
+
+import com.challenge.investimentos.investimentos_api.dto.AlteracaoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao;
+import com.challenge.investimentos.investimentos_api.dto.SequenciaAlteracoesProjecao;
+import com.challenge.investimentos.investimentos_api.model.AlteracaoCarteira;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório do log de alterações da carteira ({@code ALTERACAO_CARTEIRA}) e das
+ * leituras da sincronização incremental.
+ */
+public interface AlteracaoCarteiraRepository extends JpaRepository<AlteracaoCarteira, AlteracaoCarteira.Chave> {
+
+    /**
+     * Lê a posição do log de alterações do usuário com o CPF informado.
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @return última sequência e sequência compactada, se o usuário existir
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.SequenciaAlteracoesProjecao("
+            + "u.id, u.sequenciaAlteracoes, u.sequenciaCompactada) "
+            + "from UsuarioInvestimento u where u.cpf.numero = :cpf")
+    Optional<SequenciaAlteracoesProjecao> buscarSequenciaPorCpf(@Param("cpf") long cpf);
+
+    /**
+     * Lista as chaves alteradas do usuário entre duas sequências.
+     *
+     * @param usuarioId ID do usuário
+     * @param desde sequência já conhecida pelo cliente (exclusiva)
+     * @param ate última sequência incluída
+     * @return chaves alteradas, em ordem de sequência
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.AlteracaoProjecao("
+            + "a.entidade, a.investimentoId, a.dataInicial, a.dataFinal) "
+            + "from AlteracaoCarteira a where a.usuarioId = :usuarioId "
+            + "and a.sequencia > :desde and a.sequencia <= :ate order by a.sequencia")
+    List<AlteracaoProjecao> listarAlteracoes(@Param("usuarioId") Long usuarioId, @Param("desde") long desde,
+                                             @Param("ate") long ate);
+
+    /**
+     * Lista o estado atual dos investimentos do usuário alterados entre duas sequências.
+     *
+     * @param usuarioId ID do usuário
+     * @param desde sequência já conhecida pelo cliente (exclusiva)
+     * @param ate última sequência incluída
+     * @return projeções dos investimentos alterados que ainda existem
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao("
+            + "i.usuarioInvestimento.id, i.id, i.nomeBanco, i.tipoInvestimento, i.nomeInvestimento, "
+            + "i.montanteInicial, i.valorInicialAcao, i.taxaRentabilidade, i.numeroAcoesInicial) "
+            + "from Investimento i where i.usuarioInvestimento.id = :usuarioId and i.id in ("
+            + "select a.investimentoId from AlteracaoCarteira a where a.usuarioId = :usuarioId "
+            + "and a.sequencia > :desde and a.sequencia <= :ate "
+            + "and a.entidade = com.challenge.investimentos.investimentos_api.enums.EntidadeAlteracao.INVESTIMENTO) "
+            + "order by i.id")
+    List<InvestimentoProjecao> listarInvestimentosAlterados(@Param("usuarioId") Long usuarioId,
+                                                            @Param("desde") long desde, @Param("ate") long ate);
+
+    /**
+     * Lista os dias atuais das faixas da série diária alteradas entre duas sequências.
+     *
+     * @param usuarioId ID do usuário
+     * @param desde sequência já conhecida pelo cliente (exclusiva)
+     * @param ate última sequência incluída
+     * @return dias existentes dentro das faixas alteradas, por investimento e data
+     */
+    @Query("select distinct new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r, AlteracaoCarteira a "
+            + "where a.usuarioId = :usuarioId and a.sequencia > :desde and a.sequencia <= :ate "
+            + "and a.entidade = com.challenge.investimentos.investimentos_api.enums.EntidadeAlteracao.RENTABILIDADE_DIARIA "
+            + "and r.investimento.id = a.investimentoId "
+            + "and r.dataRentabilidadeDiaria between a.dataInicial and a.dataFinal "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesAlteradas(@Param("usuarioId") Long usuarioId,
+                                                                    @Param("desde") long desde, @Param("ate") long ate);
+
+    /**
+     * Marca, em cada usuário com linhas anteriores ao corte, a maior sequência que a
+     * compactação vai remover.
+     *
+     * @param corte linhas registradas antes deste instante serão removidas
+     * @return quantidade de usuários marcados
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE USUARIO_INVESTIMENTO u SET SEQUENCIA_COMPACTADA = ("
+            + "SELECT MAX(a.SEQUENCIA) FROM ALTERACAO_CARTEIRA a "
+            + "WHERE a.USUARIO_INVESTIMENTO_ID = u.ID AND a.DATA_REGISTRO < :corte) "
+            + "WHERE u.ID IN (SELECT a.USUARIO_INVESTIMENTO_ID FROM ALTERACAO_CARTEIRA a WHERE a.DATA_REGISTRO < :corte)",
+            nativeQuery = true)
+    int marcarCompactacao(@Param("corte") LocalDateTime corte);
+
+    /**
+     * Remove um lote de linhas registradas antes do corte.
+     *
+     * @param corte instante de corte
+     * @param lote quantidade máxima de linhas removidas
+     * @return quantidade de linhas removidas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM ALTERACAO_CARTEIRA WHERE DATA_REGISTRO < :corte AND ROWNUM <= :lote", nativeQuery = true)
+    int removerAnteriores(@Param("corte") LocalDateTime corte, @Param("lote") int lote);
+}
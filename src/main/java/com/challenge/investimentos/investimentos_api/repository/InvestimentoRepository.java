@@ -1,10 +1,27 @@
 package com.challenge.investimentos.investimentos_api.repository;
 
+import com.challenge.investimentos.investimentos_api.dto.ChaveIndiceProjecao;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.LinhaCarteiraProjecao;
+import com.challenge.investimentos.investimentos_api.dto.MontanteDiarioProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao;
+import com.challenge.investimentos.investimentos_api.dto.VersaoProjecao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
 import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.RentabilidadeDiaria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositório JPA para a entidade Investimento.
@@ -13,18 +30,256 @@ import java.util.List;
 public interface InvestimentoRepository extends JpaRepository<Investimento, Long> {
 
     /**
-     * Busca todos os investimentos associados a um usuário investidor.
+     * Busca todos os investimentos associados a um CPF de usuário investidor.
      *
-     * @param usuarioInvestimento usuário investidor
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
      * @return lista de investimentos do usuário
      */
-    List<Investimento> findByUsuarioInvestimento(UsuarioInvestimento usuarioInvestimento);
+    List<Investimento> findByUsuarioInvestimento_Cpf_Numero(long cpf);
 
     /**
-     * Busca todos os investimentos associados a um CPF de usuário investidor.
+     * Lista os nomes de banco distintos dos investimentos de um CPF, sem carregar entidades.
      *
-     * @param cpf CPF do usuário investidor
-     * @return lista de investimentos do usuário
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @return nomes de banco distintos (pode conter {@code null})
+     */
+    @Query("select distinct i.nomeBanco from Investimento i where i.usuarioInvestimento.cpf.numero = :cpf")
+    List<String> listarNomesBancoPorCpf(@Param("cpf") long cpf);
+
+    /**
+     * Lista uma página de investimentos (keyset por ID) como projeções planas.
+     *
+     * @param aposId último ID já entregue ({@code 0} para a primeira página)
+     * @param limite quantidade máxima de linhas
+     * @return projeções dos investimentos com ID maior que {@code aposId}, ordenadas por ID
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao("
+            + "i.usuarioInvestimento.id, i.id, i.nomeBanco, i.tipoInvestimento, i.nomeInvestimento, "
+            + "i.montanteInicial, i.valorInicialAcao, i.taxaRentabilidade, i.numeroAcoesInicial) "
+            + "from Investimento i where i.id > :aposId order by i.id")
+    List<InvestimentoProjecao> listarProjecoesApos(@Param("aposId") long aposId, Limit limite);
+
+    /**
+     * Lista como projeções planas os investimentos dos usuários informados, ordenados por ID.
+     *
+     * @param usuarioIds IDs dos usuários (no máximo {@code PaginacaoKeyset.LIMITE_MAXIMO})
+     * @return projeções dos investimentos desses usuários
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao("
+            + "i.usuarioInvestimento.id, i.id, i.nomeBanco, i.tipoInvestimento, i.nomeInvestimento, "
+            + "i.montanteInicial, i.valorInicialAcao, i.taxaRentabilidade, i.numeroAcoesInicial) "
+            + "from Investimento i where i.usuarioInvestimento.id in :usuarioIds order by i.id")
+    List<InvestimentoProjecao> listarProjecoesPorUsuarios(@Param("usuarioIds") Collection<Long> usuarioIds);
+
+    /**
+     * Lista como projeções planas as rentabilidades diárias dos investimentos informados.
+     *
+     * @param investimentoIds IDs dos investimentos (no máximo {@code PaginacaoKeyset.LIMITE_MAXIMO})
+     * @return projeções ordenadas por investimento e data
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.id in :investimentoIds "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesProjecaoPorInvestimentos(
+            @Param("investimentoIds") Collection<Long> investimentoIds);
+
+    /**
+     * Lista como projeções planas as rentabilidades diárias de todos os investimentos dos usuários informados.
+     *
+     * @param usuarioIds IDs dos usuários (no máximo {@code PaginacaoKeyset.LIMITE_MAXIMO})
+     * @return projeções ordenadas por investimento e data
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.usuarioInvestimento.id in :usuarioIds "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesProjecaoPorUsuarios(
+            @Param("usuarioIds") Collection<Long> usuarioIds);
+
+    /**
+     * Lista como projeções planas as rentabilidades diárias dos usuários informados dentro de um período.
+     *
+     * @param usuarioIds IDs dos usuários (no máximo 1000, limite da lista IN no Oracle)
+     * @param inicio primeira data incluída
+     * @param fim última data incluída
+     * @return projeções ordenadas por investimento e data
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.usuarioInvestimento.id in :usuarioIds "
+            + "and r.dataRentabilidadeDiaria between :inicio and :fim "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesProjecaoPorUsuariosEPeriodo(
+            @Param("usuarioIds") Collection<Long> usuarioIds, @Param("inicio") LocalDate inicio,
+            @Param("fim") LocalDate fim);
+
+    /**
+     * Lista a carteira do CPF informado: uma linha por investimento, ordenadas por ID,
+     * com o ID e a versão do usuário em cada linha (left join: usuário sem investimentos
+     * gera uma linha com o investimento nulo).
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @return linhas da carteira (vazia se o CPF não existir)
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.LinhaCarteiraProjecao("
+            + "u.id, u.versao, i.id, i.nomeBanco, i.tipoInvestimento, i.nomeInvestimento, "
+            + "i.montanteInicial, i.valorInicialAcao, i.taxaRentabilidade, i.numeroAcoesInicial) "
+            + "from UsuarioInvestimento u left join u.investimentos i where u.cpf.numero = :cpf order by i.id")
+    List<LinhaCarteiraProjecao> listarLinhasCarteiraPorCpf(@Param("cpf") long cpf);
+
+    /**
+     * Lê somente o ID e a versão de um investimento.
+     *
+     * @param id ID do investimento
+     * @return versão do investimento, se existir
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.VersaoProjecao(i.id, i.versao) "
+            + "from Investimento i where i.id = :id")
+    Optional<VersaoProjecao> buscarVersao(@Param("id") Long id);
+
+    /**
+     * Carrega um investimento junto com o seu dono, em uma única consulta.
+     *
+     * @param id ID do investimento
+     * @return investimento com o usuário já carregado, se existir
+     */
+    @Query("select i from Investimento i left join fetch i.usuarioInvestimento where i.id = :id")
+    Optional<Investimento> buscarComDono(@Param("id") Long id);
+
+    /**
+     * Lista como projeções planas todas as rentabilidades diárias dos investimentos de um CPF.
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @return projeções ordenadas por investimento e data
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.usuarioInvestimento.cpf.numero = :cpf "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesProjecaoPorCpf(@Param("cpf") long cpf);
+
+    /**
+     * Lista como projeções planas as rentabilidades diárias dos investimentos de um CPF
+     * dentro de um período (range scan no índice INVESTIMENTO_ID + DATA_RENTABILIDADE_DIARIA).
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @param inicio primeira data incluída
+     * @param fim última data incluída
+     * @return projeções ordenadas por investimento e data
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.usuarioInvestimento.cpf.numero = :cpf "
+            + "and r.dataRentabilidadeDiaria between :inicio and :fim "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesProjecaoPorCpfEPeriodo(
+            @Param("cpf") long cpf, @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Lista como projeções planas as rentabilidades diárias de um investimento dentro de um período.
+     *
+     * @param investimentoId ID do investimento
+     * @param inicio primeira data incluída
+     * @param fim última data incluída
+     * @return projeções ordenadas por data
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.id = :investimentoId "
+            + "and r.dataRentabilidadeDiaria between :inicio and :fim "
+            + "order by r.dataRentabilidadeDiaria")
+    List<RentabilidadeDiariaProjecao> listarRentabilidadesProjecaoPorInvestimentoEPeriodo(
+            @Param("investimentoId") Long investimentoId, @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Lista somente a data e o montante (em centavos) das rentabilidades dos investimentos
+     * de um CPF dentro de um período, para a análise de desempenho. A conversão para
+     * inteiro é feita no banco, e as demais colunas da série não são lidas.
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @param inicio primeira data incluída
+     * @param fim última data incluída
+     * @return projeções ordenadas por investimento e data
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.MontanteDiarioProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, cast(r.montanteAcumuladoDiario * 100 as Long)) "
+            + "from RentabilidadeDiaria r where r.investimento.usuarioInvestimento.cpf.numero = :cpf "
+            + "and r.dataRentabilidadeDiaria between :inicio and :fim "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    List<MontanteDiarioProjecao> listarMontantesPorCpfEPeriodo(
+            @Param("cpf") long cpf, @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Busca as rentabilidades diárias de um investimento somente nas datas informadas
+     * (usa o índice da chave única INVESTIMENTO_ID + DATA_RENTABILIDADE_DIARIA).
+     *
+     * @param investimentoId ID do investimento
+     * @param datas datas procuradas (no máximo 1000, limite do IN no Oracle)
+     * @return rentabilidades existentes nessas datas
+     */
+    @Query("select r from RentabilidadeDiaria r where r.investimento.id = :investimentoId "
+            + "and r.dataRentabilidadeDiaria in :datas")
+    List<RentabilidadeDiaria> listarRentabilidadesPorDatas(@Param("investimentoId") Long investimentoId,
+                                                           @Param("datas") Collection<LocalDate> datas);
+
+    /**
+     * Abre um cursor sobre todos os investimentos, ordenados por ID, para exportação.
+     *
+     * As linhas são lidas do banco em blocos de 500 (fetch size) e as entidades
+     * são carregadas somente leitura. O chamador deve fechar o stream e
+     * desanexar as entidades do contexto de persistência conforme as consome.
+     *
+     * @return stream de investimentos ordenados por ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select i from Investimento i order by i.id")
+    Stream<Investimento> streamTodosOrdenadosPorId();
+
+    /**
+     * Abre um cursor sobre todas as rentabilidades diárias como projeções planas,
+     * ordenadas por investimento e data, para exportação.
+     *
+     * @return stream de projeções ordenadas por ID do investimento
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao("
+            + "r.investimento.id, r.dataRentabilidadeDiaria, r.valorDiarioAcao, "
+            + "r.taxaDiarioRentabilidade, r.montanteAcumuladoDiario) "
+            + "from RentabilidadeDiaria r where r.investimento.id is not null "
+            + "order by r.investimento.id, r.dataRentabilidadeDiaria")
+    Stream<RentabilidadeDiariaProjecao> streamRentabilidadesOrdenadasPorInvestimento();
+
+    /**
+     * Abre um cursor sobre as chaves (usuário, CPF, banco, tipo, nome) de todos os
+     * investimentos, para montar o índice invertido de carteiras.
+     *
+     * @return stream de projeções das chaves
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.ChaveIndiceProjecao("
+            + "i.usuarioInvestimento.id, i.usuarioInvestimento.cpf.cpf, i.nomeBanco, i.tipoInvestimento, i.nomeInvestimento) "
+            + "from Investimento i where i.usuarioInvestimento.id is not null")
+    Stream<ChaveIndiceProjecao> streamChavesIndice();
+
+    /**
+     * Lista as chaves (banco, tipo, nome) dos investimentos de um usuário, para reindexá-lo.
+     *
+     * @param usuarioId ID do usuário investidor
+     * @return projeções das chaves dos investimentos do usuário
      */
-    List<Investimento> findByUsuarioInvestimento_Cpf_Cpf(String cpf);
-}
\ No newline at end of file
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.ChaveIndiceProjecao("
+            + "i.usuarioInvestimento.id, i.usuarioInvestimento.cpf.cpf, i.nomeBanco, i.tipoInvestimento, i.nomeInvestimento) "
+            + "from Investimento i where i.usuarioInvestimento.id = :usuarioId")
+    List<ChaveIndiceProjecao> listarChavesIndicePorUsuario(@Param("usuarioId") Long usuarioId);
+}
@@ -1,7 +1,18 @@
 package com.challenge.investimentos.investimentos_api.repository;
 
+import com.challenge.investimentos.investimentos_api.dto.FacetasProjecao;
+import com.challenge.investimentos.investimentos_api.dto.UsuarioProjecao;
+import com.challenge.investimentos.investimentos_api.dto.VersaoProjecao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
 import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositório JPA para operações de persistência da entidade UsuarioInvestimento.
@@ -12,8 +23,58 @@ public interface UsuarioInvestimentoRepository extends JpaRepository<UsuarioInve
     /**
      * Busca um usuário investidor pelo CPF de identificação.
      *
-     * @param cpf CPF de identificação do usuário
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
      * @return usuário investidor correspondente ou null se não encontrado
      */
-    UsuarioInvestimento findByCpf_Cpf(String cpf);
-}
\ No newline at end of file
+    UsuarioInvestimento findByCpf_Numero(long cpf);
+
+    /**
+     * Lê somente o ID e a versão da carteira do usuário com o CPF informado.
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @return versão da carteira, se o usuário existir
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.VersaoProjecao(u.id, u.versao) "
+            + "from UsuarioInvestimento u where u.cpf.numero = :cpf")
+    Optional<VersaoProjecao> buscarVersaoPorCpf(@Param("cpf") long cpf);
+
+    /**
+     * Lista uma página de usuários investidores (keyset por ID) como projeções planas.
+     *
+     * @param aposId último ID já entregue ({@code 0} para a primeira página)
+     * @param limite quantidade máxima de linhas
+     * @return projeções dos usuários com ID maior que {@code aposId}, ordenadas por ID
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.UsuarioProjecao(u.id, u.cpf.cpf) "
+            + "from UsuarioInvestimento u where u.id > :aposId order by u.id")
+    List<UsuarioProjecao> listarProjecoesApos(@Param("aposId") long aposId, Limit limite);
+
+    /**
+     * Lista como projeções planas os usuários com os CPFs informados.
+     *
+     * @param cpfs chaves numéricas dos CPFs (no máximo 1000, limite da lista IN no Oracle)
+     * @return projeções dos usuários encontrados, sem ordem definida
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.UsuarioProjecao(u.id, u.cpf.cpf) "
+            + "from UsuarioInvestimento u where u.cpf.numero in :cpfs")
+    List<UsuarioProjecao> listarProjecoesPorCpfs(@Param("cpfs") Collection<Long> cpfs);
+
+    /**
+     * Lê as máscaras de facetas (bancos e tipos) do usuário com o CPF informado.
+     *
+     * @param cpf chave numérica do CPF ({@link CodecCpf#codificar})
+     * @return máscaras do usuário ou null se não encontrado
+     */
+    @Query("select new com.challenge.investimentos.investimentos_api.dto.FacetasProjecao(u.mascaraBancos, u.mascaraTipos) "
+            + "from UsuarioInvestimento u where u.cpf.numero = :cpf")
+    FacetasProjecao buscarFacetasPorCpf(@Param("cpf") long cpf);
+
+    /**
+     * Filtra, entre os CPFs informados, os que já estão cadastrados.
+     *
+     * @param cpfs chaves numéricas dos CPFs (no máximo 1000, limite da lista IN no Oracle)
+     * @return chaves dos CPFs já existentes
+     */
+    @Query("select u.cpf.numero from UsuarioInvestimento u where u.cpf.numero in :cpfs")
+    List<Long> listarCpfsExistentes(@Param("cpfs") Collection<Long> cpfs);
+}
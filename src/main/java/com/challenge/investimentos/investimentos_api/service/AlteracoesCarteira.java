@@ -0,0 +1,406 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.AlteracaoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.AlteracoesCarteiraDTO;
+import com.challenge.investimentos.investimentos_api.dto.FaixaRentabilidadeDTO;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao;
+import com.challenge.investimentos.investimentos_api.dto.SequenciaAlteracoesProjecao;
+import com.challenge.investimentos.investimentos_api.enums.EntidadeAlteracao;
+import com.challenge.investimentos.investimentos_api.enums.OperacaoAlteracao;
+import com.challenge.investimentos.investimentos_api.model.AlteracaoCarteira;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+import com.challenge.investimentos.investimentos_api.repository.AlteracaoCarteiraRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Log de alterações da carteira ({@code ALTERACAO_CARTEIRA}) e sincronização incremental.
+ *
+ * Os serviços informam aqui cada investimento inserido, alterado ou removido e as
+ * datas tocadas da série diária. As alterações são acumuladas durante a transação e
+ * gravadas antes do commit, na mesma transação: uma linha por investimento e uma por
+ * faixa contínua de datas com a mesma operação, de modo que um upload de série
+ * inteira gera uma linha por investimento, e não uma por dia.
+ *
+ * As linhas são numeradas pela sequência do usuário ({@code SEQUENCIA_ALTERACOES}).
+ * Como ela é uma coluna da entidade, avançar a sequência torna o usuário sujo e a sua
+ * {@code VERSAO} sobe no mesmo UPDATE; duas escritas concorrentes no mesmo usuário não
+ * chegam as duas ao commit (controle otimista), então a ordem das sequências é a
+ * ordem dos commits e um cliente nunca pula uma alteração.
+ *
+ * A leitura ({@link #listarDesde}) devolve o estado atual das chaves alteradas depois
+ * do {@code since} do cliente, em no máximo quatro consultas. A compactação
+ * ({@link #compactar}) remove as linhas mais antigas que a retenção e guarda em
+ * {@code SEQUENCIA_COMPACTADA} até onde removeu; um {@code since} anterior a ela recebe
+ * 410 e o cliente volta a baixar a carteira completa.
+ */
+@Service
+public class AlteracoesCarteira {
+
+    /** Cabeçalho com a última sequência do log de alterações do usuário. */
+    public static final String CABECALHO_SEQUENCIA = "X-Sequencia-Alteracoes";
+
+    /** Linhas removidas por comando DELETE na compactação. */
+    private static final int LINHAS_POR_COMPACTACAO = 10_000;
+
+    private final AlteracaoCarteiraRepository alteracaoCarteiraRepository;
+    private final MetricasNegocio metricasNegocio;
+    private final long retencaoDias;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AlteracoesCarteira(AlteracaoCarteiraRepository alteracaoCarteiraRepository, MetricasNegocio metricasNegocio,
+                              @Value("${investimentos.alteracoes.retencao-dias:30}") long retencaoDias) {
+        this.alteracaoCarteiraRepository = alteracaoCarteiraRepository;
+        this.metricasNegocio = metricasNegocio;
+        this.retencaoDias = retencaoDias;
+    }
+
+    /**
+     * Registra um investimento novo e toda a sua série diária.
+     *
+     * @param investimento investimento inserido na transação atual
+     */
+    void investimentoInserido(Investimento investimento) {
+        AlteracoesInvestimento pendente = pendente(investimento);
+        if (pendente == null) return;
+        pendente.investimento(OperacaoAlteracao.INSERCAO);
+        pendente.datas(SerieRentabilidade.datas(investimento.getRentabilidadeDiaria()), OperacaoAlteracao.INSERCAO);
+    }
+
+    /**
+     * Registra a alteração dos dados de um investimento (sem a série diária).
+     *
+     * @param investimento investimento alterado na transação atual
+     */
+    void investimentoAtualizado(Investimento investimento) {
+        AlteracoesInvestimento pendente = pendente(investimento);
+        if (pendente == null) return;
+        pendente.investimento(OperacaoAlteracao.ATUALIZACAO);
+    }
+
+    /**
+     * Registra a remoção de um investimento, com toda a sua série diária.
+     *
+     * @param investimento investimento removido na transação atual
+     */
+    void investimentoRemovido(Investimento investimento) {
+        AlteracoesInvestimento pendente = pendente(investimento);
+        if (pendente == null) return;
+        pendente.investimento(OperacaoAlteracao.REMOCAO);
+    }
+
+    /**
+     * Registra as datas inseridas, atualizadas e removidas da série de um investimento.
+     *
+     * @param investimento investimento cuja série foi mesclada
+     * @param mescla datas tocadas pela mescla
+     */
+    void serieAlterada(Investimento investimento, SerieRentabilidade.Mescla mescla) {
+        if (mescla.total() == 0) return;
+        AlteracoesInvestimento pendente = pendente(investimento);
+        if (pendente == null) return;
+        pendente.datas(mescla.datasInseridas(), OperacaoAlteracao.INSERCAO);
+        pendente.datas(mescla.datasAtualizadas(), OperacaoAlteracao.ATUALIZACAO);
+        pendente.datas(mescla.datasRemovidas(), OperacaoAlteracao.REMOCAO);
+    }
+
+    /**
+     * Lista o que mudou na carteira do CPF depois da sequência informada.
+     *
+     * Investimentos e faixas da série aparecem no estado atual, sem repetição, por mais
+     * vezes que tenham mudado. Faixas de investimentos removidos não são listadas.
+     *
+     * @param cpf CPF do usuário
+     * @param desde última sequência já aplicada pelo cliente ({@code 0} para todas)
+     * @return 200 com as alterações; 404 se o CPF não existir; 410 se parte das
+     *         alterações já foi compactada. A última sequência segue em {@link #CABECALHO_SEQUENCIA}.
+     * @throws IllegalArgumentException se {@code desde} for negativo ou maior que a última sequência
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> listarDesde(String cpf, long desde) {
+        SequenciaAlteracoesProjecao sequencia =
+                alteracaoCarteiraRepository.buscarSequenciaPorCpf(CodecCpf.codificar(cpf)).orElse(null);
+        if (sequencia == null) return ResponseEntity.notFound().build();
+        if (desde < 0 || desde > sequencia.atual()) {
+            throw new IllegalArgumentException("Parâmetro 'since' inválido: " + desde
+                    + ". A última sequência da carteira é " + sequencia.atual() + ".");
+        }
+        if (desde < sequencia.compactada()) {
+            return ResponseEntity.status(HttpStatus.GONE)
+                    .header(CABECALHO_SEQUENCIA, String.valueOf(sequencia.atual()))
+                    .body("As alterações até a sequência " + sequencia.compactada() + " já foram compactadas. "
+                            + "Baixe a carteira completa e sincronize a partir de since=" + sequencia.atual() + ".");
+        }
+
+        Long usuarioId = sequencia.usuarioId();
+        long ate = sequencia.atual();
+        List<AlteracaoProjecao> alteracoes = desde == ate ? List.of()
+                : alteracaoCarteiraRepository.listarAlteracoes(usuarioId, desde, ate);
+
+        Set<Long> investimentosAlterados = new LinkedHashSet<>();
+        Map<Long, List<LocalDate[]>> faixasPorInvestimento = new LinkedHashMap<>();
+        for (AlteracaoProjecao alteracao : alteracoes) {
+            if (alteracao.entidade() == EntidadeAlteracao.INVESTIMENTO) {
+                investimentosAlterados.add(alteracao.investimentoId());
+            } else {
+                faixasPorInvestimento.computeIfAbsent(alteracao.investimentoId(), id -> new ArrayList<>())
+                        .add(new LocalDate[]{alteracao.dataInicial(), alteracao.dataFinal()});
+            }
+        }
+
+        List<InvestimentoDTO> investimentos = new ArrayList<>();
+        Set<Long> removidos = new LinkedHashSet<>(investimentosAlterados);
+        if (!investimentosAlterados.isEmpty()) {
+            for (InvestimentoProjecao projecao : alteracaoCarteiraRepository.listarInvestimentosAlterados(usuarioId, desde, ate)) {
+                investimentos.add(projecao.toDTO());
+                removidos.remove(projecao.id());
+            }
+        }
+        faixasPorInvestimento.keySet().removeAll(removidos);
+
+        List<FaixaRentabilidadeDTO> rentabilidades = faixasPorInvestimento.isEmpty() ? List.of()
+                : faixas(faixasPorInvestimento, alteracaoCarteiraRepository.listarRentabilidadesAlteradas(usuarioId, desde, ate));
+
+        return ResponseEntity.ok()
+                .header(CABECALHO_SEQUENCIA, String.valueOf(ate))
+                .body(new AlteracoesCarteiraDTO(cpf, desde, ate, investimentos, new ArrayList<>(removidos), rentabilidades));
+    }
+
+    /**
+     * Compactação agendada: remove as linhas do log mais antigas que a retenção
+     * ({@code investimentos.alteracoes.retencao-dias}).
+     */
+    @Scheduled(cron = "${investimentos.alteracoes.compactacao.cron:0 30 3 * * *}")
+    public void compactarAgendado() {
+        compactar(LocalDateTime.now().minusDays(retencaoDias));
+    }
+
+    /**
+     * Remove as linhas do log registradas antes do corte, em lotes, depois de marcar
+     * em cada usuário a maior sequência removida.
+     *
+     * @param corte instante de corte
+     * @return quantidade de linhas removidas
+     */
+    public long compactar(LocalDateTime corte) {
+        alteracaoCarteiraRepository.marcarCompactacao(corte);
+        long removidas = 0;
+        int lote;
+        do {
+            lote = alteracaoCarteiraRepository.removerAnteriores(corte, LINHAS_POR_COMPACTACAO);
+            removidas += lote;
+        } while (lote == LINHAS_POR_COMPACTACAO);
+        return removidas;
+    }
+
+    /**
+     * Junta as faixas sobrepostas ou vizinhas de cada investimento e distribui entre
+     * elas os dias atuais lidos do banco (ordenados por investimento e data).
+     */
+    private static List<FaixaRentabilidadeDTO> faixas(Map<Long, List<LocalDate[]>> faixasPorInvestimento,
+                                                      List<RentabilidadeDiariaProjecao> dias) {
+        Map<Long, List<RentabilidadeDiariaProjecao>> diasPorInvestimento = new HashMap<>();
+        for (RentabilidadeDiariaProjecao dia : dias) {
+            diasPorInvestimento.computeIfAbsent(dia.investimentoId(), id -> new ArrayList<>()).add(dia);
+        }
+
+        List<FaixaRentabilidadeDTO> resultado = new ArrayList<>();
+        for (Map.Entry<Long, List<LocalDate[]>> entrada : faixasPorInvestimento.entrySet()) {
+            List<LocalDate[]> faixas = entrada.getValue();
+            faixas.sort(Comparator.comparing((LocalDate[] faixa) -> faixa[0]));
+            List<RentabilidadeDiariaProjecao> diasDoInvestimento = diasPorInvestimento.getOrDefault(entrada.getKey(), List.of());
+            int proximoDia = 0;
+            int i = 0;
+            while (i < faixas.size()) {
+                LocalDate inicio = faixas.get(i)[0];
+                LocalDate fim = faixas.get(i)[1];
+                for (i++; i < faixas.size() && !faixas.get(i)[0].isAfter(fim.plusDays(1)); i++) {
+                    if (faixas.get(i)[1].isAfter(fim)) fim = faixas.get(i)[1];
+                }
+                List<RentabilidadeDiariaDTO> naFaixa = new ArrayList<>();
+                while (proximoDia < diasDoInvestimento.size()
+                        && !diasDoInvestimento.get(proximoDia).dataRentabilidadeDiaria().isAfter(fim)) {
+                    naFaixa.add(diasDoInvestimento.get(proximoDia++).toDTO());
+                }
+                resultado.add(new FaixaRentabilidadeDTO(entrada.getKey(),
+                        inicio.format(RentabilidadeDiariaDTO.FORMATO_DATA), fim.format(RentabilidadeDiariaDTO.FORMATO_DATA),
+                        naFaixa));
+            }
+        }
+        return resultado;
+    }
+
+    /** Alterações acumuladas do investimento na transação atual ({@code null} se não tiver dono). */
+    private AlteracoesInvestimento pendente(Investimento investimento) {
+        UsuarioInvestimento usuario = investimento.getUsuarioInvestimento();
+        if (usuario == null || usuario.getId() == null) return null;
+        Pendentes pendentes = (Pendentes) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            pendentes = new Pendentes();
+            TransactionSynchronizationManager.bindResource(this, pendentes);
+            TransactionSynchronizationManager.registerSynchronization(pendentes);
+        }
+        return pendentes.porUsuario.computeIfAbsent(usuario.getId(), id -> new IdentityHashMap<>())
+                .computeIfAbsent(investimento, AlteracoesInvestimento::new);
+    }
+
+    /**
+     * Grava as linhas do log de cada usuário alterado: reserva as sequências (antes do
+     * flush, para que o usuário seja atualizado uma vez só), descarrega as escritas
+     * pendentes para obter os IDs dos investimentos novos e persiste as linhas, que vão
+     * ao banco em lote no flush do commit.
+     */
+    private void gravar(Pendentes pendentes) {
+        Map<UsuarioInvestimento, List<Linha>> linhasPorUsuario = new LinkedHashMap<>();
+        for (Map.Entry<Long, Map<Investimento, AlteracoesInvestimento>> entrada : pendentes.porUsuario.entrySet()) {
+            UsuarioInvestimento usuario = entityManager.find(UsuarioInvestimento.class, entrada.getKey());
+            if (usuario == null) continue;
+            List<Linha> linhas = new ArrayList<>();
+            for (AlteracoesInvestimento investimento : entrada.getValue().values()) {
+                investimento.linhas(linhas);
+            }
+            linhasPorUsuario.put(usuario, linhas);
+        }
+        Map<UsuarioInvestimento, Long> primeiras = new IdentityHashMap<>();
+        linhasPorUsuario.forEach((usuario, linhas) -> primeiras.put(usuario, usuario.reservarSequencias(linhas.size())));
+
+        entityManager.flush();
+        LocalDateTime agora = LocalDateTime.now();
+        linhasPorUsuario.forEach((usuario, linhas) -> {
+            long sequencia = primeiras.get(usuario);
+            for (Linha linha : linhas) {
+                entityManager.persist(new AlteracaoCarteira(usuario.getId(), sequencia++, linha.entidade(), linha.operacao(),
+                        linha.investimento().id(), linha.dataInicial(), linha.dataFinal(), agora));
+            }
+        });
+    }
+
+    /** Alterações da transação atual, agrupadas por usuário e investimento. */
+    private final class Pendentes implements TransactionSynchronization {
+
+        private final Map<Long, Map<Investimento, AlteracoesInvestimento>> porUsuario = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            gravar(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AlteracoesCarteira.this);
+            if (status == STATUS_COMMITTED) {
+                contar(this);
+            }
+        }
+    }
+
+    /**
+     * Soma aos contadores de negócio os investimentos e as datas da série gravados no
+     * log. A série de um investimento removido não entra na conta.
+     */
+    private void contar(Pendentes pendentes) {
+        int[] investimentos = new int[OperacaoAlteracao.values().length];
+        int[] datas = new int[OperacaoAlteracao.values().length];
+        for (Map<Investimento, AlteracoesInvestimento> doUsuario : pendentes.porUsuario.values()) {
+            for (AlteracoesInvestimento alteracoes : doUsuario.values()) {
+                if (alteracoes.operacao != null) investimentos[alteracoes.operacao.ordinal()]++;
+                for (OperacaoAlteracao operacao : alteracoes.datas.values()) datas[operacao.ordinal()]++;
+            }
+        }
+        for (OperacaoAlteracao operacao : OperacaoAlteracao.values()) {
+            metricasNegocio.investimentosEscritos(operacao, investimentos[operacao.ordinal()]);
+            metricasNegocio.rentabilidadesEscritas(operacao, datas[operacao.ordinal()]);
+        }
+    }
+
+    /** Linha a gravar, antes de receber a sequência. */
+    private record Linha(AlteracoesInvestimento investimento, EntidadeAlteracao entidade, OperacaoAlteracao operacao,
+                         LocalDate dataInicial, LocalDate dataFinal) {
+    }
+
+    /** Operação sobre o investimento e operação por data da série. */
+    private static final class AlteracoesInvestimento {
+        private final Investimento entidade;
+        private final Long idAntesDaRemocao;
+        private OperacaoAlteracao operacao;
+        private final TreeMap<LocalDate, OperacaoAlteracao> datas = new TreeMap<>();
+
+        AlteracoesInvestimento(Investimento entidade) {
+            this.entidade = entidade;
+            this.idAntesDaRemocao = entidade.getId();
+        }
+
+        Long id() {
+            return entidade.getId() != null ? entidade.getId() : idAntesDaRemocao;
+        }
+
+        void investimento(OperacaoAlteracao nova) {
+            operacao = combinar(operacao, nova);
+        }
+
+        void datas(Collection<LocalDate> tocadas, OperacaoAlteracao nova) {
+            for (LocalDate data : tocadas) {
+                if (data != null) datas.merge(data, nova, AlteracoesInvestimento::combinar);
+            }
+        }
+
+        /** Uma inserção seguida de atualização continua inserção; uma remoção prevalece. */
+        private static OperacaoAlteracao combinar(OperacaoAlteracao anterior, OperacaoAlteracao nova) {
+            if (anterior == OperacaoAlteracao.INSERCAO && nova == OperacaoAlteracao.ATUALIZACAO) return anterior;
+            return nova;
+        }
+
+        /** Acrescenta a linha do investimento e uma linha por faixa contínua de datas com a mesma operação. */
+        void linhas(List<Linha> linhas) {
+            if (operacao != null) {
+                linhas.add(new Linha(this, EntidadeAlteracao.INVESTIMENTO, operacao, null, null));
+            }
+            LocalDate inicio = null;
+            LocalDate fim = null;
+            OperacaoAlteracao operacaoFaixa = null;
+            for (Map.Entry<LocalDate, OperacaoAlteracao> data : datas.entrySet()) {
+                if (inicio != null && (data.getValue() != operacaoFaixa || !data.getKey().equals(fim.plusDays(1)))) {
+                    linhas.add(new Linha(this, EntidadeAlteracao.RENTABILIDADE_DIARIA, operacaoFaixa, inicio, fim));
+                    inicio = null;
+                }
+                if (inicio == null) {
+                    inicio = data.getKey();
+                    operacaoFaixa = data.getValue();
+                }
+                fim = data.getKey();
+            }
+            if (inicio != null) {
+                linhas.add(new Linha(this, EntidadeAlteracao.RENTABILIDADE_DIARIA, operacaoFaixa, inicio, fim));
+            }
+        }
+    }
+}
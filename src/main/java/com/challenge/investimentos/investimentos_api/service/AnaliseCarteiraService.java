@@ -0,0 +1,88 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.AnaliseCarteiraDTO;
+import com.challenge.investimentos.investimentos_api.dto.AnaliseInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.IndicadoresRentabilidadeDTO;
+import com.challenge.investimentos.investimentos_api.dto.LinhaCarteiraProjecao;
+import com.challenge.investimentos.investimentos_api.dto.MontanteDiarioProjecao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Análise de desempenho da carteira de um usuário: retorno ponderado pelo tempo,
+ * volatilidade, maior queda, índice de Sharpe e melhor/pior dia, por investimento
+ * e para a carteira consolidada.
+ *
+ * Lê a carteira e, numa segunda consulta, só a data e o montante em centavos de cada
+ * ponto da série; os cálculos ficam em {@link AnaliseRentabilidade}, sobre vetores primitivos.
+ */
+@Service
+@Timed(value = "investimentos.servico", description = "Tempo dos métodos dos serviços", histogram = true)
+public class AnaliseCarteiraService {
+
+    private final InvestimentoRepository investimentoRepository;
+
+    /**
+     * Construtor para injeção do repositório.
+     * @param investimentoRepository repositório de investimentos
+     */
+    public AnaliseCarteiraService(InvestimentoRepository investimentoRepository) {
+        this.investimentoRepository = investimentoRepository;
+    }
+
+    /**
+     * Calcula os indicadores de cada investimento e da carteira do CPF no período.
+     *
+     * @param cpf CPF do usuário
+     * @param de primeira data da série ({@code null} para sem limite)
+     * @param ate última data da série ({@code null} para sem limite)
+     * @param taxaLivreRisco taxa anual livre de risco, como fração ({@code 0.1075} = 10,75% a.a.)
+     * @return 200 com a análise, ou 404 se o usuário não existir
+     * @throws IllegalArgumentException se o período for inválido ou a taxa estiver fora de (-1, 1]
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<AnaliseCarteiraDTO> analisar(String cpf, LocalDate de, LocalDate ate, double taxaLivreRisco) {
+        Periodo periodo = Periodo.de(de, ate);
+        if (!(taxaLivreRisco > -1 && taxaLivreRisco <= 1)) {
+            throw new IllegalArgumentException("Taxa livre de risco inválida: " + taxaLivreRisco
+                    + ". Informe a taxa anual como fração, entre -1 (exclusive) e 1.");
+        }
+        long chave = CodecCpf.codificar(cpf);
+        List<LinhaCarteiraProjecao> linhas = investimentoRepository.listarLinhasCarteiraPorCpf(chave);
+        if (linhas.isEmpty()) return ResponseEntity.notFound().build();
+
+        List<MontanteDiarioProjecao> pontos = linhas.get(0).id() == null ? List.of()
+                : investimentoRepository.listarMontantesPorCpfEPeriodo(chave, periodo.inicio(), periodo.fim());
+        AnaliseRentabilidade.Series series = AnaliseRentabilidade.Series.de(pontos);
+
+        Map<Long, IndicadoresRentabilidadeDTO> porInvestimento = new HashMap<>();
+        AnaliseRentabilidade.Retornos retornos = new AnaliseRentabilidade.Retornos(series.maiorSerie());
+        for (int s = 0; s < series.quantidade(); s++) {
+            porInvestimento.put(series.investimentoIds[s], AnaliseRentabilidade.calcular(
+                    AnaliseRentabilidade.retornos(series, s, retornos), taxaLivreRisco).toDTO());
+        }
+        IndicadoresRentabilidadeDTO semSerie = AnaliseRentabilidade.calcular(
+                new AnaliseRentabilidade.Retornos(0), taxaLivreRisco).toDTO();
+
+        List<AnaliseInvestimentoDTO> investimentos = new ArrayList<>(linhas.size());
+        for (LinhaCarteiraProjecao linha : linhas) {
+            if (linha.id() == null) continue;
+            investimentos.add(new AnaliseInvestimentoDTO(linha.id(), linha.nomeBanco(),
+                    linha.tipoInvestimento() != null ? linha.tipoInvestimento().name() : null, linha.nomeInvestimento(),
+                    porInvestimento.getOrDefault(linha.id(), semSerie)));
+        }
+        IndicadoresRentabilidadeDTO carteira = AnaliseRentabilidade.calcular(
+                AnaliseRentabilidade.retornosCarteira(series), taxaLivreRisco).toDTO();
+        return ResponseEntity.ok(new AnaliseCarteiraDTO(cpf, taxaLivreRisco, carteira, investimentos));
+    }
+}
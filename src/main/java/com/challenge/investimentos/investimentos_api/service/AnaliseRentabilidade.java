@@ -0,0 +1,349 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.IndicadoresRentabilidadeDTO;
+import com.challenge.investimentos.investimentos_api.dto.MontanteDiarioProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indicadores de desempenho calculados sobre as séries de montante acumulado diário.
+ *
+ * As séries são lidas uma única vez para vetores primitivos (dia como epoch day e
+ * montante em centavos, ponto fixo em {@code long}); os laços dos indicadores correm
+ * sobre {@code double[]} de retornos, sem {@code BigDecimal}. O retorno de um intervalo
+ * é a variação do montante entre dois pontos consecutivos, e o encadeamento dos
+ * intervalos dá o retorno ponderado pelo tempo (TWR).
+ *
+ * Na carteira, o retorno de cada data considera somente os investimentos com ponto
+ * na data e no ponto anterior: a entrada de um investimento novo funciona como aporte,
+ * e não como ganho.
+ */
+final class AnaliseRentabilidade {
+
+    /** Dias corridos por ano, para anualizar retorno e volatilidade. */
+    static final double DIAS_POR_ANO = 365.25;
+
+    private AnaliseRentabilidade() {}
+
+    /**
+     * Séries de vários investimentos em vetores paralelos; a série do investimento
+     * {@code s} ocupa as posições {@code limites[s]} (inclusive) a {@code limites[s + 1]}
+     * (exclusive), em ordem de data.
+     */
+    static final class Series {
+        final long[] investimentoIds;
+        final int[] limites;
+        final int[] dias;
+        final long[] centavos;
+
+        private Series(long[] investimentoIds, int[] limites, int[] dias, long[] centavos) {
+            this.investimentoIds = investimentoIds;
+            this.limites = limites;
+            this.dias = dias;
+            this.centavos = centavos;
+        }
+
+        /**
+         * Monta os vetores a partir das projeções, descartando pontos sem data ou sem montante.
+         *
+         * @param pontos projeções ordenadas por investimento e data
+         * @return séries em vetores primitivos
+         */
+        static Series de(List<MontanteDiarioProjecao> pontos) {
+            int quantidade = 0;
+            Long anterior = null;
+            for (MontanteDiarioProjecao ponto : pontos) {
+                if (!ponto.investimentoId().equals(anterior)) {
+                    quantidade++;
+                    anterior = ponto.investimentoId();
+                }
+            }
+            long[] ids = new long[quantidade];
+            int[] limites = new int[quantidade + 1];
+            int[] dias = new int[pontos.size()];
+            long[] centavos = new long[pontos.size()];
+            int serie = -1;
+            int tamanho = 0;
+            anterior = null;
+            for (MontanteDiarioProjecao ponto : pontos) {
+                if (!ponto.investimentoId().equals(anterior)) {
+                    anterior = ponto.investimentoId();
+                    ids[++serie] = anterior;
+                    limites[serie] = tamanho;
+                }
+                if (ponto.data() == null || ponto.centavos() == null) continue;
+                dias[tamanho] = (int) ponto.data().toEpochDay();
+                centavos[tamanho++] = ponto.centavos();
+            }
+            limites[quantidade] = tamanho;
+            return new Series(ids, limites, dias, centavos);
+        }
+
+        int quantidade() {
+            return investimentoIds.length;
+        }
+
+        /** Maior quantidade de pontos de uma série, para dimensionar os vetores de retorno. */
+        int maiorSerie() {
+            int maior = 0;
+            for (int s = 0; s < quantidade(); s++) {
+                maior = Math.max(maior, limites[s + 1] - limites[s]);
+            }
+            return maior;
+        }
+    }
+
+    /**
+     * Retornos de um intervalo a outro, com a data de cada intervalo (a do ponto final)
+     * e a data do ponto de partida da série.
+     */
+    static final class Retornos {
+        final double[] valores;
+        final int[] dias;
+        int quantidade;
+        int diaBase = Integer.MIN_VALUE;
+
+        Retornos(int capacidade) {
+            valores = new double[capacidade];
+            dias = new int[capacidade];
+        }
+    }
+
+    /**
+     * Indicadores calculados para uma série; dias como epoch day, taxas como fração
+     * ({@code 0.05} = 5%) e {@link Double#NaN} quando o indicador não se aplica.
+     *
+     * @param observacoes quantidade de retornos diários (intervalos entre pontos)
+     * @param diaInicial dia do primeiro ponto
+     * @param diaFinal dia do último ponto
+     * @param retornoAcumulado retorno ponderado pelo tempo no período
+     * @param retornoAnualizado retorno acumulado convertido em taxa anual equivalente
+     * @param volatilidadeAnual desvio padrão amostral dos retornos, anualizado
+     * @param maxDrawdown maior queda relativa desde um pico (positiva)
+     * @param diaPico dia do pico que antecede a maior queda
+     * @param diaVale dia do fundo da maior queda
+     * @param sharpe retorno médio em excesso à taxa livre de risco sobre a volatilidade, anualizado
+     * @param diaMelhor dia do maior retorno
+     * @param melhorRetorno maior retorno de um intervalo
+     * @param diaPior dia do menor retorno
+     * @param piorRetorno menor retorno de um intervalo
+     */
+    record Indicadores(int observacoes, int diaInicial, int diaFinal, double retornoAcumulado, double retornoAnualizado,
+                       double volatilidadeAnual, double maxDrawdown, int diaPico, int diaVale, double sharpe,
+                       int diaMelhor, double melhorRetorno, int diaPior, double piorRetorno) {
+
+        /**
+         * Converte os indicadores em DTO, com datas em {@code dd-MM-yyyy} e {@code null}
+         * no lugar dos valores indefinidos.
+         * @return DTO dos indicadores
+         */
+        IndicadoresRentabilidadeDTO toDTO() {
+            if (observacoes == 0) {
+                return new IndicadoresRentabilidadeDTO(0, data(diaInicial), data(diaFinal), null, null, null, null,
+                        null, null, null, null, null, null, null);
+            }
+            return new IndicadoresRentabilidadeDTO(observacoes, data(diaInicial), data(diaFinal),
+                    valor(retornoAcumulado), valor(retornoAnualizado), valor(volatilidadeAnual), valor(maxDrawdown),
+                    maxDrawdown > 0 ? data(diaPico) : null, maxDrawdown > 0 ? data(diaVale) : null, valor(sharpe),
+                    data(diaMelhor), valor(melhorRetorno), data(diaPior), valor(piorRetorno));
+        }
+
+        private static String data(int dia) {
+            return dia == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(dia).format(RentabilidadeDiariaDTO.FORMATO_DATA);
+        }
+
+        private static Double valor(double valor) {
+            return Double.isFinite(valor) ? valor : null;
+        }
+    }
+
+    /**
+     * Retornos de uma série: um por par de pontos consecutivos com montante anterior positivo.
+     *
+     * @param series séries em vetores
+     * @param s índice da série
+     * @param destino vetores de retorno, reaproveitados entre as séries
+     * @return {@code destino} preenchido
+     */
+    static Retornos retornos(Series series, int s, Retornos destino) {
+        int inicio = series.limites[s];
+        int fim = series.limites[s + 1];
+        long[] centavos = series.centavos;
+        int n = 0;
+        for (int i = inicio + 1; i < fim; i++) {
+            long anterior = centavos[i - 1];
+            if (anterior <= 0) continue;
+            destino.valores[n] = (centavos[i] - anterior) / (double) anterior;
+            destino.dias[n++] = series.dias[i];
+        }
+        destino.quantidade = n;
+        destino.diaBase = fim > inicio ? series.dias[inicio] : Integer.MIN_VALUE;
+        return destino;
+    }
+
+    /**
+     * Retornos da carteira: em cada data, a soma das variações dos investimentos com
+     * intervalo terminando na data, sobre a soma dos seus montantes no ponto anterior.
+     *
+     * Quando o período não é mais longo que a quantidade de intervalos (séries diárias),
+     * as somas são acumuladas em vetores indexados pelo dia; senão (poucos pontos espalhados
+     * por muitos anos), os intervalos são ordenados por data, de modo que a memória
+     * acompanhe a quantidade de pontos e não a extensão do período.
+     *
+     * @param series séries dos investimentos da carteira
+     * @return retornos da carteira por data
+     */
+    static Retornos retornosCarteira(Series series) {
+        int intervalos = 0;
+        int diaBase = Integer.MAX_VALUE;
+        int menorDia = Integer.MAX_VALUE;
+        int maiorDia = Integer.MIN_VALUE;
+        for (int s = 0; s < series.quantidade(); s++) {
+            int inicio = series.limites[s];
+            int fim = series.limites[s + 1];
+            if (fim > inicio) diaBase = Math.min(diaBase, series.dias[inicio]);
+            for (int i = inicio + 1; i < fim; i++) {
+                if (series.centavos[i - 1] > 0) {
+                    intervalos++;
+                    menorDia = Math.min(menorDia, series.dias[i]);
+                    maiorDia = Math.max(maiorDia, series.dias[i]);
+                }
+            }
+        }
+        Retornos carteira = new Retornos(intervalos);
+        if (diaBase != Integer.MAX_VALUE) carteira.diaBase = diaBase;
+        if (intervalos == 0) return carteira;
+        if ((long) maiorDia - menorDia < intervalos) {
+            acumularPorDia(series, carteira, menorDia, maiorDia - menorDia + 1);
+        } else {
+            acumularOrdenando(series, carteira, intervalos);
+        }
+        return carteira;
+    }
+
+    /** Soma variações e bases em vetores com uma posição por dia do período. */
+    private static void acumularPorDia(Series series, Retornos carteira, int menorDia, int extensao) {
+        long[] variacao = new long[extensao];
+        long[] base = new long[extensao];
+        long[] centavos = series.centavos;
+        for (int s = 0; s < series.quantidade(); s++) {
+            for (int i = series.limites[s] + 1; i < series.limites[s + 1]; i++) {
+                long anterior = centavos[i - 1];
+                if (anterior <= 0) continue;
+                int d = series.dias[i] - menorDia;
+                variacao[d] += centavos[i] - anterior;
+                base[d] += anterior;
+            }
+        }
+        int n = 0;
+        for (int d = 0; d < extensao; d++) {
+            if (base[d] == 0) continue;
+            carteira.valores[n] = variacao[d] / (double) base[d];
+            carteira.dias[n++] = menorDia + d;
+        }
+        carteira.quantidade = n;
+    }
+
+    /**
+     * Ordena os intervalos por data numa única ordenação de {@code long[]} (dia nos
+     * 32 bits altos, posição do ponto nos baixos) e soma as variações de cada data.
+     */
+    private static void acumularOrdenando(Series series, Retornos carteira, int intervalos) {
+        long[] chaves = new long[intervalos];
+        long[] centavos = series.centavos;
+        int m = 0;
+        for (int s = 0; s < series.quantidade(); s++) {
+            for (int i = series.limites[s] + 1; i < series.limites[s + 1]; i++) {
+                if (centavos[i - 1] > 0) {
+                    chaves[m++] = ((long) series.dias[i] << 32) | i;
+                }
+            }
+        }
+        Arrays.sort(chaves);
+
+        int n = 0;
+        int k = 0;
+        while (k < m) {
+            int dia = (int) (chaves[k] >> 32);
+            long variacao = 0;
+            long base = 0;
+            for (; k < m && (int) (chaves[k] >> 32) == dia; k++) {
+                int i = (int) chaves[k];
+                variacao += centavos[i] - centavos[i - 1];
+                base += centavos[i - 1];
+            }
+            carteira.valores[n] = variacao / (double) base;
+            carteira.dias[n++] = dia;
+        }
+        carteira.quantidade = n;
+    }
+
+    /**
+     * Calcula os indicadores de uma sequência de retornos em duas passadas: a primeira
+     * encadeia o retorno, acompanha pico, queda e extremos e soma os retornos; a segunda
+     * soma os desvios quadrados em torno da média (mais estável que a soma dos quadrados
+     * quando a variância é pequena perto da média, como em renda fixa).
+     *
+     * @param retornos retornos por data
+     * @param taxaLivreRisco taxa anual livre de risco, como fração
+     * @return indicadores da série
+     */
+    static Indicadores calcular(Retornos retornos, double taxaLivreRisco) {
+        int n = retornos.quantidade;
+        double[] r = retornos.valores;
+        int[] dias = retornos.dias;
+        if (n == 0) {
+            return new Indicadores(0, retornos.diaBase, retornos.diaBase, Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+                    Integer.MIN_VALUE, Integer.MIN_VALUE, Double.NaN, Integer.MIN_VALUE, Double.NaN,
+                    Integer.MIN_VALUE, Double.NaN);
+        }
+
+        double riqueza = 1;
+        double pico = 1;
+        int diaPico = retornos.diaBase;
+        double maxDrawdown = 0;
+        int diaPicoQueda = retornos.diaBase;
+        int diaVale = retornos.diaBase;
+        int melhor = 0;
+        int pior = 0;
+        double soma = 0;
+        for (int k = 0; k < n; k++) {
+            double retorno = r[k];
+            soma += retorno;
+            riqueza *= 1 + retorno;
+            if (riqueza > pico) {
+                pico = riqueza;
+                diaPico = dias[k];
+            } else {
+                double queda = 1 - riqueza / pico;
+                if (queda > maxDrawdown) {
+                    maxDrawdown = queda;
+                    diaPicoQueda = diaPico;
+                    diaVale = dias[k];
+                }
+            }
+            if (retorno > r[melhor]) melhor = k;
+            if (retorno < r[pior]) pior = k;
+        }
+        double media = soma / n;
+        double desvios = 0;
+        for (int k = 0; k < n; k++) {
+            double desvio = r[k] - media;
+            desvios += desvio * desvio;
+        }
+
+        int diaFinal = dias[n - 1];
+        int extensao = diaFinal - retornos.diaBase;
+        double pontosPorAno = extensao > 0 ? n * DIAS_POR_ANO / extensao : Double.NaN;
+        double retornoAnualizado = extensao > 0 ? Math.pow(riqueza, DIAS_POR_ANO / extensao) - 1 : Double.NaN;
+        double desvioPadrao = n > 1 ? Math.sqrt(desvios / (n - 1)) : Double.NaN;
+        double livreDeRiscoPorPonto = Math.pow(1 + taxaLivreRisco, 1 / pontosPorAno) - 1;
+        double sharpe = desvioPadrao > 0 ? (media - livreDeRiscoPorPonto) / desvioPadrao * Math.sqrt(pontosPorAno) : Double.NaN;
+        return new Indicadores(n, retornos.diaBase, diaFinal, riqueza - 1, retornoAnualizado,
+                desvioPadrao * Math.sqrt(pontosPorAno), maxDrawdown, diaPicoQueda, diaVale, sharpe,
+                dias[melhor], r[melhor], dias[pior], r[pior]);
+    }
+}
@@ -1,41 +1,57 @@
 package com.challenge.investimentos.investimentos_api.service;
 
 
+import com.challenge.investimentos.investimentos_api.dto.FacetasProjecao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
 import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.repository.UsuarioInvestimentoRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Serviço responsável pelas operações relacionadas a bancos associados aos investimentos dos usuários.
  */
 @Service
+@Timed(value = "investimentos.servico", description = "Tempo dos métodos dos serviços", histogram = true)
 public class BancoService {
 
     private final InvestimentoRepository investimentoRepository;
+    private final UsuarioInvestimentoRepository usuarioInvestimentoRepository;
 
     /**
-     * Construtor para injeção do repositório de investimentos.
+     * Construtor para injeção dos repositórios.
      * @param investimentoRepository repositório de investimentos
+     * @param usuarioInvestimentoRepository repositório de usuários investidores
      */
-    public BancoService(InvestimentoRepository investimentoRepository) {
+    public BancoService(InvestimentoRepository investimentoRepository,
+                        UsuarioInvestimentoRepository usuarioInvestimentoRepository) {
         this.investimentoRepository = investimentoRepository;
+        this.usuarioInvestimentoRepository = usuarioInvestimentoRepository;
     }
 
     /**
      * Lista os bancos distintos associados a um usuário investidor pelo CPF.
      *
+     * Responde a partir da máscara de bancos gravada no próprio usuário (uma
+     * leitura por CPF). Só consulta os investimentos quando a carteira tem algum
+     * banco fora do {@code BancoEnum}.
+     *
      * @param cpf CPF do usuário investidor
      * @return lista de nomes de bancos (String) associados ao CPF informado
      */
     @Transactional(readOnly = true)
     public List<String> listarBancosPorCpf(String cpf) {
-        // Busca todos os investimentos e depois extrai os nomes dos bancos distintos
-        return investimentoRepository.findByUsuarioInvestimento_Cpf_Cpf(cpf).stream()
-                .map(investimento -> investimento.getNomeBanco()) // <-- Linha corrigida
-                .distinct()
-                .collect(Collectors.toList());
+        long chave = CodecCpf.codificar(cpf);
+        FacetasProjecao facetas = usuarioInvestimentoRepository.buscarFacetasPorCpf(chave);
+        if (facetas == null) {
+            return List.of();
+        }
+        if ((facetas.mascaraBancos() & FacetasCarteira.BIT_BANCO_NAO_CATALOGADO) != 0) {
+            return investimentoRepository.listarNomesBancoPorCpf(chave);
+        }
+        return FacetasCarteira.bancos(facetas.mascaraBancos());
     }
 }
\ No newline at end of file
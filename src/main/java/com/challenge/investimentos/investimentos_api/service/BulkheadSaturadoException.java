@@ -0,0 +1,31 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+
+/**
+ * Lançada quando um bulkhead não tem vaga nem lugar na fila, ou quando a espera
+ * por uma vaga passa do limite configurado.
+ */
+public class BulkheadSaturadoException extends RuntimeException {
+
+    private final TipoBulkhead tipo;
+    private final long retryAfterSegundos;
+
+    /**
+     * @param tipo bulkhead saturado
+     * @param retryAfterSegundos tempo sugerido ao cliente antes de tentar de novo
+     */
+    public BulkheadSaturadoException(TipoBulkhead tipo, long retryAfterSegundos) {
+        super("Bulkhead " + tipo.name().toLowerCase() + " saturado");
+        this.tipo = tipo;
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public TipoBulkhead getTipo() {
+        return tipo;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -0,0 +1,140 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasBulkheadDTO;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limites de concorrência por classe de carga ({@link TipoBulkhead}).
+ *
+ * Cada bulkhead tem um número fixo de vagas, uma fila limitada e um tempo máximo de
+ * espera por vaga. Uma requisição que encontra a fila cheia, ou que espera além do
+ * limite, recebe {@link BulkheadSaturadoException} (503 com {@code Retry-After}) em
+ * vez de ficar presa à espera de uma conexão. Assim algumas escritas em lote longas
+ * não tomam as conexões das leituras interativas, e vice-versa.
+ */
+@Service
+public class Bulkheads {
+
+    private final Map<TipoBulkhead, Compartimento> compartimentos = new EnumMap<>(TipoBulkhead.class);
+
+    /**
+     * Construtor com os limites de cada bulkhead.
+     * @param leituraConcorrencia vagas de leitura
+     * @param leituraFila lugares na fila de leitura
+     * @param leituraEsperaMs espera máxima por uma vaga de leitura
+     * @param leituraRetryAfter {@code Retry-After} das leituras recusadas, em segundos
+     * @param escritaConcorrencia vagas de escrita em lote (também o tamanho do pool {@code lote})
+     * @param escritaFila lugares na fila de escrita
+     * @param escritaEsperaMs espera máxima por uma vaga de escrita
+     * @param escritaRetryAfter {@code Retry-After} das escritas recusadas, em segundos
+     */
+    public Bulkheads(@Value("${investimentos.bulkheads.leitura.concorrencia:10}") int leituraConcorrencia,
+                     @Value("${investimentos.bulkheads.leitura.fila:50}") int leituraFila,
+                     @Value("${investimentos.bulkheads.leitura.espera-ms:250}") long leituraEsperaMs,
+                     @Value("${investimentos.bulkheads.leitura.retry-after-s:1}") long leituraRetryAfter,
+                     @Value("${investimentos.bulkheads.escrita.concorrencia:4}") int escritaConcorrencia,
+                     @Value("${investimentos.bulkheads.escrita.fila:8}") int escritaFila,
+                     @Value("${investimentos.bulkheads.escrita.espera-ms:1000}") long escritaEsperaMs,
+                     @Value("${investimentos.bulkheads.escrita.retry-after-s:5}") long escritaRetryAfter) {
+        compartimentos.put(TipoBulkhead.LEITURA, new Compartimento(TipoBulkhead.LEITURA, leituraConcorrencia,
+                leituraFila, leituraEsperaMs, leituraRetryAfter));
+        compartimentos.put(TipoBulkhead.ESCRITA, new Compartimento(TipoBulkhead.ESCRITA, escritaConcorrencia,
+                escritaFila, escritaEsperaMs, escritaRetryAfter));
+    }
+
+    /**
+     * Ocupa uma vaga do bulkhead, esperando no máximo o tempo configurado.
+     *
+     * @param tipo bulkhead
+     * @throws BulkheadSaturadoException se não houver vaga a tempo
+     */
+    public void entrar(TipoBulkhead tipo) {
+        compartimentos.get(tipo).entrar();
+    }
+
+    /**
+     * Libera a vaga ocupada em {@link #entrar(TipoBulkhead)}.
+     *
+     * @param tipo bulkhead
+     */
+    public void sair(TipoBulkhead tipo) {
+        compartimentos.get(tipo).vagas.release();
+    }
+
+    /**
+     * Retorna a ocupação e os contadores de cada bulkhead.
+     */
+    public List<EstatisticasBulkheadDTO> estatisticas() {
+        return compartimentos.values().stream().map(Compartimento::estatisticas).toList();
+    }
+
+    /**
+     * Retorna a ocupação e os contadores de um bulkhead.
+     *
+     * @param tipo bulkhead
+     */
+    public EstatisticasBulkheadDTO estatisticas(TipoBulkhead tipo) {
+        return compartimentos.get(tipo).estatisticas();
+    }
+
+    /** Vagas, fila e contadores de um bulkhead. */
+    private static final class Compartimento {
+        private final TipoBulkhead tipo;
+        private final int concorrencia;
+        private final int fila;
+        private final long esperaMs;
+        private final long retryAfterSegundos;
+        private final Semaphore vagas;
+        private final AtomicInteger aguardando = new AtomicInteger();
+        private final LongAdder admitidas = new LongAdder();
+        private final LongAdder rejeitadas = new LongAdder();
+
+        Compartimento(TipoBulkhead tipo, int concorrencia, int fila, long esperaMs, long retryAfterSegundos) {
+            this.tipo = tipo;
+            this.concorrencia = concorrencia;
+            this.fila = fila;
+            this.esperaMs = esperaMs;
+            this.retryAfterSegundos = retryAfterSegundos;
+            this.vagas = new Semaphore(concorrencia);
+        }
+
+        void entrar() {
+            if (!vagas.tryAcquire() && !aguardarVaga()) {
+                rejeitadas.increment();
+                throw new BulkheadSaturadoException(tipo, retryAfterSegundos);
+            }
+            admitidas.increment();
+        }
+
+        private boolean aguardarVaga() {
+            if (aguardando.incrementAndGet() > fila) {
+                aguardando.decrementAndGet();
+                return false;
+            }
+            try {
+                return vagas.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                aguardando.decrementAndGet();
+            }
+        }
+
+        EstatisticasBulkheadDTO estatisticas() {
+            return new EstatisticasBulkheadDTO(tipo.name().toLowerCase(), concorrencia,
+                    concorrencia - vagas.availablePermits(), fila, aguardando.get(),
+                    admitidas.sum(), rejeitadas.sum());
+        }
+    }
+}
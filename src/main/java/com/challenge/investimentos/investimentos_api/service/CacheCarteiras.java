@@ -0,0 +1,203 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.config.RoteamentoBulkhead;
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasCacheDTO;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache em memória das respostas JSON já serializadas das leituras de carteira por CPF
+ * ({@code GET /api/usuario-investimentos/{cpf}} e {@code GET /api/investimentos/usuario/{cpf}}).
+ *
+ * Um acerto custa uma busca no mapa e a cópia dos bytes para a resposta: não há
+ * consulta ao banco, montagem de DTOs nem serialização. O cache é limitado pelo total
+ * de bytes guardados e descarta as entradas usadas há mais tempo (LRU).
+ *
+ * Cada entrada guarda a versão do CPF lida antes da consulta ao banco. O
+ * {@link CarteiraAlteradaEvent}, tratado após o commit, incrementa essa versão e
+ * remove as entradas do CPF; uma entrada montada com dados anteriores à escrita fica
+ * com versão antiga e nunca é servida. As faltas são carregadas na primária, numa
+ * transação que não é somente leitura: uma réplica atrasada devolveria a carteira
+ * anterior à escrita, que ficaria guardada com a versão nova. As versões ficam em um vetor de contadores
+ * indexado pelo hash do CPF, de tamanho fixo: colisões só causam faltas a mais.
+ * Entradas e versões usam o CPF normalizado para os 11 dígitos, então a leitura com
+ * máscara ({@code 123.456.789-09}) é invalidada pela mesma escrita que a sem máscara.
+ *
+ * Só a resposta completa (sem {@code fields}, {@code include}, {@code from} ou
+ * {@code to}) é guardada; as demais variações vão direto ao banco. A ETag da resposta
+ * fica junto da entrada, então um {@code If-None-Match} atendido pelo cache é
+ * respondido com 304 sem consulta alguma.
+ */
+@Service
+public class CacheCarteiras {
+
+    /** Cabeçalho que indica se a resposta veio do cache ({@code HIT}) ou do banco ({@code MISS}). */
+    public static final String CABECALHO_CACHE = "X-Cache";
+
+    /** Respostas de carteira guardadas por CPF. */
+    public enum Visao { USUARIO, INVESTIMENTOS }
+
+    private record Chave(String cpf, Visao visao) {
+    }
+
+    private record Entrada(long versao, byte[] json, String etag) {
+    }
+
+    private static final int CONTADORES_VERSAO = 4096;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate carga;
+    private final long limiteBytes;
+    private final long limiteBytesPorEntrada;
+
+    private final AtomicLongArray versoes = new AtomicLongArray(CONTADORES_VERSAO);
+    private final LinkedHashMap<Chave, Entrada> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytesGuardados;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder descartes = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    public CacheCarteiras(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                          @Value("${investimentos.cache.carteiras.limite-bytes:67108864}") long limiteBytes) {
+        this.objectMapper = objectMapper;
+        this.carga = new TransactionTemplate(transactionManager);
+        this.limiteBytes = limiteBytes;
+        this.limiteBytesPorEntrada = limiteBytes / 16;
+    }
+
+    /**
+     * Devolve a resposta guardada para o CPF ou a monta com {@code carregar}, guardando-a
+     * se vier com sucesso. Respostas de erro (como 404) e 304 não são guardadas.
+     * {@code carregar} roda na primária, mesmo que a consulta seja {@code readOnly}.
+     *
+     * @param cpf CPF consultado
+     * @param visao endpoint de origem
+     * @param seNenhumCorresponder valor do cabeçalho {@code If-None-Match} ({@code null} se ausente)
+     * @param carregar consulta ao serviço, executada só na falta
+     * @return resposta com o JSON em bytes, 304 se a ETag guardada corresponder, ou a resposta do serviço
+     */
+    public ResponseEntity<?> obter(String cpf, Visao visao, String seNenhumCorresponder,
+                                   Supplier<ResponseEntity<?>> carregar) {
+        Chave chave = new Chave(chaveCpf(cpf), visao);
+        int contador = contador(chave.cpf());
+        Entrada entrada;
+        synchronized (entradas) {
+            entrada = entradas.get(chave);
+        }
+        if (entrada != null && entrada.versao() == versoes.get(contador)) {
+            acertos.increment();
+            if (seNenhumCorresponder != null && entrada.etag() != null
+                    && VersoesCarteira.corresponde(seNenhumCorresponder, entrada.etag(), false)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .header(HttpHeaders.ETAG, entrada.etag())
+                        .header(CABECALHO_CACHE, "HIT")
+                        .build();
+            }
+            return resposta(entrada.json(), entrada.etag(), "HIT");
+        }
+
+        faltas.increment();
+        long versao = versoes.get(contador);
+        ResponseEntity<?> resposta = RoteamentoBulkhead.naPrimaria(() -> carga.execute(status -> carregar.get()));
+        if (!resposta.getStatusCode().is2xxSuccessful() || resposta.getBody() == null) {
+            return resposta;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(resposta.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a carteira do CPF " + cpf, e);
+        }
+        String etag = resposta.getHeaders().getETag();
+        guardar(chave, new Entrada(versao, json, etag));
+        return resposta(json, etag, "MISS");
+    }
+
+    /**
+     * Invalida as respostas do CPF cuja carteira mudou, depois do commit da escrita.
+     *
+     * @param evento evento com o CPF alterado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCarteira(CarteiraAlteradaEvent evento) {
+        if (evento.cpf() == null) return;
+        String cpf = chaveCpf(evento.cpf());
+        versoes.incrementAndGet(contador(cpf));
+        invalidacoes.increment();
+        synchronized (entradas) {
+            for (Visao visao : Visao.values()) {
+                Entrada removida = entradas.remove(new Chave(cpf, visao));
+                if (removida != null) {
+                    bytesGuardados -= removida.json().length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna os contadores de uso do cache.
+     *
+     * @return acertos, faltas, descartes por tamanho, invalidações e ocupação atual
+     */
+    public EstatisticasCacheDTO estatisticas() {
+        synchronized (entradas) {
+            return new EstatisticasCacheDTO(acertos.sum(), faltas.sum(), descartes.sum(), invalidacoes.sum(),
+                    entradas.size(), bytesGuardados, limiteBytes);
+        }
+    }
+
+    private void guardar(Chave chave, Entrada entrada) {
+        if (entrada.json().length > limiteBytesPorEntrada) return;
+        synchronized (entradas) {
+            if (entrada.versao() != versoes.get(contador(chave.cpf()))) return;
+            Entrada anterior = entradas.put(chave, entrada);
+            bytesGuardados += entrada.json().length - (anterior != null ? anterior.json().length : 0);
+            Iterator<Map.Entry<Chave, Entrada>> maisAntigas = entradas.entrySet().iterator();
+            while (bytesGuardados > limiteBytes && maisAntigas.hasNext()) {
+                bytesGuardados -= maisAntigas.next().getValue().json().length;
+                maisAntigas.remove();
+                descartes.increment();
+            }
+        }
+    }
+
+    private static ResponseEntity<byte[]> resposta(byte[] json, String etag, String origem) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(CABECALHO_CACHE, origem);
+        if (etag != null) {
+            resposta.header(HttpHeaders.ETAG, etag);
+        }
+        return resposta.body(json);
+    }
+
+    /** CPF nos 11 dígitos; texto inválido fica como veio (nenhum usuário o tem). */
+    private static String chaveCpf(String cpf) {
+        String normalizado = CodecCpf.normalizar(cpf);
+        return normalizado != null ? normalizado : cpf;
+    }
+
+    private static int contador(String cpf) {
+        int hash = cpf.hashCode();
+        return (hash ^ (hash >>> 16)) & (CONTADORES_VERSAO - 1);
+    }
+}
@@ -0,0 +1,26 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+
+/**
+ * Evento publicado pelos serviços sempre que a carteira de um usuário muda
+ * (inclusão, alteração ou remoção de investimentos, ou remoção do usuário).
+ *
+ * Os ouvintes devem usar {@code @TransactionalEventListener} para reagir somente
+ * depois do commit e reler o estado do banco a partir do ID informado.
+ *
+ * @param usuarioId ID do usuário cuja carteira foi alterada
+ * @param cpf CPF do mesmo usuário, usado pelos caches indexados por CPF
+ */
+public record CarteiraAlteradaEvent(Long usuarioId, String cpf) {
+
+    /**
+     * Monta o evento a partir do usuário alterado.
+     *
+     * @param usuario usuário cuja carteira foi alterada
+     * @return evento com o ID e o CPF do usuário
+     */
+    public static CarteiraAlteradaEvent de(UsuarioInvestimento usuario) {
+        return new CarteiraAlteradaEvent(usuario.getId(), usuario.getCpfIdentificacao());
+    }
+}
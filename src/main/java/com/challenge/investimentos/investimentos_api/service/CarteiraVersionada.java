@@ -0,0 +1,15 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+
+import java.util.List;
+
+/**
+ * Carteira de um CPF montada para leitura, com a versão do usuário lida na mesma consulta.
+ *
+ * @param usuarioId ID do usuário
+ * @param versao versão da carteira do usuário
+ * @param investimentos investimentos do usuário, ordenados por ID
+ */
+record CarteiraVersionada(long usuarioId, long versao, List<InvestimentoDTO> investimentos) {
+}
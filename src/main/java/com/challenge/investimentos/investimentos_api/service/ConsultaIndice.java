@@ -0,0 +1,140 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.function.Function;
+
+/**
+ * Analisador e avaliador das expressões de consulta do {@link IndiceCarteiras}.
+ *
+ * Gramática (palavras reservadas sem diferenciar maiúsculas; AND tem precedência sobre OR):
+ * <pre>
+ * expressao := termoE ( "OR" termoE )*
+ * termoE    := fator ( "AND" fator )*
+ * fator     := "(" expressao ")" | campo ":" valor
+ * campo     := banco | tipo | nome
+ * valor     := palavra | "texto entre aspas"
+ * </pre>
+ * Exemplo: {@code tipo:CDB AND (banco:Nubank OR banco:"Banco do Brasil")}.
+ */
+final class ConsultaIndice {
+
+    private final String texto;
+    private final Function<IndiceCarteiras.Chave, RoaringBitmap> usuariosPorChave;
+    private int pos;
+
+    private ConsultaIndice(String texto, Function<IndiceCarteiras.Chave, RoaringBitmap> usuariosPorChave) {
+        this.texto = texto;
+        this.usuariosPorChave = usuariosPorChave;
+    }
+
+    /**
+     * Avalia a expressão informada.
+     *
+     * O bitmap devolvido pode ser o próprio bitmap do índice (consulta de um único
+     * termo): o chamador não deve alterá-lo nem usá-lo fora da trava de leitura.
+     *
+     * @param expressao expressão de consulta
+     * @param usuariosPorChave bitmap de usuários de cada chave (vazio se a chave não existir)
+     * @return usuários que atendem à expressão
+     * @throws IllegalArgumentException se a expressão for inválida
+     */
+    static RoaringBitmap avaliar(String expressao, Function<IndiceCarteiras.Chave, RoaringBitmap> usuariosPorChave) {
+        if (expressao == null || expressao.isBlank()) {
+            throw new IllegalArgumentException("Consulta ao índice não pode ser vazia");
+        }
+        ConsultaIndice consulta = new ConsultaIndice(expressao, usuariosPorChave);
+        RoaringBitmap resultado = consulta.expressao();
+        consulta.pularEspacos();
+        if (consulta.pos < expressao.length()) {
+            throw new IllegalArgumentException("Trecho inesperado na consulta: " + expressao.substring(consulta.pos));
+        }
+        return resultado;
+    }
+
+    private RoaringBitmap expressao() {
+        RoaringBitmap resultado = termoE();
+        while (consumirPalavraReservada("OR")) {
+            resultado = RoaringBitmap.or(resultado, termoE());
+        }
+        return resultado;
+    }
+
+    private RoaringBitmap termoE() {
+        RoaringBitmap resultado = fator();
+        while (consumirPalavraReservada("AND")) {
+            resultado = RoaringBitmap.and(resultado, fator());
+        }
+        return resultado;
+    }
+
+    private RoaringBitmap fator() {
+        pularEspacos();
+        if (consumir('(')) {
+            RoaringBitmap resultado = expressao();
+            pularEspacos();
+            if (!consumir(')')) {
+                throw new IllegalArgumentException("Parêntese não fechado na consulta");
+            }
+            return resultado;
+        }
+        String campo = palavra();
+        if (!consumir(':')) {
+            throw new IllegalArgumentException("Esperado campo:valor na consulta, encontrado: " + campo);
+        }
+        return usuariosPorChave.apply(IndiceCarteiras.chave(campo, valor()));
+    }
+
+    private String valor() {
+        if (consumir('"')) {
+            int fim = texto.indexOf('"', pos);
+            if (fim < 0) {
+                throw new IllegalArgumentException("Aspas não fechadas na consulta");
+            }
+            String valor = texto.substring(pos, fim);
+            pos = fim + 1;
+            return valor;
+        }
+        return palavra();
+    }
+
+    private String palavra() {
+        int inicio = pos;
+        while (pos < texto.length() && !delimitador(texto.charAt(pos))) {
+            pos++;
+        }
+        if (inicio == pos) {
+            throw new IllegalArgumentException("Consulta incompleta na posição " + inicio);
+        }
+        return texto.substring(inicio, pos);
+    }
+
+    private boolean consumirPalavraReservada(String palavra) {
+        pularEspacos();
+        int fim = pos + palavra.length();
+        if (texto.regionMatches(true, pos, palavra, 0, palavra.length())
+                && (fim == texto.length() || Character.isWhitespace(texto.charAt(fim)) || texto.charAt(fim) == '(')) {
+            pos = fim;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean consumir(char c) {
+        if (pos < texto.length() && texto.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void pularEspacos() {
+        while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean delimitador(char c) {
+        return Character.isWhitespace(c) || c == ':' || c == '(' || c == ')' || c == '"';
+    }
+}
@@ -0,0 +1,262 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao;
+import com.challenge.investimentos.investimentos_api.enums.FormatoExportacao;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Serviço de exportação completa de investimentos e rentabilidades diárias.
+ *
+ * Lê dois cursores ordenados pelo ID do investimento (investimentos e
+ * rentabilidades) e os combina em um merge-join, escrevendo cada linha direto
+ * no stream de saída. Nada é acumulado em listas: o uso de heap é constante,
+ * seja qual for o volume exportado.
+ */
+@Service
+public class ExportacaoService {
+
+    /** Quantidade de investimentos escritos entre cada limpeza do contexto de persistência. */
+    private static final int INVESTIMENTOS_POR_LIMPEZA = 500;
+
+    private final InvestimentoRepository investimentoRepository;
+    private final JsonFactory jsonFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Construtor para injeção de dependências.
+     * @param investimentoRepository repositório de investimentos
+     * @param objectMapper mapper JSON da aplicação (fornece a fábrica de geradores)
+     */
+    public ExportacaoService(InvestimentoRepository investimentoRepository, ObjectMapper objectMapper) {
+        this.investimentoRepository = investimentoRepository;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Exporta todos os investimentos e suas rentabilidades diárias no formato informado.
+     *
+     * Cada investimento é desanexado do contexto de persistência logo após ser
+     * escrito, e o contexto é limpo periodicamente para descartar os proxies de usuário.
+     *
+     * @param formato formato de saída
+     * @param saida stream de destino (não é fechado por este método)
+     * @return quantidade de rentabilidades diárias exportadas
+     * @throws IOException em caso de falha de escrita
+     */
+    @Transactional(readOnly = true)
+    public long exportar(FormatoExportacao formato, OutputStream saida) throws IOException {
+        try (Stream<Investimento> investimentos = investimentoRepository.streamTodosOrdenadosPorId();
+             Stream<RentabilidadeDiariaProjecao> rentabilidades =
+                     investimentoRepository.streamRentabilidadesOrdenadasPorInvestimento()) {
+
+            Escritor escritor = formato == FormatoExportacao.CSV ? new EscritorCsv(saida) : new EscritorNdjson(jsonFactory, saida);
+            Iterator<RentabilidadeDiariaProjecao> serie = rentabilidades.iterator();
+            RentabilidadeDiariaProjecao proxima = serie.hasNext() ? serie.next() : null;
+            long pontos = 0;
+            int desdeLimpeza = 0;
+
+            for (Iterator<Investimento> it = investimentos.iterator(); it.hasNext(); ) {
+                Investimento investimento = it.next();
+                long id = investimento.getId();
+                escritor.iniciarInvestimento(investimento);
+
+                // Linhas de investimentos ausentes do primeiro cursor (inseridos durante a exportação) são puladas
+                while (proxima != null && proxima.investimentoId() < id) {
+                    proxima = serie.hasNext() ? serie.next() : null;
+                }
+                while (proxima != null && proxima.investimentoId() == id) {
+                    escritor.escreverRentabilidade(investimento, proxima);
+                    pontos++;
+                    proxima = serie.hasNext() ? serie.next() : null;
+                }
+
+                escritor.finalizarInvestimento(investimento);
+                entityManager.detach(investimento);
+                if (++desdeLimpeza == INVESTIMENTOS_POR_LIMPEZA) {
+                    entityManager.clear();
+                    desdeLimpeza = 0;
+                }
+            }
+            escritor.concluir();
+            return pontos;
+        }
+    }
+
+    /** Estratégia de escrita de um formato de exportação. */
+    private interface Escritor {
+        void iniciarInvestimento(Investimento investimento) throws IOException;
+
+        void escreverRentabilidade(Investimento investimento, RentabilidadeDiariaProjecao rd) throws IOException;
+
+        void finalizarInvestimento(Investimento investimento) throws IOException;
+
+        void concluir() throws IOException;
+    }
+
+    /** Um objeto JSON por linha, com a série diária aninhada em {@code rentabilidadeDiaria}. */
+    private static final class EscritorNdjson implements Escritor {
+        private final JsonGenerator gerador;
+
+        EscritorNdjson(JsonFactory fabrica, OutputStream saida) throws IOException {
+            this.gerador = fabrica.createGenerator(saida);
+            this.gerador.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            this.gerador.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        @Override
+        public void iniciarInvestimento(Investimento inv) throws IOException {
+            gerador.writeStartObject();
+            gerador.writeNumberField("id", inv.getId());
+            if (inv.getUsuarioInvestimento() != null) {
+                gerador.writeNumberField("usuarioId", inv.getUsuarioInvestimento().getId());
+            } else {
+                gerador.writeNullField("usuarioId");
+            }
+            gerador.writeStringField("nomeBanco", inv.getNomeBanco());
+            gerador.writeStringField("tipoInvestimento", inv.getTipoInvestimento() != null ? inv.getTipoInvestimento().name() : null);
+            gerador.writeStringField("nomeInvestimento", inv.getNomeInvestimento());
+            numero("montanteInicial", inv.getMontanteInicial());
+            numero("valorInicialAcao", inv.getValorInicialAcao());
+            numero("taxaRentabilidade", inv.getTaxaRentabilidade());
+            if (inv.getNumeroAcoesInicial() != null) {
+                gerador.writeNumberField("numeroAcoesInicial", inv.getNumeroAcoesInicial());
+            } else {
+                gerador.writeNullField("numeroAcoesInicial");
+            }
+            gerador.writeArrayFieldStart("rentabilidadeDiaria");
+        }
+
+        @Override
+        public void escreverRentabilidade(Investimento inv, RentabilidadeDiariaProjecao rd) throws IOException {
+            gerador.writeStartObject();
+            gerador.writeStringField("dataRentabilidadeDiaria", rd.dataRentabilidadeDiaria() != null
+                    ? rd.dataRentabilidadeDiaria().format(RentabilidadeDiariaDTO.FORMATO_DATA) : null);
+            numero("valorDiarioAcao", rd.valorDiarioAcao());
+            numero("taxaDiarioRentabilidade", rd.taxaDiarioRentabilidade());
+            numero("montanteAcumuladoDiario", rd.montanteAcumuladoDiario());
+            gerador.writeEndObject();
+        }
+
+        @Override
+        public void finalizarInvestimento(Investimento inv) throws IOException {
+            gerador.writeEndArray();
+            gerador.writeEndObject();
+            gerador.writeRaw('\n');
+        }
+
+        @Override
+        public void concluir() throws IOException {
+            gerador.flush();
+        }
+
+        private void numero(String campo, BigDecimal valor) throws IOException {
+            if (valor != null) {
+                gerador.writeNumberField(campo, valor);
+            } else {
+                gerador.writeNullField(campo);
+            }
+        }
+    }
+
+    /** Uma linha por rentabilidade diária; investimentos sem série geram uma linha com as colunas diárias vazias. */
+    private static final class EscritorCsv implements Escritor {
+        private static final String CABECALHO = "investimentoId,usuarioId,nomeBanco,tipoInvestimento,nomeInvestimento,"
+                + "montanteInicial,valorInicialAcao,taxaRentabilidade,numeroAcoesInicial,"
+                + "dataRentabilidadeDiaria,valorDiarioAcao,taxaDiarioRentabilidade,montanteAcumuladoDiario\n";
+
+        private final Writer escritor;
+        private boolean temPontos;
+
+        EscritorCsv(OutputStream saida) throws IOException {
+            this.escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 64 * 1024);
+            this.escritor.write(CABECALHO);
+        }
+
+        @Override
+        public void iniciarInvestimento(Investimento inv) {
+            temPontos = false;
+        }
+
+        @Override
+        public void escreverRentabilidade(Investimento inv, RentabilidadeDiariaProjecao rd) throws IOException {
+            temPontos = true;
+            colunasInvestimento(inv);
+            escritor.write(rd.dataRentabilidadeDiaria() != null ? rd.dataRentabilidadeDiaria().format(RentabilidadeDiariaDTO.FORMATO_DATA) : "");
+            escritor.write(',');
+            escritor.write(texto(rd.valorDiarioAcao()));
+            escritor.write(',');
+            escritor.write(texto(rd.taxaDiarioRentabilidade()));
+            escritor.write(',');
+            escritor.write(texto(rd.montanteAcumuladoDiario()));
+            escritor.write('\n');
+        }
+
+        @Override
+        public void finalizarInvestimento(Investimento inv) throws IOException {
+            if (!temPontos) {
+                colunasInvestimento(inv);
+                escritor.write(",,,\n");
+            }
+        }
+
+        @Override
+        public void concluir() throws IOException {
+            escritor.flush();
+        }
+
+        private void colunasInvestimento(Investimento inv) throws IOException {
+            escritor.write(Long.toString(inv.getId()));
+            escritor.write(',');
+            escritor.write(inv.getUsuarioInvestimento() != null ? inv.getUsuarioInvestimento().getId().toString() : "");
+            escritor.write(',');
+            escritor.write(escapar(inv.getNomeBanco()));
+            escritor.write(',');
+            escritor.write(inv.getTipoInvestimento() != null ? inv.getTipoInvestimento().name() : "");
+            escritor.write(',');
+            escritor.write(escapar(inv.getNomeInvestimento()));
+            escritor.write(',');
+            escritor.write(texto(inv.getMontanteInicial()));
+            escritor.write(',');
+            escritor.write(texto(inv.getValorInicialAcao()));
+            escritor.write(',');
+            escritor.write(texto(inv.getTaxaRentabilidade()));
+            escritor.write(',');
+            escritor.write(inv.getNumeroAcoesInicial() != null ? inv.getNumeroAcoesInicial().toString() : "");
+            escritor.write(',');
+        }
+
+        private static String texto(BigDecimal valor) {
+            return valor != null ? valor.toPlainString() : "";
+        }
+
+        private static String escapar(String valor) {
+            if (valor == null) return "";
+            if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+                return valor;
+            }
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+    }
+}
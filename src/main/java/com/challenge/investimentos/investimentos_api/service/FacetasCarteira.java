@@ -0,0 +1,120 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.TipoInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Facetas da carteira de um usuário (bancos e tipos de investimento) codificadas em máscaras de bits.
+ *
+ * O bit {@code n} de {@code MASCARA_BANCOS} corresponde ao {@link BancoEnum} de ordinal
+ * {@code n}; o de {@code MASCARA_TIPOS}, ao {@link TipoInvestimentoEnum} de ordinal {@code n}.
+ * Bancos fora do enum (ou nulos) ligam {@link #BIT_BANCO_NAO_CATALOGADO}, que faz a
+ * listagem de bancos voltar a consultar os investimentos. O nome precisa ser igual ao
+ * do enum, inclusive nas maiúsculas: "NUBANK" ou "nubank" contam como não catalogados,
+ * para que a listagem devolva o nome como foi gravado.
+ */
+public final class FacetasCarteira {
+
+    /** Indica que o usuário tem ao menos um investimento com banco fora do {@link BancoEnum}. */
+    public static final int BIT_BANCO_NAO_CATALOGADO = 1 << 30;
+
+    private static final BancoEnum[] BANCOS = BancoEnum.values();
+    private static final TipoInvestimentoEnum[] TIPOS = TipoInvestimentoEnum.values();
+
+    private FacetasCarteira() {}
+
+    /**
+     * Obtém o bit correspondente ao nome de banco informado.
+     * @param nomeBanco nome do banco (comparação exata)
+     * @return bit do banco ou {@link #BIT_BANCO_NAO_CATALOGADO}
+     */
+    public static int bitBanco(String nomeBanco) {
+        if (nomeBanco != null) {
+            for (BancoEnum banco : BANCOS) {
+                if (banco.getNomeBanco().equals(nomeBanco)) {
+                    return 1 << banco.ordinal();
+                }
+            }
+        }
+        return BIT_BANCO_NAO_CATALOGADO;
+    }
+
+    /**
+     * Obtém o bit correspondente ao tipo de investimento informado.
+     * @param tipo tipo de investimento
+     * @return bit do tipo ou {@code 0} se nulo
+     */
+    public static int bitTipo(TipoInvestimentoEnum tipo) {
+        return tipo != null ? 1 << tipo.ordinal() : 0;
+    }
+
+    /**
+     * Acrescenta às máscaras do usuário os bancos e tipos dos investimentos informados.
+     * Usado quando investimentos são apenas adicionados.
+     *
+     * @param usuario usuário dono dos investimentos
+     * @param novos investimentos adicionados
+     */
+    public static void acumular(UsuarioInvestimento usuario, Collection<Investimento> novos) {
+        int bancos = usuario.getMascaraBancos();
+        int tipos = usuario.getMascaraTipos();
+        for (Investimento investimento : novos) {
+            bancos |= bitBanco(investimento.getNomeBanco());
+            tipos |= bitTipo(investimento.getTipoInvestimento());
+        }
+        usuario.setMascaraBancos(bancos);
+        usuario.setMascaraTipos(tipos);
+    }
+
+    /**
+     * Recalcula as máscaras do usuário a partir da carteira completa.
+     * Necessário quando investimentos são alterados ou removidos.
+     *
+     * @param usuario usuário dono dos investimentos
+     * @param carteira todos os investimentos atuais do usuário
+     */
+    public static void recalcular(UsuarioInvestimento usuario, Collection<Investimento> carteira) {
+        usuario.setMascaraBancos(0);
+        usuario.setMascaraTipos(0);
+        acumular(usuario, carteira);
+    }
+
+    /**
+     * Decodifica a máscara de bancos em nomes, na ordem do {@link BancoEnum}.
+     * Não deve ser usado quando {@link #BIT_BANCO_NAO_CATALOGADO} estiver ligado.
+     *
+     * @param mascara máscara de bancos
+     * @return nomes dos bancos presentes
+     */
+    public static List<String> bancos(int mascara) {
+        List<String> nomes = new ArrayList<>(Integer.bitCount(mascara));
+        for (BancoEnum banco : BANCOS) {
+            if ((mascara & (1 << banco.ordinal())) != 0) {
+                nomes.add(banco.getNomeBanco());
+            }
+        }
+        return nomes;
+    }
+
+    /**
+     * Decodifica a máscara de tipos em DTOs, na ordem do {@link TipoInvestimentoEnum}.
+     * @param mascara máscara de tipos
+     * @return tipos de investimento presentes
+     */
+    public static List<TipoInvestimentoDTO> tipos(int mascara) {
+        List<TipoInvestimentoDTO> tipos = new ArrayList<>(Integer.bitCount(mascara));
+        for (TipoInvestimentoEnum tipo : TIPOS) {
+            if ((mascara & (1 << tipo.ordinal())) != 0) {
+                tipos.add(new TipoInvestimentoDTO(tipo.name()));
+            }
+        }
+        return tipos;
+    }
+}
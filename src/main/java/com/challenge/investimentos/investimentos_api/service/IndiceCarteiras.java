@@ -0,0 +1,242 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.config.RoteamentoBulkhead;
+import com.challenge.investimentos.investimentos_api.dto.ChaveIndiceProjecao;
+import com.challenge.investimentos.investimentos_api.dto.ResultadoIndiceDTO;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória de "quem possui o quê": para cada banco, tipo de
+ * investimento e nome de instrumento, o conjunto (bitmap Roaring comprimido) dos
+ * IDs de usuários que têm ao menos um investimento com aquele valor.
+ *
+ * O índice é montado no startup a partir da tabela INVESTIMENTO e mantido em dia
+ * pelo {@link CarteiraAlteradaEvent}, tratado após o commit de cada escrita. As
+ * consultas combinam termos com AND/OR (ver {@link ConsultaIndice}) no nível do
+ * usuário: {@code banco:Nubank AND tipo:CDB} traz quem tem algo no Nubank e algum
+ * CDB, não necessariamente no mesmo investimento.
+ *
+ * O CPF de cada usuário indexado fica junto das suas chaves, então a consulta
+ * não volta ao banco. Os IDs de usuário precisam caber em {@code int} (limite do RoaringBitmap).
+ */
+@Service
+public class IndiceCarteiras {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceCarteiras.class);
+
+    /** Dimensões indexadas. */
+    enum Campo { BANCO, TIPO, NOME }
+
+    /**
+     * Chave do índice: campo e valor normalizado (sem espaços nas pontas, em maiúsculas).
+     */
+    record Chave(Campo campo, String valor) {
+    }
+
+    private final InvestimentoRepository investimentoRepository;
+    private final TransactionTemplate releitura;
+
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final Map<Chave, RoaringBitmap> usuariosPorChave = new HashMap<>();
+    private final Map<Integer, Set<Chave>> chavesPorUsuario = new HashMap<>();
+    private final Map<Integer, String> cpfPorUsuario = new HashMap<>();
+
+    public IndiceCarteiras(InvestimentoRepository investimentoRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.investimentoRepository = investimentoRepository;
+        this.releitura = new TransactionTemplate(transactionManager);
+        this.releitura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reconstrói o índice inteiro a partir da tabela de investimentos.
+     *
+     * Executado quando a aplicação fica pronta; as linhas são lidas em streaming e
+     * as consultas aguardam até o fim da carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        long inicio = System.nanoTime();
+        try (Stream<ChaveIndiceProjecao> linhas = investimentoRepository.streamChavesIndice()) {
+            montar(linhas);
+        }
+        log.info("Índice de carteiras montado: {} usuários, {} chaves em {} ms", chavesPorUsuario.size(),
+                usuariosPorChave.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Substitui o conteúdo do índice pelas chaves das linhas informadas.
+     *
+     * @param linhas chaves de todos os investimentos
+     */
+    void montar(Stream<ChaveIndiceProjecao> linhas) {
+        trava.writeLock().lock();
+        try {
+            usuariosPorChave.clear();
+            chavesPorUsuario.clear();
+            cpfPorUsuario.clear();
+            linhas.forEach(linha -> {
+                int usuarioId = Math.toIntExact(linha.usuarioId());
+                cpfPorUsuario.putIfAbsent(usuarioId, linha.cpfIdentificacao());
+                for (Chave chave : chavesDe(linha)) {
+                    if (chavesPorUsuario.computeIfAbsent(usuarioId, id -> new HashSet<>()).add(chave)) {
+                        usuariosPorChave.computeIfAbsent(chave, c -> new RoaringBitmap()).add(usuarioId);
+                    }
+                }
+            });
+            usuariosPorChave.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reindexa o usuário cuja carteira mudou, depois do commit da escrita.
+     * As chaves atuais são relidas do banco e só as diferenças tocam os bitmaps.
+     *
+     * A releitura usa uma transação própria que não é somente leitura, para ir à
+     * primária: a réplica pode ainda não ter o commit e o índice ficaria com as chaves antigas.
+     * A conexão vem do pool padrão mesmo numa escrita em lote, cuja conexão ainda não foi devolvida.
+     *
+     * @param evento evento com o ID do usuário alterado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCarteira(CarteiraAlteradaEvent evento) {
+        if (evento.usuarioId() == null) return;
+        int usuarioId = Math.toIntExact(evento.usuarioId());
+
+        Set<Chave> atuais = new HashSet<>();
+        String cpf = null;
+        List<ChaveIndiceProjecao> linhas = RoteamentoBulkhead.naPrimaria(() ->
+                releitura.execute(status -> investimentoRepository.listarChavesIndicePorUsuario(evento.usuarioId())));
+        for (ChaveIndiceProjecao linha : linhas) {
+            atuais.addAll(chavesDe(linha));
+            cpf = linha.cpfIdentificacao();
+        }
+
+        trava.writeLock().lock();
+        try {
+            Set<Chave> anteriores = chavesPorUsuario.getOrDefault(usuarioId, Set.of());
+            for (Chave chave : anteriores) {
+                if (!atuais.contains(chave)) {
+                    RoaringBitmap usuarios = usuariosPorChave.get(chave);
+                    usuarios.remove(usuarioId);
+                    if (usuarios.isEmpty()) {
+                        usuariosPorChave.remove(chave);
+                    }
+                }
+            }
+            for (Chave chave : atuais) {
+                if (!anteriores.contains(chave)) {
+                    usuariosPorChave.computeIfAbsent(chave, c -> new RoaringBitmap()).add(usuarioId);
+                }
+            }
+            if (atuais.isEmpty()) {
+                chavesPorUsuario.remove(usuarioId);
+                cpfPorUsuario.remove(usuarioId);
+            } else {
+                chavesPorUsuario.put(usuarioId, atuais);
+                cpfPorUsuario.put(usuarioId, cpf);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Consulta o índice com uma expressão AND/OR sobre bancos, tipos e nomes de instrumento.
+     *
+     * @param expressao expressão de consulta, por exemplo {@code tipo:CDB AND banco:Nubank}
+     * @param limite quantidade máxima de CPFs devolvidos ({@code null} para o padrão)
+     * @return total de usuários encontrados e os CPFs dos primeiros, em ordem de ID
+     * @throws IllegalArgumentException se a expressão for inválida
+     */
+    public ResultadoIndiceDTO consultar(String expressao, Integer limite) {
+        int tamanho = PaginacaoKeyset.normalizarLimite(limite);
+        trava.readLock().lock();
+        try {
+            RoaringBitmap usuarios = ConsultaIndice.avaliar(expressao, this::usuariosDe);
+            List<String> cpfs = new ArrayList<>((int) Math.min(tamanho, usuarios.getLongCardinality()));
+            PeekableIntIterator ids = usuarios.getIntIterator();
+            while (ids.hasNext() && cpfs.size() < tamanho) {
+                cpfs.add(cpfPorUsuario.get(ids.next()));
+            }
+            return new ResultadoIndiceDTO(usuarios.getLongCardinality(), cpfs);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monta a chave do índice a partir do nome do campo e do valor informados na consulta.
+     *
+     * @param campo {@code banco}, {@code tipo} ou {@code nome} (sem diferenciar maiúsculas)
+     * @param valor valor a procurar
+     * @return chave normalizada
+     * @throws IllegalArgumentException se o campo ou o tipo de investimento forem inválidos
+     */
+    static Chave chave(String campo, String valor) {
+        Campo tipoCampo;
+        try {
+            tipoCampo = Campo.valueOf(campo.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Campo desconhecido na consulta: " + campo + " (use banco, tipo ou nome)");
+        }
+        String normalizado = normalizar(valor);
+        if (tipoCampo == Campo.TIPO) {
+            try {
+                TipoInvestimentoEnum.valueOf(normalizado);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tipo de investimento inválido: " + valor);
+            }
+        }
+        return new Chave(tipoCampo, normalizado);
+    }
+
+    private RoaringBitmap usuariosDe(Chave chave) {
+        RoaringBitmap usuarios = usuariosPorChave.get(chave);
+        return usuarios != null ? usuarios : new RoaringBitmap();
+    }
+
+    private static List<Chave> chavesDe(ChaveIndiceProjecao linha) {
+        List<Chave> chaves = new ArrayList<>(3);
+        if (linha.nomeBanco() != null) {
+            chaves.add(new Chave(Campo.BANCO, normalizar(linha.nomeBanco())));
+        }
+        if (linha.tipoInvestimento() != null) {
+            chaves.add(new Chave(Campo.TIPO, linha.tipoInvestimento().name()));
+        }
+        if (linha.nomeInvestimento() != null) {
+            chaves.add(new Chave(Campo.NOME, normalizar(linha.nomeInvestimento())));
+        }
+        return chaves;
+    }
+
+    private static String normalizar(String valor) {
+        return valor.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,8 +1,14 @@
 package com.challenge.investimentos.investimentos_api.service;
 
 import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.LinhaCarteiraProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao;
 import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.VersaoProjecao;
 
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
 import com.challenge.investimentos.investimentos_api.model.Investimento;
 import com.challenge.investimentos.investimentos_api.model.RentabilidadeDiaria;
 import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
@@ -11,16 +17,22 @@ import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepo
 import com.challenge.investimentos.investimentos_api.repository.UsuarioInvestimentoRepository;
 
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -30,17 +42,46 @@ import java.util.stream.Collectors;
  * as interações com os repositórios.
  */
 @Service
+@Timed(value = "investimentos.servico", description = "Tempo dos métodos dos serviços", histogram = true)
 public class InvestimentoService {
 
     private final UsuarioInvestimentoRepository usuarioInvestimentoRepository;
     private final InvestimentoRepository investimentoRepository;
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private final ApplicationEventPublisher eventos;
+    private final VersoesCarteira versoesCarteira;
+    private final AlteracoesCarteira alteracoesCarteira;
+
+    /** Quantidade de linhas acumuladas antes de cada flush/clear na escrita em lote. */
+    private static final int LINHAS_POR_LOTE = 1000;
+
+    /** Máximo de datas por cláusula IN ao buscar pontos existentes (o Oracle aceita até 1000). */
+    private static final int DATAS_POR_CONSULTA = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
     public InvestimentoService(UsuarioInvestimentoRepository usuarioInvestimentoRepository,
-                               InvestimentoRepository investimentoRepository) {
+                               InvestimentoRepository investimentoRepository,
+                               ApplicationEventPublisher eventos,
+                               VersoesCarteira versoesCarteira,
+                               AlteracoesCarteira alteracoesCarteira) {
         this.usuarioInvestimentoRepository = usuarioInvestimentoRepository;
         this.investimentoRepository = investimentoRepository;
+        this.eventos = eventos;
+        this.versoesCarteira = versoesCarteira;
+        this.alteracoesCarteira = alteracoesCarteira;
+    }
+
+    /**
+     * Persiste uma lista de investimentos de um usuário, sem pré-condição de versão.
+     *
+     * @param dto dados do usuário e seus investimentos
+     * @return 200 em caso de sucesso; 400 quando houver validação inválida
+     */
+    @Transactional
+    public ResponseEntity<String> salvarInvestimentos(UsuarioInvestimentoDTO dto) {
+        return salvarInvestimentos(dto, null);
     }
 
     /**
@@ -50,18 +91,22 @@ public class InvestimentoService {
      * os dados do DTO para entidades e salva em lote.
      *
      * @param dto dados do usuário e seus investimentos
-     * @return 200 em caso de sucesso; 400 quando houver validação inválida
+     * @param seCorresponder valor do cabeçalho {@code If-Match} ({@code null} se ausente)
+     * @return 200 em caso de sucesso; 400 quando houver validação inválida; 412 se a carteira mudou desde a ETag informada
      */
     @Transactional
-    public ResponseEntity<String> salvarInvestimentos(UsuarioInvestimentoDTO dto) {
+    public ResponseEntity<String> salvarInvestimentos(UsuarioInvestimentoDTO dto, String seCorresponder) {
         if (dto.getCpfIdentificacao() == null || dto.getCpfIdentificacao().isEmpty()) {
             return ResponseEntity.badRequest().body("CPF do usuário é obrigatório");
         }
 
-    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Cpf(dto.getCpfIdentificacao());
+    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Numero(CodecCpf.codificar(dto.getCpfIdentificacao()));
         if (usuario == null) {
             return ResponseEntity.badRequest().body("Usuário com CPF " + dto.getCpfIdentificacao() + " não encontrado");
         }
+        if (seCorresponder != null && !VersoesCarteira.corresponde(seCorresponder, VersoesCarteira.etagCarteira(usuario), true)) {
+            return VersoesCarteira.preCondicaoFalhou(VersoesCarteira.etagCarteira(usuario));
+        }
 
         if (dto.getDataUsuarioInvestimentos() == null || dto.getDataUsuarioInvestimentos().isEmpty()) {
             return ResponseEntity.badRequest().body("Lista de investimentos não pode ser vazia");
@@ -87,72 +132,216 @@ public class InvestimentoService {
             investimento.setTaxaRentabilidade(investDTO.getTaxaRentabilidade());
             investimento.setNumeroAcoesInicial(investDTO.getNumeroAcoesInicial());
 
-            if (investDTO.getRentabilidadeDiaria() != null && !investDTO.getRentabilidadeDiaria().isEmpty()) {
-                List<RentabilidadeDiaria> rentabilidades = investDTO.getRentabilidadeDiaria().stream()
-                        .map(rdDTO -> {
-                            RentabilidadeDiaria rd = new RentabilidadeDiaria();
-                            rd.setDataRentabilidadeDiaria(LocalDate.parse(rdDTO.getDataRentabilidadeDiaria(), formatter));
-                            rd.setValorDiarioAcao(rdDTO.getValorDiarioAcao());
-                            rd.setTaxaDiarioRentabilidade(rdDTO.getTaxaDiarioRentabilidade());
-                            rd.setMontanteAcumuladoDiario(rdDTO.getMontanteAcumuladoDiario());
-                            return rd;
-                        }).collect(Collectors.toList());
-                investimento.setRentabilidadeDiaria(rentabilidades);
-            }
+            investimento.setRentabilidadeDiaria(new ArrayList<>(
+                    SerieRentabilidade.porData(investDTO.getRentabilidadeDiaria(), investimento).values()));
 
             return investimento;
         }).collect(Collectors.toList());
 
-        investimentoRepository.saveAll(investimentos);
+        FacetasCarteira.acumular(usuario, investimentos);
+        investimentos.forEach(alteracoesCarteira::investimentoInserido);
+        persistirEmLotes(investimentos);
+        eventos.publishEvent(CarteiraAlteradaEvent.de(usuario));
         return ResponseEntity.ok("Investimentos atualizados com sucesso");
     }
 
     /**
-     * Lista todos os investimentos.
-     * @return lista completa de investimentos
+     * Persiste investimentos novos em lotes, limitando o tamanho do contexto de persistência.
+     *
+     * Os IDs vêm das sequences em blocos (allocationSize) e os INSERTs são agrupados
+     * pelo JDBC batching do Hibernate. A cada {@link #LINHAS_POR_LOTE} linhas
+     * (investimentos + rentabilidades diárias) o lote é enviado ao banco e o
+     * contexto é limpo, evitando que o dirty checking cresça com o tamanho da carga.
+     *
+     * @param investimentos investimentos ainda não persistidos, com suas rentabilidades
+     */
+    private void persistirEmLotes(List<Investimento> investimentos) {
+        int linhasPendentes = 0;
+        for (Investimento investimento : investimentos) {
+            investimentoRepository.save(investimento);
+            linhasPendentes += 1 + investimento.getRentabilidadeDiaria().size();
+            if (linhasPendentes >= LINHAS_POR_LOTE) {
+                entityManager.flush();
+                entityManager.clear();
+                linhasPendentes = 0;
+            }
+        }
+        entityManager.flush();
+    }
+
+    /**
+     * Lista uma página de investimentos, paginada por cursor (keyset sobre o ID).
+     *
+     * Usa duas consultas de projeção (investimentos da página e suas rentabilidades)
+     * e monta os DTOs em memória, sem carregar entidades; a segunda é omitida quando a
+     * seleção de campos dispensa a série diária. Quando houver mais
+     * registros, o cursor da próxima página segue no cabeçalho
+     * {@link PaginacaoKeyset#CABECALHO_PROXIMO_CURSOR}.
+     *
+     * @param cursor cursor recebido da página anterior ({@code null} para a primeira)
+     * @param limite tamanho de página solicitado ({@code null} para o padrão)
+     * @param selecao campos pedidos pelo cliente
+     * @return página de investimentos
+     * @throws IllegalArgumentException se o cursor for inválido
      */
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Investimento>> listarTodos() {
-        return ResponseEntity.ok(investimentoRepository.findAll());
+    public ResponseEntity<List<InvestimentoDTO>> listarTodos(String cursor, Integer limite, SelecaoCampos selecao) {
+        long aposId = PaginacaoKeyset.decodificar(cursor);
+        int tamanho = PaginacaoKeyset.normalizarLimite(limite);
+
+        List<InvestimentoProjecao> pagina = investimentoRepository.listarProjecoesApos(aposId, Limit.of(tamanho + 1));
+        boolean haMais = pagina.size() > tamanho;
+        if (haMais) {
+            pagina = pagina.subList(0, tamanho);
+        }
+
+        Map<Long, InvestimentoDTO> porId = new LinkedHashMap<>();
+        for (InvestimentoProjecao projecao : pagina) {
+            porId.put(projecao.id(), projecao.toDTO());
+        }
+        if (!porId.isEmpty() && selecao.incluiRentabilidades()) {
+            InvestimentoDTO.anexarRentabilidades(porId,
+                    investimentoRepository.listarRentabilidadesProjecaoPorInvestimentos(porId.keySet()));
+        }
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (haMais) {
+            resposta.header(PaginacaoKeyset.CABECALHO_PROXIMO_CURSOR,
+                    PaginacaoKeyset.codificar(pagina.get(pagina.size() - 1).id()));
+        }
+        return resposta.body(new ArrayList<>(porId.values()));
     }
 
     /**
-     * Lista investimentos por CPF do usuário.
+     * Lista investimentos por CPF do usuário, com as rentabilidades diárias do período pedido.
+     *
+     * Duas consultas de projeção (investimentos e rentabilidades do CPF); a segunda
+     * é um range scan por data quando {@code de}/{@code ate} são informados, de modo
+     * que o tamanho da resposta acompanha a janela pedida e não a idade da conta.
+     * Se a seleção de campos dispensar a série, só a primeira consulta é feita.
+     *
      * @param cpf identificador do usuário investidor
-     * @return 200 com lista (possivelmente vazia) ou 404 se usuário não encontrado
+     * @param de primeira data da série ({@code null} para sem limite)
+     * @param ate última data da série ({@code null} para sem limite)
+     * @param selecao campos pedidos pelo cliente
+     * @return 200 com lista (possivelmente vazia) e ETag da carteira, ou 404 se usuário não encontrado
+     * @throws IllegalArgumentException se {@code de} for posterior a {@code ate}
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<InvestimentoDTO>> listarPorCpf(String cpf, LocalDate de, LocalDate ate, SelecaoCampos selecao) {
+        Periodo periodo = Periodo.de(de, ate);
+        CarteiraVersionada carteira = carteiraPorCpf(cpf, periodo, selecao);
+        if (carteira == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+                .eTag(VersoesCarteira.etagCarteira(carteira.usuarioId(), carteira.versao(), periodo, selecao))
+                .body(carteira.investimentos());
+    }
+
+    /**
+     * Monta os DTOs da carteira de um CPF a partir de projeções, com a série filtrada pelo período.
+     *
+     * @param cpf CPF do usuário
+     * @param periodo janela da série de rentabilidades
+     * @param selecao campos pedidos; sem a série, {@code RENTABILIDADE_DIARIA_TABLE} não é consultada
+     * @return investimentos e versão do usuário, ou {@code null} se o CPF não existir
+     */
+    CarteiraVersionada carteiraPorCpf(String cpf, Periodo periodo, SelecaoCampos selecao) {
+        long chave = CodecCpf.codificar(cpf);
+        List<LinhaCarteiraProjecao> linhas = investimentoRepository.listarLinhasCarteiraPorCpf(chave);
+        if (linhas.isEmpty()) return null;
+
+        Map<Long, InvestimentoDTO> porId = new LinkedHashMap<>();
+        for (LinhaCarteiraProjecao linha : linhas) {
+            InvestimentoProjecao projecao = linha.investimento();
+            if (projecao != null) {
+                porId.put(projecao.id(), projecao.toDTO());
+            }
+        }
+        if (!porId.isEmpty() && selecao.incluiRentabilidades()) {
+            InvestimentoDTO.anexarRentabilidades(porId, periodo.completo()
+                    ? investimentoRepository.listarRentabilidadesProjecaoPorCpf(chave)
+                    : investimentoRepository.listarRentabilidadesProjecaoPorCpfEPeriodo(chave, periodo.inicio(), periodo.fim()));
+        }
+        LinhaCarteiraProjecao primeira = linhas.get(0);
+        return new CarteiraVersionada(primeira.usuarioId(), primeira.versaoUsuario(), new ArrayList<>(porId.values()));
+    }
+
+    /**
+     * Lista as rentabilidades diárias de um investimento dentro de um período, ordenadas por data.
+     *
+     * @param id ID do investimento
+     * @param de primeira data ({@code null} para sem limite)
+     * @param ate última data ({@code null} para sem limite)
+     * @return 200 com a série (possivelmente vazia) e a ETag do investimento, ou 404 se o investimento não existir
+     * @throws IllegalArgumentException se {@code de} for posterior a {@code ate}
      */
     @Transactional(readOnly = true)
-    public ResponseEntity<List<Investimento>> listarPorCpf(String cpf) {
-    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Cpf(cpf);
-        if (usuario == null) return ResponseEntity.notFound().build();
+    public ResponseEntity<List<RentabilidadeDiariaDTO>> listarRentabilidades(Long id, LocalDate de, LocalDate ate) {
+        Periodo periodo = Periodo.de(de, ate);
+        VersaoProjecao versao = investimentoRepository.buscarVersao(id).orElse(null);
+        if (versao == null) return ResponseEntity.notFound().build();
 
-        List<Investimento> investimentos = investimentoRepository.findByUsuarioInvestimento(usuario);
-        return ResponseEntity.ok(investimentos);
+        List<RentabilidadeDiariaDTO> serie = investimentoRepository
+                .listarRentabilidadesProjecaoPorInvestimentoEPeriodo(id, periodo.inicio(), periodo.fim())
+                .stream()
+                .map(RentabilidadeDiariaProjecao::toDTO)
+                .toList();
+        return ResponseEntity.ok()
+                .eTag(VersoesCarteira.etagInvestimento(versao.id(), versao.versao(), periodo))
+                .body(serie);
     }
 
     /**
-     * Deleta um investimento pelo seu identificador.
+     * Deleta um investimento pelo seu identificador e recalcula as facetas do dono.
      * @param id ID do investimento
      * @return 200 se deletado; 404 se não existir
      */
     @Transactional
     public ResponseEntity<String> deletarPorId(Long id) {
-        if (!investimentoRepository.existsById(id)) return ResponseEntity.notFound().build();
+        Investimento investimento = investimentoRepository.findById(id).orElse(null);
+        if (investimento == null) return ResponseEntity.notFound().build();
 
-        investimentoRepository.deleteById(id);
+        UsuarioInvestimento dono = investimento.getUsuarioInvestimento();
+        if (dono != null) {
+            dono.getInvestimentos().remove(investimento);
+            FacetasCarteira.recalcular(dono, dono.getInvestimentos());
+            alteracoesCarteira.investimentoRemovido(investimento);
+            eventos.publishEvent(CarteiraAlteradaEvent.de(dono));
+        }
+        investimentoRepository.delete(investimento);
         return ResponseEntity.ok("Investimento deletado com sucesso");
     }
 
     /**
-     * Atualiza um investimento existente com os dados fornecidos.
+     * Atualiza um investimento existente, sem pré-condição de versão.
+     *
      * @param id ID do investimento a ser atualizado
      * @param dto dados novos do investimento
      * @return 200 em caso de sucesso; 400 se tipo de investimento inválido; 404 se não encontrado
      */
     @Transactional
     public ResponseEntity<String> atualizarInvestimento(Long id, InvestimentoDTO dto) {
+        return atualizarInvestimento(id, dto, null);
+    }
+
+    /**
+     * Atualiza um investimento existente com os dados fornecidos e recalcula as facetas do dono.
+     * A série de rentabilidades é mesclada por data: só as datas novas, alteradas ou
+     * ausentes do DTO geram escrita.
+     * @param id ID do investimento a ser atualizado
+     * @param dto dados novos do investimento
+     * @param seCorresponder valor do cabeçalho {@code If-Match} ({@code null} se ausente)
+     * @return 200 em caso de sucesso; 400 se tipo de investimento inválido; 404 se não encontrado;
+     *         412 se o investimento mudou desde a ETag informada
+     */
+    @Transactional
+    public ResponseEntity<String> atualizarInvestimento(Long id, InvestimentoDTO dto, String seCorresponder) {
         Investimento investimentoExistente = investimentoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Investimento não encontrado"));
+        String etagAtual = VersoesCarteira.etagInvestimento(investimentoExistente);
+        if (seCorresponder != null && !VersoesCarteira.corresponde(seCorresponder, etagAtual, true)) {
+            return VersoesCarteira.preCondicaoFalhou(etagAtual);
+        }
 
         TipoInvestimentoEnum tipoInvestimento;
         try {
@@ -170,27 +359,63 @@ public class InvestimentoService {
         
         investimentoExistente.setNomeBanco(dto.getNomeBanco());
 
-        if (investimentoExistente.getRentabilidadeDiaria() == null) {
-            investimentoExistente.setRentabilidadeDiaria(new ArrayList<>());
-        }
-        List<RentabilidadeDiaria> listaExistente = investimentoExistente.getRentabilidadeDiaria();
-        listaExistente.clear();
+        SerieRentabilidade.Mescla mescla = SerieRentabilidade.substituir(investimentoExistente,
+                SerieRentabilidade.porData(dto.getRentabilidadeDiaria(), investimentoExistente));
 
-        if (dto.getRentabilidadeDiaria() != null) {
-            dto.getRentabilidadeDiaria().forEach(rdDTO -> {
-                RentabilidadeDiaria rd = new RentabilidadeDiaria();
-                rd.setDataRentabilidadeDiaria(LocalDate.parse(rdDTO.getDataRentabilidadeDiaria(), formatter));
-                rd.setValorDiarioAcao(rdDTO.getValorDiarioAcao());
-                rd.setTaxaDiarioRentabilidade(rdDTO.getTaxaDiarioRentabilidade());
-                rd.setMontanteAcumuladoDiario(rdDTO.getMontanteAcumuladoDiario());
-                listaExistente.add(rd);
-            });
+        versoesCarteira.registrarAlteracao(investimentoExistente);
+        alteracoesCarteira.investimentoAtualizado(investimentoExistente);
+        alteracoesCarteira.serieAlterada(investimentoExistente, mescla);
+        UsuarioInvestimento dono = investimentoExistente.getUsuarioInvestimento();
+        if (dono != null) {
+            FacetasCarteira.recalcular(dono, dono.getInvestimentos());
+            eventos.publishEvent(CarteiraAlteradaEvent.de(dono));
         }
 
         investimentoRepository.save(investimentoExistente);
         return ResponseEntity.ok("Investimento atualizado com sucesso");
     }
 
+    /**
+     * Insere ou atualiza, por data, somente os pontos de rentabilidade informados,
+     * sem ler nem regravar o restante da série do investimento.
+     *
+     * Lê apenas as linhas já existentes nas datas recebidas; pontos com valores
+     * iguais não geram escrita. Datas repetidas no corpo ficam com o último ponto.
+     *
+     * @param id ID do investimento
+     * @param pontos pontos novos ou alterados
+     * @return 200 com a quantidade de linhas alteradas; 400 se a lista for vazia; 404 se o investimento não existir
+     */
+    @Transactional
+    public ResponseEntity<String> acrescentarRentabilidades(Long id, List<RentabilidadeDiariaDTO> pontos) {
+        if (pontos == null || pontos.isEmpty()) {
+            return ResponseEntity.badRequest().body("Lista de rentabilidades não pode ser vazia");
+        }
+        Investimento investimento = investimentoRepository.buscarComDono(id).orElse(null);
+        if (investimento == null) return ResponseEntity.notFound().build();
+
+        Map<LocalDate, RentabilidadeDiaria> recebidas = SerieRentabilidade.porData(pontos, investimento);
+        List<RentabilidadeDiaria> existentes = new ArrayList<>();
+        List<LocalDate> datas = new ArrayList<>(recebidas.keySet());
+        for (int i = 0; i < datas.size(); i += DATAS_POR_CONSULTA) {
+            existentes.addAll(investimentoRepository.listarRentabilidadesPorDatas(
+                    id, datas.subList(i, Math.min(i + DATAS_POR_CONSULTA, datas.size()))));
+        }
+
+        SerieRentabilidade.Mescla mescla = SerieRentabilidade.acrescentar(existentes, recebidas, entityManager::persist);
+        if (mescla.total() > 0) {
+            versoesCarteira.registrarAlteracao(investimento);
+            alteracoesCarteira.serieAlterada(investimento, mescla);
+            if (investimento.getUsuarioInvestimento() != null) {
+                eventos.publishEvent(CarteiraAlteradaEvent.de(investimento.getUsuarioInvestimento()));
+            }
+        }
+        return ResponseEntity.ok()
+                .header(UsuarioInvestimentoService.CABECALHO_LINHAS_ALTERADAS, String.valueOf(mescla.total()))
+                .body("Rentabilidades atualizadas com sucesso. Linhas alteradas: " + mescla.total()
+                        + " (inseridas: " + mescla.inseridas() + ", atualizadas: " + mescla.atualizadas() + ").");
+    }
+
     /**
      * Cria investimentos para um usuário a partir do DTO informado.
      * Encaminha para o método de salvar, reutilizando a lógica.
@@ -0,0 +1,85 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.enums.OperacaoAlteracao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contadores de negócio: usuários cadastrados e linhas de investimento e de
+ * rentabilidade diária escritas, por operação.
+ *
+ * Só escritas confirmadas contam: dentro de uma transação, o incremento fica para
+ * depois do commit e some no rollback.
+ */
+@Service
+public class MetricasNegocio {
+
+    private final Counter usuarios;
+    private final Map<OperacaoAlteracao, Counter> investimentos = new EnumMap<>(OperacaoAlteracao.class);
+    private final Map<OperacaoAlteracao, Counter> rentabilidades = new EnumMap<>(OperacaoAlteracao.class);
+
+    /**
+     * @param registry registro de métricas
+     */
+    public MetricasNegocio(MeterRegistry registry) {
+        usuarios = Counter.builder("investimentos.usuarios.cadastrados")
+                .description("Usuários investidores cadastrados").register(registry);
+        for (OperacaoAlteracao operacao : OperacaoAlteracao.values()) {
+            String tag = operacao.name().toLowerCase();
+            investimentos.put(operacao, Counter.builder("investimentos.investimentos.escritos")
+                    .description("Investimentos inseridos, atualizados e removidos")
+                    .tag("operacao", tag).register(registry));
+            rentabilidades.put(operacao, Counter.builder("investimentos.rentabilidades.escritas")
+                    .description("Datas da série diária inseridas, atualizadas e removidas")
+                    .tag("operacao", tag).register(registry));
+        }
+    }
+
+    /**
+     * Conta usuários cadastrados na transação atual.
+     *
+     * @param quantidade usuários inseridos
+     */
+    void usuariosCadastrados(int quantidade) {
+        if (quantidade > 0) aposCommit(() -> usuarios.increment(quantidade));
+    }
+
+    /**
+     * Conta investimentos escritos (chamado depois do commit).
+     *
+     * @param operacao operação
+     * @param quantidade investimentos
+     */
+    void investimentosEscritos(OperacaoAlteracao operacao, int quantidade) {
+        if (quantidade > 0) investimentos.get(operacao).increment(quantidade);
+    }
+
+    /**
+     * Conta datas da série diária escritas (chamado depois do commit).
+     *
+     * @param operacao operação
+     * @param quantidade datas
+     */
+    void rentabilidadesEscritas(OperacaoAlteracao operacao, int quantidade) {
+        if (quantidade > 0) rentabilidades.get(operacao).increment(quantidade);
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+}
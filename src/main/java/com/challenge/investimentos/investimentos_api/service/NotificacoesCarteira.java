@@ -0,0 +1,377 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.config.RoteamentoBulkhead;
+import com.challenge.investimentos.investimentos_api.dto.NotificacaoCarteiraDTO;
+import com.challenge.investimentos.investimentos_api.dto.SequenciaAlteracoesProjecao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.repository.AlteracaoCarteiraRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envio por Server-Sent Events das alterações de carteira aos clientes inscritos
+ * em {@code GET /api/usuario-investimentos/{cpf}/eventos}.
+ *
+ * As conexões ficam abertas como requisições assíncronas do servlet: enquanto não
+ * há evento, nenhuma thread fica presa a elas. Após o commit de uma escrita, o
+ * {@link CarteiraAlteradaEvent} gera um evento compacto ({@code cpf} e sequência
+ * de alterações), serializado uma única vez e enfileirado para cada assinante do
+ * CPF. Quem publica nunca escreve no socket: um pool pequeno de threads esvazia as
+ * filas, no máximo uma tarefa por assinante.
+ *
+ * A fila de cada assinante tem tamanho fixo. Um cliente lento que deixa a fila
+ * encher é desconectado na hora, por quem publica; ao reconectar, ele recebe a
+ * sequência atual e busca o que perdeu em {@code /changes?since=N}.
+ *
+ * A escrita no socket é bloqueante e não pode ser interrompida: um cliente que para
+ * de ler prende a thread de envio até o timeout de escrita do Tomcat. Um vigia
+ * desconecta o assinante cujo envio passa de {@code tempo-limite-envio-ms} e põe
+ * outra thread no pool no lugar da presa, devolvida quando a escrita termina. Assim
+ * clientes travados não param o envio para os demais CPFs.
+ */
+@Service
+public class NotificacoesCarteira {
+
+    /** Nome do evento enviado quando a carteira muda (e logo após a inscrição). */
+    public static final String EVENTO_CARTEIRA = "carteira";
+
+    /** Nome do evento enviado quando o usuário é removido; a conexão é encerrada em seguida. */
+    public static final String EVENTO_REMOVIDA = "removida";
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+    private static final Set<DataWithMediaType> FIM = Collections.emptySet();
+
+    /** Valor de {@code enviandoDesde} depois que o vigia repôs a thread do envio. */
+    private static final long TRAVADO = -1;
+
+    private final AlteracaoCarteiraRepository alteracaoCarteiraRepository;
+    private final TransactionTemplate leitura;
+    private final ObjectMapper objectMapper;
+    private final long tempoLimite;
+    private final int capacidadeFila;
+    private final long tempoLimiteEnvio;
+    private final Executor envio;
+
+    private final ConcurrentHashMap<String, Set<Assinante>> assinantes = new ConcurrentHashMap<>();
+    private final Set<Assinante> emEnvio = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalAssinantes = new AtomicInteger();
+    private final LongAdder descartados = new LongAdder();
+
+    @Autowired
+    public NotificacoesCarteira(AlteracaoCarteiraRepository alteracaoCarteiraRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${investimentos.notificacoes.tempo-limite-ms:1800000}") long tempoLimite,
+                                @Value("${investimentos.notificacoes.capacidade-fila:32}") int capacidadeFila,
+                                @Value("${investimentos.notificacoes.threads-envio:4}") int threadsEnvio,
+                                @Value("${investimentos.notificacoes.tempo-limite-envio-ms:5000}") long tempoLimiteEnvio) {
+        this(alteracaoCarteiraRepository, leituraIsolada(transactionManager), objectMapper, tempoLimite,
+                capacidadeFila, tempoLimiteEnvio, Executors.newFixedThreadPool(threadsEnvio, tarefa -> {
+                    Thread thread = new Thread(tarefa, "notificacoes-carteira");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    NotificacoesCarteira(AlteracaoCarteiraRepository alteracaoCarteiraRepository, TransactionTemplate leitura,
+                         ObjectMapper objectMapper, long tempoLimite, int capacidadeFila, long tempoLimiteEnvio,
+                         Executor envio) {
+        this.alteracaoCarteiraRepository = alteracaoCarteiraRepository;
+        this.leitura = leitura;
+        this.objectMapper = objectMapper;
+        this.tempoLimite = tempoLimite;
+        this.capacidadeFila = capacidadeFila;
+        this.tempoLimiteEnvio = tempoLimiteEnvio;
+        this.envio = envio;
+    }
+
+    /**
+     * Inscreve o cliente nas alterações da carteira do CPF. O primeiro evento traz a
+     * sequência atual, para o cliente saber de onde pedir o delta. A inscrição fica
+     * sob o CPF normalizado, o mesmo dos eventos, mesmo que tenha vindo com máscara.
+     *
+     * @param cpf CPF do usuário
+     * @return 200 com o emissor SSE, ou 404 se o CPF não existir
+     */
+    public ResponseEntity<SseEmitter> assinar(String cpf) {
+        long chave = CodecCpf.codificar(cpf);
+        Optional<SequenciaAlteracoesProjecao> sequencia = chave == CodecCpf.INVALIDO ? Optional.empty()
+                : alteracaoCarteiraRepository.buscarSequenciaPorCpf(chave);
+        if (sequencia.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String normalizado = CodecCpf.formatar(chave);
+        SseEmitter emissor = new SseEmitter(tempoLimite);
+        Assinante assinante = registrar(normalizado, emissor);
+        publicar(assinante, evento(normalizado, sequencia.get().atual()));
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emissor);
+    }
+
+    /**
+     * Avisa os assinantes do CPF depois do commit de uma escrita na carteira. Sem
+     * assinantes, não há custo algum; com assinantes, a sequência atual é lida uma vez,
+     * com uma conexão do pool padrão.
+     *
+     * @param evento evento com o CPF alterado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCarteira(CarteiraAlteradaEvent evento) {
+        long chave = CodecCpf.codificar(evento.cpf());
+        if (chave == CodecCpf.INVALIDO) return;
+        String cpf = CodecCpf.formatar(chave);
+        if (!assinantes.containsKey(cpf)) return;
+        Optional<SequenciaAlteracoesProjecao> sequencia = RoteamentoBulkhead.naPrimaria(() ->
+                leitura.execute(status -> alteracaoCarteiraRepository.buscarSequenciaPorCpf(chave)));
+        notificar(cpf, sequencia.map(SequenciaAlteracoesProjecao::atual).orElse(null));
+    }
+
+    /**
+     * Envia um comentário vazio a todos os assinantes, mantendo as conexões vivas em
+     * proxies e detectando clientes que já se desconectaram.
+     */
+    @Scheduled(fixedDelayString = "${investimentos.notificacoes.heartbeat-ms:25000}")
+    public void enviarHeartbeat() {
+        assinantes.values().forEach(doCpf -> doCpf.forEach(assinante -> publicar(assinante, HEARTBEAT)));
+    }
+
+    /**
+     * Desconecta os assinantes com um envio em andamento há mais de
+     * {@code tempo-limite-envio-ms} e repõe a thread presa nessa escrita.
+     */
+    @Scheduled(fixedDelayString = "${investimentos.notificacoes.verificacao-envio-ms:1000}")
+    public void verificarEnvios() {
+        long limite = System.currentTimeMillis() - tempoLimiteEnvio;
+        for (Assinante assinante : emEnvio) {
+            long inicio = assinante.enviandoDesde.get();
+            if (inicio > 0 && inicio < limite && assinante.enviandoDesde.compareAndSet(inicio, TRAVADO)) {
+                assinante.descartar = true;
+                if (remover(assinante)) {
+                    descartados.increment();
+                }
+                ajustarThreadsEnvio(1);
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de conexões abertas.
+     */
+    public int totalAssinantes() {
+        return totalAssinantes.get();
+    }
+
+    /**
+     * Retorna quantos assinantes foram desconectados por não consumirem os eventos a
+     * tempo (fila cheia ou envio travado).
+     */
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        assinantes.values().forEach(doCpf -> doCpf.forEach(this::finalizar));
+        if (envio instanceof ExecutorService servico) {
+            servico.shutdownNow();
+        }
+    }
+
+    Assinante registrar(String cpf, SseEmitter emissor) {
+        Assinante assinante = new Assinante(cpf, emissor, capacidadeFila);
+        emissor.onCompletion(() -> concluido(assinante));
+        emissor.onTimeout(() -> finalizar(assinante));
+        emissor.onError(erro -> concluido(assinante));
+        assinantes.compute(cpf, (chave, doCpf) -> {
+            Set<Assinante> conjunto = doCpf != null ? doCpf : ConcurrentHashMap.newKeySet();
+            conjunto.add(assinante);
+            return conjunto;
+        });
+        totalAssinantes.incrementAndGet();
+        return assinante;
+    }
+
+    void notificar(String cpf, Long sequencia) {
+        Set<Assinante> doCpf = assinantes.get(cpf);
+        if (doCpf == null) return;
+        Set<DataWithMediaType> dados = evento(cpf, sequencia);
+        for (Assinante assinante : doCpf) {
+            publicar(assinante, dados);
+            if (sequencia == null) {
+                publicar(assinante, FIM);
+            }
+        }
+    }
+
+    private void publicar(Assinante assinante, Set<DataWithMediaType> dados) {
+        if (assinante.encerrado.get()) return;
+        if (!assinante.fila.offer(dados)) {
+            assinante.descartar = true;
+            if (remover(assinante)) {
+                descartados.increment();
+            }
+        }
+        agendar(assinante);
+    }
+
+    private void agendar(Assinante assinante) {
+        if (assinante.agendado.compareAndSet(false, true)) {
+            envio.execute(() -> drenar(assinante));
+        }
+    }
+
+    private void drenar(Assinante assinante) {
+        boolean finalizar = assinante.descartar;
+        try {
+            Set<DataWithMediaType> dados;
+            while (!finalizar && (dados = assinante.fila.poll()) != null) {
+                if (dados == FIM) {
+                    finalizar = true;
+                } else {
+                    enviar(assinante, dados);
+                    finalizar = assinante.descartar;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            finalizar = true;
+        } finally {
+            assinante.agendado.set(false);
+        }
+        if (finalizar) {
+            finalizar(assinante);
+        } else if (!assinante.fila.isEmpty()) {
+            agendar(assinante);
+        }
+    }
+
+    /**
+     * Escreve no socket marcando o início, para o vigia de {@link #verificarEnvios()}.
+     * Se o vigia já tiver reposto a thread, ela sai do pool quando a escrita terminar.
+     */
+    private void enviar(Assinante assinante, Set<DataWithMediaType> dados) throws IOException {
+        long inicio = System.currentTimeMillis();
+        assinante.enviandoDesde.set(inicio);
+        emEnvio.add(assinante);
+        try {
+            assinante.emissor.send(dados);
+        } finally {
+            emEnvio.remove(assinante);
+            if (!assinante.enviandoDesde.compareAndSet(inicio, 0)) {
+                ajustarThreadsEnvio(-1);
+            }
+        }
+    }
+
+    private void ajustarThreadsEnvio(int diferenca) {
+        if (!(envio instanceof ThreadPoolExecutor pool)) return;
+        synchronized (pool) {
+            if (diferenca > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + diferenca);
+                pool.setCorePoolSize(pool.getCorePoolSize() + diferenca);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + diferenca);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + diferenca);
+            }
+        }
+    }
+
+    private void finalizar(Assinante assinante) {
+        remover(assinante);
+        if (assinante.concluido.compareAndSet(false, true)) {
+            assinante.fila.clear();
+            assinante.emissor.complete();
+        }
+    }
+
+    private void concluido(Assinante assinante) {
+        assinante.concluido.set(true);
+        remover(assinante);
+    }
+
+    private boolean remover(Assinante assinante) {
+        if (!assinante.encerrado.compareAndSet(false, true)) return false;
+        assinantes.computeIfPresent(assinante.cpf, (chave, doCpf) -> {
+            doCpf.remove(assinante);
+            return doCpf.isEmpty() ? null : doCpf;
+        });
+        totalAssinantes.decrementAndGet();
+        return true;
+    }
+
+    private Set<DataWithMediaType> evento(String cpf, Long sequencia) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new NotificacaoCarteiraDTO(cpf, sequencia));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a notificação do CPF " + cpf, e);
+        }
+        SseEmitter.SseEventBuilder evento = SseEmitter.event()
+                .name(sequencia != null ? EVENTO_CARTEIRA : EVENTO_REMOVIDA)
+                .data(json, MediaType.APPLICATION_JSON);
+        if (sequencia != null) {
+            evento.id(Long.toString(sequencia));
+        }
+        return evento.build();
+    }
+
+    /**
+     * Transação própria para ler a sequência logo após o commit. Não é marcada como
+     * somente leitura para ir à primária: a réplica pode ainda não ter a alteração.
+     */
+    private static TransactionTemplate leituraIsolada(PlatformTransactionManager transactionManager) {
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return leitura;
+    }
+
+    /** Conexão aberta de um cliente, com a fila limitada de eventos ainda não escritos. */
+    static final class Assinante {
+        private final String cpf;
+        private final SseEmitter emissor;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> fila;
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private final AtomicBoolean encerrado = new AtomicBoolean();
+        private final AtomicBoolean concluido = new AtomicBoolean();
+        private final AtomicLong enviandoDesde = new AtomicLong();
+        private volatile boolean descartar;
+
+        Assinante(String cpf, SseEmitter emissor, int capacidadeFila) {
+            this.cpf = cpf;
+            this.emissor = emissor;
+            this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        }
+
+        boolean encerrado() {
+            return encerrado.get();
+        }
+    }
+}
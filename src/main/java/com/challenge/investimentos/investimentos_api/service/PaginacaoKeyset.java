@@ -0,0 +1,64 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utilitário de paginação por cursor (keyset) sobre a coluna {@code ID}.
+ *
+ * Cada página é buscada com {@code WHERE ID > :ultimoId ORDER BY ID FETCH FIRST n ROWS},
+ * sem OFFSET: a página N custa o mesmo que a primeira. O cursor devolvido ao
+ * cliente é opaco (Base64 URL-safe) e só deve ser reenviado como recebido.
+ */
+public final class PaginacaoKeyset {
+
+    /** Cabeçalho HTTP com o cursor da próxima página (ausente na última página). */
+    public static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
+    /** Tamanho de página usado quando o cliente não informa {@code limite}. */
+    public static final int LIMITE_PADRAO = 100;
+
+    /** Maior tamanho de página aceito; valores acima são reduzidos a este. */
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final String PREFIXO = "k1:";
+
+    private PaginacaoKeyset() {}
+
+    /**
+     * Ajusta o tamanho de página solicitado ao intervalo [1, {@link #LIMITE_MAXIMO}].
+     * @param limite tamanho solicitado (pode ser {@code null})
+     * @return tamanho de página efetivo
+     */
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null) return LIMITE_PADRAO;
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    /**
+     * Gera o cursor opaco que aponta para depois do último ID retornado.
+     * @param ultimoId último ID da página atual
+     * @return cursor da próxima página
+     */
+    public static String codificar(long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIXO + ultimoId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Lê o último ID contido no cursor.
+     * @param cursor cursor recebido do cliente ({@code null} ou vazio para a primeira página)
+     * @return último ID já entregue; {@code 0} para a primeira página
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    public static long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) return 0L;
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!valor.startsWith(PREFIXO)) throw new IllegalArgumentException();
+            return Long.parseLong(valor.substring(PREFIXO.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+
+import java.time.LocalDate;
+
+/**
+ * Janela de datas pedida nas consultas de rentabilidade diária.
+ *
+ * Extremos não informados são trocados por datas-limite, de modo que a consulta
+ * seja sempre um {@code BETWEEN} sobre o índice (INVESTIMENTO_ID, DATA_RENTABILIDADE_DIARIA).
+ *
+ * @param inicio primeira data incluída
+ * @param fim última data incluída
+ */
+record Periodo(LocalDate inicio, LocalDate fim) {
+
+    private static final LocalDate PRIMEIRA_DATA = LocalDate.of(1900, 1, 1);
+    private static final LocalDate ULTIMA_DATA = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Monta o período a partir dos parâmetros opcionais da requisição.
+     *
+     * @param de primeira data ({@code null} para sem limite inferior)
+     * @param ate última data ({@code null} para sem limite superior)
+     * @return período fechado
+     * @throws IllegalArgumentException se {@code de} for posterior a {@code ate}
+     */
+    static Periodo de(LocalDate de, LocalDate ate) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new IllegalArgumentException("Período inválido: 'from' (" + de.format(RentabilidadeDiariaDTO.FORMATO_DATA)
+                    + ") é posterior a 'to' (" + ate.format(RentabilidadeDiariaDTO.FORMATO_DATA) + ").");
+        }
+        return new Periodo(de != null ? de : PRIMEIRA_DATA, ate != null ? ate : ULTIMA_DATA);
+    }
+
+    /**
+     * Indica se nenhum extremo foi informado (série completa).
+     */
+    boolean completo() {
+        return inicio.equals(PRIMEIRA_DATA) && fim.equals(ULTIMA_DATA);
+    }
+}
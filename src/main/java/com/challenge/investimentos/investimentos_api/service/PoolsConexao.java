@@ -0,0 +1,50 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.config.LeituraComFallback;
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasDataSourceDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Leitura dos contadores dos pools de conexão (primária e, se configurada, réplica).
+ */
+@Service
+public class PoolsConexao {
+
+    private final List<HikariDataSource> pools;
+    private final LeituraComFallback leitura;
+
+    /**
+     * Construtor para injeção dos pools.
+     * @param pools pools Hikari da aplicação
+     * @param leitura roteamento de leituras para a réplica, se configurado
+     */
+    public PoolsConexao(ObjectProvider<HikariDataSource> pools, ObjectProvider<LeituraComFallback> leitura) {
+        this.pools = pools.orderedStream().toList();
+        this.leitura = leitura.getIfAvailable();
+    }
+
+    /**
+     * Retorna os contadores de cada pool e a situação da réplica de leitura.
+     */
+    public EstatisticasDataSourceDTO estatisticas() {
+        List<EstatisticasDataSourceDTO.Pool> contadores = pools.stream().map(PoolsConexao::contadores).toList();
+        return leitura == null
+                ? new EstatisticasDataSourceDTO(false, false, 0, contadores)
+                : new EstatisticasDataSourceDTO(true, leitura.replicaDisponivel(), leitura.desvios(), contadores);
+    }
+
+    private static EstatisticasDataSourceDTO.Pool contadores(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null) {
+            return new EstatisticasDataSourceDTO.Pool(pool.getPoolName(), 0, 0, 0, 0, pool.getMaximumPoolSize());
+        }
+        return new EstatisticasDataSourceDTO.Pool(pool.getPoolName(), mxBean.getActiveConnections(),
+                mxBean.getIdleConnections(), mxBean.getThreadsAwaitingConnection(), mxBean.getTotalConnections(),
+                pool.getMaximumPoolSize());
+    }
+}
@@ -0,0 +1,118 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Seleção de campos dos investimentos pedida pelos parâmetros {@code fields} e {@code include}.
+ *
+ * {@code fields} lista os campos do investimento que devem sair na resposta;
+ * {@code include} lista as relações pesadas ({@code rentabilidadeDiaria}) que devem
+ * ser carregadas. Sem nenhum dos dois, a resposta é a completa de sempre. Quando a
+ * série diária não é pedida, os serviços nem consultam {@code RENTABILIDADE_DIARIA_TABLE}.
+ *
+ * Exemplos: {@code ?fields=nomeBanco,nomeInvestimento,montanteInicial} (sem série),
+ * {@code ?include=} (todos os campos, sem série), {@code ?fields=id&include=rentabilidadeDiaria}.
+ */
+public final class SelecaoCampos {
+
+    /** Campo da série de rentabilidades diárias, o único carregado sob demanda. */
+    public static final String RENTABILIDADE_DIARIA = "rentabilidadeDiaria";
+
+    /** Campos do investimento aceitos em {@code fields}. */
+    public static final List<String> CAMPOS = List.of("id", "nomeBanco", "tipoInvestimento", "nomeInvestimento",
+            "montanteInicial", "valorInicialAcao", "taxaRentabilidade", "numeroAcoesInicial", RENTABILIDADE_DIARIA);
+
+    /** Relações aceitas em {@code include}. */
+    public static final List<String> RELACOES = List.of(RENTABILIDADE_DIARIA);
+
+    /** Seleção padrão: todos os campos, com a série diária. */
+    public static final SelecaoCampos COMPLETA = new SelecaoCampos(new LinkedHashSet<>(CAMPOS));
+
+    private final Set<String> campos;
+
+    private SelecaoCampos(Set<String> campos) {
+        this.campos = campos;
+    }
+
+    /**
+     * Monta a seleção a partir dos parâmetros da requisição.
+     *
+     * @param fields campos separados por vírgula ({@code null} para todos)
+     * @param include relações separadas por vírgula ({@code null} para todas; vazio para nenhuma)
+     * @return seleção de campos
+     * @throws IllegalArgumentException se algum nome não for um campo ou relação conhecida
+     */
+    public static SelecaoCampos de(String fields, String include) {
+        if (fields == null && include == null) {
+            return COMPLETA;
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        if (fields != null) {
+            campos.addAll(nomes(fields, CAMPOS, "fields"));
+        } else {
+            campos.addAll(CAMPOS);
+            campos.remove(RENTABILIDADE_DIARIA);
+        }
+        if (include != null) {
+            campos.addAll(nomes(include, RELACOES, "include"));
+        }
+        return new SelecaoCampos(campos);
+    }
+
+    /**
+     * Indica se a série de rentabilidades diárias foi pedida (e precisa ser consultada).
+     */
+    public boolean incluiRentabilidades() {
+        return campos.contains(RENTABILIDADE_DIARIA);
+    }
+
+    /**
+     * Aplica a seleção ao corpo da resposta, mantendo status e cabeçalhos.
+     *
+     * @param resposta resposta do serviço
+     * @return resposta cujo corpo só serializa os campos selecionados dos investimentos
+     */
+    public ResponseEntity<MappingJacksonValue> aplicar(ResponseEntity<?> resposta) {
+        if (resposta.getBody() == null) {
+            return ResponseEntity.status(resposta.getStatusCode()).headers(resposta.getHeaders()).build();
+        }
+        MappingJacksonValue corpo = new MappingJacksonValue(resposta.getBody());
+        corpo.setFilters(new SimpleFilterProvider().addFilter(InvestimentoDTO.FILTRO_CAMPOS,
+                SimpleBeanPropertyFilter.filterOutAllExcept(campos)));
+        return ResponseEntity.status(resposta.getStatusCode()).headers(resposta.getHeaders()).body(corpo);
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof SelecaoCampos selecao && campos.equals(selecao.campos);
+    }
+
+    @Override
+    public int hashCode() {
+        return campos.hashCode();
+    }
+
+    private static Set<String> nomes(String lista, List<String> aceitos, String parametro) {
+        Set<String> nomes = Arrays.stream(lista.split(","))
+                .map(String::trim)
+                .filter(nome -> !nome.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        for (String nome : nomes) {
+            if (!aceitos.contains(nome)) {
+                throw new IllegalArgumentException("Campo inválido em '" + parametro + "': " + nome
+                        + ". Valores permitidos: " + aceitos + ".");
+            }
+        }
+        return nomes;
+    }
+}
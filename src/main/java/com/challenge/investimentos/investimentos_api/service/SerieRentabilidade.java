@@ -0,0 +1,171 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.RentabilidadeDiaria;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Mescla de séries de rentabilidade diária por data (upsert).
+ *
+ * Cada investimento tem no máximo uma rentabilidade por data (chave única
+ * UK_RENT_INV_DATA): pontos recebidos com data já existente atualizam a linha
+ * armazenada somente se algum valor mudou; datas novas viram inserções.
+ */
+final class SerieRentabilidade {
+
+    /**
+     * Linhas tocadas por uma mescla, identificadas pela data.
+     *
+     * @param datasInseridas datas das linhas novas
+     * @param datasAtualizadas datas das linhas existentes com algum valor alterado
+     * @param datasRemovidas datas das linhas removidas ({@code null} para linhas antigas sem data)
+     */
+    record Mescla(List<LocalDate> datasInseridas, List<LocalDate> datasAtualizadas, List<LocalDate> datasRemovidas) {
+        int inseridas() {
+            return datasInseridas.size();
+        }
+
+        int atualizadas() {
+            return datasAtualizadas.size();
+        }
+
+        int removidas() {
+            return datasRemovidas.size();
+        }
+
+        int total() {
+            return inseridas() + atualizadas() + removidas();
+        }
+    }
+
+    private SerieRentabilidade() {}
+
+    /**
+     * Converte os pontos recebidos em rentabilidades do investimento, indexadas por data.
+     * Datas repetidas no DTO ficam com o último ponto enviado.
+     *
+     * @param dtos pontos recebidos (pode ser {@code null})
+     * @param investimento investimento dono dos pontos
+     * @return rentabilidades por data, na ordem recebida
+     * @throws java.time.format.DateTimeParseException se alguma data for inválida
+     */
+    static Map<LocalDate, RentabilidadeDiaria> porData(List<RentabilidadeDiariaDTO> dtos, Investimento investimento) {
+        Map<LocalDate, RentabilidadeDiaria> recebidas = new LinkedHashMap<>();
+        if (dtos != null) {
+            for (RentabilidadeDiariaDTO dto : dtos) {
+                RentabilidadeDiaria rd = new RentabilidadeDiaria();
+                rd.setDataRentabilidadeDiaria(LocalDate.parse(dto.getDataRentabilidadeDiaria(), RentabilidadeDiariaDTO.FORMATO_DATA));
+                rd.setValorDiarioAcao(dto.getValorDiarioAcao());
+                rd.setTaxaDiarioRentabilidade(dto.getTaxaDiarioRentabilidade());
+                rd.setMontanteAcumuladoDiario(dto.getMontanteAcumuladoDiario());
+                rd.setInvestimento(investimento);
+                recebidas.put(rd.getDataRentabilidadeDiaria(), rd);
+            }
+        }
+        return recebidas;
+    }
+
+    /**
+     * Substitui a série completa do investimento pela recebida, tocando só as diferenças.
+     * Datas ausentes da série recebida (e linhas antigas sem data) são removidas.
+     *
+     * @param investimento investimento com a série atual carregada
+     * @param recebidas série completa recebida, por data
+     * @return linhas tocadas
+     */
+    static Mescla substituir(Investimento investimento, Map<LocalDate, RentabilidadeDiaria> recebidas) {
+        if (investimento.getRentabilidadeDiaria() == null) {
+            investimento.setRentabilidadeDiaria(new ArrayList<>());
+        }
+        List<RentabilidadeDiaria> serie = investimento.getRentabilidadeDiaria();
+        Map<LocalDate, RentabilidadeDiaria> pendentes = new HashMap<>(recebidas);
+        List<RentabilidadeDiaria> sobras = new ArrayList<>();
+        List<LocalDate> atualizadas = new ArrayList<>();
+        for (RentabilidadeDiaria armazenada : serie) {
+            RentabilidadeDiaria recebida = armazenada.getDataRentabilidadeDiaria() != null
+                    ? pendentes.remove(armazenada.getDataRentabilidadeDiaria()) : null;
+            if (recebida == null) {
+                sobras.add(armazenada);
+            } else if (copiarValores(recebida, armazenada)) {
+                atualizadas.add(armazenada.getDataRentabilidadeDiaria());
+            }
+        }
+        serie.removeAll(sobras);
+
+        List<RentabilidadeDiaria> novas = new ArrayList<>();
+        for (RentabilidadeDiaria recebida : recebidas.values()) {
+            if (pendentes.containsKey(recebida.getDataRentabilidadeDiaria())) {
+                novas.add(recebida);
+            }
+        }
+        serie.addAll(novas);
+        return new Mescla(datas(novas), atualizadas, datas(sobras));
+    }
+
+    /**
+     * Mescla pontos novos ou alterados sem carregar a série inteira: recebe somente as
+     * linhas armazenadas nas datas recebidas e entrega as datas novas para inserção.
+     *
+     * @param existentes linhas armazenadas nas datas recebidas
+     * @param recebidas pontos recebidos, por data
+     * @param inserir ação que persiste um ponto sem linha correspondente
+     * @return linhas tocadas (nunca há remoções)
+     */
+    static Mescla acrescentar(Collection<RentabilidadeDiaria> existentes, Map<LocalDate, RentabilidadeDiaria> recebidas,
+                              Consumer<RentabilidadeDiaria> inserir) {
+        Map<LocalDate, RentabilidadeDiaria> pendentes = new LinkedHashMap<>(recebidas);
+        List<LocalDate> atualizadas = new ArrayList<>();
+        for (RentabilidadeDiaria armazenada : existentes) {
+            RentabilidadeDiaria recebida = pendentes.remove(armazenada.getDataRentabilidadeDiaria());
+            if (recebida != null && copiarValores(recebida, armazenada)) {
+                atualizadas.add(armazenada.getDataRentabilidadeDiaria());
+            }
+        }
+        pendentes.values().forEach(inserir);
+        return new Mescla(new ArrayList<>(pendentes.keySet()), atualizadas, List.of());
+    }
+
+    /** Datas das rentabilidades informadas, na mesma ordem. */
+    static List<LocalDate> datas(Collection<RentabilidadeDiaria> rentabilidades) {
+        List<LocalDate> datas = new ArrayList<>(rentabilidades.size());
+        for (RentabilidadeDiaria rentabilidade : rentabilidades) {
+            datas.add(rentabilidade.getDataRentabilidadeDiaria());
+        }
+        return datas;
+    }
+
+    /**
+     * Compara valores decimais ignorando a escala (1.0 e 1.00 são iguais).
+     */
+    static boolean mesmoValor(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    /** Copia os valores da rentabilidade recebida para a armazenada; devolve {@code true} se algum mudou. */
+    private static boolean copiarValores(RentabilidadeDiaria recebida, RentabilidadeDiaria armazenada) {
+        boolean mudou = false;
+        if (!mesmoValor(armazenada.getValorDiarioAcao(), recebida.getValorDiarioAcao())) {
+            armazenada.setValorDiarioAcao(recebida.getValorDiarioAcao());
+            mudou = true;
+        }
+        if (!mesmoValor(armazenada.getTaxaDiarioRentabilidade(), recebida.getTaxaDiarioRentabilidade())) {
+            armazenada.setTaxaDiarioRentabilidade(recebida.getTaxaDiarioRentabilidade());
+            mudou = true;
+        }
+        if (!mesmoValor(armazenada.getMontanteAcumuladoDiario(), recebida.getMontanteAcumuladoDiario())) {
+            armazenada.setMontanteAcumuladoDiario(recebida.getMontanteAcumuladoDiario());
+            mudou = true;
+        }
+        return mudou;
+    }
+}
@@ -1,41 +1,45 @@
 package com.challenge.investimentos.investimentos_api.service;
 
+import com.challenge.investimentos.investimentos_api.dto.FacetasProjecao;
 import com.challenge.investimentos.investimentos_api.dto.TipoInvestimentoDTO;
-import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.repository.UsuarioInvestimentoRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Serviço responsável pelas operações relacionadas aos tipos de investimento
  * associados aos investimentos dos usuários.
  */
 @Service
+@Timed(value = "investimentos.servico", description = "Tempo dos métodos dos serviços", histogram = true)
 public class TipoInvestimentoService {
 
-    private final InvestimentoRepository investimentoRepository;
+    private final UsuarioInvestimentoRepository usuarioInvestimentoRepository;
 
     /**
-     * Construtor para injeção do repositório de investimentos.
-     * @param investimentoRepository repositório de investimentos
+     * Construtor para injeção do repositório de usuários investidores.
+     * @param usuarioInvestimentoRepository repositório de usuários investidores
      */
-    public TipoInvestimentoService(InvestimentoRepository investimentoRepository) {
-        this.investimentoRepository = investimentoRepository;
+    public TipoInvestimentoService(UsuarioInvestimentoRepository usuarioInvestimentoRepository) {
+        this.usuarioInvestimentoRepository = usuarioInvestimentoRepository;
     }
 
     /**
      * Lista os tipos de investimento distintos associados a um usuário investidor pelo CPF.
      *
+     * Responde a partir da máscara de tipos gravada no próprio usuário, com uma
+     * única leitura por CPF e sem carregar investimentos.
+     *
      * @param cpf CPF do usuário investidor
      * @return lista de tipos de investimento distintos associados ao CPF informado
      */
     @Transactional(readOnly = true)
     public List<TipoInvestimentoDTO> listarTiposPorCpf(String cpf) {
-    return investimentoRepository.findByUsuarioInvestimento_Cpf_Cpf(cpf).stream()
-                .map(i -> new TipoInvestimentoDTO(i.getTipoInvestimento().name()))
-                .distinct()
-                .collect(Collectors.toList());
+        FacetasProjecao facetas = usuarioInvestimentoRepository.buscarFacetasPorCpf(CodecCpf.codificar(cpf));
+        return facetas != null ? FacetasCarteira.tipos(facetas.mascaraTipos()) : List.of();
     }
 }
\ No newline at end of file
@@ -1,24 +1,40 @@
 package com.challenge.investimentos.investimentos_api.service;
 
 import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
-import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoProjecao;
+import com.challenge.investimentos.investimentos_api.dto.ResultadoBuscaLoteDTO;
+import com.challenge.investimentos.investimentos_api.dto.ResultadoCadastroLoteDTO;
 import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.UsuarioProjecao;
 
+import com.challenge.investimentos.investimentos_api.enums.SituacaoCadastro;
 import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
 import com.challenge.investimentos.investimentos_api.model.Investimento;
-import com.challenge.investimentos.investimentos_api.model.RentabilidadeDiaria;
 import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
 import com.challenge.investimentos.investimentos_api.repository.UsuarioInvestimentoRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Serviço para gerenciar usuários investidores e seus investimentos.
@@ -27,12 +43,41 @@ import java.util.stream.Collectors;
  * persistência via repositório.
  */
 @Service
+@Timed(value = "investimentos.servico", description = "Tempo dos métodos dos serviços", histogram = true)
 public class UsuarioInvestimentoService {
 
     @Autowired
     private UsuarioInvestimentoRepository usuarioInvestimentoRepository;
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    @Autowired
+    private InvestimentoRepository investimentoRepository;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private VersoesCarteira versoesCarteira;
+
+    @Autowired
+    private AlteracoesCarteira alteracoesCarteira;
+
+    @Autowired
+    private MetricasNegocio metricasNegocio;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Tamanho das listas IN nas consultas por vários CPFs (o Oracle aceita até 1000). */
+    private static final int CPFS_POR_CONSULTA = 1000;
+
+    /** Usuários inseridos entre cada envio ao banco e limpeza do contexto de persistência. */
+    private static final int USUARIOS_POR_LOTE = 1000;
+
+    /** Cabeçalho com a quantidade de linhas inseridas, atualizadas e removidas por uma escrita incremental. */
+    public static final String CABECALHO_LINHAS_ALTERADAS = "X-Linhas-Alteradas";
 
     /**
      * Cria um novo usuário investidor com o CPF informado.
@@ -45,7 +90,7 @@ public class UsuarioInvestimentoService {
             return ResponseEntity.badRequest().body("CPF do usuário é obrigatório.");
         }
 
-    if (usuarioInvestimentoRepository.findByCpf_Cpf(cpfIdentificacao) != null) {
+    if (usuarioInvestimentoRepository.findByCpf_Numero(CodecCpf.codificar(cpfIdentificacao)) != null) {
             return ResponseEntity.badRequest().body("Usuário com esse CPF já existe.");
         }
 
@@ -54,29 +99,111 @@ public class UsuarioInvestimentoService {
         novoUsuario.setInvestimentos(new ArrayList<>());
 
         usuarioInvestimentoRepository.save(novoUsuario);
+        metricasNegocio.usuariosCadastrados(1);
         return ResponseEntity.ok("Usuário criado com sucesso.");
     }
 
     /**
-     * Substitui os investimentos do usuário informado pelos contidos no DTO.
-     * 
-     * Limpa a coleção atual (se existir) e popula novamente com base no DTO,
-     * validando tipo de investimento e datas.
+     * Cadastra vários usuários investidores de uma vez, como na migração da base de
+     * clientes de um banco parceiro.
+     *
+     * Os CPFs são validados e convertidos em chave numérica ({@link CodecCpf}) numa
+     * única passada. Os já cadastrados são descobertos com consultas IN de até
+     * {@link #CPFS_POR_CONSULTA} CPFs, e os novos são inseridos com JDBC batching:
+     * os IDs vêm da sequence em blocos (allocationSize), sem um SELECT por usuário.
+     * Um CPF inválido, repetido ou já existente não impede o cadastro dos demais.
+     *
+     * @param cpfs CPFs a cadastrar (apenas dígitos ou com máscara)
+     * @return 200 com os totais e a situação de cada CPF, na ordem recebida
+     */
+    @Transactional
+    public ResponseEntity<ResultadoCadastroLoteDTO> cadastrarEmLote(List<String> cpfs) {
+        SituacaoCadastro[] situacoes = new SituacaoCadastro[cpfs.size()];
+        Map<Long, Integer> novos = new LinkedHashMap<>();
+        for (int i = 0; i < cpfs.size(); i++) {
+            long cpf = CodecCpf.codificar(cpfs.get(i));
+            if (cpf == CodecCpf.INVALIDO) {
+                situacoes[i] = SituacaoCadastro.INVALIDO;
+                continue;
+            }
+            situacoes[i] = novos.putIfAbsent(cpf, i) == null ? SituacaoCadastro.CRIADO : SituacaoCadastro.REPETIDO;
+        }
+
+        List<Long> candidatos = new ArrayList<>(novos.keySet());
+        for (int inicio = 0; inicio < candidatos.size(); inicio += CPFS_POR_CONSULTA) {
+            List<Long> trecho = candidatos.subList(inicio, Math.min(inicio + CPFS_POR_CONSULTA, candidatos.size()));
+            for (Long existente : usuarioInvestimentoRepository.listarCpfsExistentes(trecho)) {
+                situacoes[novos.remove(existente)] = SituacaoCadastro.EXISTENTE;
+            }
+        }
+
+        int pendentes = 0;
+        for (long cpf : novos.keySet()) {
+            UsuarioInvestimento usuario = new UsuarioInvestimento();
+            usuario.setCpfIdentificacao(CodecCpf.formatar(cpf));
+            entityManager.persist(usuario);
+            if (++pendentes == USUARIOS_POR_LOTE) {
+                entityManager.flush();
+                entityManager.clear();
+                pendentes = 0;
+            }
+        }
+        entityManager.flush();
+        metricasNegocio.usuariosCadastrados(novos.size());
+
+        int[] totais = new int[SituacaoCadastro.values().length];
+        List<ResultadoCadastroLoteDTO.Resultado> resultados = new ArrayList<>(cpfs.size());
+        for (int i = 0; i < cpfs.size(); i++) {
+            totais[situacoes[i].ordinal()]++;
+            resultados.add(new ResultadoCadastroLoteDTO.Resultado(cpfs.get(i), situacoes[i]));
+        }
+        return ResponseEntity.ok(new ResultadoCadastroLoteDTO(totais[SituacaoCadastro.CRIADO.ordinal()],
+                totais[SituacaoCadastro.EXISTENTE.ordinal()], totais[SituacaoCadastro.INVALIDO.ordinal()],
+                totais[SituacaoCadastro.REPETIDO.ordinal()], resultados));
+    }
+
+    /**
+     * Substitui os investimentos do usuário informado, sem pré-condição de versão.
      *
      * @param dto dados do usuário e seus investimentos
      * @return 200 em caso de sucesso; 400 quando houver validação inválida
      */
     @Transactional
     public ResponseEntity<String> salvarInvestimentos(UsuarioInvestimentoDTO dto) {
+        return salvarInvestimentos(dto, null);
+    }
+
+    /**
+     * Substitui os investimentos do usuário informado pelos contidos no DTO.
+     * 
+     * Compara a carteira recebida com a armazenada e grava somente as diferenças
+     * (ver {@link #sincronizarCarteira}), validando tipo de investimento e datas.
+     * A quantidade de linhas alteradas segue no corpo e no cabeçalho
+     * {@link #CABECALHO_LINHAS_ALTERADAS}.
+     *
+     * Com {@code If-Match}, a carteira só é alterada se a versão atual corresponder
+     * à ETag informada; uma escrita concorrente entre a leitura e o commit é detectada
+     * pelo UPDATE com versão (controle otimista).
+     *
+     * @param dto dados do usuário e seus investimentos
+     * @param seCorresponder valor do cabeçalho {@code If-Match} ({@code null} se ausente)
+     * @return 200 em caso de sucesso; 400 quando houver validação inválida; 412 se a carteira mudou desde a ETag informada
+     */
+    @Transactional
+    public ResponseEntity<String> salvarInvestimentos(UsuarioInvestimentoDTO dto, String seCorresponder) {
         String cpf = dto.getCpfIdentificacao();
         if (cpf == null || cpf.trim().isEmpty()) {
             return ResponseEntity.badRequest().body("CPF do usuário é obrigatório.");
         }
 
-    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Cpf(cpf);
+    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Numero(CodecCpf.codificar(cpf));
         if (usuario == null) {
             return ResponseEntity.badRequest().body("Usuário com CPF " + cpf + " não encontrado.");
         }
+        String etagAtual = VersoesCarteira.etagCarteira(usuario);
+        if (seCorresponder != null && !VersoesCarteira.corresponde(seCorresponder, etagAtual, true)) {
+            return VersoesCarteira.preCondicaoFalhou(etagAtual);
+        }
 
         List<InvestimentoDTO> investimentosDTO = dto.getDataUsuarioInvestimentos();
         if (investimentosDTO == null || investimentosDTO.isEmpty()) {
@@ -85,82 +212,305 @@ public class UsuarioInvestimentoService {
 
         if (usuario.getInvestimentos() == null) {
             usuario.setInvestimentos(new ArrayList<>());
-        } else {
-            usuario.getInvestimentos().clear();
         }
 
-        List<Investimento> investimentos = investimentosDTO.stream().map(investDTO -> {
-            Investimento investimento = new Investimento();
-            investimento.setUsuarioInvestimento(usuario);
+        Contagem contagem = sincronizarCarteira(usuario, investimentosDTO);
+        if (contagem.total() > 0) {
+            FacetasCarteira.recalcular(usuario, usuario.getInvestimentos());
+            eventos.publishEvent(CarteiraAlteradaEvent.de(usuario));
+        }
+
+        return ResponseEntity.ok()
+                .header(CABECALHO_LINHAS_ALTERADAS, String.valueOf(contagem.total()))
+                .body("Investimentos salvos com sucesso. Linhas alteradas: " + contagem.total()
+                        + " (inseridas: " + contagem.inseridas + ", atualizadas: " + contagem.atualizadas
+                        + ", removidas: " + contagem.removidas + ").");
+    }
+
+    /**
+     * Aplica à carteira armazenada somente as diferenças em relação à carteira recebida.
+     *
+     * Investimentos são casados pela chave banco + nome + tipo (em caso de chaves
+     * repetidas, na ordem em que aparecem) e rentabilidades diárias pela data
+     * (ver {@link SerieRentabilidade}). Valores iguais não são tocados; investimentos
+     * e datas ausentes do DTO são removidos (orphanRemoval) e os novos são inseridos.
+     *
+     * @param usuario usuário com a carteira atual carregada
+     * @param investimentosDTO carteira completa recebida
+     * @return quantidade de linhas inseridas, atualizadas e removidas
+     */
+    private Contagem sincronizarCarteira(UsuarioInvestimento usuario, List<InvestimentoDTO> investimentosDTO) {
+        Contagem contagem = new Contagem();
+        List<Investimento> carteira = usuario.getInvestimentos();
+
+        Map<ChaveInvestimento, Deque<Investimento>> armazenados = new HashMap<>();
+        for (Investimento investimento : carteira) {
+            armazenados.computeIfAbsent(ChaveInvestimento.de(investimento), c -> new ArrayDeque<>()).add(investimento);
+        }
 
-            investimento.setNomeBanco(investDTO.getNomeBanco());
+        List<Investimento> novos = new ArrayList<>();
+        for (InvestimentoDTO investDTO : investimentosDTO) {
+            TipoInvestimentoEnum tipo = converterTipo(investDTO.getTipoInvestimento());
+            Deque<Investimento> candidatos = armazenados.get(
+                    new ChaveInvestimento(investDTO.getNomeBanco(), investDTO.getNomeInvestimento(), tipo));
+            Investimento existente = candidatos != null ? candidatos.pollFirst() : null;
 
-            TipoInvestimentoEnum tipoInvestimento;
-            try {
-                tipoInvestimento = TipoInvestimentoEnum.valueOf(investDTO.getTipoInvestimento().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                throw new RuntimeException("Tipo de investimento inválido: " + investDTO.getTipoInvestimento());
+            if (existente == null) {
+                Investimento investimento = novoInvestimento(usuario, investDTO, tipo);
+                novos.add(investimento);
+                alteracoesCarteira.investimentoInserido(investimento);
+                contagem.inseridas += 1 + investimento.getRentabilidadeDiaria().size();
+                continue;
             }
-            investimento.setTipoInvestimento(tipoInvestimento);
-            investimento.setNomeInvestimento(investDTO.getNomeInvestimento());
-
-            investimento.setMontanteInicial(investDTO.getMontanteInicial());
-            investimento.setValorInicialAcao(investDTO.getValorInicialAcao());
-            investimento.setTaxaRentabilidade(investDTO.getTaxaRentabilidade());
-            investimento.setNumeroAcoesInicial(investDTO.getNumeroAcoesInicial());
-
-            List<RentabilidadeDiariaDTO> rentabilidadeDTOs = investDTO.getRentabilidadeDiaria();
-            if (rentabilidadeDTOs != null && !rentabilidadeDTOs.isEmpty()) {
-                List<RentabilidadeDiaria> rentabilidades = rentabilidadeDTOs.stream().map(rdDTO -> {
-                    LocalDate data;
-                    try {
-                        data = LocalDate.parse(rdDTO.getDataRentabilidadeDiaria(), FORMATTER);
-                    } catch (Exception e) {
-                        data = null;
-                    }
-                    RentabilidadeDiaria rd = new RentabilidadeDiaria();
-                    rd.setDataRentabilidadeDiaria(data);
-                    rd.setValorDiarioAcao(rdDTO.getValorDiarioAcao());
-                    rd.setTaxaDiarioRentabilidade(rdDTO.getTaxaDiarioRentabilidade());
-                    rd.setMontanteAcumuladoDiario(rdDTO.getMontanteAcumuladoDiario());
-                    return rd;
-                }).collect(Collectors.toList());
-
-                investimento.setRentabilidadeDiaria(rentabilidades);
-            } else {
-                investimento.setRentabilidadeDiaria(new ArrayList<>());
+            if (atualizarValores(existente, investDTO)) {
+                contagem.atualizadas++;
+                alteracoesCarteira.investimentoAtualizado(existente);
+            }
+            SerieRentabilidade.Mescla mescla = SerieRentabilidade.substituir(existente,
+                    SerieRentabilidade.porData(investDTO.getRentabilidadeDiaria(), existente));
+            if (mescla.total() > 0) {
+                versoesCarteira.registrarAlteracao(existente);
+                alteracoesCarteira.serieAlterada(existente, mescla);
             }
+            contagem.somar(mescla);
+        }
+
+        for (Deque<Investimento> sobras : armazenados.values()) {
+            for (Investimento removido : sobras) {
+                carteira.remove(removido);
+                alteracoesCarteira.investimentoRemovido(removido);
+                contagem.removidas += 1 + removido.getRentabilidadeDiaria().size();
+            }
+        }
+        carteira.addAll(novos);
+        return contagem;
+    }
+
+    private Investimento novoInvestimento(UsuarioInvestimento usuario, InvestimentoDTO investDTO, TipoInvestimentoEnum tipo) {
+        Investimento investimento = new Investimento();
+        investimento.setUsuarioInvestimento(usuario);
+        investimento.setNomeBanco(investDTO.getNomeBanco());
+        investimento.setTipoInvestimento(tipo);
+        investimento.setNomeInvestimento(investDTO.getNomeInvestimento());
+        investimento.setMontanteInicial(investDTO.getMontanteInicial());
+        investimento.setValorInicialAcao(investDTO.getValorInicialAcao());
+        investimento.setTaxaRentabilidade(investDTO.getTaxaRentabilidade());
+        investimento.setNumeroAcoesInicial(investDTO.getNumeroAcoesInicial());
+
+        investimento.setRentabilidadeDiaria(new ArrayList<>(
+                SerieRentabilidade.porData(investDTO.getRentabilidadeDiaria(), investimento).values()));
+        return investimento;
+    }
+
+    private static TipoInvestimentoEnum converterTipo(String tipoInvestimento) {
+        try {
+            return TipoInvestimentoEnum.valueOf(tipoInvestimento.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Tipo de investimento inválido: " + tipoInvestimento);
+        }
+    }
+
+    /** Copia os valores do DTO para o investimento; devolve {@code true} se algum mudou. */
+    private static boolean atualizarValores(Investimento investimento, InvestimentoDTO dto) {
+        boolean mudou = false;
+        if (!SerieRentabilidade.mesmoValor(investimento.getMontanteInicial(), dto.getMontanteInicial())) {
+            investimento.setMontanteInicial(dto.getMontanteInicial());
+            mudou = true;
+        }
+        if (!SerieRentabilidade.mesmoValor(investimento.getValorInicialAcao(), dto.getValorInicialAcao())) {
+            investimento.setValorInicialAcao(dto.getValorInicialAcao());
+            mudou = true;
+        }
+        if (!SerieRentabilidade.mesmoValor(investimento.getTaxaRentabilidade(), dto.getTaxaRentabilidade())) {
+            investimento.setTaxaRentabilidade(dto.getTaxaRentabilidade());
+            mudou = true;
+        }
+        if (!Objects.equals(investimento.getNumeroAcoesInicial(), dto.getNumeroAcoesInicial())) {
+            investimento.setNumeroAcoesInicial(dto.getNumeroAcoesInicial());
+            mudou = true;
+        }
+        return mudou;
+    }
+
+    /** Chave de casamento de investimentos na sincronização da carteira. */
+    private record ChaveInvestimento(String nomeBanco, String nomeInvestimento, TipoInvestimentoEnum tipo) {
+        static ChaveInvestimento de(Investimento investimento) {
+            return new ChaveInvestimento(investimento.getNomeBanco(), investimento.getNomeInvestimento(),
+                    investimento.getTipoInvestimento());
+        }
+    }
 
-            return investimento;
-        }).collect(Collectors.toList());
+    /** Linhas (investimentos + rentabilidades diárias) tocadas por uma sincronização. */
+    private static final class Contagem {
+        int inseridas;
+        int atualizadas;
+        int removidas;
 
-        usuario.getInvestimentos().addAll(investimentos);
-        usuarioInvestimentoRepository.save(usuario);
+        void somar(SerieRentabilidade.Mescla mescla) {
+            inseridas += mescla.inseridas();
+            atualizadas += mescla.atualizadas();
+            removidas += mescla.removidas();
+        }
 
-        return ResponseEntity.ok("Investimentos salvos com sucesso.");
+        int total() {
+            return inseridas + atualizadas + removidas;
+        }
     }
 
     /**
-     * Lista todos os usuários investidores.
-     * @return lista completa de usuários
+     * Lista uma página de usuários investidores, paginada por cursor (keyset sobre o ID).
+     *
+     * Usa três consultas de projeção (usuários da página, seus investimentos e
+     * rentabilidades; a última é omitida quando a seleção de campos dispensa a
+     * série diária) e monta a árvore de DTOs em memória: o número de queries é
+     * fixo e o custo de cada página não depende da sua posição. Quando houver mais
+     * registros, o cursor da próxima página segue no cabeçalho
+     * {@link PaginacaoKeyset#CABECALHO_PROXIMO_CURSOR}.
+     *
+     * @param cursor cursor recebido da página anterior ({@code null} para a primeira)
+     * @param limite tamanho de página solicitado ({@code null} para o padrão)
+     * @param selecao campos dos investimentos pedidos pelo cliente
+     * @return página de usuários
+     * @throws IllegalArgumentException se o cursor for inválido
      */
     @Transactional(readOnly = true)
-    public ResponseEntity<List<UsuarioInvestimento>> listarTodosUsuarios() {
-        return ResponseEntity.ok(usuarioInvestimentoRepository.findAll());
+    public ResponseEntity<List<UsuarioInvestimentoDTO>> listarTodosUsuarios(String cursor, Integer limite, SelecaoCampos selecao) {
+        long aposId = PaginacaoKeyset.decodificar(cursor);
+        int tamanho = PaginacaoKeyset.normalizarLimite(limite);
+
+        List<UsuarioProjecao> pagina = usuarioInvestimentoRepository.listarProjecoesApos(aposId, Limit.of(tamanho + 1));
+        boolean haMais = pagina.size() > tamanho;
+        if (haMais) {
+            pagina = pagina.subList(0, tamanho);
+        }
+
+        Map<Long, UsuarioInvestimentoDTO> usuariosPorId = new LinkedHashMap<>();
+        for (UsuarioProjecao usuario : pagina) {
+            UsuarioInvestimentoDTO dto = new UsuarioInvestimentoDTO();
+            dto.setCpfIdentificacao(usuario.cpfIdentificacao());
+            List<InvestimentoDTO> investimentos = new ArrayList<>();
+            dto.setDataUsuarioInvestimentos(investimentos);
+            dto.setInvestimentos(investimentos);
+            usuariosPorId.put(usuario.id(), dto);
+        }
+
+        if (!usuariosPorId.isEmpty()) {
+            Map<Long, InvestimentoDTO> investimentosPorId = new HashMap<>();
+            for (InvestimentoProjecao projecao : investimentoRepository.listarProjecoesPorUsuarios(usuariosPorId.keySet())) {
+                InvestimentoDTO investimento = projecao.toDTO();
+                usuariosPorId.get(projecao.usuarioId()).getInvestimentos().add(investimento);
+                investimentosPorId.put(projecao.id(), investimento);
+            }
+            if (selecao.incluiRentabilidades()) {
+                InvestimentoDTO.anexarRentabilidades(investimentosPorId,
+                        investimentoRepository.listarRentabilidadesProjecaoPorUsuarios(usuariosPorId.keySet()));
+            }
+        }
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (haMais) {
+            resposta.header(PaginacaoKeyset.CABECALHO_PROXIMO_CURSOR,
+                    PaginacaoKeyset.codificar(pagina.get(pagina.size() - 1).id()));
+        }
+        return resposta.body(new ArrayList<>(usuariosPorId.values()));
     }
 
     /**
-     * Busca um usuário pelo CPF.
+     * Busca um usuário pelo CPF, com as rentabilidades diárias do período pedido.
      * @param cpf CPF do usuário
-     * @return 200 com o usuário; 404 se não encontrado
+     * @param de primeira data da série ({@code null} para sem limite)
+     * @param ate última data da série ({@code null} para sem limite)
+     * @param selecao campos dos investimentos pedidos pelo cliente
+     * @return 200 com o usuário e a ETag da carteira; 404 se não encontrado
+     * @throws IllegalArgumentException se {@code de} for posterior a {@code ate}
      */
     @Transactional(readOnly = true)
-    public ResponseEntity<?> buscarPorCpf(String cpf) {
-    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Cpf(cpf);
-        if (usuario == null) {
+    public ResponseEntity<UsuarioInvestimentoDTO> buscarPorCpf(String cpf, LocalDate de, LocalDate ate, SelecaoCampos selecao) {
+        Periodo periodo = Periodo.de(de, ate);
+        CarteiraVersionada carteira = investimentoService.carteiraPorCpf(cpf, periodo, selecao);
+        if (carteira == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(usuario);
+        UsuarioInvestimentoDTO dto = new UsuarioInvestimentoDTO();
+        dto.setCpfIdentificacao(cpf);
+        dto.setDataUsuarioInvestimentos(carteira.investimentos());
+        dto.setInvestimentos(carteira.investimentos());
+        return ResponseEntity.ok()
+                .eTag(VersoesCarteira.etagCarteira(carteira.usuarioId(), carteira.versao(), periodo, selecao))
+                .body(dto);
+    }
+
+    /**
+     * Busca vários usuários pelo CPF, com seus investimentos e, se pedidas, as
+     * rentabilidades diárias do período.
+     *
+     * Os CPFs distintos são consultados em trechos de até {@link #CPFS_POR_CONSULTA}
+     * (limite da lista IN no Oracle) e, para cada trecho, são feitas no máximo três
+     * consultas de projeções: usuários, investimentos e série diária. A árvore de DTOs
+     * é montada em memória, de modo que o custo cresce com a quantidade de trechos e
+     * não com a de CPFs. CPFs repetidos aparecem uma vez para cada ocorrência.
+     *
+     * @param cpfs CPFs a buscar (apenas dígitos ou com máscara)
+     * @param de primeira data da série ({@code null} para sem limite)
+     * @param ate última data da série ({@code null} para sem limite)
+     * @param selecao campos dos investimentos pedidos pelo cliente
+     * @return 200 com os usuários na ordem dos CPFs enviados e os CPFs não encontrados
+     * @throws IllegalArgumentException se {@code de} for posterior a {@code ate}
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<ResultadoBuscaLoteDTO> buscarPorCpfs(List<String> cpfs, LocalDate de, LocalDate ate,
+                                                               SelecaoCampos selecao) {
+        Periodo periodo = Periodo.de(de, ate);
+        long[] chaves = new long[cpfs.size()];
+        Set<Long> distintos = new LinkedHashSet<>();
+        for (int i = 0; i < chaves.length; i++) {
+            chaves[i] = CodecCpf.codificar(cpfs.get(i));
+            if (chaves[i] != CodecCpf.INVALIDO) {
+                distintos.add(chaves[i]);
+            }
+        }
+
+        Map<Long, UsuarioInvestimentoDTO> usuariosPorCpf = new HashMap<>();
+        List<Long> candidatos = new ArrayList<>(distintos);
+        for (int inicio = 0; inicio < candidatos.size(); inicio += CPFS_POR_CONSULTA) {
+            List<Long> trecho = candidatos.subList(inicio, Math.min(inicio + CPFS_POR_CONSULTA, candidatos.size()));
+            Map<Long, UsuarioInvestimentoDTO> usuariosPorId = new HashMap<>();
+            for (UsuarioProjecao usuario : usuarioInvestimentoRepository.listarProjecoesPorCpfs(trecho)) {
+                UsuarioInvestimentoDTO dto = new UsuarioInvestimentoDTO();
+                dto.setCpfIdentificacao(usuario.cpfIdentificacao());
+                List<InvestimentoDTO> investimentos = new ArrayList<>();
+                dto.setDataUsuarioInvestimentos(investimentos);
+                dto.setInvestimentos(investimentos);
+                usuariosPorId.put(usuario.id(), dto);
+                usuariosPorCpf.put(CodecCpf.codificar(usuario.cpfIdentificacao()), dto);
+            }
+            if (usuariosPorId.isEmpty()) continue;
+
+            Map<Long, InvestimentoDTO> investimentosPorId = new HashMap<>();
+            for (InvestimentoProjecao projecao : investimentoRepository.listarProjecoesPorUsuarios(usuariosPorId.keySet())) {
+                InvestimentoDTO investimento = projecao.toDTO();
+                usuariosPorId.get(projecao.usuarioId()).getInvestimentos().add(investimento);
+                investimentosPorId.put(projecao.id(), investimento);
+            }
+            if (!investimentosPorId.isEmpty() && selecao.incluiRentabilidades()) {
+                InvestimentoDTO.anexarRentabilidades(investimentosPorId, periodo.completo()
+                        ? investimentoRepository.listarRentabilidadesProjecaoPorUsuarios(usuariosPorId.keySet())
+                        : investimentoRepository.listarRentabilidadesProjecaoPorUsuariosEPeriodo(
+                                usuariosPorId.keySet(), periodo.inicio(), periodo.fim()));
+            }
+        }
+
+        List<UsuarioInvestimentoDTO> usuarios = new ArrayList<>(cpfs.size());
+        List<String> naoEncontrados = new ArrayList<>();
+        for (int i = 0; i < chaves.length; i++) {
+            UsuarioInvestimentoDTO usuario = usuariosPorCpf.get(chaves[i]);
+            if (usuario != null) {
+                usuarios.add(usuario);
+            } else {
+                naoEncontrados.add(cpfs.get(i));
+            }
+        }
+        return ResponseEntity.ok(new ResultadoBuscaLoteDTO(usuarios, naoEncontrados));
     }
 
     /**
@@ -170,7 +520,7 @@ public class UsuarioInvestimentoService {
      */
     @Transactional
     public ResponseEntity<String> deletarPorCpf(String cpf) {
-    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Cpf(cpf);
+    UsuarioInvestimento usuario = usuarioInvestimentoRepository.findByCpf_Numero(CodecCpf.codificar(cpf));
         if (usuario == null) {
             return ResponseEntity.notFound().build();
         }
@@ -179,6 +529,7 @@ public class UsuarioInvestimentoService {
         }
 
         usuarioInvestimentoRepository.delete(usuario);
+        eventos.publishEvent(CarteiraAlteradaEvent.de(usuario));
         return ResponseEntity.ok("Usuário e seus investimentos foram deletados.");
     }
 }
\ No newline at end of file
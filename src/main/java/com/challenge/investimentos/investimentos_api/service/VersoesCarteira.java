@@ -0,0 +1,182 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.VersaoProjecao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.UsuarioInvestimento;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.repository.UsuarioInvestimentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * ETags e pré-condições HTTP baseadas na coluna {@code VERSAO} de usuários e investimentos.
+ *
+ * A ETag de uma carteira é {@code "u<id>.<versao>"} e a de um investimento
+ * {@code "i<id>.<versao>"}; variações da mesma URL ({@code fields}, {@code include},
+ * {@code from}, {@code to}) recebem um sufixo próprio, para que cada representação
+ * tenha a sua ETag forte. O ID entra na ETag para que um CPF removido e recadastrado
+ * (versão de volta a zero) não repita uma ETag antiga.
+ *
+ * {@code If-None-Match} é respondido com 304 lendo só a versão (uma consulta, sem
+ * carregar a carteira). {@code If-Match} nos PUTs compara a versão já carregada; uma
+ * escrita concorrente entre a verificação e o commit falha no UPDATE com versão
+ * (controle otimista), sem locks pessimistas.
+ *
+ * A versão do usuário sobe junto com a sequência do log de alterações
+ * ({@link AlteracoesCarteira}), gravada a cada escrita na carteira; a do investimento,
+ * por {@link #registrarAlteracao(Investimento)}.
+ */
+@Service
+public class VersoesCarteira {
+
+    private final UsuarioInvestimentoRepository usuarioInvestimentoRepository;
+    private final InvestimentoRepository investimentoRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public VersoesCarteira(UsuarioInvestimentoRepository usuarioInvestimentoRepository,
+                           InvestimentoRepository investimentoRepository) {
+        this.usuarioInvestimentoRepository = usuarioInvestimentoRepository;
+        this.investimentoRepository = investimentoRepository;
+    }
+
+    /**
+     * Lê a carteira do CPF somente se ela mudou em relação à ETag informada pelo cliente.
+     *
+     * @param cpf CPF do usuário
+     * @param de primeira data pedida da série ({@code null} para sem limite)
+     * @param ate última data pedida da série ({@code null} para sem limite)
+     * @param selecao campos pedidos
+     * @param seNenhumCorresponder valor do cabeçalho {@code If-None-Match} ({@code null} se ausente)
+     * @param carregar leitura completa, executada só se a carteira mudou
+     * @return 304 com a ETag atual, 404 se o CPF não existir, ou a resposta de {@code carregar}
+     */
+    public ResponseEntity<?> lerCarteira(String cpf, LocalDate de, LocalDate ate, SelecaoCampos selecao,
+                                         String seNenhumCorresponder, Supplier<ResponseEntity<?>> carregar) {
+        if (seNenhumCorresponder != null) {
+            Periodo periodo = Periodo.de(de, ate);
+            VersaoProjecao versao = usuarioInvestimentoRepository.buscarVersaoPorCpf(CodecCpf.codificar(cpf)).orElse(null);
+            if (versao == null) return ResponseEntity.notFound().build();
+            String etag = etagCarteira(versao.id(), versao.versao(), periodo, selecao);
+            if (corresponde(seNenhumCorresponder, etag, false)) return naoModificado(etag);
+        }
+        return carregar.get();
+    }
+
+    /**
+     * Lê a série de um investimento somente se ele mudou em relação à ETag informada pelo cliente.
+     *
+     * @param id ID do investimento
+     * @param de primeira data pedida ({@code null} para sem limite)
+     * @param ate última data pedida ({@code null} para sem limite)
+     * @param seNenhumCorresponder valor do cabeçalho {@code If-None-Match} ({@code null} se ausente)
+     * @param carregar leitura completa, executada só se o investimento mudou
+     * @return 304 com a ETag atual, 404 se o investimento não existir, ou a resposta de {@code carregar}
+     */
+    public ResponseEntity<?> lerInvestimento(Long id, LocalDate de, LocalDate ate,
+                                             String seNenhumCorresponder, Supplier<ResponseEntity<?>> carregar) {
+        if (seNenhumCorresponder != null) {
+            Periodo periodo = Periodo.de(de, ate);
+            VersaoProjecao versao = investimentoRepository.buscarVersao(id).orElse(null);
+            if (versao == null) return ResponseEntity.notFound().build();
+            String etag = etagInvestimento(versao.id(), versao.versao(), periodo);
+            if (corresponde(seNenhumCorresponder, etag, false)) return naoModificado(etag);
+        }
+        return carregar.get();
+    }
+
+    /**
+     * Incrementa a versão do investimento no commit da transação atual, mesmo quando
+     * só a sua série de rentabilidades mudou.
+     *
+     * @param investimento investimento gerenciado pela transação
+     */
+    void registrarAlteracao(Investimento investimento) {
+        entityManager.lock(investimento, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    /**
+     * ETag da representação completa da carteira do usuário.
+     *
+     * @param usuario usuário carregado
+     * @return ETag forte, entre aspas
+     */
+    static String etagCarteira(UsuarioInvestimento usuario) {
+        return etagCarteira(usuario.getId(), usuario.getVersao(), Periodo.de(null, null), SelecaoCampos.COMPLETA);
+    }
+
+    /**
+     * ETag de uma representação da carteira: versão do usuário mais a variação pedida.
+     */
+    static String etagCarteira(long usuarioId, long versao, Periodo periodo, SelecaoCampos selecao) {
+        String variante = periodo.completo() && selecao.equals(SelecaoCampos.COMPLETA)
+                ? "" : "." + Integer.toHexString(Objects.hash(periodo, selecao));
+        return "\"u" + usuarioId + "." + versao + variante + "\"";
+    }
+
+    /**
+     * ETag da representação completa de um investimento.
+     *
+     * @param investimento investimento carregado
+     * @return ETag forte, entre aspas
+     */
+    static String etagInvestimento(Investimento investimento) {
+        return etagInvestimento(investimento.getId(), investimento.getVersao(), Periodo.de(null, null));
+    }
+
+    /**
+     * ETag de uma representação da série do investimento: versão mais o período pedido.
+     */
+    static String etagInvestimento(long id, long versao, Periodo periodo) {
+        String variante = periodo.completo() ? "" : "." + Integer.toHexString(periodo.hashCode());
+        return "\"i" + id + "." + versao + variante + "\"";
+    }
+
+    /**
+     * Compara uma ETag com o valor de um cabeçalho {@code If-None-Match} ou {@code If-Match}.
+     *
+     * @param cabecalho lista de ETags separadas por vírgula, ou {@code *}
+     * @param etag ETag atual do recurso
+     * @param forte {@code true} para comparação forte (If-Match): ETags fracas nunca correspondem
+     * @return {@code true} se alguma ETag do cabeçalho corresponder
+     */
+    static boolean corresponde(String cabecalho, String etag, boolean forte) {
+        for (String candidata : cabecalho.split(",")) {
+            String valor = candidata.trim();
+            if (valor.equals("*")) return true;
+            if (valor.startsWith("W/")) {
+                if (forte) continue;
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resposta 412 para um {@code If-Match} que não corresponde à versão atual.
+     *
+     * @param etagAtual ETag atual do recurso
+     * @return resposta 412 com a ETag atual
+     */
+    static ResponseEntity<String> preCondicaoFalhou(String etagAtual) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(etagAtual)
+                .body("O recurso foi alterado desde a versão informada em If-Match. Leia novamente e reenvie.");
+    }
+
+    private static ResponseEntity<?> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, etag).build();
+    }
+}
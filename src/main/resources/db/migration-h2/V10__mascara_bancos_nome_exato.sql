@@ -0,0 +1,20 @@
+-- Flyway V10 (H2 em modo Oracle): espelho de db/migration/V10__mascara_bancos_nome_exato.sql
+UPDATE USUARIO_INVESTIMENTO u SET
+    MASCARA_BANCOS = (
+        SELECT NVL(SUM(DISTINCT
+            CASE i.NOME_BANCO
+                WHEN 'Nubank' THEN 1
+                WHEN 'Itaú' THEN 2
+                WHEN 'Bradesco' THEN 4
+                WHEN 'Santander' THEN 8
+                WHEN 'Caixa Econômica' THEN 16
+                WHEN 'Banco do Brasil' THEN 32
+                WHEN 'Inter' THEN 64
+                WHEN 'BTG Pactual' THEN 128
+                WHEN 'XP Investimentos' THEN 256
+                WHEN 'C6 Bank' THEN 512
+                ELSE 1073741824
+            END), 0)
+        FROM INVESTIMENTO i
+        WHERE i.USUARIO_INVESTIMENTO_ID = u.ID
+    );
@@ -0,0 +1,7 @@
+-- Flyway V11 (H2 em modo Oracle): espelho de db/migration/V11__usuario_sequencia_acima_do_bloco.sql
+ALTER SEQUENCE USUARIO_INVESTIMENTO_SEQ RESTART WITH (
+    SELECT GREATEST(NVL(MAX(u.ID), 0) + 50, s.BASE_VALUE)
+      FROM USUARIO_INVESTIMENTO u, INFORMATION_SCHEMA.SEQUENCES s
+     WHERE s.SEQUENCE_NAME = 'USUARIO_INVESTIMENTO_SEQ'
+     GROUP BY s.BASE_VALUE
+);
@@ -0,0 +1,35 @@
+-- Flyway V1 (H2 em modo Oracle): espelho de db/migration/V1__init.sql
+-- Usado pelos perfis locais/de teste. Os triggers BI_* ficam de fora, pois o
+-- Hibernate sempre informa o ID obtido da sequence.
+CREATE SEQUENCE INVESTIMENTO_SEQ START WITH 1 INCREMENT BY 1 NOCACHE NOCYCLE;
+CREATE SEQUENCE RENTABILIDADE_DIARIA_SEQ START WITH 1 INCREMENT BY 1 NOCACHE NOCYCLE;
+
+CREATE TABLE USUARIO_INVESTIMENTO (
+    ID NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    CPF_IDENTIFICACAO VARCHAR2(11) NOT NULL UNIQUE
+);
+
+CREATE TABLE INVESTIMENTO (
+    ID NUMBER(19) PRIMARY KEY,
+    NOME_BANCO VARCHAR2(255),
+    NOME_INVESTIMENTO VARCHAR2(255) NOT NULL,
+    MONTANTE_INICIAL NUMBER(15,2),
+    VALOR_INICIAL_ACAO NUMBER(15,2),
+    TAXA_RENTABILIDADE NUMBER(10,4),
+    NUMERO_ACOES_INICIAL NUMBER(10),
+    TIPO_INVESTIMENTO VARCHAR2(50),
+    USUARIO_INVESTIMENTO_ID NUMBER(19),
+    CONSTRAINT FK_INV_USUARIO FOREIGN KEY (USUARIO_INVESTIMENTO_ID)
+        REFERENCES USUARIO_INVESTIMENTO(ID)
+);
+
+CREATE TABLE RENTABILIDADE_DIARIA_TABLE (
+    ID NUMBER(19) PRIMARY KEY,
+    DATA_RENTABILIDADE_DIARIA DATE,
+    VALOR_DIARIO_ACAO NUMBER(15,2),
+    TAXA_DIARIO_RENTABILIDADE NUMBER(10,4),
+    MONTANTE_ACUMULADO_DIARIO NUMBER(15,2),
+    INVESTIMENTO_ID NUMBER(19),
+    CONSTRAINT FK_RENT_INV FOREIGN KEY (INVESTIMENTO_ID)
+        REFERENCES INVESTIMENTO(ID)
+);
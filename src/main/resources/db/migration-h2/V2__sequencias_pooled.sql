@@ -0,0 +1,3 @@
+-- Flyway V2 (H2 em modo Oracle): espelho de db/migration/V2__sequencias_pooled.sql
+ALTER SEQUENCE INVESTIMENTO_SEQ INCREMENT BY 50;
+ALTER SEQUENCE RENTABILIDADE_DIARIA_SEQ INCREMENT BY 50;
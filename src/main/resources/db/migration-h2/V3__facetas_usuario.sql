@@ -0,0 +1,43 @@
+-- Flyway V3 (H2 em modo Oracle): espelho de db/migration/V3__facetas_usuario.sql
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    MASCARA_BANCOS NUMBER(10) DEFAULT 0 NOT NULL,
+    MASCARA_TIPOS NUMBER(10) DEFAULT 0 NOT NULL
+);
+
+-- Preenchimento inicial a partir dos investimentos existentes.
+-- Cada valor é uma potência de 2 distinta, então SUM(DISTINCT) equivale ao OR bit a bit.
+UPDATE USUARIO_INVESTIMENTO u SET
+    MASCARA_BANCOS = (
+        SELECT NVL(SUM(DISTINCT
+            CASE UPPER(i.NOME_BANCO)
+                WHEN 'NUBANK' THEN 1
+                WHEN 'ITAÚ' THEN 2
+                WHEN 'BRADESCO' THEN 4
+                WHEN 'SANTANDER' THEN 8
+                WHEN 'CAIXA ECONÔMICA' THEN 16
+                WHEN 'BANCO DO BRASIL' THEN 32
+                WHEN 'INTER' THEN 64
+                WHEN 'BTG PACTUAL' THEN 128
+                WHEN 'XP INVESTIMENTOS' THEN 256
+                WHEN 'C6 BANK' THEN 512
+                ELSE 1073741824
+            END), 0)
+        FROM INVESTIMENTO i
+        WHERE i.USUARIO_INVESTIMENTO_ID = u.ID
+    ),
+    MASCARA_TIPOS = (
+        SELECT NVL(SUM(DISTINCT
+            CASE i.TIPO_INVESTIMENTO
+                WHEN 'RENDA_FIXA' THEN 1
+                WHEN 'RENDA_VARIAVEL' THEN 2
+                WHEN 'TESOURO_DIRETO' THEN 4
+                WHEN 'CRIPTOMOEDA' THEN 8
+                WHEN 'FUNDO_IMOBILIARIO' THEN 16
+                WHEN 'CDB' THEN 32
+                WHEN 'LCI' THEN 64
+                WHEN 'LCA' THEN 128
+                WHEN 'OUTRO' THEN 256
+            END), 0)
+        FROM INVESTIMENTO i
+        WHERE i.USUARIO_INVESTIMENTO_ID = u.ID
+    );
@@ -0,0 +1,12 @@
+-- Flyway V4 (H2 em modo Oracle): espelho de db/migration/V4__rentabilidade_unica_por_data.sql
+DELETE FROM RENTABILIDADE_DIARIA_TABLE r
+ WHERE EXISTS (
+    SELECT 1 FROM RENTABILIDADE_DIARIA_TABLE o
+     WHERE o.INVESTIMENTO_ID = r.INVESTIMENTO_ID
+       AND (o.DATA_RENTABILIDADE_DIARIA = r.DATA_RENTABILIDADE_DIARIA
+            OR (o.DATA_RENTABILIDADE_DIARIA IS NULL AND r.DATA_RENTABILIDADE_DIARIA IS NULL))
+       AND o.ID < r.ID
+ );
+
+ALTER TABLE RENTABILIDADE_DIARIA_TABLE ADD CONSTRAINT UK_RENT_INV_DATA
+    UNIQUE (INVESTIMENTO_ID, DATA_RENTABILIDADE_DIARIA);
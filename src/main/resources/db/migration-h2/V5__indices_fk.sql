@@ -0,0 +1,2 @@
+-- Flyway V5 (H2 em modo Oracle): espelho de db/migration/V5__indices_fk.sql
+CREATE INDEX IX_INV_USUARIO ON INVESTIMENTO (USUARIO_INVESTIMENTO_ID);
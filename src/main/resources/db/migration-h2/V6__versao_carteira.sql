@@ -0,0 +1,8 @@
+-- Flyway V6 (H2 em modo Oracle): espelho de db/migration/V6__versao_carteira.sql
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    VERSAO NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE INVESTIMENTO ADD (
+    VERSAO NUMBER(19) DEFAULT 0 NOT NULL
+);
@@ -0,0 +1,21 @@
+-- Flyway V7 (H2 em modo Oracle): espelho de db/migration/V7__alteracoes_carteira.sql
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    SEQUENCIA_ALTERACOES NUMBER(19) DEFAULT 0 NOT NULL,
+    SEQUENCIA_COMPACTADA NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE ALTERACAO_CARTEIRA (
+    USUARIO_INVESTIMENTO_ID NUMBER(19) NOT NULL,
+    SEQUENCIA NUMBER(19) NOT NULL,
+    ENTIDADE VARCHAR2(20) NOT NULL,
+    OPERACAO VARCHAR2(20) NOT NULL,
+    INVESTIMENTO_ID NUMBER(19) NOT NULL,
+    DATA_INICIAL DATE,
+    DATA_FINAL DATE,
+    DATA_REGISTRO TIMESTAMP NOT NULL,
+    CONSTRAINT PK_ALTERACAO_CARTEIRA PRIMARY KEY (USUARIO_INVESTIMENTO_ID, SEQUENCIA),
+    CONSTRAINT FK_ALTERACAO_USUARIO FOREIGN KEY (USUARIO_INVESTIMENTO_ID)
+        REFERENCES USUARIO_INVESTIMENTO(ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IX_ALTERACAO_DATA_REGISTRO ON ALTERACAO_CARTEIRA (DATA_REGISTRO);
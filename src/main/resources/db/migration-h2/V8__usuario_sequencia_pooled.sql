@@ -0,0 +1,6 @@
+-- Flyway V8 (H2 em modo Oracle): espelho de db/migration/V8__usuario_sequencia_pooled.sql
+ALTER TABLE USUARIO_INVESTIMENTO ALTER COLUMN ID DROP IDENTITY;
+
+CREATE SEQUENCE USUARIO_INVESTIMENTO_SEQ START WITH 1 INCREMENT BY 50 NOCYCLE;
+
+ALTER TABLE USUARIO_INVESTIMENTO ALTER COLUMN ID SET DEFAULT NEXT VALUE FOR USUARIO_INVESTIMENTO_SEQ;
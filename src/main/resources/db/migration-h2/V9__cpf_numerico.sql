@@ -0,0 +1,10 @@
+-- Flyway V9 (H2 em modo Oracle): espelho de db/migration/V9__cpf_numerico.sql
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    CPF_NUMERO NUMBER(11)
+);
+
+UPDATE USUARIO_INVESTIMENTO SET CPF_NUMERO = CAST(CPF_IDENTIFICACAO AS NUMBER(11));
+
+ALTER TABLE USUARIO_INVESTIMENTO MODIFY CPF_NUMERO NOT NULL;
+
+CREATE UNIQUE INDEX UX_USUARIO_CPF_NUMERO ON USUARIO_INVESTIMENTO (CPF_NUMERO);
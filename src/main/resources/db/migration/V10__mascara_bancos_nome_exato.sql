@@ -0,0 +1,25 @@
+-- Flyway V10: máscara de bancos recalculada com o nome exato do BancoEnum
+--
+-- A V3 comparava UPPER(NOME_BANCO), então "NUBANK" ou "nubank" ligavam o bit do
+-- Nubank e /api/bancos/{cpf} devolvia "Nubank". Agora só o nome exato conta como
+-- catalogado; variações ligam o bit 30 e a listagem devolve o nome como foi gravado.
+-- Cada valor é uma potência de 2 distinta, então SUM(DISTINCT) equivale ao OR bit a bit.
+UPDATE USUARIO_INVESTIMENTO u SET
+    MASCARA_BANCOS = (
+        SELECT NVL(SUM(DISTINCT
+            CASE i.NOME_BANCO
+                WHEN 'Nubank' THEN 1
+                WHEN 'Itaú' THEN 2
+                WHEN 'Bradesco' THEN 4
+                WHEN 'Santander' THEN 8
+                WHEN 'Caixa Econômica' THEN 16
+                WHEN 'Banco do Brasil' THEN 32
+                WHEN 'Inter' THEN 64
+                WHEN 'BTG Pactual' THEN 128
+                WHEN 'XP Investimentos' THEN 256
+                WHEN 'C6 Bank' THEN 512
+                ELSE 1073741824
+            END), 0)
+        FROM INVESTIMENTO i
+        WHERE i.USUARIO_INVESTIMENTO_ID = u.ID
+    );
@@ -0,0 +1,21 @@
+-- Flyway V11: USUARIO_INVESTIMENTO_SEQ acima do primeiro bloco do Hibernate
+--
+-- A V8 criou a sequence em MAX(ID) + 1, mas o otimizador "pooled" trata o valor
+-- retornado (v) como topo do bloco e usa v - 49..v: numa base com usuários, o
+-- primeiro bloco repetia IDs existentes. Aqui a sequence avança até que o próximo
+-- NEXTVAL seja pelo menos MAX(ID) + 50 (INCREMENT BY = allocationSize = 50), com a
+-- mesma troca temporária de INCREMENT BY de GeradorMassaDados. Se já estiver acima,
+-- nada muda.
+DECLARE
+  v_atual NUMBER;
+  v_maior NUMBER;
+BEGIN
+  SELECT USUARIO_INVESTIMENTO_SEQ.NEXTVAL INTO v_atual FROM DUAL;
+  SELECT NVL(MAX(ID), 0) INTO v_maior FROM USUARIO_INVESTIMENTO;
+  IF v_atual < v_maior THEN
+    EXECUTE IMMEDIATE 'ALTER SEQUENCE USUARIO_INVESTIMENTO_SEQ INCREMENT BY ' || (v_maior - v_atual);
+    SELECT USUARIO_INVESTIMENTO_SEQ.NEXTVAL INTO v_atual FROM DUAL;
+    EXECUTE IMMEDIATE 'ALTER SEQUENCE USUARIO_INVESTIMENTO_SEQ INCREMENT BY 50';
+  END IF;
+END;
+/
@@ -0,0 +1,10 @@
+-- Flyway V2: sequences compatíveis com o otimizador "pooled" do Hibernate
+--
+-- As entidades Investimento e RentabilidadeDiaria passam a usar allocationSize = 50:
+-- cada NEXTVAL reserva um bloco de 50 IDs na aplicação. O INCREMENT BY precisa
+-- ser igual ao allocationSize. Os valores já emitidos continuam válidos, pois o
+-- próximo bloco começa acima do valor atual da sequence.
+-- Os triggers BI_* continuam funcionando para inserts manuais (ID nulo): cada um
+-- consome um bloco inteiro e usa apenas o topo, sem colidir com a aplicação.
+ALTER SEQUENCE INVESTIMENTO_SEQ INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE RENTABILIDADE_DIARIA_SEQ INCREMENT BY 50 CACHE 20;
@@ -0,0 +1,20 @@
+-- Flyway V4: uma rentabilidade diária por investimento e data
+--
+-- Chave única (INVESTIMENTO_ID, DATA_RENTABILIDADE_DIARIA) usada pelo upsert por
+-- data da série (PUT /api/investimentos/{id} e PATCH /api/investimentos/{id}/rentabilidade).
+-- O índice da chave também atende às buscas da série de um investimento.
+
+-- Remove duplicatas existentes, mantendo a linha mais antiga (menor ID) de cada data.
+-- Linhas sem data também são reduzidas a uma por investimento, pois no Oracle
+-- (INVESTIMENTO_ID, NULL) repetido viola a chave única.
+DELETE FROM RENTABILIDADE_DIARIA_TABLE r
+ WHERE EXISTS (
+    SELECT 1 FROM RENTABILIDADE_DIARIA_TABLE o
+     WHERE o.INVESTIMENTO_ID = r.INVESTIMENTO_ID
+       AND (o.DATA_RENTABILIDADE_DIARIA = r.DATA_RENTABILIDADE_DIARIA
+            OR (o.DATA_RENTABILIDADE_DIARIA IS NULL AND r.DATA_RENTABILIDADE_DIARIA IS NULL))
+       AND o.ID < r.ID
+ );
+
+ALTER TABLE RENTABILIDADE_DIARIA_TABLE ADD CONSTRAINT UK_RENT_INV_DATA
+    UNIQUE (INVESTIMENTO_ID, DATA_RENTABILIDADE_DIARIA);
@@ -0,0 +1,8 @@
+-- Flyway V5: índice da FK INVESTIMENTO.USUARIO_INVESTIMENTO_ID
+--
+-- O Oracle não indexa FKs automaticamente: sem este índice, as consultas da
+-- carteira por usuário (e o DELETE de um usuário) varrem INVESTIMENTO inteira.
+-- RENTABILIDADE_DIARIA_TABLE.INVESTIMENTO_ID já é a coluna inicial do índice da
+-- chave única UK_RENT_INV_DATA (V4), que também atende às buscas por período
+-- (INVESTIMENTO_ID = ? AND DATA_RENTABILIDADE_DIARIA BETWEEN ? AND ?).
+CREATE INDEX IX_INV_USUARIO ON INVESTIMENTO (USUARIO_INVESTIMENTO_ID);
@@ -0,0 +1,13 @@
+-- Flyway V6: versão (controle otimista) do usuário e de cada investimento
+--
+-- Mantidas pelo Hibernate (@Version): USUARIO_INVESTIMENTO.VERSAO muda a cada
+-- alteração da carteira e INVESTIMENTO.VERSAO a cada alteração do investimento ou
+-- da sua série diária. Servem de ETag nas leituras e de pré-condição (If-Match)
+-- nos PUTs; o 304 é decidido lendo só esta coluna.
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    VERSAO NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE INVESTIMENTO ADD (
+    VERSAO NUMBER(19) DEFAULT 0 NOT NULL
+);
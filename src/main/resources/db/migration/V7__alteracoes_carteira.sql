@@ -0,0 +1,29 @@
+-- Flyway V7: log de alterações da carteira, para a sincronização incremental
+--
+-- Cada escrita em investimentos ou rentabilidades diárias grava, na mesma
+-- transação, uma linha por investimento alterado e uma por faixa contínua de datas
+-- da série alterada, numeradas pela sequência do usuário (SEQUENCIA_ALTERACOES).
+-- GET /api/usuario-investimentos/{cpf}/changes?since=N devolve o que mudou após N.
+-- SEQUENCIA_COMPACTADA guarda a maior sequência já removida pela compactação:
+-- um cliente com since abaixo dela precisa baixar a carteira completa.
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    SEQUENCIA_ALTERACOES NUMBER(19) DEFAULT 0 NOT NULL,
+    SEQUENCIA_COMPACTADA NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE ALTERACAO_CARTEIRA (
+    USUARIO_INVESTIMENTO_ID NUMBER(19) NOT NULL,
+    SEQUENCIA NUMBER(19) NOT NULL,
+    ENTIDADE VARCHAR2(20) NOT NULL,
+    OPERACAO VARCHAR2(20) NOT NULL,
+    INVESTIMENTO_ID NUMBER(19) NOT NULL,
+    DATA_INICIAL DATE,
+    DATA_FINAL DATE,
+    DATA_REGISTRO TIMESTAMP NOT NULL,
+    CONSTRAINT PK_ALTERACAO_CARTEIRA PRIMARY KEY (USUARIO_INVESTIMENTO_ID, SEQUENCIA),
+    CONSTRAINT FK_ALTERACAO_USUARIO FOREIGN KEY (USUARIO_INVESTIMENTO_ID)
+        REFERENCES USUARIO_INVESTIMENTO(ID) ON DELETE CASCADE
+);
+
+-- Usado pela compactação, que remove as linhas mais antigas que a retenção.
+CREATE INDEX IX_ALTERACAO_DATA_REGISTRO ON ALTERACAO_CARTEIRA (DATA_REGISTRO);
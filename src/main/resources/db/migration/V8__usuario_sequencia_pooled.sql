@@ -0,0 +1,26 @@
+-- Flyway V8: ID do usuário gerado por sequence "pooled", como investimentos e rentabilidades
+--
+-- Com GENERATED BY DEFAULT AS IDENTITY o Hibernate precisa de um INSERT por vez
+-- para ler o ID gerado, o que impede o JDBC batching no cadastro em lote. A
+-- identidade sai e a sequence (INCREMENT BY = allocationSize = 50) começa acima do
+-- maior ID já emitido. O trigger BI_USUARIO_INVESTIMENTO mantém funcionando os
+-- inserts manuais sem ID, como em V1/V2.
+ALTER TABLE USUARIO_INVESTIMENTO MODIFY ID DROP IDENTITY;
+
+DECLARE
+  v_inicio NUMBER;
+BEGIN
+  SELECT NVL(MAX(ID), 0) + 1 INTO v_inicio FROM USUARIO_INVESTIMENTO;
+  EXECUTE IMMEDIATE 'CREATE SEQUENCE USUARIO_INVESTIMENTO_SEQ START WITH ' || v_inicio
+      || ' INCREMENT BY 50 CACHE 20 NOCYCLE';
+END;
+/
+
+CREATE OR REPLACE TRIGGER BI_USUARIO_INVESTIMENTO
+BEFORE INSERT ON USUARIO_INVESTIMENTO
+FOR EACH ROW
+WHEN (NEW.ID IS NULL)
+BEGIN
+  SELECT USUARIO_INVESTIMENTO_SEQ.NEXTVAL INTO :NEW.ID FROM DUAL;
+END;
+/
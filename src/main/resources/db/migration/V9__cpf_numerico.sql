@@ -0,0 +1,29 @@
+-- Flyway V9: CPF guardado também como número, chave das consultas por CPF
+--
+-- CPF_NUMERO recebe os 11 dígitos como NUMBER (ver CodecCpf) e tem índice único;
+-- CPF_IDENTIFICACAO continua com o texto, para exibição. Comparar e indexar um
+-- número é mais barato que um VARCHAR2(11), e o índice fica menor.
+ALTER TABLE USUARIO_INVESTIMENTO ADD (
+    CPF_NUMERO NUMBER(11)
+);
+
+UPDATE USUARIO_INVESTIMENTO SET CPF_NUMERO = TO_NUMBER(CPF_IDENTIFICACAO);
+
+ALTER TABLE USUARIO_INVESTIMENTO MODIFY CPF_NUMERO NOT NULL;
+
+CREATE UNIQUE INDEX UX_USUARIO_CPF_NUMERO ON USUARIO_INVESTIMENTO (CPF_NUMERO);
+
+-- Inserts manuais sem CPF_NUMERO (só com o texto) continuam funcionando
+CREATE OR REPLACE TRIGGER BI_USUARIO_INVESTIMENTO
+BEFORE INSERT ON USUARIO_INVESTIMENTO
+FOR EACH ROW
+WHEN (NEW.ID IS NULL OR NEW.CPF_NUMERO IS NULL)
+BEGIN
+  IF :NEW.ID IS NULL THEN
+    SELECT USUARIO_INVESTIMENTO_SEQ.NEXTVAL INTO :NEW.ID FROM DUAL;
+  END IF;
+  IF :NEW.CPF_NUMERO IS NULL THEN
+    :NEW.CPF_NUMERO := TO_NUMBER(:NEW.CPF_IDENTIFICACAO);
+  END IF;
+END;
+/
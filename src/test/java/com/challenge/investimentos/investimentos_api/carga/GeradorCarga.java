@@ -0,0 +1,393 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import com.challenge.investimentos.investimentos_api.InvestimentosApiApplication;
+import com.challenge.investimentos.investimentos_api.dto.CadastroLoteDTO;
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga da API: reproduz um mix configurável de chamadas REST a uma taxa
+ * fixa e informa, por endpoint, vazão e latências p50/p99/p99,9.
+ *
+ * A carga é de modelo aberto: a i-ésima requisição tem envio previsto em
+ * {@code inicio + i / taxa}, independentemente das respostas anteriores, e a latência é
+ * medida a partir desse instante previsto. Assim, uma API lenta não reduz a taxa
+ * oferecida nem esconde o tempo que as requisições passaram esperando para sair.
+ *
+ * Opções no formato {@code chave=valor} (ver {@link #main}); sem {@code url}, a própria
+ * aplicação é iniciada neste processo com o perfil {@code perf} (H2 em memória).
+ */
+public final class GeradorCarga {
+
+    /** Mix padrão: predominância de leituras por CPF, com escritas e exclusões. */
+    static final String MIX_PADRAO = "consulta=50,bancos=15,tipos=15,carteira=10,cadastro=5,exclusao=5";
+
+    private static final Duration TEMPO_LIMITE = Duration.ofSeconds(30);
+
+    /** Gravações simultâneas na preparação, abaixo das vagas do bulkhead de escrita. */
+    private static final int VAGAS_PREPARACAO = 2;
+
+    private final URI base;
+    private final HttpClient cliente;
+    private final ObjectMapper objectMapper;
+    private final Random aleatorio;
+    private final List<List<InvestimentoDTO>> carteiras = new ArrayList<>();
+    private final List<String> ativos = new ArrayList<>();
+    private final AtomicLong proximoCpf;
+    private final int concorrencia;
+    private final Semaphore emVoo;
+    private final Map<OperacaoCarga, Latencias> latencias = new EnumMap<>(OperacaoCarga.class);
+
+    private GeradorCarga(URI base, Map<String, String> opcoes) {
+        this.base = base;
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TEMPO_LIMITE)
+                .build();
+        this.objectMapper = Jackson2ObjectMapperBuilder.json()
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        this.aleatorio = new Random(Long.parseLong(opcoes.get("semente")));
+        this.proximoCpf = new AtomicLong(Long.parseLong(opcoes.get("cpf-base")));
+        this.concorrencia = Integer.parseInt(opcoes.get("concorrencia"));
+        this.emVoo = new Semaphore(concorrencia);
+        int investimentos = Integer.parseInt(opcoes.get("investimentos"));
+        int dias = Integer.parseInt(opcoes.get("dias"));
+        for (int i = 0; i < 16; i++) {
+            List<InvestimentoDTO> carteira = new ArrayList<>(investimentos);
+            for (int j = 0; j < investimentos; j++) {
+                BancoEnum banco = BancoEnum.values()[aleatorio.nextInt(BancoEnum.values().length)];
+                TipoInvestimentoEnum tipo = TipoInvestimentoEnum.values()[aleatorio.nextInt(TipoInvestimentoEnum.values().length)];
+                carteira.add(CarteirasDeTeste.investimento(banco, tipo, "Carga " + j, dias, aleatorio));
+            }
+            carteiras.add(carteira);
+        }
+        for (OperacaoCarga op : OperacaoCarga.values()) {
+            latencias.put(op, new Latencias());
+        }
+    }
+
+    /**
+     * Executa a carga. Opções (todas {@code chave=valor}, opcionais):
+     * <ul>
+     *   <li>{@code url}: API alvo; se ausente, inicia a aplicação aqui com o perfil {@code perf}</li>
+     *   <li>{@code base}: URL JDBC da aplicação iniciada aqui (padrão H2 em memória; ver {@link GeradorMassaDados})</li>
+     *   <li>{@code taxa}: requisições por segundo (padrão 200)</li>
+     *   <li>{@code duracao-s} / {@code aquecimento-s}: medição e aquecimento, em segundos (60 / 10)</li>
+     *   <li>{@code mix}: pesos das operações (padrão {@value #MIX_PADRAO})</li>
+     *   <li>{@code usuarios}: usuários com carteira criados antes da carga (500)</li>
+     *   <li>{@code existentes}: usuários já carregados pelo {@link GeradorMassaDados} (CPFs das bases 0 a n-1)
+     *       usados também como alvo (0)</li>
+     *   <li>{@code investimentos} / {@code dias}: tamanho das carteiras enviadas no PUT (3 / 180)</li>
+     *   <li>{@code concorrencia}: requisições simultâneas no máximo (256)</li>
+     *   <li>{@code semente}: semente dos sorteios (42)</li>
+     *   <li>{@code cpf-base}: base dos CPFs criados (padrão a partir de 800.000.000, derivado do relógio,
+     *       para não colidir entre execuções)</li>
+     *   <li>{@code resultado}: arquivo CSV com o relatório</li>
+     * </ul>
+     *
+     * @param args opções {@code chave=valor}
+     * @throws Exception se a aplicação não subir ou a preparação falhar
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = opcoes(args);
+        ConfigurableApplicationContext aplicacao = null;
+        String url = opcoes.get("url");
+        if (url == null || url.isBlank()) {
+            // O restart do DevTools executaria este main de novo, sem as opções
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            aplicacao = new SpringApplicationBuilder(InvestimentosApiApplication.class)
+                    .profiles("perf")
+                    .run("--server.port=0", "--spring.datasource.url=" + opcoes.get("base"));
+            url = "http://localhost:" + ((WebServerApplicationContext) aplicacao).getWebServer().getPort();
+        }
+        try {
+            GeradorCarga gerador = new GeradorCarga(URI.create(url), opcoes);
+            MixCarga mix = MixCarga.de(opcoes.get("mix"));
+            int taxa = Integer.parseInt(opcoes.get("taxa"));
+            int duracao = Integer.parseInt(opcoes.get("duracao-s"));
+            System.out.printf("Carga em %s: %d req/s por %d s (aquecimento %d s), mix %s%n",
+                    url, taxa, duracao, Integer.parseInt(opcoes.get("aquecimento-s")), mix);
+            gerador.incluirExistentes(Integer.parseInt(opcoes.get("existentes")));
+            gerador.semear(Integer.parseInt(opcoes.get("usuarios")));
+            gerador.executar(mix, taxa, Integer.parseInt(opcoes.get("aquecimento-s")), duracao);
+            Map<OperacaoCarga, Latencias.Resumo> resumos = gerador.resumir(duracao);
+            imprimir(resumos, System.out);
+            String resultado = opcoes.get("resultado");
+            if (resultado != null && !resultado.isBlank()) {
+                Files.writeString(Path.of(resultado), csv(resumos));
+                System.out.println("Relatório gravado em " + resultado);
+            }
+        } finally {
+            if (aplicacao != null) aplicacao.close();
+        }
+    }
+
+    /**
+     * @param args argumentos {@code chave=valor}
+     * @return opções informadas sobre os valores padrão
+     */
+    static Map<String, String> opcoes(String[] args) {
+        Map<String, String> padroes = new LinkedHashMap<>();
+        padroes.put("base", "jdbc:h2:mem:perf;MODE=Oracle;DB_CLOSE_DELAY=-1");
+        padroes.put("taxa", "200");
+        padroes.put("duracao-s", "60");
+        padroes.put("aquecimento-s", "10");
+        padroes.put("mix", MIX_PADRAO);
+        padroes.put("usuarios", "500");
+        padroes.put("existentes", "0");
+        padroes.put("investimentos", "3");
+        padroes.put("dias", "180");
+        padroes.put("concorrencia", "256");
+        padroes.put("semente", "42");
+        // Acima das bases usadas pelo GeradorMassaDados, para não colidir com a massa já carregada
+        padroes.put("cpf-base", String.valueOf(800_000_000L + System.currentTimeMillis() / 1_000 % 90_000 * 1_000));
+        return Opcoes.ler(args, padroes);
+    }
+
+    /**
+     * Inclui entre os alvos os usuários de uma massa do {@link GeradorMassaDados} com a base de CPF padrão.
+     */
+    private void incluirExistentes(int existentes) {
+        synchronized (ativos) {
+            for (int i = 0; i < existentes; i++) ativos.add(CpfsDeTeste.gerar(i));
+        }
+    }
+
+    /**
+     * Cadastra usuários em lote e grava uma carteira para cada um, sem medir.
+     */
+    private void semear(int usuarios) {
+        List<String> cpfs = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) cpfs.add(novoCpf());
+        for (int i = 0; i < cpfs.size(); i += CadastroLoteDTO.MAXIMO_CPFS) {
+            List<String> parte = cpfs.subList(i, Math.min(cpfs.size(), i + CadastroLoteDTO.MAXIMO_CPFS));
+            exigirSucesso(cliente.sendAsync(envio("POST", "/api/usuario-investimentos/lote", Map.of("cpfs", parte)),
+                    HttpResponse.BodyHandlers.ofString()).join(), "cadastro em lote");
+        }
+        List<HttpRequest> gravacoes = cpfs.stream().map(cpf -> requisicao(OperacaoCarga.CARTEIRA, cpf)).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(VAGAS_PREPARACAO);
+        try {
+            List<Future<?>> pendentes = new ArrayList<>(usuarios);
+            for (HttpRequest gravacao : gravacoes) {
+                pendentes.add(executor.submit(() -> gravar(gravacao)));
+            }
+            for (Future<?> pendente : pendentes) pendente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Preparação interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha na preparação: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        synchronized (ativos) {
+            ativos.addAll(cpfs);
+        }
+        System.out.printf("%d usuários preparados%n", usuarios);
+    }
+
+    /**
+     * Grava uma carteira da preparação, aguardando e repetindo quando o bulkhead de escrita responde 503.
+     */
+    private void gravar(HttpRequest gravacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            HttpResponse<String> resposta;
+            try {
+                resposta = cliente.send(gravacao, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            if (resposta.statusCode() != 503 || tentativa == 5) {
+                exigirSucesso(resposta, "carteira");
+                return;
+            }
+            long segundos = resposta.headers().firstValueAsLong("Retry-After").orElse(1);
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(segundos));
+        }
+    }
+
+    /**
+     * Envia as requisições nos instantes previstos; só as previstas após o aquecimento são medidas.
+     */
+    private void executar(MixCarga mix, int taxa, int aquecimentoS, int duracaoS) throws InterruptedException {
+        long inicio = System.nanoTime();
+        long fimAquecimento = inicio + TimeUnit.SECONDS.toNanos(aquecimentoS);
+        long fim = fimAquecimento + TimeUnit.SECONDS.toNanos(duracaoS);
+        for (long i = 0; ; i++) {
+            long previsto = inicio + (long) (i * 1e9 / taxa);
+            if (previsto >= fim) break;
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) LockSupport.parkNanos(espera);
+            emVoo.acquire();
+            enviar(mix.sortear(aleatorio), previsto, previsto >= fimAquecimento);
+        }
+        if (!emVoo.tryAcquire(concorrencia, TEMPO_LIMITE.toSeconds() + 5, TimeUnit.SECONDS)) {
+            System.out.println("Aviso: requisições ainda pendentes ao fim da carga");
+        }
+    }
+
+    private void enviar(OperacaoCarga sorteada, long previsto, boolean medir) {
+        OperacaoCarga op = sorteada;
+        String cpf = switch (op) {
+            case CADASTRO -> null;
+            case EXCLUSAO -> retirarAtivo();
+            default -> sortearAtivo();
+        };
+        if (cpf == null) {
+            op = OperacaoCarga.CADASTRO;
+            cpf = novoCpf();
+        }
+        OperacaoCarga operacao = op;
+        String alvo = cpf;
+        cliente.sendAsync(requisicao(operacao, alvo), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((resposta, erro) -> {
+                    long nanos = System.nanoTime() - previsto;
+                    emVoo.release();
+                    String falha = erro != null ? causa(erro).getClass().getSimpleName()
+                            : resposta.statusCode() / 100 == 2 ? null : String.valueOf(resposta.statusCode());
+                    if (operacao == OperacaoCarga.CADASTRO && falha == null
+                            || operacao == OperacaoCarga.EXCLUSAO && falha != null) {
+                        synchronized (ativos) {
+                            ativos.add(alvo);
+                        }
+                    }
+                    if (medir) latencias.get(operacao).registrar(nanos, falha);
+                });
+    }
+
+    private HttpRequest requisicao(OperacaoCarga op, String cpf) {
+        return switch (op) {
+            case CADASTRO -> envio("POST", "/api/usuario-investimentos", Map.of("cpfIdentificacao", cpf));
+            case CARTEIRA -> envio("PUT", "/api/usuario-investimentos",
+                    CarteirasDeTeste.carteira(cpf, carteiras.get(aleatorio.nextInt(carteiras.size()))));
+            case CONSULTA -> pedido("/api/usuario-investimentos/" + cpf).GET().build();
+            case BANCOS -> pedido("/api/bancos/" + cpf).GET().build();
+            case TIPOS -> pedido("/api/tipos-investimento/" + cpf).GET().build();
+            case EXCLUSAO -> pedido("/api/usuario-investimentos/" + cpf).DELETE().build();
+        };
+    }
+
+    private HttpRequest envio(String metodo, String caminho, Object corpo) {
+        try {
+            return pedido(caminho)
+                    .header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(corpo)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder pedido(String caminho) {
+        return HttpRequest.newBuilder(base.resolve(caminho)).timeout(TEMPO_LIMITE);
+    }
+
+    private String novoCpf() {
+        return CpfsDeTeste.gerar(proximoCpf.getAndIncrement());
+    }
+
+    private String sortearAtivo() {
+        synchronized (ativos) {
+            return ativos.isEmpty() ? null : ativos.get(aleatorio.nextInt(ativos.size()));
+        }
+    }
+
+    private String retirarAtivo() {
+        synchronized (ativos) {
+            if (ativos.isEmpty()) return null;
+            int i = aleatorio.nextInt(ativos.size());
+            String cpf = ativos.get(i);
+            ativos.set(i, ativos.get(ativos.size() - 1));
+            ativos.remove(ativos.size() - 1);
+            return cpf;
+        }
+    }
+
+    private Map<OperacaoCarga, Latencias.Resumo> resumir(int duracaoS) {
+        Map<OperacaoCarga, Latencias.Resumo> resumos = new EnumMap<>(OperacaoCarga.class);
+        latencias.forEach((op, l) -> {
+            Latencias.Resumo resumo = l.resumir(duracaoS);
+            if (resumo.requisicoes() > 0) resumos.put(op, resumo);
+        });
+        return resumos;
+    }
+
+    private static void imprimir(Map<OperacaoCarga, Latencias.Resumo> resumos, PrintStream saida) {
+        saida.printf(Locale.ROOT, "%n%-42s %8s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Req", "Erros", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "máx ms");
+        int total = 0;
+        double vazao = 0;
+        for (Map.Entry<OperacaoCarga, Latencias.Resumo> e : resumos.entrySet()) {
+            Latencias.Resumo r = e.getValue();
+            saida.printf(Locale.ROOT, "%-42s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%s%n",
+                    e.getKey().getEndpoint(), r.requisicoes(), r.erros(), r.vazao(),
+                    r.p50(), r.p99(), r.p999(), r.maximo(), r.falhas().isEmpty() ? "" : "  " + r.falhas());
+            total += r.requisicoes();
+            vazao += r.vazao();
+        }
+        saida.printf(Locale.ROOT, "%-42s %8d %7s %9.1f%n", "Total", total, "", vazao);
+    }
+
+    /**
+     * @param resumos resultado por operação
+     * @return relatório em CSV, uma linha por endpoint, para comparar execuções
+     */
+    static String csv(Map<OperacaoCarga, Latencias.Resumo> resumos) {
+        StringBuilder sb = new StringBuilder("endpoint,requisicoes,erros,vazao_rps,p50_ms,p99_ms,p999_ms,max_ms\n");
+        resumos.forEach((op, r) -> sb.append(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f\n",
+                op.getEndpoint(), r.requisicoes(), r.erros(), r.vazao(), r.p50(), r.p99(), r.p999(), r.maximo())));
+        return sb.toString();
+    }
+
+    private static void exigirSucesso(HttpResponse<String> resposta, String etapa) {
+        if (resposta.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Falha na preparação (" + etapa + "): HTTP "
+                    + resposta.statusCode() + " " + resposta.body());
+        }
+    }
+
+    private static Throwable causa(Throwable erro) {
+        return erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+    }
+}
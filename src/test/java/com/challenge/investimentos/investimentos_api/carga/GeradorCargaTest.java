@@ -0,0 +1,57 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica o mix de operações, as opções e os percentis do gerador de carga, sem subir a aplicação.
+ */
+class GeradorCargaTest {
+
+    @Test
+    void sorteiaAsOperacoesNaProporcaoDoMix() {
+        MixCarga mix = MixCarga.de("consulta=3, cadastro=1,exclusao=0");
+        Map<OperacaoCarga, Integer> sorteios = new EnumMap<>(OperacaoCarga.class);
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 40_000; i++) {
+            sorteios.merge(mix.sortear(aleatorio), 1, Integer::sum);
+        }
+
+        assertThat(sorteios).containsOnlyKeys(OperacaoCarga.CONSULTA, OperacaoCarga.CADASTRO);
+        assertThat(sorteios.get(OperacaoCarga.CONSULTA) / (double) sorteios.get(OperacaoCarga.CADASTRO)).isBetween(2.8, 3.2);
+        assertThat(mix.peso(OperacaoCarga.EXCLUSAO)).isZero();
+        assertThat(MixCarga.de(GeradorCarga.MIX_PADRAO).toString()).isEqualTo(
+                "cadastro=5,carteira=10,consulta=50,bancos=15,tipos=15,exclusao=5");
+
+        assertThatThrownBy(() -> MixCarga.de("consulta=1,listar=2")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("listar");
+        assertThatThrownBy(() -> MixCarga.de("consulta=-1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MixCarga.de("consulta=0")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void opcoesSobrescrevemOsPadroesEPercentisUsamOPostoMaisProximo() {
+        Map<String, String> opcoes = GeradorCarga.opcoes(new String[]{"taxa=500", "mix=consulta=1,bancos=1"});
+        assertThat(opcoes).containsEntry("taxa", "500").containsEntry("mix", "consulta=1,bancos=1")
+                .containsEntry("duracao-s", "60");
+        assertThatThrownBy(() -> GeradorCarga.opcoes(new String[]{"taxa"})).isInstanceOf(IllegalArgumentException.class);
+
+        Latencias latencias = new Latencias();
+        for (int ms = 1; ms <= 1_000; ms++) {
+            latencias.registrar(ms * 1_000_000L, ms % 250 == 0 ? "503" : null);
+        }
+        Latencias.Resumo resumo = latencias.resumir(10);
+        assertThat(resumo).isEqualTo(new Latencias.Resumo(1_000, 4, 100, 500, 990, 999, 1_000, Map.of("503", 4)));
+        assertThat(Latencias.percentil(new long[0], 0.99)).isZero();
+
+        assertThat(GeradorCarga.csv(Map.of(OperacaoCarga.BANCOS, resumo))).isEqualTo(
+                "endpoint,requisicoes,erros,vazao_rps,p50_ms,p99_ms,p999_ms,max_ms\n"
+                        + "GET /api/bancos/{cpf},1000,4,100.0,500.00,990.00,999.00,1000.00\n");
+    }
+}
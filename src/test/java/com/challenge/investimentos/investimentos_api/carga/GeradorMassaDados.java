@@ -0,0 +1,440 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.CpfVO;
+import com.challenge.investimentos.investimentos_api.service.FacetasCarteira;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.flywaydb.core.Flyway;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gera uma massa sintética de usuários, investimentos e rentabilidades diárias e a grava
+ * direto por JDBC em lote, sem passar pela API nem pelo Hibernate.
+ *
+ * Cada usuário depende apenas da semente e do seu índice: a mesma semente gera os mesmos
+ * CPFs, carteiras e séries com qualquer número de threads (só os IDs de investimentos e
+ * rentabilidades mudam de ordem). Os CPFs são os de {@link CpfsDeTeste#gerar} a partir de
+ * {@code cpf-base} e passam por {@link CpfVO}. Bancos e tipos são sorteados entre todos os
+ * valores de {@link BancoEnum} e {@link TipoInvestimentoEnum}; a fração {@code baleias} dos
+ * usuários recebe {@code investimentos-baleia} investimentos, os demais de 1 a
+ * {@code investimentos}. As séries terminam em {@code fim}, cobrem de 25% a 100% dos
+ * {@code anos} informados e seguem um passeio aleatório com taxa e volatilidade do tipo.
+ *
+ * Os IDs partem do próximo valor das sequences e, ao final, as sequences são avançadas
+ * além do último ID gravado, respeitando o bloco de {@value #INCREMENTO_SEQUENCIAS} do
+ * Hibernate. Use com a aplicação parada ou sem outras escritas na base.
+ */
+public final class GeradorMassaDados {
+
+    /** {@code allocationSize} das sequences das entidades (ver V2 e V8). */
+    static final int INCREMENTO_SEQUENCIAS = 50;
+
+    private static final String INSERIR_USUARIO = "INSERT INTO USUARIO_INVESTIMENTO "
+            + "(ID, CPF_IDENTIFICACAO, CPF_NUMERO, MASCARA_BANCOS, MASCARA_TIPOS) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERIR_INVESTIMENTO = "INSERT INTO INVESTIMENTO "
+            + "(ID, NOME_BANCO, NOME_INVESTIMENTO, MONTANTE_INICIAL, VALOR_INICIAL_ACAO, TAXA_RENTABILIDADE, "
+            + "NUMERO_ACOES_INICIAL, TIPO_INVESTIMENTO, USUARIO_INVESTIMENTO_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERIR_RENTABILIDADE = "INSERT INTO RENTABILIDADE_DIARIA_TABLE "
+            + "(ID, DATA_RENTABILIDADE_DIARIA, VALOR_DIARIO_ACAO, TAXA_DIARIO_RENTABILIDADE, "
+            + "MONTANTE_ACUMULADO_DIARIO, INVESTIMENTO_ID) VALUES (?, ?, ?, ?, ?, ?)";
+
+    /** Maior montante em centavos que cabe em {@code NUMBER(15,2)}. */
+    private static final long MONTANTE_MAXIMO = 999_999_999_999_999L;
+
+    private static final BancoEnum[] BANCOS = BancoEnum.values();
+    private static final TipoInvestimentoEnum[] TIPOS = TipoInvestimentoEnum.values();
+    private static final Map<TipoInvestimentoEnum, Perfil> PERFIS = new EnumMap<>(TipoInvestimentoEnum.class);
+
+    static {
+        PERFIS.put(TipoInvestimentoEnum.RENDA_FIXA, new Perfil(0.11, 0.01, false));
+        PERFIS.put(TipoInvestimentoEnum.TESOURO_DIRETO, new Perfil(0.105, 0.03, false));
+        PERFIS.put(TipoInvestimentoEnum.CDB, new Perfil(0.12, 0.005, false));
+        PERFIS.put(TipoInvestimentoEnum.LCI, new Perfil(0.10, 0.004, false));
+        PERFIS.put(TipoInvestimentoEnum.LCA, new Perfil(0.10, 0.004, false));
+        PERFIS.put(TipoInvestimentoEnum.RENDA_VARIAVEL, new Perfil(0.09, 0.25, true));
+        PERFIS.put(TipoInvestimentoEnum.FUNDO_IMOBILIARIO, new Perfil(0.08, 0.15, true));
+        PERFIS.put(TipoInvestimentoEnum.CRIPTOMOEDA, new Perfil(0.25, 0.75, true));
+        PERFIS.put(TipoInvestimentoEnum.OUTRO, new Perfil(0.07, 0.10, false));
+    }
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final int usuarios;
+    private final int investimentosMaximo;
+    private final double fracaoBaleias;
+    private final int investimentosBaleia;
+    private final long semente;
+    private final long cpfBase;
+    private final int threads;
+    private final int lote;
+    private final boolean migrar;
+    private final Date[] datas;
+
+    private final LongAdder usuariosGravados = new LongAdder();
+    private final LongAdder investimentosGravados = new LongAdder();
+    private final LongAdder rentabilidadesGravadas = new LongAdder();
+
+    private long usuarioInicial;
+    private AtomicLong proximoInvestimento;
+    private AtomicLong proximaRentabilidade;
+
+    GeradorMassaDados(Map<String, String> opcoes) {
+        this.url = opcoes.get("url");
+        this.usuario = opcoes.get("usuario");
+        this.senha = opcoes.get("senha");
+        this.usuarios = Integer.parseInt(opcoes.get("usuarios"));
+        this.investimentosMaximo = Integer.parseInt(opcoes.get("investimentos"));
+        this.fracaoBaleias = Double.parseDouble(opcoes.get("baleias"));
+        this.investimentosBaleia = Integer.parseInt(opcoes.get("investimentos-baleia"));
+        this.semente = Long.parseLong(opcoes.get("semente"));
+        this.cpfBase = Long.parseLong(opcoes.get("cpf-base"));
+        this.threads = Math.max(1, Integer.parseInt(opcoes.get("threads")));
+        this.lote = Integer.parseInt(opcoes.get("lote"));
+        this.migrar = Boolean.parseBoolean(opcoes.get("migrar"));
+        if (usuarios < 0 || investimentosMaximo < 1 || investimentosBaleia < 1 || lote < 1
+                || fracaoBaleias < 0 || fracaoBaleias > 1) {
+            throw new IllegalArgumentException("Opções inválidas: " + opcoes);
+        }
+        if (cpfBase < 0 || cpfBase + usuarios > 900_000_000L) {
+            throw new IllegalArgumentException("cpf-base + usuarios deve ficar entre 0 e 900.000.000");
+        }
+        LocalDate fim = LocalDate.parse(opcoes.get("fim"));
+        int dias = Math.max(1, Integer.parseInt(opcoes.get("anos")) * 365);
+        this.datas = new Date[dias];
+        for (int d = 0; d < dias; d++) {
+            datas[d] = Date.valueOf(fim.minusDays(dias - 1 - d));
+        }
+    }
+
+    /**
+     * Gera a massa. Opções (todas {@code chave=valor}, opcionais):
+     * <ul>
+     *   <li>{@code url} / {@code usuario} / {@code senha}: base de destino
+     *       (padrão H2 em arquivo no modo Oracle, {@code ./target/massa-dados})</li>
+     *   <li>{@code migrar}: aplica as migrações Flyway antes ({@code true}; {@code db/migration-h2} para H2)</li>
+     *   <li>{@code usuarios}: quantidade de usuários (10000)</li>
+     *   <li>{@code investimentos}: máximo de investimentos de um usuário comum (6)</li>
+     *   <li>{@code baleias} / {@code investimentos-baleia}: fração de usuários com carteira enorme e o
+     *       tamanho dela (0.001 / 200)</li>
+     *   <li>{@code anos} / {@code fim}: extensão máxima das séries e o último dia (3 / 2025-12-31)</li>
+     *   <li>{@code semente}: semente da massa (42)</li>
+     *   <li>{@code cpf-base}: base do primeiro CPF em {@link CpfsDeTeste#gerar} (0)</li>
+     *   <li>{@code threads}: conexões gravando em paralelo (até 4)</li>
+     *   <li>{@code lote}: linhas por lote JDBC e por commit (5000)</li>
+     * </ul>
+     *
+     * @param args opções {@code chave=valor}
+     * @throws Exception se a base não estiver acessível ou a gravação falhar
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = opcoes(args);
+        System.out.printf("Massa em %s: %s usuários, semente %s%n", opcoes.get("url"), opcoes.get("usuarios"),
+                opcoes.get("semente"));
+        Resultado resultado = new GeradorMassaDados(opcoes).gerar(true);
+        System.out.println(resultado);
+    }
+
+    /**
+     * @param args argumentos {@code chave=valor}
+     * @return opções informadas sobre os valores padrão
+     */
+    static Map<String, String> opcoes(String[] args) {
+        Map<String, String> padroes = new LinkedHashMap<>();
+        padroes.put("url", "jdbc:h2:./target/massa-dados;MODE=Oracle;AUTO_SERVER=TRUE");
+        padroes.put("usuario", "sa");
+        padroes.put("senha", "");
+        padroes.put("migrar", "true");
+        padroes.put("usuarios", "10000");
+        padroes.put("investimentos", "6");
+        padroes.put("baleias", "0.001");
+        padroes.put("investimentos-baleia", "200");
+        padroes.put("anos", "3");
+        padroes.put("fim", "2025-12-31");
+        padroes.put("semente", "42");
+        padroes.put("cpf-base", "0");
+        padroes.put("threads", String.valueOf(Math.min(4, Runtime.getRuntime().availableProcessors())));
+        padroes.put("lote", "5000");
+        return Opcoes.ler(args, padroes);
+    }
+
+    /**
+     * Grava a massa e ajusta as sequences.
+     *
+     * @param progresso imprime o andamento a cada 5 s
+     * @return linhas gravadas e tempo total
+     * @throws SQLException se a gravação falhar
+     * @throws InterruptedException se interrompido enquanto aguarda as threads
+     */
+    Resultado gerar(boolean progresso) throws SQLException, InterruptedException {
+        long inicio = System.nanoTime();
+        if (migrar) {
+            Flyway.configure()
+                    .dataSource(url, usuario, senha)
+                    .locations(url.startsWith("jdbc:h2:") ? "classpath:db/migration-h2" : "classpath:db/migration")
+                    .table("FLYWAY_SCHEMA_HISTORY_V2")
+                    .baselineOnMigrate(true)
+                    .baselineVersion("1")
+                    .load()
+                    .migrate();
+        }
+        try (Connection conexao = conectar()) {
+            usuarioInicial = primeiroId(conexao, "USUARIO_INVESTIMENTO_SEQ", "USUARIO_INVESTIMENTO");
+            proximoInvestimento = new AtomicLong(primeiroId(conexao, "INVESTIMENTO_SEQ", "INVESTIMENTO"));
+            proximaRentabilidade = new AtomicLong(primeiroId(conexao, "RENTABILIDADE_DIARIA_SEQ", "RENTABILIDADE_DIARIA_TABLE"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> partes = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int de = (int) ((long) usuarios * t / threads);
+                int ate = (int) ((long) usuarios * (t + 1) / threads);
+                partes.add(executor.submit(() -> {
+                    gravar(de, ate);
+                    return null;
+                }));
+            }
+            for (Future<Void> parte : partes) {
+                aguardar(parte, inicio, progresso);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection conexao = conectar()) {
+            avancarSequencia(conexao, "USUARIO_INVESTIMENTO_SEQ", usuarioInicial + usuarios);
+            avancarSequencia(conexao, "INVESTIMENTO_SEQ", proximoInvestimento.get());
+            avancarSequencia(conexao, "RENTABILIDADE_DIARIA_SEQ", proximaRentabilidade.get());
+        }
+        return new Resultado(usuariosGravados.sum(), investimentosGravados.sum(), rentabilidadesGravadas.sum(),
+                System.nanoTime() - inicio);
+    }
+
+    private void aguardar(Future<Void> parte, long inicio, boolean progresso) throws SQLException, InterruptedException {
+        while (true) {
+            try {
+                parte.get(5, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException e) {
+                if (progresso) {
+                    System.out.println(new Resultado(usuariosGravados.sum(), investimentosGravados.sum(),
+                            rentabilidadesGravadas.sum(), System.nanoTime() - inicio));
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException sql) throw sql;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Gera e grava os usuários de índice {@code de} (inclusive) a {@code ate} (exclusive) numa conexão própria.
+     */
+    private void gravar(int de, int ate) throws SQLException {
+        try (Connection conexao = conectar();
+             PreparedStatement usuariosLote = conexao.prepareStatement(INSERIR_USUARIO);
+             PreparedStatement investimentosLote = conexao.prepareStatement(INSERIR_INVESTIMENTO);
+             PreparedStatement rentabilidadesLote = conexao.prepareStatement(INSERIR_RENTABILIDADE)) {
+            conexao.setAutoCommit(false);
+            Pendentes pendentes = new Pendentes();
+            for (int u = de; u < ate; u++) {
+                gerarUsuario(u, usuariosLote, investimentosLote, rentabilidadesLote, pendentes);
+                if (pendentes.linhas() >= lote) {
+                    descarregar(conexao, usuariosLote, investimentosLote, rentabilidadesLote, pendentes);
+                }
+            }
+            descarregar(conexao, usuariosLote, investimentosLote, rentabilidadesLote, pendentes);
+        }
+    }
+
+    private void gerarUsuario(int indice, PreparedStatement usuariosLote, PreparedStatement investimentosLote,
+                              PreparedStatement rentabilidadesLote, Pendentes pendentes) throws SQLException {
+        SplittableRandom aleatorio = new SplittableRandom(semente * 0x9E3779B97F4A7C15L + indice);
+        boolean baleia = aleatorio.nextDouble() < fracaoBaleias;
+        int quantidade = baleia ? investimentosBaleia : 1 + aleatorio.nextInt(investimentosMaximo);
+        long idUsuario = usuarioInicial + indice;
+        long idInvestimento = proximoInvestimento.getAndAdd(quantidade);
+        int mascaraBancos = 0;
+        int mascaraTipos = 0;
+
+        for (int i = 0; i < quantidade; i++, idInvestimento++) {
+            BancoEnum banco = BANCOS[aleatorio.nextInt(BANCOS.length)];
+            TipoInvestimentoEnum tipo = TIPOS[aleatorio.nextInt(TIPOS.length)];
+            Perfil perfil = PERFIS.get(tipo);
+            mascaraBancos |= FacetasCarteira.bitBanco(banco.getNomeBanco());
+            mascaraTipos |= FacetasCarteira.bitTipo(tipo);
+
+            long montante = (long) (10_000 * Math.pow(10, aleatorio.nextDouble() * 3)) * (baleia ? 20 : 1);
+            long acao = perfil.acoes() ? 1_000 + aleatorio.nextInt(49_000) : 0;
+            investimentosLote.setLong(1, idInvestimento);
+            investimentosLote.setString(2, banco.getNomeBanco());
+            investimentosLote.setString(3, tipo.name() + " " + banco.getNomeBanco() + " " + (i + 1));
+            investimentosLote.setBigDecimal(4, BigDecimal.valueOf(montante, 2));
+            investimentosLote.setBigDecimal(5, BigDecimal.valueOf(acao, 2));
+            investimentosLote.setBigDecimal(6, BigDecimal.valueOf(Math.round(perfil.taxaAnual() * 10_000), 4));
+            investimentosLote.setInt(7, acao == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, montante / acao));
+            investimentosLote.setString(8, tipo.name());
+            investimentosLote.setLong(9, idUsuario);
+            investimentosLote.addBatch();
+            pendentes.investimentos++;
+
+            int dias = Math.max(1, datas.length * (25 + aleatorio.nextInt(76)) / 100);
+            long idRentabilidade = proximaRentabilidade.getAndAdd(dias);
+            double media = perfil.mediaDiaria();
+            double desvio = perfil.desvioDiario();
+            for (int d = datas.length - dias; d < datas.length; d++) {
+                double taxa = Math.max(-0.95, media + desvio * aleatorio.nextGaussian());
+                montante = Math.min(MONTANTE_MAXIMO, Math.max(1, Math.round(montante * (1 + taxa))));
+                if (acao > 0) acao = Math.min(MONTANTE_MAXIMO, Math.max(1, Math.round(acao * (1 + taxa))));
+                rentabilidadesLote.setLong(1, idRentabilidade++);
+                rentabilidadesLote.setDate(2, datas[d]);
+                rentabilidadesLote.setBigDecimal(3, BigDecimal.valueOf(acao, 2));
+                rentabilidadesLote.setBigDecimal(4, BigDecimal.valueOf(Math.round(taxa * 10_000), 4));
+                rentabilidadesLote.setBigDecimal(5, BigDecimal.valueOf(montante, 2));
+                rentabilidadesLote.setLong(6, idInvestimento);
+                rentabilidadesLote.addBatch();
+            }
+            pendentes.rentabilidades += dias;
+        }
+
+        CpfVO cpf = new CpfVO(CpfsDeTeste.gerar(cpfBase + indice));
+        usuariosLote.setLong(1, idUsuario);
+        usuariosLote.setString(2, cpf.getCpf());
+        usuariosLote.setLong(3, cpf.getNumero());
+        usuariosLote.setInt(4, mascaraBancos);
+        usuariosLote.setInt(5, mascaraTipos);
+        usuariosLote.addBatch();
+        pendentes.usuarios++;
+    }
+
+    /**
+     * Executa os lotes pendentes na ordem das chaves estrangeiras e confirma a transação.
+     */
+    private void descarregar(Connection conexao, PreparedStatement usuariosLote, PreparedStatement investimentosLote,
+                             PreparedStatement rentabilidadesLote, Pendentes pendentes) throws SQLException {
+        if (pendentes.linhas() == 0) return;
+        usuariosLote.executeBatch();
+        investimentosLote.executeBatch();
+        rentabilidadesLote.executeBatch();
+        conexao.commit();
+        usuariosGravados.add(pendentes.usuarios);
+        investimentosGravados.add(pendentes.investimentos);
+        rentabilidadesGravadas.add(pendentes.rentabilidades);
+        pendentes.usuarios = 0;
+        pendentes.investimentos = 0;
+        pendentes.rentabilidades = 0;
+    }
+
+    private Connection conectar() throws SQLException {
+        return DriverManager.getConnection(url, usuario, senha);
+    }
+
+    /**
+     * Primeiro ID livre da tabela: o próximo valor da sequence, ou além do maior ID já gravado.
+     */
+    private static long primeiroId(Connection conexao, String sequencia, String tabela) throws SQLException {
+        long proximo = proximoValor(conexao, sequencia);
+        try (Statement comando = conexao.createStatement();
+             ResultSet maior = comando.executeQuery("SELECT MAX(ID) FROM " + tabela)) {
+            maior.next();
+            return Math.max(proximo, maior.getLong(1) + 1);
+        }
+    }
+
+    /**
+     * Avança a sequence para que o próximo bloco do Hibernate (valor retornado menos
+     * {@value #INCREMENTO_SEQUENCIAS} - 1) comece depois de {@code primeiroLivre}.
+     */
+    static void avancarSequencia(Connection conexao, String sequencia, long primeiroLivre) throws SQLException {
+        long atual = proximoValor(conexao, sequencia);
+        long alvo = primeiroLivre + INCREMENTO_SEQUENCIAS - 1;
+        if (alvo <= atual) return;
+        try (Statement comando = conexao.createStatement()) {
+            comando.execute("ALTER SEQUENCE " + sequencia + " INCREMENT BY " + (alvo - atual));
+            proximoValor(conexao, sequencia);
+            comando.execute("ALTER SEQUENCE " + sequencia + " INCREMENT BY " + INCREMENTO_SEQUENCIAS);
+        }
+    }
+
+    private static long proximoValor(Connection conexao, String sequencia) throws SQLException {
+        try (Statement comando = conexao.createStatement();
+             ResultSet valor = comando.executeQuery("SELECT " + sequencia + ".NEXTVAL FROM DUAL")) {
+            valor.next();
+            return valor.getLong(1);
+        }
+    }
+
+    /**
+     * Comportamento da série de um tipo de investimento.
+     *
+     * @param taxaAnual rentabilidade anual esperada
+     * @param volatilidadeAnual desvio-padrão anual dos retornos
+     * @param acoes se o investimento tem cotação (valor da ação e número de ações)
+     */
+    private record Perfil(double taxaAnual, double volatilidadeAnual, boolean acoes) {
+
+        double mediaDiaria() {
+            return Math.pow(1 + taxaAnual, 1 / 365.0) - 1;
+        }
+
+        double desvioDiario() {
+            return volatilidadeAnual / Math.sqrt(365);
+        }
+    }
+
+    /** Linhas adicionadas aos lotes e ainda não executadas. */
+    private static final class Pendentes {
+        int usuarios;
+        int investimentos;
+        int rentabilidades;
+
+        int linhas() {
+            return usuarios + investimentos + rentabilidades;
+        }
+    }
+
+    /**
+     * Linhas gravadas por tabela.
+     *
+     * @param usuarios usuários
+     * @param investimentos investimentos
+     * @param rentabilidades rentabilidades diárias
+     * @param nanos tempo decorrido
+     */
+    record Resultado(long usuarios, long investimentos, long rentabilidades, long nanos) {
+
+        @Override
+        public String toString() {
+            double segundos = nanos / 1e9;
+            return String.format(Locale.ROOT, "%,d usuários, %,d investimentos, %,d rentabilidades em %.1f s (%,.0f linhas/s)",
+                    usuarios, investimentos, rentabilidades, segundos,
+                    (usuarios + investimentos + rentabilidades) / Math.max(segundos, 1e-9));
+        }
+    }
+}
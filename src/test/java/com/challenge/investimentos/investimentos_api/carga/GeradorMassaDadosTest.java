@@ -0,0 +1,138 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.model.CpfVO;
+import com.challenge.investimentos.investimentos_api.service.FacetasCarteira;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gera massas pequenas em bases H2 próprias e confere CPFs, facetas, baleias, séries,
+ * sequences e a reprodutibilidade pela semente.
+ */
+class GeradorMassaDadosTest {
+
+    private static final String MASSA_A = "jdbc:h2:mem:massa-a;MODE=Oracle;DB_CLOSE_DELAY=-1";
+    private static final String MASSA_B = "jdbc:h2:mem:massa-b;MODE=Oracle;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void geraMassaValidaEReprodutivelComQualquerNumeroDeThreads() throws Exception {
+        GeradorMassaDados.Resultado resultado = gerar(MASSA_A, "1");
+        gerar(MASSA_B, "3");
+
+        assertThat(resultado.usuarios()).isEqualTo(60);
+        try (Connection conexao = DriverManager.getConnection(MASSA_A, "sa", "")) {
+            assertThat(contar(conexao, "SELECT COUNT(*) FROM INVESTIMENTO")).isEqualTo(resultado.investimentos());
+            assertThat(contar(conexao, "SELECT COUNT(*) FROM RENTABILIDADE_DIARIA_TABLE")).isEqualTo(resultado.rentabilidades());
+
+            Map<Long, int[]> mascaras = new HashMap<>();
+            try (ResultSet usuarios = consultar(conexao,
+                    "SELECT ID, CPF_IDENTIFICACAO, CPF_NUMERO, MASCARA_BANCOS, MASCARA_TIPOS FROM USUARIO_INVESTIMENTO")) {
+                while (usuarios.next()) {
+                    CpfVO cpf = new CpfVO(usuarios.getString(2));
+                    assertThat(cpf.getNumero()).isEqualTo(usuarios.getLong(3)).isEqualTo(CodecCpf.codificar(usuarios.getString(2)));
+                    mascaras.put(usuarios.getLong(1), new int[]{usuarios.getInt(4), usuarios.getInt(5)});
+                }
+            }
+            Map<Long, int[]> recalculadas = new HashMap<>();
+            List<String> bancos = new ArrayList<>();
+            List<String> tipos = new ArrayList<>();
+            try (ResultSet investimentos = consultar(conexao,
+                    "SELECT USUARIO_INVESTIMENTO_ID, NOME_BANCO, TIPO_INVESTIMENTO FROM INVESTIMENTO")) {
+                while (investimentos.next()) {
+                    int[] m = recalculadas.computeIfAbsent(investimentos.getLong(1), id -> new int[2]);
+                    m[0] |= FacetasCarteira.bitBanco(investimentos.getString(2));
+                    m[1] |= FacetasCarteira.bitTipo(TipoInvestimentoEnum.valueOf(investimentos.getString(3)));
+                    bancos.add(investimentos.getString(2));
+                    tipos.add(investimentos.getString(3));
+                }
+            }
+            assertThat(recalculadas).hasSameSizeAs(mascaras);
+            recalculadas.forEach((id, m) -> assertThat(mascaras.get(id)).containsExactly(m));
+            assertThat(bancos).containsAll(Arrays.stream(BancoEnum.values()).map(BancoEnum::getNomeBanco).toList());
+            assertThat(tipos).containsAll(Arrays.stream(TipoInvestimentoEnum.values()).map(Enum::name).toList());
+
+            assertThat(contar(conexao, "SELECT MAX(C) FROM (SELECT COUNT(*) C FROM INVESTIMENTO GROUP BY USUARIO_INVESTIMENTO_ID)"))
+                    .isEqualTo(40);
+            assertThat(contar(conexao, "SELECT MAX(C) FROM (SELECT COUNT(*) C FROM INVESTIMENTO GROUP BY USUARIO_INVESTIMENTO_ID "
+                    + "HAVING COUNT(*) < 40)")).isLessThanOrEqualTo(6);
+
+            // Séries contínuas, terminando no último dia, com ao menos 25% do período
+            try (ResultSet series = consultar(conexao, "SELECT MIN(DATA_RENTABILIDADE_DIARIA), MAX(DATA_RENTABILIDADE_DIARIA), "
+                    + "COUNT(*) FROM RENTABILIDADE_DIARIA_TABLE GROUP BY INVESTIMENTO_ID")) {
+                while (series.next()) {
+                    LocalDate inicio = series.getDate(1).toLocalDate();
+                    assertThat(series.getDate(2).toLocalDate()).isEqualTo(LocalDate.of(2025, 12, 31));
+                    assertThat(inicio.plusDays(series.getLong(3) - 1)).isEqualTo(LocalDate.of(2025, 12, 31));
+                    assertThat(series.getLong(3)).isBetween(91L, 365L);
+                }
+            }
+
+            // O próximo bloco do Hibernate começa depois dos IDs gravados
+            for (String[] par : new String[][]{{"USUARIO_INVESTIMENTO_SEQ", "USUARIO_INVESTIMENTO"},
+                    {"INVESTIMENTO_SEQ", "INVESTIMENTO"}, {"RENTABILIDADE_DIARIA_SEQ", "RENTABILIDADE_DIARIA_TABLE"}}) {
+                long maiorId = contar(conexao, "SELECT MAX(ID) FROM " + par[1]);
+                long proximo = contar(conexao, "SELECT " + par[0] + ".NEXTVAL FROM DUAL");
+                assertThat(proximo - GeradorMassaDados.INCREMENTO_SEQUENCIAS + 1).isGreaterThan(maiorId);
+            }
+        }
+
+        assertThat(conteudo(MASSA_B)).isEqualTo(conteudo(MASSA_A));
+    }
+
+    private static GeradorMassaDados.Resultado gerar(String url, String threads) throws Exception {
+        return new GeradorMassaDados(GeradorMassaDados.opcoes(new String[]{
+                "url=" + url, "usuarios=60", "anos=1", "baleias=0.05", "investimentos-baleia=40",
+                "semente=7", "cpf-base=9032", "threads=" + threads, "lote=2000"})).gerar(false);
+    }
+
+    /**
+     * Conteúdo da massa sem os IDs, que dependem da ordem de gravação entre as threads.
+     */
+    private static List<String> conteudo(String url) throws SQLException {
+        List<String> linhas = new ArrayList<>();
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             ResultSet rs = consultar(conexao, "SELECT u.CPF_IDENTIFICACAO, u.MASCARA_BANCOS, u.MASCARA_TIPOS, "
+                     + "i.NOME_INVESTIMENTO, i.MONTANTE_INICIAL, i.VALOR_INICIAL_ACAO, i.NUMERO_ACOES_INICIAL, "
+                     + "r.DATA_RENTABILIDADE_DIARIA, r.VALOR_DIARIO_ACAO, r.TAXA_DIARIO_RENTABILIDADE, r.MONTANTE_ACUMULADO_DIARIO "
+                     + "FROM USUARIO_INVESTIMENTO u JOIN INVESTIMENTO i ON i.USUARIO_INVESTIMENTO_ID = u.ID "
+                     + "JOIN RENTABILIDADE_DIARIA_TABLE r ON r.INVESTIMENTO_ID = i.ID "
+                     + "ORDER BY u.CPF_IDENTIFICACAO, i.NOME_INVESTIMENTO, r.DATA_RENTABILIDADE_DIARIA")) {
+            int colunas = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder linha = new StringBuilder();
+                for (int c = 1; c <= colunas; c++) linha.append(rs.getString(c)).append('|');
+                linhas.add(linha.toString());
+            }
+        }
+        return linhas;
+    }
+
+    private static long contar(Connection conexao, String sql) throws SQLException {
+        try (ResultSet rs = consultar(conexao, sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static ResultSet consultar(Connection conexao, String sql) throws SQLException {
+        Statement comando = conexao.createStatement();
+        comando.closeOnCompletion();
+        return comando.executeQuery(sql);
+    }
+}
@@ -0,0 +1,75 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latências de um endpoint durante a medição, guardadas integralmente (em microssegundos)
+ * para que os percentis sejam exatos.
+ */
+final class Latencias {
+
+    private long[] micros = new long[1024];
+    private int quantidade;
+    private int erros;
+    private final Map<String, Integer> falhas = new TreeMap<>();
+
+    /**
+     * Registra uma requisição concluída.
+     *
+     * @param nanos tempo desde o instante previsto de envio até a resposta
+     * @param falha {@code null} em caso de sucesso; senão o status HTTP ou o nome da exceção
+     */
+    synchronized void registrar(long nanos, String falha) {
+        if (quantidade == micros.length) {
+            micros = Arrays.copyOf(micros, quantidade * 2);
+        }
+        micros[quantidade++] = nanos / 1_000;
+        if (falha != null) {
+            erros++;
+            falhas.merge(falha, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @param segundos duração da medição
+     * @return totais, vazão e percentis das requisições registradas
+     */
+    synchronized Resumo resumir(double segundos) {
+        long[] ordenadas = Arrays.copyOf(micros, quantidade);
+        Arrays.sort(ordenadas);
+        return new Resumo(quantidade, erros, quantidade / segundos,
+                percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999),
+                quantidade == 0 ? 0 : ordenadas[quantidade - 1] / 1_000.0, new TreeMap<>(falhas));
+    }
+
+    /**
+     * Percentil pelo método do posto mais próximo.
+     *
+     * @param ordenadas latências em microssegundos, em ordem crescente
+     * @param p percentil entre 0 e 1
+     * @return latência em milissegundos (zero sem amostras)
+     */
+    static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        int posto = (int) Math.ceil(p * ordenadas.length);
+        return ordenadas[Math.max(posto, 1) - 1] / 1_000.0;
+    }
+
+    /**
+     * Resultado de um endpoint; latências em milissegundos.
+     *
+     * @param requisicoes requisições concluídas na medição
+     * @param erros respostas fora da faixa 2xx ou sem resposta
+     * @param vazao requisições concluídas por segundo
+     * @param p50 mediana
+     * @param p99 percentil 99
+     * @param p999 percentil 99,9
+     * @param maximo maior latência
+     * @param falhas quantidade por status HTTP ou exceção
+     */
+    record Resumo(int requisicoes, int erros, double vazao, double p50, double p99, double p999, double maximo,
+                  Map<String, Integer> falhas) {
+    }
+}
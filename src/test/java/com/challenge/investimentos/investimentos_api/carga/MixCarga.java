@@ -0,0 +1,86 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Proporção entre as operações da carga, no formato {@code consulta=50,carteira=10,...}.
+ * Operações ausentes têm peso zero.
+ */
+final class MixCarga {
+
+    private final Map<OperacaoCarga, Integer> pesos;
+    private final OperacaoCarga[] operacoes;
+    private final int[] acumulados;
+
+    private MixCarga(Map<OperacaoCarga, Integer> pesos) {
+        this.pesos = pesos;
+        this.operacoes = pesos.keySet().toArray(OperacaoCarga[]::new);
+        this.acumulados = new int[operacoes.length];
+        int soma = 0;
+        for (int i = 0; i < operacoes.length; i++) {
+            soma += pesos.get(operacoes[i]);
+            acumulados[i] = soma;
+        }
+    }
+
+    /**
+     * @param texto pares {@code operacao=peso} separados por vírgula
+     * @return mix correspondente
+     * @throws IllegalArgumentException se o texto for inválido ou a soma dos pesos for zero
+     */
+    static MixCarga de(String texto) {
+        Map<OperacaoCarga, Integer> pesos = new EnumMap<>(OperacaoCarga.class);
+        for (String par : texto.split(",")) {
+            if (par.isBlank()) continue;
+            String[] partes = par.split("=", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Par inválido no mix (esperado operacao=peso): " + par.trim());
+            }
+            int peso;
+            try {
+                peso = Integer.parseInt(partes[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Peso inválido no mix: " + par.trim());
+            }
+            if (peso < 0) {
+                throw new IllegalArgumentException("Peso negativo no mix: " + par.trim());
+            }
+            if (peso > 0) {
+                pesos.merge(OperacaoCarga.daChave(partes[0].trim()), peso, Integer::sum);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("O mix precisa de ao menos uma operação com peso positivo: " + texto);
+        }
+        return new MixCarga(pesos);
+    }
+
+    /**
+     * @param aleatorio gerador usado no sorteio
+     * @return operação sorteada na proporção dos pesos
+     */
+    OperacaoCarga sortear(Random aleatorio) {
+        int alvo = aleatorio.nextInt(acumulados[acumulados.length - 1]);
+        for (int i = 0; i < acumulados.length; i++) {
+            if (alvo < acumulados[i]) return operacoes[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @param operacao operação
+     * @return peso da operação (zero se ausente)
+     */
+    int peso(OperacaoCarga operacao) {
+        return pesos.getOrDefault(operacao, 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        pesos.forEach((op, peso) -> sb.append(sb.isEmpty() ? "" : ",").append(op.getChave()).append('=').append(peso));
+        return sb.toString();
+    }
+}
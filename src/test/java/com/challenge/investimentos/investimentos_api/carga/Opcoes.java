@@ -0,0 +1,31 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opções de linha de comando das ferramentas de carga, no formato {@code chave=valor}.
+ */
+final class Opcoes {
+
+    private Opcoes() {}
+
+    /**
+     * @param args argumentos {@code chave=valor}
+     * @param padroes valores usados quando a opção não é informada
+     * @return opções informadas sobre os valores padrão
+     * @throws IllegalArgumentException se um argumento não tiver {@code =}
+     */
+    static Map<String, String> ler(String[] args, Map<String, String> padroes) {
+        Map<String, String> opcoes = new LinkedHashMap<>(padroes);
+        for (String arg : args) {
+            if (arg.isBlank()) continue;
+            String[] partes = arg.split("=", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Opção inválida (esperado chave=valor): " + arg);
+            }
+            opcoes.put(partes[0].trim(), partes[1].trim());
+        }
+        return opcoes;
+    }
+}
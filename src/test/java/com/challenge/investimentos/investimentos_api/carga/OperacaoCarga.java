@@ -0,0 +1,51 @@
+package com.challenge.investimentos.investimentos_api.carga;
+
+import java.util.Arrays;
+
+/**
+ * Chamadas REST reproduzidas pelo {@link GeradorCarga}.
+ */
+enum OperacaoCarga {
+
+    CADASTRO("cadastro", "POST /api/usuario-investimentos"),
+    CARTEIRA("carteira", "PUT /api/usuario-investimentos"),
+    CONSULTA("consulta", "GET /api/usuario-investimentos/{cpf}"),
+    BANCOS("bancos", "GET /api/bancos/{cpf}"),
+    TIPOS("tipos", "GET /api/tipos-investimento/{cpf}"),
+    EXCLUSAO("exclusao", "DELETE /api/usuario-investimentos/{cpf}");
+
+    private final String chave;
+    private final String endpoint;
+
+    OperacaoCarga(String chave, String endpoint) {
+        this.chave = chave;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return nome da operação em {@code mix=}
+     */
+    String getChave() {
+        return chave;
+    }
+
+    /**
+     * @return método e caminho do endpoint, como no relatório
+     */
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @param chave nome da operação em {@code mix=}
+     * @return operação correspondente
+     * @throws IllegalArgumentException se a chave não existir
+     */
+    static OperacaoCarga daChave(String chave) {
+        return Arrays.stream(values())
+                .filter(op -> op.chave.equals(chave))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Operação desconhecida no mix: " + chave
+                        + " (válidas: " + Arrays.stream(values()).map(OperacaoCarga::getChave).toList() + ")"));
+    }
+}
@@ -0,0 +1,176 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.service.AlteracoesCarteira;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.dia;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica a sincronização incremental: o log de alterações gravado junto com as
+ * escritas, o delta devolvido por {@code /changes?since=N} e a compactação.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class AlteracoesCarteiraTest {
+
+    private static final int DIAS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private AlteracoesCarteira alteracoesCarteira;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changesDevolveSomenteODeltaDesdeASequenciaInformada() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9017);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        mockMvc.perform(put("/api/usuario-investimentos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carteira(cpf, investimento("CDB A", DIAS), investimento("CDB B", DIAS)))))
+                .andExpect(status().isOk());
+        long idA = idInvestimento(cpf, "CDB A");
+        long idB = idInvestimento(cpf, "CDB B");
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AlteracoesCarteira.CABECALHO_SEQUENCIA, "4"))
+                .andExpect(jsonPath("$.desde", is(0)))
+                .andExpect(jsonPath("$.ate", is(4)))
+                .andExpect(jsonPath("$.investimentos", hasSize(2)))
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria").doesNotExist())
+                .andExpect(jsonPath("$.investimentosRemovidos", hasSize(0)))
+                .andExpect(jsonPath("$.rentabilidades", hasSize(2)))
+                .andExpect(jsonPath("$.rentabilidades[0].de", is("01-01-2023")))
+                .andExpect(jsonPath("$.rentabilidades[0].ate", is("30-01-2023")))
+                .andExpect(jsonPath("$.rentabilidades[0].rentabilidadeDiaria", hasSize(DIAS)));
+
+        RentabilidadeDiariaDTO corrigido = dia(3);
+        corrigido.setMontanteAcumuladoDiario(new BigDecimal("9999.99"));
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", idA)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(corrigido, dia(DIAS)))))
+                .andExpect(status().isOk());
+
+        contador.zerar();
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ate", is(6)))
+                .andExpect(jsonPath("$.investimentos", hasSize(0)))
+                .andExpect(jsonPath("$.rentabilidades", hasSize(2)))
+                .andExpect(jsonPath("$.rentabilidades[0].investimentoId", is((int) idA)))
+                .andExpect(jsonPath("$.rentabilidades[0].de", is("04-01-2023")))
+                .andExpect(jsonPath("$.rentabilidades[0].rentabilidadeDiaria[0].montanteAcumuladoDiario", is(9999.99)))
+                .andExpect(jsonPath("$.rentabilidades[1].de", is("31-01-2023")))
+                .andExpect(jsonPath("$.rentabilidades[1].rentabilidadeDiaria", hasSize(1)));
+        assertThat(contador.total()).isLessThanOrEqualTo(4);
+
+        mockMvc.perform(delete("/api/investimentos/{id}", idB)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ate", is(7)))
+                .andExpect(jsonPath("$.investimentos", hasSize(0)))
+                .andExpect(jsonPath("$.investimentosRemovidos[0]", is((int) idB)))
+                .andExpect(jsonPath("$.rentabilidades", hasSize(0)));
+
+        contador.zerar();
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos", hasSize(0)))
+                .andExpect(jsonPath("$.rentabilidades", hasSize(0)));
+        assertThat(contador.total()).isEqualTo(1);
+
+        mockMvc.perform(put("/api/usuario-investimentos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carteira(cpf, investimento("CDB A", DIAS)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos", hasSize(0)))
+                .andExpect(jsonPath("$.ate", is(9)))
+                .andExpect(jsonPath("$.rentabilidades", hasSize(2)))
+                .andExpect(jsonPath("$.rentabilidades[0].de", is("04-01-2023")))
+                .andExpect(jsonPath("$.rentabilidades[0].rentabilidadeDiaria[0].montanteAcumuladoDiario", is(1003.00)))
+                .andExpect(jsonPath("$.rentabilidades[1].de", is("31-01-2023")))
+                .andExpect(jsonPath("$.rentabilidades[1].rentabilidadeDiaria", hasSize(0)));
+    }
+
+    @Test
+    void sinceInvalidoOuCompactado() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9018);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB A", DIAS)));
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB A", DIAS), investimento("CDB B", DIAS)));
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "ontem"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", CpfsDeTeste.gerar(9019)))
+                .andExpect(status().isNotFound());
+
+        jdbcTemplate.update("UPDATE ALTERACAO_CARTEIRA SET DATA_REGISTRO = ? WHERE SEQUENCIA <= 2 "
+                        + "AND USUARIO_INVESTIMENTO_ID = (SELECT ID FROM USUARIO_INVESTIMENTO WHERE CPF_IDENTIFICACAO = ?)",
+                LocalDateTime.of(2000, 1, 1, 0, 0), cpf);
+        assertThat(alteracoesCarteira.compactar(LocalDateTime.of(2001, 1, 1, 0, 0))).isEqualTo(2);
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "1"))
+                .andExpect(status().isGone())
+                .andExpect(header().string(AlteracoesCarteira.CABECALHO_SEQUENCIA, "4"));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/changes", cpf).param("since", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos", hasSize(1)))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("CDB B")));
+    }
+
+    private long idInvestimento(String cpf, String nome) {
+        return jdbcTemplate.queryForObject("SELECT i.ID FROM INVESTIMENTO i JOIN USUARIO_INVESTIMENTO u "
+                + "ON u.ID = i.USUARIO_INVESTIMENTO_ID WHERE u.CPF_IDENTIFICACAO = ? AND i.NOME_INVESTIMENTO = ?",
+                Long.class, cpf, nome);
+    }
+}
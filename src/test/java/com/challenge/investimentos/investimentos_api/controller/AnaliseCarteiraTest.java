@@ -0,0 +1,104 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+import java.util.Random;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica a análise de desempenho da carteira pela API: indicadores por investimento
+ * e consolidados, o recorte por período e as respostas de erro.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AnaliseCarteiraTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Test
+    void calculaIndicadoresPorInvestimentoEDaCarteira() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9033);
+        Random aleatorio = new Random(13);
+        InvestimentoDTO cdb = investimento(BancoEnum.NUBANK, TipoInvestimentoEnum.CDB, "CDB", 730, aleatorio);
+        InvestimentoDTO acoes = investimento(BancoEnum.XP_INVESTIMENTOS, TipoInvestimentoEnum.RENDA_VARIAVEL, "Ações", 730, aleatorio);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, List.of(cdb, acoes)));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}/analise", cpf).param("taxaLivreRisco", "0.1075"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taxaLivreRisco", is(0.1075)))
+                .andExpect(jsonPath("$.carteira.observacoes", is(729)))
+                .andExpect(jsonPath("$.carteira.inicio", is("01-01-2023")))
+                .andExpect(jsonPath("$.carteira.fim", is("30-12-2024")))
+                .andExpect(jsonPath("$.investimentos", hasSize(2)))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("CDB")))
+                .andExpect(jsonPath("$.investimentos[0].indicadores.retornoAcumulado", closeTo(retorno(cdb, 0, 729), 1e-9), Double.class))
+                .andExpect(jsonPath("$.investimentos[1].tipoInvestimento", is("RENDA_VARIAVEL")))
+                .andExpect(jsonPath("$.investimentos[1].indicadores.retornoAcumulado", closeTo(retorno(acoes, 0, 729), 1e-9), Double.class))
+                .andExpect(jsonPath("$.investimentos[1].indicadores.volatilidadeAnual", closeTo(0.004 * Math.sqrt(365.25), 0.01), Double.class));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}/analise", cpf)
+                        .param("from", "01-03-2023")
+                        .param("to", "07-03-2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.carteira.observacoes", is(6)))
+                .andExpect(jsonPath("$.investimentos[0].indicadores.inicio", is("01-03-2023")))
+                .andExpect(jsonPath("$.investimentos[0].indicadores.retornoAcumulado", closeTo(retorno(cdb, 59, 65), 1e-9), Double.class));
+    }
+
+    @Test
+    void carteiraVaziaUsuarioInexistenteEParametrosInvalidos() throws Exception {
+        String semInvestimentos = CpfsDeTeste.gerar(9034);
+        usuarioInvestimentoService.criarUsuarioInvestimento(semInvestimentos);
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}/analise", semInvestimentos))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos", hasSize(0)))
+                .andExpect(jsonPath("$.carteira.observacoes", is(0)))
+                .andExpect(jsonPath("$.carteira.retornoAcumulado", nullValue()));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}/analise", CpfsDeTeste.gerar(9035)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}/analise", semInvestimentos).param("taxaLivreRisco", "10.75"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}/analise", semInvestimentos)
+                        .param("from", "10-01-2024")
+                        .param("to", "01-01-2024"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /** Retorno entre dois dias da série, calculado direto sobre os montantes. */
+    private static double retorno(InvestimentoDTO investimento, int de, int ate) {
+        List<RentabilidadeDiariaDTO> serie = investimento.getRentabilidadeDiaria();
+        BigDecimal inicial = serie.get(de).getMontanteAcumuladoDiario();
+        BigDecimal fim = serie.get(ate).getMontanteAcumuladoDiario();
+        return fim.divide(inicial, MathContext.DECIMAL64).subtract(BigDecimal.ONE).doubleValue();
+    }
+}
@@ -0,0 +1,162 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.service.Bulkheads;
+import com.challenge.investimentos.investimentos_api.service.CarteiraAlteradaEvent;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que escritas em lote sem vaga recebem 503 com Retry-After enquanto as
+ * leituras seguem atendidas, que as escritas admitidas usam o pool {@code lote} e
+ * que o trabalho após o commit não disputa esse pool com as próprias escritas.
+ */
+@SpringBootTest(properties = {
+        "investimentos.bulkheads.escrita.concorrencia=2",
+        "investimentos.bulkheads.escrita.fila=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(BulkheadTest.Configuracao.class)
+class BulkheadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EsperaAposCommit esperaAposCommit;
+
+    @Test
+    void escritaSaturadaRecebe503SemAfetarAsLeituras() throws Exception {
+        String lote = "{\"cpfs\":[\"" + CpfsDeTeste.gerar(9028) + "\"]}";
+        bulkheads.entrar(TipoBulkhead.ESCRITA);
+        bulkheads.entrar(TipoBulkhead.ESCRITA);
+        try {
+            mockMvc.perform(post("/api/usuario-investimentos/lote")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(lote))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+            mockMvc.perform(get("/api/usuario-investimentos/{cpf}", CpfsDeTeste.gerar(9028)))
+                    .andExpect(status().isNotFound());
+        } finally {
+            bulkheads.sair(TipoBulkhead.ESCRITA);
+            bulkheads.sair(TipoBulkhead.ESCRITA);
+        }
+
+        mockMvc.perform(post("/api/usuario-investimentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(lote))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/bulkheads"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.nome == 'escrita')].rejeitadas", contains(1)))
+                .andExpect(jsonPath("$[?(@.nome == 'escrita')].emUso", contains(0)))
+                .andExpect(jsonPath("$[?(@.nome == 'leitura')].admitidas", hasItem(greaterThanOrEqualTo(1))));
+        mockMvc.perform(get("/api/datasource/pools"))
+                .andExpect(jsonPath("$.pools[?(@.nome == 'lote')].total", hasItem(greaterThanOrEqualTo(1))));
+    }
+
+    @Test
+    void escritasQueOcupamTodasAsVagasMantemOIndiceEmDia() throws Exception {
+        List<String> cpfs = List.of(CpfsDeTeste.gerar(9036), CpfsDeTeste.gerar(9037));
+        cpfs.forEach(usuarioInvestimentoService::criarUsuarioInvestimento);
+
+        // as duas escritas só seguem do pós-commit juntas, cada uma ainda com a sua conexão do pool lote
+        CyclicBarrier barreira = new CyclicBarrier(cpfs.size());
+        esperaAposCommit.barreira = barreira;
+        try {
+            List<CompletableFuture<Integer>> escritas = cpfs.stream()
+                    .map(cpf -> CompletableFuture.supplyAsync(() -> salvar(cpf)))
+                    .toList();
+            for (CompletableFuture<Integer> escrita : escritas) {
+                assertThat(escrita.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            esperaAposCommit.barreira = null;
+        }
+        assertThat(barreira.isBroken()).as("escritas simultâneas no pós-commit").isFalse();
+
+        mockMvc.perform(get("/api/indice/usuarios").param("q", "nome:\"Bulkhead 9036\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpfs", containsInAnyOrder(cpfs.toArray())));
+    }
+
+    private int salvar(String cpf) {
+        try {
+            byte[] corpo = objectMapper.writeValueAsBytes(carteira(cpf, List.of(
+                    investimento(BancoEnum.INTER, TipoInvestimentoEnum.CDB, "Bulkhead 9036", 2, new Random(1)))));
+            return mockMvc.perform(put("/api/investimentos").contentType(MediaType.APPLICATION_JSON).content(corpo))
+                    .andReturn().getResponse().getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class Configuracao {
+        @Bean
+        EsperaAposCommit esperaAposCommit() {
+            return new EsperaAposCommit();
+        }
+    }
+
+    /** Segura cada escrita no pós-commit, antes dos ouvintes da aplicação, até todas chegarem. */
+    static class EsperaAposCommit {
+        volatile CyclicBarrier barreira;
+
+        @TransactionalEventListener
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public void aoAlterarCarteira(CarteiraAlteradaEvent evento) throws Exception {
+            CyclicBarrier atual = barreira;
+            if (atual != null) atual.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
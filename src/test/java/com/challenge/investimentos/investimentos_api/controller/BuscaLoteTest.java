@@ -0,0 +1,147 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.BuscaLoteDTO;
+import com.challenge.investimentos.investimentos_api.service.InvestimentoService;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica a busca em lote: usuários na ordem dos CPFs enviados, CPFs não
+ * encontrados à parte e quantidade de consultas proporcional aos trechos da lista IN.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class BuscaLoteTest {
+
+    private static final int USUARIOS = 2500;
+    private static final long BASE = 730_000;
+    private static final int DIAS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Test
+    void devolveOsUsuariosNaOrdemPedidaEmConsultasPorTrecho() throws Exception {
+        List<String> cadastrados = new ArrayList<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            cadastrados.add(CpfsDeTeste.gerar(BASE + i));
+        }
+        usuarioInvestimentoService.cadastrarEmLote(cadastrados);
+        String comCarteira = CpfsDeTeste.gerar(9023);
+        String outraCarteira = CpfsDeTeste.gerar(9024);
+        criarCarteira(comCarteira, "CDB Inter 2025");
+        criarCarteira(outraCarteira, "LCI Inter 2026");
+        String inexistente = CpfsDeTeste.gerar(9025);
+
+        List<String> cpfs = new ArrayList<>();
+        cpfs.add(outraCarteira.substring(0, 3) + "." + outraCarteira.substring(3, 6) + "."
+                + outraCarteira.substring(6, 9) + "-" + outraCarteira.substring(9));
+        cpfs.addAll(cadastrados);
+        cpfs.add("11111111111");
+        cpfs.add(inexistente);
+        cpfs.add(comCarteira);
+        cpfs.add(outraCarteira);
+        BuscaLoteDTO busca = new BuscaLoteDTO();
+        busca.setCpfs(cpfs);
+
+        contador.zerar();
+        mockMvc.perform(post("/api/usuario-investimentos/busca")
+                        .param("from", "03-01-2023")
+                        .param("to", "05-01-2023")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(busca)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuarios", hasSize(USUARIOS + 3)))
+                .andExpect(jsonPath("$.usuarios[0].cpfIdentificacao", is(outraCarteira)))
+                .andExpect(jsonPath("$.usuarios[0].investimentos[0].nomeInvestimento", is("LCI Inter 2026")))
+                .andExpect(jsonPath("$.usuarios[0].investimentos[0].rentabilidadeDiaria", hasSize(3)))
+                .andExpect(jsonPath("$.usuarios[1].cpfIdentificacao", is(cadastrados.get(0))))
+                .andExpect(jsonPath("$.usuarios[1].investimentos", hasSize(0)))
+                .andExpect(jsonPath("$.usuarios[" + USUARIOS + "].cpfIdentificacao", is(cadastrados.get(USUARIOS - 1))))
+                .andExpect(jsonPath("$.usuarios[" + (USUARIOS + 1) + "].investimentos[0].nomeInvestimento", is("CDB Inter 2025")))
+                .andExpect(jsonPath("$.usuarios[" + (USUARIOS + 2) + "].cpfIdentificacao", is(outraCarteira)))
+                .andExpect(jsonPath("$.naoEncontrados", hasSize(2)))
+                .andExpect(jsonPath("$.naoEncontrados[0]", is("11111111111")))
+                .andExpect(jsonPath("$.naoEncontrados[1]", is(inexistente)));
+        // 2503 CPFs distintos = 3 trechos; usuários, investimentos e série por trecho
+        assertThat(contador.total()).isLessThanOrEqualTo(3 * 3);
+
+        busca.setCpfs(List.of(comCarteira));
+        mockMvc.perform(post("/api/usuario-investimentos/busca")
+                        .param("fields", "nomeInvestimento")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(busca)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuarios[0].investimentos[0].nomeInvestimento", is("CDB Inter 2025")))
+                .andExpect(jsonPath("$.usuarios[0].investimentos[0].nomeBanco").doesNotExist())
+                .andExpect(jsonPath("$.usuarios[0].investimentos[0].rentabilidadeDiaria").doesNotExist());
+    }
+
+    @Test
+    void listaVaziaAcimaDoLimiteOuPeriodoInvertidoERejeitado() throws Exception {
+        mockMvc.perform(post("/api/usuario-investimentos/busca")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cpfs\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        List<String> cpfs = new ArrayList<>();
+        for (int i = 0; i <= BuscaLoteDTO.MAXIMO_CPFS; i++) {
+            cpfs.add("0");
+        }
+        BuscaLoteDTO busca = new BuscaLoteDTO();
+        busca.setCpfs(cpfs);
+        mockMvc.perform(post("/api/usuario-investimentos/busca")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(busca)))
+                .andExpect(status().isBadRequest());
+
+        busca.setCpfs(List.of(CpfsDeTeste.gerar(9023)));
+        mockMvc.perform(post("/api/usuario-investimentos/busca")
+                        .param("from", "10-01-2024")
+                        .param("to", "01-01-2024")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(busca)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void criarCarteira(String cpf, String nomeInvestimento) {
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento(nomeInvestimento, DIAS)));
+    }
+}
@@ -0,0 +1,121 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.CadastroLoteDTO;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica o cadastro em lote: situação de cada CPF, inserção em batches com IDs
+ * da sequence pooled e quantidade de idas ao banco proporcional aos lotes, não aos CPFs.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class CadastroLoteTest {
+
+    private static final int NOVOS = 2500;
+    private static final long BASE = 720_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cadastraOsNovosEInformaASituacaoDeCadaCpf() throws Exception {
+        String existente = CpfsDeTeste.gerar(9022);
+        usuarioInvestimentoService.criarUsuarioInvestimento(existente);
+
+        List<String> cpfs = new ArrayList<>();
+        for (int i = 0; i < NOVOS; i++) {
+            cpfs.add(CpfsDeTeste.gerar(BASE + i));
+        }
+        String primeiro = cpfs.get(0);
+        cpfs.add(existente);
+        cpfs.add("11111111111");
+        cpfs.add(primeiro.substring(0, 3) + "." + primeiro.substring(3, 6) + "." + primeiro.substring(6, 9)
+                + "-" + primeiro.substring(9));
+        cpfs.add(null);
+        CadastroLoteDTO lote = new CadastroLoteDTO();
+        lote.setCpfs(cpfs);
+
+        contador.zerar();
+        mockMvc.perform(post("/api/usuario-investimentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criados", is(NOVOS)))
+                .andExpect(jsonPath("$.existentes", is(1)))
+                .andExpect(jsonPath("$.invalidos", is(2)))
+                .andExpect(jsonPath("$.repetidos", is(1)))
+                .andExpect(jsonPath("$.resultados", hasSize(NOVOS + 4)))
+                .andExpect(jsonPath("$.resultados[0].situacao", is("CRIADO")))
+                .andExpect(jsonPath("$.resultados[" + NOVOS + "].situacao", is("EXISTENTE")))
+                .andExpect(jsonPath("$.resultados[" + (NOVOS + 1) + "].situacao", is("INVALIDO")))
+                .andExpect(jsonPath("$.resultados[" + (NOVOS + 2) + "].situacao", is("REPETIDO")))
+                .andExpect(jsonPath("$.resultados[" + (NOVOS + 3) + "].situacao", is("INVALIDO")));
+        // 3 consultas IN + NEXTVAL e executeBatch a cada 50 usuários
+        assertThat(contador.total()).isLessThanOrEqualTo(3 + 2 * (NOVOS / 50) + 2);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USUARIO_INVESTIMENTO WHERE CPF_IDENTIFICACAO IN (?, ?)",
+                Integer.class, primeiro, CpfsDeTeste.gerar(BASE + NOVOS - 1))).isEqualTo(2);
+
+        mockMvc.perform(post("/api/usuario-investimentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criados", is(0)))
+                .andExpect(jsonPath("$.existentes", is(NOVOS + 1)));
+    }
+
+    @Test
+    void listaVaziaOuAcimaDoLimiteERejeitada() throws Exception {
+        mockMvc.perform(post("/api/usuario-investimentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cpfs\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        List<String> cpfs = new ArrayList<>();
+        for (int i = 0; i <= CadastroLoteDTO.MAXIMO_CPFS; i++) {
+            cpfs.add("0");
+        }
+        CadastroLoteDTO lote = new CadastroLoteDTO();
+        lote.setCpfs(cpfs);
+        mockMvc.perform(post("/api/usuario-investimentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,85 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Garante que os endpoints de leitura executam um número fixo de consultas SQL,
+ * independente do tamanho da carteira (sem N+1).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class ConsultasPorEndpointTest {
+
+    private static final String CPF = CpfsDeTeste.gerar(2002);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @ParameterizedTest(name = "{0} executa {1} consulta(s)")
+    @CsvSource({
+            "/api/investimentos, 2",
+            "/api/usuario-investimentos, 3",
+            "/api/usuario-investimentos/{cpf}, 2",
+            "/api/investimentos/usuario/{cpf}, 2",
+            "/api/bancos/{cpf}, 1",
+            "/api/tipos-investimento/{cpf}, 1"
+    })
+    void quantidadeDeConsultasNaoDependeDoTamanhoDaCarteira(String endpoint, long esperado) throws Exception {
+        String url = endpoint.replace("{cpf}", CPF);
+        usuarioInvestimentoService.criarUsuarioInvestimento(CPF);
+
+        usuarioInvestimentoService.salvarInvestimentos(carteira(1, 2));
+        long carteiraPequena = consultas(url);
+
+        usuarioInvestimentoService.salvarInvestimentos(carteira(15, 40));
+        long carteiraGrande = consultas(url);
+
+        assertThat(carteiraPequena).isEqualTo(esperado);
+        assertThat(carteiraGrande).isEqualTo(esperado);
+    }
+
+    private long consultas(String url) throws Exception {
+        contador.zerar();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return contador.total();
+    }
+
+    private static UsuarioInvestimentoDTO carteira(int investimentos, int dias) {
+        List<InvestimentoDTO> lista = new ArrayList<>();
+        for (int i = 0; i < investimentos; i++) {
+            lista.add(i % 2 == 0
+                    ? investimento("Nubank", "CDB", "Investimento " + i, dias)
+                    : investimento("Itaú", "LCI", "Investimento " + i, dias));
+        }
+        return CarteirasDeTeste.carteira(CPF, lista);
+    }
+}
@@ -0,0 +1,168 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.service.InvestimentoService;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.dia;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica as ETags por versão: 304 para {@code If-None-Match} sem carregar a carteira,
+ * troca da ETag a cada escrita (inclusive só na série diária) e 412 para {@code If-Match} antigo.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class EtagCarteiraTest {
+
+    private static final int DIAS = 30;
+    private static final String NOME = "CDB Inter 2025";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ifNoneMatchRespondeNaoModificadoAteAProximaEscrita() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9014);
+        long id = criarInvestimentoComHistorico(cpf);
+
+        String etag = etag(mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+
+        contador.zerar();
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        assertThat(contador.total()).isZero();
+
+        String etagSemSerie = etag(mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf).param("include", ""))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        assertThat(etagSemSerie).isNotEqualTo(etag);
+        contador.zerar();
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf).param("include", "")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/" + etagSemSerie))
+                .andExpect(status().isNotModified());
+        assertThat(contador.total()).isEqualTo(1);
+
+        String etagSerie = etag(mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        contador.zerar();
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", id).header(HttpHeaders.IF_NONE_MATCH, etagSerie))
+                .andExpect(status().isNotModified());
+        assertThat(contador.total()).isEqualTo(1);
+
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dia(DIAS)))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf).param("include", "")
+                        .header(HttpHeaders.IF_NONE_MATCH, etagSemSerie))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", id).header(HttpHeaders.IF_NONE_MATCH, etagSerie))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", CpfsDeTeste.gerar(9015))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void ifMatchAntigoRecusaAGravacao() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9016);
+        long id = criarInvestimentoComHistorico(cpf);
+
+        String etagSerie = mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        InvestimentoDTO alterado = investimento(NOME, DIAS);
+        alterado.setNomeBanco("Itaú");
+        mockMvc.perform(put("/api/investimentos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, etagSerie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(alterado)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/investimentos/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, etagSerie)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(investimento(NOME, DIAS))))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(jdbcTemplate.queryForObject("SELECT NOME_BANCO FROM INVESTIMENTO WHERE ID = ?", String.class, id))
+                .isEqualTo("Itaú");
+
+        String etagAntiga = mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dia(DIAS)))))
+                .andExpect(status().isOk());
+        String etagAtual = mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etagAtual).isNotEqualTo(etagAntiga);
+
+        mockMvc.perform(put("/api/usuario-investimentos")
+                        .header(HttpHeaders.IF_MATCH, etagAntiga)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carteira(cpf, investimento(NOME, DIAS)))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, etagAtual));
+        mockMvc.perform(put("/api/usuario-investimentos")
+                        .header(HttpHeaders.IF_MATCH, etagAtual)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carteira(cpf, investimento(NOME, DIAS)))))
+                .andExpect(status().isOk());
+    }
+
+    private static String etag(String valor) {
+        assertThat(valor).isNotBlank();
+        return valor;
+    }
+
+    private long criarInvestimentoComHistorico(String cpf) {
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento(NOME, DIAS)));
+        return jdbcTemplate.queryForObject("SELECT i.ID FROM INVESTIMENTO i JOIN USUARIO_INVESTIMENTO u "
+                + "ON u.ID = i.USUARIO_INVESTIMENTO_ID WHERE u.CPF_IDENTIFICACAO = ?", Long.class, cpf);
+    }
+}
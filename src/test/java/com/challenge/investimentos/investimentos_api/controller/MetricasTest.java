@@ -0,0 +1,77 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que {@code /actuator/prometheus} publica a latência por endpoint e por
+ * método de serviço, o trabalho do Hibernate por requisição, os pools Hikari e os
+ * contadores de negócio das escritas confirmadas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void scrapePrometheusTrazMetricasDeEndpointsServicosHibernateEPools() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9029);
+        mockMvc.perform(post("/api/usuario-investimentos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cpfs\":[\"" + cpf + "\"]}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/usuario-investimentos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(carteira(cpf, investimento("CDB Metricas", 2)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(status().isOk());
+
+        String metricas = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(metricas)
+                .contains("http_server_requests_seconds_bucket{")
+                .containsPattern("http_server_requests_seconds_count\\{[^}]*uri=\"/api/usuario-investimentos/\\{cpf}\"")
+                .containsPattern("investimentos_servico_seconds_bucket\\{[^}]*class=\"[\\w.]+UsuarioInvestimentoService\"[^}]*method=\"buscarPorCpf\"")
+                .containsPattern("investimentos_servico_seconds_count\\{[^}]*class=\"[\\w.]+InvestimentoService\"[^}]*method=\"salvarInvestimentos\"")
+                .containsPattern("investimentos_requisicao_sql_comandos_count\\{method=\"GET\",uri=\"/api/usuario-investimentos/\\{cpf}\"} 1")
+                .containsPattern("investimentos_requisicao_sql_lotes_sum\\{method=\"PUT\",uri=\"/api/usuario-investimentos\"} [1-9]")
+                .containsPattern("investimentos_requisicao_flushes_sum\\{method=\"PUT\",uri=\"/api/usuario-investimentos\"} [1-9]")
+                .contains("investimentos_requisicao_entidades_carregadas_count{")
+                .contains("hibernate_statements_total{")
+                .contains("hibernate_entities_loads_total{")
+                .contains("hibernate_flushes_total{")
+                .containsPattern("hikaricp_connections_active\\{pool=\"primaria\"}")
+                .contains("investimentos_usuarios_cadastrados_total 1.0")
+                .contains("investimentos_investimentos_escritos_total{operacao=\"insercao\"} 1.0")
+                .contains("investimentos_rentabilidades_escritas_total{operacao=\"insercao\"} 2.0")
+                .contains("investimentos_bulkhead_requisicoes_total{bulkhead=\"escrita\",resultado=\"admitida\"} 2.0")
+                .contains("investimentos_cache_carteiras_acessos_total{resultado=\"falta\"} 1.0");
+    }
+}
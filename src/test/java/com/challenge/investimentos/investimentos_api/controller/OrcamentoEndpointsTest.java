@@ -0,0 +1,292 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorSql;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.dia;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.umPorBanco;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Orçamento de comandos SQL e de bytes alocados por requisição para cada endpoint
+ * dos controllers.
+ *
+ * Os limites ficam em {@code src/test/resources/orcamentos-endpoints.csv}, uma linha
+ * por método e caminho. Um endpoint novo sem linha no arquivo, ou uma mudança que faça
+ * um endpoint passar do seu limite (um N+1, um mapeamento que carrega a série inteira),
+ * quebra o build. Os comandos são contados pelo {@link ContadorSql}; a alocação é a da
+ * thread da requisição, medida na segunda chamada para não contar carga de classes.
+ * O corpo de respostas assíncronas (exportação) é escrito em outra thread: seus
+ * comandos entram na conta, a alocação não.
+ *
+ * A carteira de referência tem um investimento por banco, com dois anos de série
+ * diária, e divide a base (própria deste teste) com 30 carteiras menores.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orcamentos;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.jdbc-url=jdbc:h2:mem:orcamentos;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "investimentos.cache.carteiras.limite-bytes=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorSql.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrcamentoEndpointsTest {
+
+    private static final String ORCAMENTOS = "orcamentos-endpoints.csv";
+    private static final String PACOTE_CONTROLLERS = OrcamentoEndpointsTest.class.getPackageName();
+
+    private static final String CPF = CpfsDeTeste.gerar(9030);
+    private static final String CPF_ESCRITA = CpfsDeTeste.gerar(9031);
+    private static final int OUTRAS_CARTEIRAS = 30;
+    private static final int BASE_OUTRAS = 740_000;
+    private static final int DIAS = 730;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadorSql contador;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping mapeamentos;
+
+    private final AtomicLong proximoCpf = new AtomicLong(BASE_OUTRAS + OUTRAS_CARTEIRAS);
+    private final AtomicLong proximoDia = new AtomicLong(DIAS);
+    private final Map<String, Supplier<MockHttpServletRequestBuilder>> requisicoes = new HashMap<>();
+
+    @BeforeAll
+    void semear() throws Exception {
+        Random aleatorio = new Random(21);
+        salvar(CPF, umPorBanco(CPF, DIAS, aleatorio).getDataUsuarioInvestimentos());
+
+        List<String> outras = IntStream.range(0, OUTRAS_CARTEIRAS).mapToObj(i -> CpfsDeTeste.gerar(BASE_OUTRAS + i)).toList();
+        usuarioInvestimentoService.cadastrarEmLote(outras);
+        for (int i = 0; i < OUTRAS_CARTEIRAS; i++) {
+            List<InvestimentoDTO> menor = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                BancoEnum banco = BancoEnum.values()[aleatorio.nextInt(BancoEnum.values().length)];
+                TipoInvestimentoEnum tipo = TipoInvestimentoEnum.values()[aleatorio.nextInt(TipoInvestimentoEnum.values().length)];
+                menor.add(investimento(banco, tipo, "Carteira " + i + "." + j, 90, aleatorio));
+            }
+            usuarioInvestimentoService.salvarInvestimentos(carteira(outras.get(i), menor));
+        }
+        salvar(CPF_ESCRITA, List.of(investimento(BancoEnum.INTER, TipoInvestimentoEnum.LCA, "Série crescente", DIAS, aleatorio)));
+
+        long investimentoLido = investimentos(CPF).get(0);
+        long investimentoEscrito = investimentos(CPF_ESCRITA).get(0);
+
+        requisicoes.put("GET /api/bancos/{cpf}", () -> get("/api/bancos/{cpf}", CPF));
+        requisicoes.put("GET /api/tipos-investimento/{cpf}", () -> get("/api/tipos-investimento/{cpf}", CPF));
+        requisicoes.put("GET /api/indice/usuarios", () -> get("/api/indice/usuarios").param("q", "tipo:CDB OR banco:Nubank"));
+        requisicoes.put("GET /api/bulkheads", () -> get("/api/bulkheads"));
+        requisicoes.put("GET /api/cache/carteiras", () -> get("/api/cache/carteiras"));
+        requisicoes.put("GET /api/datasource/pools", () -> get("/api/datasource/pools"));
+
+        requisicoes.put("GET /api/investimentos", () -> get("/api/investimentos"));
+        requisicoes.put("GET /api/investimentos/exportacao", () -> get("/api/investimentos/exportacao"));
+        requisicoes.put("GET /api/investimentos/usuario/{cpf}", () -> get("/api/investimentos/usuario/{cpf}", CPF));
+        requisicoes.put("GET /api/investimentos/usuario/{cpf}/analise",
+                () -> get("/api/investimentos/usuario/{cpf}/analise", CPF).param("taxaLivreRisco", "0.1075"));
+        requisicoes.put("GET /api/investimentos/{id}/rentabilidade",
+                () -> get("/api/investimentos/{id}/rentabilidade", investimentoLido));
+        requisicoes.put("POST /api/investimentos", () -> json(post("/api/investimentos"),
+                carteira(novoUsuario(List.of()), List.of(investimento(BancoEnum.XP_INVESTIMENTOS,
+                        TipoInvestimentoEnum.RENDA_VARIAVEL, "Ações", 30, aleatorio)))));
+        requisicoes.put("PUT /api/investimentos", () -> json(put("/api/investimentos"),
+                carteira(novoUsuario(List.of()), List.of(investimento(BancoEnum.C6_BANK,
+                        TipoInvestimentoEnum.CDB, "CDB", 30, aleatorio)))));
+        requisicoes.put("PUT /api/investimentos/{id}", () -> {
+            List<InvestimentoDTO> uma = List.of(investimento(BancoEnum.CAIXA, TipoInvestimentoEnum.LCI, "LCI", 365, aleatorio));
+            String cpf = novoUsuario(uma);
+            InvestimentoDTO alterado = uma.get(0);
+            alterado.getRentabilidadeDiaria().get(200).setMontanteAcumuladoDiario(new BigDecimal("1.00"));
+            return json(put("/api/investimentos/{id}", investimentos(cpf).get(0)), alterado);
+        });
+        requisicoes.put("PATCH /api/investimentos/{id}/rentabilidade", () -> json(
+                patch("/api/investimentos/{id}/rentabilidade", investimentoEscrito),
+                List.of(dia((int) proximoDia.getAndIncrement(), new BigDecimal("2000.00")))));
+        requisicoes.put("DELETE /api/investimentos/{id}", () -> {
+            String cpf = novoUsuario(List.of(investimento(BancoEnum.SANTANDER, TipoInvestimentoEnum.OUTRO, "Outro", 365, aleatorio)));
+            return delete("/api/investimentos/{id}", investimentos(cpf).get(0));
+        });
+
+        requisicoes.put("GET /api/usuario-investimentos", () -> get("/api/usuario-investimentos"));
+        requisicoes.put("GET /api/usuario-investimentos/{cpf}", () -> get("/api/usuario-investimentos/{cpf}", CPF));
+        requisicoes.put("GET /api/usuario-investimentos/{cpf}/changes",
+                () -> get("/api/usuario-investimentos/{cpf}/changes", CPF).param("since", "0"));
+        requisicoes.put("GET /api/usuario-investimentos/{cpf}/eventos", () -> get("/api/usuario-investimentos/{cpf}/eventos", CPF));
+        requisicoes.put("POST /api/usuario-investimentos/busca", () -> json(post("/api/usuario-investimentos/busca"),
+                Map.of("cpfs", IntStream.range(0, OUTRAS_CARTEIRAS).mapToObj(i -> CpfsDeTeste.gerar(BASE_OUTRAS + i)).toList())));
+        requisicoes.put("POST /api/usuario-investimentos", () -> json(post("/api/usuario-investimentos"),
+                Map.of("cpfIdentificacao", CpfsDeTeste.gerar(proximoCpf.getAndIncrement()))));
+        requisicoes.put("POST /api/usuario-investimentos/lote", () -> json(post("/api/usuario-investimentos/lote"),
+                Map.of("cpfs", IntStream.range(0, 100).mapToObj(i -> CpfsDeTeste.gerar(proximoCpf.getAndIncrement())).toList())));
+        requisicoes.put("PUT /api/usuario-investimentos", () -> {
+            List<InvestimentoDTO> cinco = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                cinco.add(investimento(BancoEnum.values()[i], TipoInvestimentoEnum.values()[i], "Sincronizado " + i, 365, aleatorio));
+            }
+            String cpf = novoUsuario(cinco);
+            cinco.get(2).getRentabilidadeDiaria().get(100).setMontanteAcumuladoDiario(new BigDecimal("1.00"));
+            return json(put("/api/usuario-investimentos"), carteira(cpf, cinco));
+        });
+        requisicoes.put("DELETE /api/usuario-investimentos/{cpf}", () -> delete("/api/usuario-investimentos/{cpf}",
+                novoUsuario(List.of(investimento(BancoEnum.BRADESCO, TipoInvestimentoEnum.TESOURO_DIRETO, "Tesouro", 365, aleatorio)))));
+    }
+
+    @Test
+    void todoEndpointDosControllersTemOrcamento() throws IOException {
+        Set<String> endpoints = new TreeSet<>();
+        mapeamentos.getHandlerMethods().forEach((info, metodo) -> {
+            if (!metodo.getBeanType().getPackageName().equals(PACOTE_CONTROLLERS)) return;
+            info.getMethodsCondition().getMethods().forEach(http ->
+                    info.getPatternValues().forEach(caminho -> endpoints.add(http + " " + caminho)));
+        });
+
+        assertThat(orcados()).as("linhas de " + ORCAMENTOS).containsExactlyInAnyOrderElementsOf(endpoints);
+        assertThat(requisicoes.keySet()).as("requisições de exemplo").containsExactlyInAnyOrderElementsOf(endpoints);
+    }
+
+    @ParameterizedTest(name = "{0}: até {1} comandos SQL e {2} KiB")
+    @CsvFileSource(resources = "/" + ORCAMENTOS, numLinesToSkip = 1)
+    void endpointRespeitaOOrcamento(String endpoint, int comandosMaximos, long kibMaximos) throws Exception {
+        Supplier<MockHttpServletRequestBuilder> requisicao = requisicoes.get(endpoint);
+        assertThat(requisicao).as("requisição de exemplo para " + endpoint).isNotNull();
+        executar(requisicao.get());
+
+        MockHttpServletRequestBuilder medida = requisicao.get();
+        contador.zerar();
+        long antes = alocados();
+        executar(medida);
+        long kib = (alocados() - antes) / 1024;
+        List<String> comandos = contador.comandos();
+
+        assertThat(comandos.size())
+                .as("%s executou %d comandos SQL (orçamento %d):%n%s", endpoint, comandos.size(), comandosMaximos,
+                        String.join(System.lineSeparator(), comandos))
+                .isLessThanOrEqualTo(comandosMaximos);
+        assertThat(kib)
+                .as("%s alocou %d KiB (orçamento %d KiB)", endpoint, kib, kibMaximos)
+                .isLessThanOrEqualTo(kibMaximos);
+    }
+
+    private void executar(MockHttpServletRequestBuilder requisicao) throws Exception {
+        MvcResult resultado = mockMvc.perform(requisicao).andReturn();
+        if (resultado.getRequest().isAsyncStarted() && !eventos(resultado.getHandler())) {
+            resultado = mockMvc.perform(asyncDispatch(resultado)).andReturn();
+        }
+        assertThat(resultado.getResponse().getStatus())
+                .as("%s %s: %s", resultado.getRequest().getMethod(), resultado.getRequest().getRequestURI(),
+                        resultado.getResponse().getContentAsString())
+                .isBetween(200, 299);
+    }
+
+    /** Conexões SSE ficam abertas: não há resultado assíncrono a esperar. */
+    private static boolean eventos(Object handler) {
+        if (!(handler instanceof HandlerMethod metodo)) return false;
+        RequestMapping mapeamento = AnnotatedElementUtils.findMergedAnnotation(metodo.getMethod(), RequestMapping.class);
+        return mapeamento != null && List.of(mapeamento.produces()).contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private static long alocados() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static Set<String> orcados() throws IOException {
+        return Files.readAllLines(new ClassPathResource(ORCAMENTOS).getFile().toPath(), StandardCharsets.UTF_8).stream()
+                .skip(1)
+                .filter(linha -> !linha.isBlank() && !linha.startsWith("#"))
+                .map(linha -> linha.substring(0, linha.indexOf(',')).trim())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder requisicao, Object corpo) {
+        try {
+            return requisicao.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(corpo));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Cadastra um usuário novo com a carteira informada (fora da medição) e devolve o CPF. */
+    private String novoUsuario(List<InvestimentoDTO> investimentos) {
+        String cpf = CpfsDeTeste.gerar(proximoCpf.getAndIncrement());
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        if (!investimentos.isEmpty()) {
+            usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimentos));
+        }
+        return cpf;
+    }
+
+    private void salvar(String cpf, List<InvestimentoDTO> investimentos) {
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimentos));
+    }
+
+    private List<Long> investimentos(String cpf) {
+        return jdbcTemplate.queryForList("SELECT i.ID FROM INVESTIMENTO i JOIN USUARIO_INVESTIMENTO u "
+                + "ON u.ID = i.USUARIO_INVESTIMENTO_ID WHERE u.CPF_IDENTIFICACAO = ? ORDER BY i.ID", Long.class, cpf);
+    }
+}
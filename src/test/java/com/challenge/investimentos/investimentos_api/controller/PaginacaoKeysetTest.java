@@ -0,0 +1,72 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.service.PaginacaoKeyset;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Percorre a listagem de usuários página a página pelo cursor e verifica que
+ * todos os registros aparecem uma única vez.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaginacaoKeysetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void cursorPercorreTodosOsUsuariosSemRepetir() throws Exception {
+        List<String> criados = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String cpf = CpfsDeTeste.gerar(3000 + i);
+            usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+            criados.add(cpf);
+        }
+
+        List<String> vistos = new ArrayList<>();
+        String cursor = null;
+        do {
+            MvcResult resultado = mockMvc.perform(get("/api/usuario-investimentos")
+                            .param("limite", "2")
+                            .param("cursor", cursor != null ? cursor : ""))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode pagina = objectMapper.readTree(resultado.getResponse().getContentAsString());
+            assertThat(pagina.size()).isLessThanOrEqualTo(2);
+            pagina.forEach(usuario -> vistos.add(usuario.get("cpfIdentificacao").asText()));
+            cursor = resultado.getResponse().getHeader(PaginacaoKeyset.CABECALHO_PROXIMO_CURSOR);
+        } while (cursor != null);
+
+        assertThat(vistos).doesNotHaveDuplicates().containsAll(criados);
+    }
+
+    @Test
+    void cursorInvalidoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/investimentos").param("cursor", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
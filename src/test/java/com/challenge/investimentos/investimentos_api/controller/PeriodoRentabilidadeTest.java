@@ -0,0 +1,109 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.service.InvestimentoService;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica as consultas por período (from/to) da série de rentabilidades diárias:
+ * só os dias da janela são lidos e devolvidos, em número fixo de consultas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class PeriodoRentabilidadeTest {
+
+    private static final int DIAS = 365;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void consultasPorPeriodoDevolvemSomenteOsDiasDaJanela() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9009);
+        long id = criarInvestimentoComHistorico(cpf);
+
+        contador.zerar();
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf)
+                        .param("from", "01-03-2023")
+                        .param("to", "07-03-2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos", hasSize(1)))
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria", hasSize(7)))
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria[0].dataRentabilidadeDiaria", is("01-03-2023")))
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria[6].dataRentabilidadeDiaria", is("07-03-2023")));
+        assertThat(contador.total()).isLessThanOrEqualTo(2);
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf).param("from", "26-12-2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rentabilidadeDiaria", hasSize(6)));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].rentabilidadeDiaria", hasSize(DIAS)));
+
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", id).param("to", "03-01-2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[2].dataRentabilidadeDiaria", is("03-01-2023")));
+
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", id)
+                        .param("from", "01-01-2030")
+                        .param("to", "31-12-2030"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void periodoInvalidoOuRecursoInexistente() throws Exception {
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", 1L)
+                        .param("from", "10-01-2024")
+                        .param("to", "01-01-2024"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", 1L).param("from", "ontem"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/investimentos/{id}/rentabilidade", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", CpfsDeTeste.gerar(9010)).param("from", "01-01-2024"))
+                .andExpect(status().isNotFound());
+    }
+
+    private long criarInvestimentoComHistorico(String cpf) {
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Inter 2025", DIAS)));
+        return jdbcTemplate.queryForObject("SELECT i.ID FROM INVESTIMENTO i JOIN USUARIO_INVESTIMENTO u "
+                + "ON u.ID = i.USUARIO_INVESTIMENTO_ID WHERE u.CPF_IDENTIFICACAO = ?", Long.class, cpf);
+    }
+}
@@ -0,0 +1,174 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaProjecao;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.service.InvestimentoService;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.INICIO;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.dia;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica o upsert por data da série de rentabilidades: o PATCH toca só os dias
+ * enviados com custo independente do tamanho do histórico, e o PUT do investimento
+ * preserva as linhas cujos valores não mudaram. Um dia retroativo aparece na ordem das
+ * datas também nas leituras em lote.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class RentabilidadeUpsertTest {
+
+    private static final int DIAS = 365;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InvestimentoRepository investimentoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void patchAcrescentaOuCorrigeSomenteOsDiasEnviados() throws Exception {
+        long id = criarInvestimentoComHistorico(8008);
+
+        contador.zerar();
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dia(DIAS, new BigDecimal("2000.00"))))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UsuarioInvestimentoService.CABECALHO_LINHAS_ALTERADAS, "1"));
+        // inclui o INSERT no log de alterações (ALTERACAO_CARTEIRA), gravado na mesma transação, e um
+        // NEXTVAL se o bloco de IDs da sequence acabar nesta escrita (depende dos testes que rodaram antes)
+        assertThat(contador.total()).isLessThanOrEqualTo(8);
+        assertThat(serie(id)).hasSize(DIAS + 1);
+
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dia(DIAS, new BigDecimal("2000.00")), dia(3, new BigDecimal("1234.56"))))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UsuarioInvestimentoService.CABECALHO_LINHAS_ALTERADAS, "1"));
+        assertThat(serie(id)).hasSize(DIAS + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT MONTANTE_ACUMULADO_DIARIO FROM RENTABILIDADE_DIARIA_TABLE "
+                        + "WHERE INVESTIMENTO_ID = ? AND DATA_RENTABILIDADE_DIARIA = ?", BigDecimal.class, id, INICIO.plusDays(3)))
+                .isEqualByComparingTo("1234.56");
+
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", Long.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dia(0, new BigDecimal("1.00"))))))
+                .andExpect(status().isNotFound());
+        RentabilidadeDiariaDTO dataInvalida = dia(0, new BigDecimal("1.00"));
+        dataInvalida.setDataRentabilidadeDiaria("2024-01-01");
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dataInvalida))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void putDoInvestimentoMesclaASeriePorData() throws Exception {
+        long id = criarInvestimentoComHistorico(8009);
+        List<Long> idsAntes = serie(id);
+
+        InvestimentoDTO dto = investimento("CDB Liquidez Diária", DIAS);
+        dto.getRentabilidadeDiaria().remove(0);
+        dto.getRentabilidadeDiaria().get(0).setMontanteAcumuladoDiario(new BigDecimal("42.00"));
+        mockMvc.perform(put("/api/investimentos/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        List<Long> idsDepois = serie(id);
+        assertThat(idsDepois).hasSize(DIAS - 1);
+        assertThat(idsAntes.subList(1, DIAS)).isEqualTo(idsDepois);
+    }
+
+    @Test
+    void diaRetroativoSaiNaOrdemDasDatasNasListagensENaExportacao() throws Exception {
+        long id = criarInvestimentoComHistorico(8010);
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(dia(-1, new BigDecimal("999.00"))))))
+                .andExpect(status().isOk());
+        long usuarioId = jdbcTemplate.queryForObject(
+                "SELECT USUARIO_INVESTIMENTO_ID FROM INVESTIMENTO WHERE ID = ?", Long.class, id);
+
+        // a linha nova tem o maior ID, mas a data mais antiga
+        List<LocalDate> porInvestimento = datas(
+                investimentoRepository.listarRentabilidadesProjecaoPorInvestimentos(List.of(id)).stream());
+        List<LocalDate> porUsuario = datas(
+                investimentoRepository.listarRentabilidadesProjecaoPorUsuarios(List.of(usuarioId)).stream());
+        List<LocalDate> exportacao = new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<RentabilidadeDiariaProjecao> todas = investimentoRepository.streamRentabilidadesOrdenadasPorInvestimento()) {
+                return datas(todas.filter(r -> r.investimentoId() == id));
+            }
+        });
+
+        assertThat(porInvestimento).hasSize(DIAS + 1).startsWith(INICIO.minusDays(1)).isSorted();
+        assertThat(porUsuario).isEqualTo(porInvestimento);
+        assertThat(exportacao).isEqualTo(porInvestimento);
+    }
+
+    private static List<LocalDate> datas(Stream<RentabilidadeDiariaProjecao> rentabilidades) {
+        return rentabilidades.map(RentabilidadeDiariaProjecao::dataRentabilidadeDiaria).toList();
+    }
+
+    private long criarInvestimentoComHistorico(int baseCpf) {
+        String cpf = CpfsDeTeste.gerar(baseCpf);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Liquidez Diária", DIAS)));
+        return jdbcTemplate.queryForObject("SELECT i.ID FROM INVESTIMENTO i JOIN USUARIO_INVESTIMENTO u "
+                + "ON u.ID = i.USUARIO_INVESTIMENTO_ID WHERE u.CPF_IDENTIFICACAO = ?", Long.class, cpf);
+    }
+
+    private List<Long> serie(long investimentoId) {
+        return jdbcTemplate.queryForList("SELECT ID FROM RENTABILIDADE_DIARIA_TABLE WHERE INVESTIMENTO_ID = ? "
+                + "ORDER BY DATA_RENTABILIDADE_DIARIA", Long.class, investimentoId);
+    }
+}
@@ -0,0 +1,145 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.service.CacheCarteiras;
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica o roteamento com dois bancos H2: escritas na primária, leituras
+ * {@code readOnly} na réplica, releitura do índice e carga do cache de carteiras na
+ * primária, e desvio para a primária quando a réplica cai (por último, pois fecha o pool).
+ */
+@SpringBootTest(properties = {
+        "investimentos.datasource.replica.jdbc-url=" + RoteamentoDataSourceTest.URL_REPLICA,
+        "investimentos.datasource.replica.driver-class-name=org.h2.Driver",
+        "investimentos.datasource.replica.username=sa",
+        "investimentos.datasource.fallback.intervalo-ms=600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RoteamentoDataSourceTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:investimentos_replica;MODE=Oracle;DB_CLOSE_DELAY=-1";
+
+    private static final DriverManagerDataSource REPLICA = new DriverManagerDataSource(URL_REPLICA, "sa", "");
+
+    static {
+        // a réplica precisa do schema antes do contexto subir (o índice de carteiras já lê nela)
+        Flyway.configure().dataSource(REPLICA).locations("classpath:db/migration-h2")
+                .table("FLYWAY_SCHEMA_HISTORY_V2").load().migrate();
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private HikariDataSource dataSourceReplica;
+
+    @Test
+    @Order(1)
+    void cacheDeCarteirasNaoGuardaALeituraDeUmaReplicaAtrasada() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9041);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        new JdbcTemplate(REPLICA).update("INSERT INTO USUARIO_INVESTIMENTO (CPF_IDENTIFICACAO, CPF_NUMERO) VALUES (?, ?)",
+                cpf, CodecCpf.codificar(cpf));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"))
+                .andExpect(jsonPath("$.investimentos", hasSize(0)));
+
+        // a réplica não recebe a escrita: a falta logo depois do commit precisa ler a primária
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf,
+                List.of(investimento(BancoEnum.INTER, TipoInvestimentoEnum.LCI, "Replica 9041", 2, new Random(2)))));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("Replica 9041")));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "HIT"))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("Replica 9041")));
+
+        // leituras fora do cache continuam na réplica
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf).param("fields", "nomeBanco"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos", hasSize(0)));
+    }
+
+    @Test
+    @Order(2)
+    void leiturasVaoParaAReplicaEVoltamAPrimariaQuandoElaCai() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9026);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf).param("fields", "nomeBanco"))
+                .andExpect(status().isNotFound());
+
+        new JdbcTemplate(REPLICA).update("INSERT INTO USUARIO_INVESTIMENTO (CPF_IDENTIFICACAO, CPF_NUMERO) VALUES (?, ?)",
+                cpf, CodecCpf.codificar(cpf));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf).param("fields", "nomeBanco"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpfIdentificacao", is(cpf)));
+
+        // a réplica nunca recebe os investimentos: o índice só os vê se reler na primária
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf,
+                List.of(investimento(BancoEnum.NUBANK, TipoInvestimentoEnum.CDB, "Replica 9026", 2, new Random(1)))));
+        mockMvc.perform(get("/api/indice/usuarios").param("q", "nome:\"Replica 9026\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpfs", contains(cpf)));
+
+        mockMvc.perform(get("/api/datasource/pools"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replicaConfigurada", is(true)))
+                .andExpect(jsonPath("$.replicaDisponivel", is(true)))
+                .andExpect(jsonPath("$.leiturasDesviadas", is(0)))
+                .andExpect(jsonPath("$.pools", hasSize(3)))
+                .andExpect(jsonPath("$.pools[?(@.nome == 'replica')].total", hasSize(1)));
+
+        dataSourceReplica.close();
+        String somenteNaPrimaria = CpfsDeTeste.gerar(9027);
+        usuarioInvestimentoService.criarUsuarioInvestimento(somenteNaPrimaria);
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", somenteNaPrimaria).param("fields", "nomeBanco"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", somenteNaPrimaria).param("fields", "nomeBanco"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/datasource/pools"))
+                .andExpect(jsonPath("$.replicaDisponivel", is(false)))
+                .andExpect(jsonPath("$.leiturasDesviadas", greaterThanOrEqualTo(2)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.challenge.investimentos.investimentos_api.controller;
+
+import com.challenge.investimentos.investimentos_api.service.UsuarioInvestimentoService;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica a seleção de campos (fields/include): sem a série diária, a resposta
+ * omite o campo e a tabela de rentabilidades não é consultada.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class SelecaoCamposTest {
+
+    private static final String CPF = CpfsDeTeste.gerar(9011);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Test
+    void semASerieDiariaUmaConsultaBastaEOCampoEhOmitido() throws Exception {
+        criarCarteira();
+
+        contador.zerar();
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", CPF)
+                        .param("fields", "nomeBanco,nomeInvestimento,montanteInicial"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nomeBanco", is("Inter")))
+                .andExpect(jsonPath("$[0].montanteInicial", is(1000.0)))
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].rentabilidadeDiaria").doesNotExist());
+        assertThat(contador.total()).isEqualTo(1);
+
+        contador.zerar();
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", CPF).param("include", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpfIdentificacao", is(CPF)))
+                .andExpect(jsonPath("$.investimentos", hasSize(2)))
+                .andExpect(jsonPath("$.investimentos[0].id").exists())
+                .andExpect(jsonPath("$.investimentos[0].taxaRentabilidade").exists())
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria").doesNotExist());
+        assertThat(contador.total()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", CPF)
+                        .param("fields", "nomeInvestimento")
+                        .param("include", "rentabilidadeDiaria"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.investimentos[0].nomeBanco").doesNotExist())
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria", hasSize(30)));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", CPF))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id").exists())
+                .andExpect(jsonPath("$[1].rentabilidadeDiaria", hasSize(30)));
+
+        mockMvc.perform(get("/api/investimentos").param("include", "").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nomeInvestimento").exists())
+                .andExpect(jsonPath("$[0].rentabilidadeDiaria").doesNotExist());
+
+        mockMvc.perform(get("/api/usuario-investimentos").param("fields", "id").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cpfIdentificacao").exists());
+    }
+
+    @Test
+    void campoDesconhecidoRetorna400() throws Exception {
+        mockMvc.perform(get("/api/investimentos").param("fields", "nomeBanco,senha"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/usuario-investimentos").param("include", "usuario"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void criarCarteira() {
+        usuarioInvestimentoService.criarUsuarioInvestimento(CPF);
+        usuarioInvestimentoService.salvarInvestimentos(
+                carteira(CPF, investimento("CDB Inter 2026", 30), investimento("LCI Inter 2027", 30)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.challenge.investimentos.investimentos_api.dto;
+
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.RentabilidadeDiaria;
+import com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de resposta das leituras de carteira: entidade → DTO
+ * ({@link InvestimentoDTO#fromEntity}, {@link RentabilidadeDiariaDTO#fromEntity}),
+ * projeções → DTO ({@link InvestimentoDTO#anexarRentabilidades}, usado pelas
+ * listagens) e serialização Jackson de um {@link UsuarioInvestimentoDTO} com um
+ * investimento por banco, com o {@code ObjectMapper} configurado como na API.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoCarteiraBenchmark {
+
+    @Param({"365", "1825"})
+    private int dias;
+
+    private Investimento investimento;
+    private List<RentabilidadeDiariaProjecao> projecoes;
+    private UsuarioInvestimentoDTO carteira;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void preparar() {
+        carteira = CarteirasDeTeste.umPorBanco(CpfsDeTeste.gerar(1), dias, new Random(1));
+        carteira.setInvestimentos(carteira.getDataUsuarioInvestimentos());
+        carteira.setDataUsuarioInvestimentos(null);
+
+        InvestimentoDTO primeiro = carteira.getInvestimentos().get(0);
+        investimento = new Investimento();
+        investimento.setId(1L);
+        investimento.setNomeBanco(primeiro.getNomeBanco());
+        investimento.setTipoInvestimento(TipoInvestimentoEnum.valueOf(primeiro.getTipoInvestimento()));
+        investimento.setNomeInvestimento(primeiro.getNomeInvestimento());
+        investimento.setMontanteInicial(primeiro.getMontanteInicial());
+        List<RentabilidadeDiaria> serie = new ArrayList<>(dias);
+        projecoes = new ArrayList<>(dias);
+        for (RentabilidadeDiariaDTO dto : primeiro.getRentabilidadeDiaria()) {
+            LocalDate data = LocalDate.parse(dto.getDataRentabilidadeDiaria(), RentabilidadeDiariaDTO.FORMATO_DATA);
+            RentabilidadeDiaria rd = new RentabilidadeDiaria();
+            rd.setDataRentabilidadeDiaria(data);
+            rd.setValorDiarioAcao(BigDecimal.ZERO);
+            rd.setTaxaDiarioRentabilidade(dto.getTaxaDiarioRentabilidade());
+            rd.setMontanteAcumuladoDiario(dto.getMontanteAcumuladoDiario());
+            rd.setInvestimento(investimento);
+            serie.add(rd);
+            projecoes.add(new RentabilidadeDiariaProjecao(1L, data, BigDecimal.ZERO,
+                    dto.getTaxaDiarioRentabilidade(), dto.getMontanteAcumuladoDiario()));
+        }
+        investimento.setRentabilidadeDiaria(serie);
+
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+    }
+
+    @Benchmark
+    public InvestimentoDTO entidadeParaDto() {
+        return InvestimentoDTO.fromEntity(investimento);
+    }
+
+    @Benchmark
+    public Map<Long, InvestimentoDTO> projecoesParaDto() {
+        InvestimentoDTO dto = new InvestimentoDTO();
+        dto.setRentabilidadeDiaria(new ArrayList<>(projecoes.size()));
+        Map<Long, InvestimentoDTO> porId = new HashMap<>();
+        porId.put(1L, dto);
+        InvestimentoDTO.anexarRentabilidades(porId, projecoes);
+        return porId;
+    }
+
+    @Benchmark
+    public byte[] serializarCarteira() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(carteira);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapeamentoCarteiraBenchmark.class.getSimpleName()).build()).run();
+    }
+}
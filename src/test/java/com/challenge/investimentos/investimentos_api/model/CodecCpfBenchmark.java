@@ -0,0 +1,112 @@
+package com.challenge.investimentos.investimentos_api.model;
+
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a validação de CPF do {@link CodecCpf} com a implementação anterior de
+ * {@link CpfVO} (regex para normalizar e validar, {@code chars().toArray()} para os
+ * dígitos), sobre uma mistura de CPFs com e sem máscara e alguns inválidos.
+ *
+ * Para ver a alocação por operação, rode com o profiler {@code -prof gc}:
+ * {@code java -cp target/test-classes:<classpath de teste> org.openjdk.jmh.Main CodecCpfBenchmark -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecCpfBenchmark {
+
+    private static final int ENTRADAS = 1024;
+
+    private String[] entradas;
+    private int posicao;
+
+    @Setup
+    public void preparar() {
+        entradas = new String[ENTRADAS];
+        for (int i = 0; i < ENTRADAS; i++) {
+            String cpf = CpfsDeTeste.gerar(i * 7919L);
+            entradas[i] = switch (i % 4) {
+                case 0 -> cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+                case 1 -> cpf.substring(0, 10) + (char) ('0' + (cpf.charAt(10) - '0' + 1) % 10);
+                default -> cpf;
+            };
+        }
+    }
+
+    private String proxima() {
+        posicao = (posicao + 1) & (ENTRADAS - 1);
+        return entradas[posicao];
+    }
+
+    @Benchmark
+    public long codec() {
+        return CodecCpf.codificar(proxima());
+    }
+
+    @Benchmark
+    public void cpfVO(Blackhole bh) {
+        try {
+            bh.consume(new CpfVO(proxima()));
+        } catch (IllegalArgumentException e) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void cpfVOLegado(Blackhole bh) {
+        try {
+            bh.consume(validarComRegex(proxima()));
+        } catch (IllegalArgumentException e) {
+            bh.consume(e);
+        }
+    }
+
+    /** Corpo do construtor de {@link CpfVO} antes do {@link CodecCpf}. */
+    static String validarComRegex(String cpf) {
+        String digitos = cpf == null ? null : cpf.replaceAll("\\D", "");
+        if (!validoComRegex(digitos)) {
+            throw new IllegalArgumentException("CPF inválido: " + cpf);
+        }
+        return digitos;
+    }
+
+    private static boolean validoComRegex(String cpf) {
+        if (cpf == null) return false;
+        if (!cpf.matches("\\d{11}")) return false;
+        if (cpf.matches("(\\d)\\1{10}")) return false;
+        int[] digits = cpf.chars().map(c -> c - '0').toArray();
+        int sum = 0;
+        for (int i = 0; i < 9; i++) sum += digits[i] * (10 - i);
+        int dv1 = 11 - (sum % 11);
+        if (dv1 >= 10) dv1 = 0;
+        if (dv1 != digits[9]) return false;
+        sum = 0;
+        for (int i = 0; i < 10; i++) sum += digits[i] * (11 - i);
+        int dv2 = 11 - (sum % 11);
+        if (dv2 >= 10) dv2 = 0;
+        return dv2 == digits[10];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CodecCpfBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.challenge.investimentos.investimentos_api.model;
+
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica que o {@link CodecCpf} aceita exatamente as mesmas entradas que a
+ * validação anterior por regex e que a chave numérica volta ao mesmo texto.
+ */
+class CodecCpfTest {
+
+    @Test
+    void aceitaAsMesmasEntradasQueAValidacaoPorRegex() {
+        Random aleatorio = new Random(7);
+        String[] mascaras = {"%s", "%s.%s.%s-%s", " %s%s %s%s ", "%s/%s-%s.%s"};
+        for (int i = 0; i < 50_000; i++) {
+            String cpf = CpfsDeTeste.gerar(aleatorio.nextInt(899_999_999));
+            if (i % 3 == 0) {
+                char[] digitos = cpf.toCharArray();
+                digitos[aleatorio.nextInt(11)] = (char) ('0' + aleatorio.nextInt(10));
+                cpf = new String(digitos);
+            }
+            String entrada = String.format(mascaras[i % mascaras.length],
+                    cpf.substring(0, 3), cpf.substring(3, 6), cpf.substring(6, 9), cpf.substring(9));
+            assertThat(CodecCpf.codificar(entrada)).as(entrada).isEqualTo(esperado(entrada));
+        }
+        for (String entrada : new String[]{null, "", "abc", "11111111111", "00000000000", "1234567890",
+                "123456789012", "529.982.247-25", "52998224725", "5299822472-5x", "529982247250", "٥29982247-25"}) {
+            assertThat(CodecCpf.codificar(entrada)).as(entrada).isEqualTo(esperado(entrada));
+        }
+    }
+
+    @Test
+    void formataComZerosAEsquerdaEPreservaOTexto() {
+        String cpf = CpfsDeTeste.gerar(123);
+        long chave = CodecCpf.codificar("000.000.001-91");
+        assertThat(chave).isEqualTo(191L);
+        assertThat(CodecCpf.formatar(chave)).isEqualTo("00000000191");
+        assertThat(CodecCpf.formatar(CodecCpf.codificar(cpf))).isEqualTo(cpf);
+        assertThat(CodecCpf.normalizar("000.000.001-91")).isEqualTo("00000000191");
+        assertThat(CodecCpf.normalizar("529.982.247-26")).isNull();
+
+        CpfVO vo = new CpfVO("529.982.247-25");
+        assertThat(vo.getCpf()).isEqualTo("52998224725");
+        assertThat(vo.getNumero()).isEqualTo(52_998_224_725L);
+        assertThatThrownBy(() -> new CpfVO("529.982.247-26")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CodecCpf.formatar(CodecCpf.INVALIDO)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long esperado(String entrada) {
+        try {
+            return Long.parseLong(CodecCpfBenchmark.validarComRegex(entrada));
+        } catch (IllegalArgumentException e) {
+            return CodecCpf.INVALIDO;
+        }
+    }
+}
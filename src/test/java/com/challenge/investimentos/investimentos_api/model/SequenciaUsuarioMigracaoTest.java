@@ -0,0 +1,55 @@
+package com.challenge.investimentos.investimentos_api.model;
+
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda as migrações sobre uma base que já tem usuários antes da V8 e confere que o
+ * primeiro bloco do otimizador "pooled" ({@link UsuarioInvestimento}, allocationSize
+ * = 50) não repete IDs existentes.
+ */
+class SequenciaUsuarioMigracaoTest {
+
+    private static final int ALOCACAO = 50;
+
+    @Test
+    void primeiroBlocoDepoisDaMigracaoComecaAcimaDosIdsExistentes() {
+        DriverManagerDataSource banco = new DriverManagerDataSource(
+                "jdbc:h2:mem:sequencia_usuario;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(banco);
+        try {
+            Flyway.configure().dataSource(banco).locations("classpath:db/migration-h2").target("7").load().migrate();
+            List<Object[]> usuarios = new ArrayList<>();
+            for (int i = 0; i < 120; i++) {
+                usuarios.add(new Object[]{CpfsDeTeste.gerar(i)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO USUARIO_INVESTIMENTO (CPF_IDENTIFICACAO) VALUES (?)", usuarios);
+
+            Flyway.configure().dataSource(banco).locations("classpath:db/migration-h2").load().migrate();
+
+            long maior = jdbcTemplate.queryForObject("SELECT MAX(ID) FROM USUARIO_INVESTIMENTO", Long.class);
+            long topo = jdbcTemplate.queryForObject("SELECT USUARIO_INVESTIMENTO_SEQ.NEXTVAL FROM DUAL", Long.class);
+            assertThat(maior).isEqualTo(120);
+            assertThat(topo - ALOCACAO + 1).isGreaterThan(maior);
+
+            // O bloco inteiro (topo - 49..topo) entra sem violar a chave primária
+            List<Object[]> bloco = new ArrayList<>();
+            for (long id = topo - ALOCACAO + 1; id <= topo; id++) {
+                String cpf = CpfsDeTeste.gerar(1_000 + (int) id);
+                bloco.add(new Object[]{id, cpf, Long.parseLong(cpf)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO USUARIO_INVESTIMENTO (ID, CPF_IDENTIFICACAO, CPF_NUMERO) VALUES (?, ?, ?)", bloco);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USUARIO_INVESTIMENTO", Long.class)).isEqualTo(170);
+        } finally {
+            jdbcTemplate.execute("DROP ALL OBJECTS");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.MontanteDiarioProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Análise de desempenho sobre séries de vários anos: a montagem dos vetores a partir
+ * das projeções, os indicadores de um investimento e os da carteira com um
+ * investimento por banco ({@link AnaliseRentabilidade}). {@code referenciaBigDecimal}
+ * calcula os mesmos indicadores de um investimento direto sobre {@code BigDecimal},
+ * como referência do custo evitado pelos vetores primitivos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnaliseRentabilidadeBenchmark {
+
+    @Param({"1825", "3650"})
+    private int dias;
+
+    private List<MontanteDiarioProjecao> pontos;
+    private List<BigDecimal> montantes;
+    private AnaliseRentabilidade.Series series;
+    private AnaliseRentabilidade.Retornos retornos;
+
+    @Setup
+    public void preparar() {
+        List<InvestimentoDTO> investimentos = CarteirasDeTeste.umPorBanco(CpfsDeTeste.gerar(1), dias, new Random(1))
+                .getDataUsuarioInvestimentos();
+        pontos = new ArrayList<>(investimentos.size() * dias);
+        for (int i = 0; i < investimentos.size(); i++) {
+            for (RentabilidadeDiariaDTO dto : investimentos.get(i).getRentabilidadeDiaria()) {
+                pontos.add(new MontanteDiarioProjecao((long) i + 1,
+                        LocalDate.parse(dto.getDataRentabilidadeDiaria(), RentabilidadeDiariaDTO.FORMATO_DATA),
+                        dto.getMontanteAcumuladoDiario().movePointRight(2).longValueExact()));
+            }
+        }
+        montantes = investimentos.get(0).getRentabilidadeDiaria().stream()
+                .map(RentabilidadeDiariaDTO::getMontanteAcumuladoDiario).toList();
+        series = AnaliseRentabilidade.Series.de(pontos);
+        retornos = new AnaliseRentabilidade.Retornos(series.maiorSerie());
+    }
+
+    @Benchmark
+    public AnaliseRentabilidade.Series montarSeries() {
+        return AnaliseRentabilidade.Series.de(pontos);
+    }
+
+    @Benchmark
+    public AnaliseRentabilidade.Indicadores investimento() {
+        return AnaliseRentabilidade.calcular(AnaliseRentabilidade.retornos(series, 0, retornos), 0.1075);
+    }
+
+    @Benchmark
+    public AnaliseRentabilidade.Indicadores carteira() {
+        return AnaliseRentabilidade.calcular(AnaliseRentabilidade.retornosCarteira(series), 0.1075);
+    }
+
+    @Benchmark
+    public BigDecimal[] referenciaBigDecimal() {
+        MathContext contexto = MathContext.DECIMAL64;
+        int n = montantes.size() - 1;
+        BigDecimal[] r = new BigDecimal[n];
+        BigDecimal riqueza = BigDecimal.ONE;
+        BigDecimal pico = BigDecimal.ONE;
+        BigDecimal maxDrawdown = BigDecimal.ZERO;
+        BigDecimal soma = BigDecimal.ZERO;
+        for (int k = 0; k < n; k++) {
+            r[k] = montantes.get(k + 1).divide(montantes.get(k), contexto).subtract(BigDecimal.ONE);
+            soma = soma.add(r[k]);
+            riqueza = riqueza.multiply(BigDecimal.ONE.add(r[k]), contexto);
+            pico = pico.max(riqueza);
+            maxDrawdown = maxDrawdown.max(BigDecimal.ONE.subtract(riqueza.divide(pico, contexto)));
+        }
+        BigDecimal media = soma.divide(BigDecimal.valueOf(n), contexto);
+        BigDecimal desvios = BigDecimal.ZERO;
+        for (BigDecimal retorno : r) {
+            BigDecimal desvio = retorno.subtract(media);
+            desvios = desvios.add(desvio.multiply(desvio, contexto));
+        }
+        BigDecimal volatilidade = desvios.divide(BigDecimal.valueOf(n - 1), contexto).sqrt(contexto)
+                .multiply(BigDecimal.valueOf(Math.sqrt(AnaliseRentabilidade.DIAS_POR_ANO)), contexto);
+        return new BigDecimal[]{riqueza.subtract(BigDecimal.ONE), volatilidade, maxDrawdown};
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AnaliseRentabilidadeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
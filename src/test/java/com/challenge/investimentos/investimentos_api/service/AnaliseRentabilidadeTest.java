@@ -0,0 +1,120 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.IndicadoresRentabilidadeDTO;
+import com.challenge.investimentos.investimentos_api.dto.MontanteDiarioProjecao;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Confere os indicadores contra valores calculados à mão e contra cálculos diretos
+ * (sem os atalhos de passada única) sobre séries aleatórias.
+ */
+class AnaliseRentabilidadeTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void indicadoresDeUmaSerieConferemComOCalculoManual() {
+        AnaliseRentabilidade.Series series = AnaliseRentabilidade.Series.de(serie(1L, 0, 10_000L, 11_000L, 9_900L, 10_890L));
+        AnaliseRentabilidade.Indicadores indicadores = AnaliseRentabilidade.calcular(
+                AnaliseRentabilidade.retornos(series, 0, new AnaliseRentabilidade.Retornos(series.maiorSerie())), 0);
+
+        double media = 0.1 / 3;
+        double desvio = Math.sqrt((2 * Math.pow(0.1 - media, 2) + Math.pow(-0.1 - media, 2)) / 2);
+        assertThat(indicadores.observacoes()).isEqualTo(3);
+        assertThat(indicadores.retornoAcumulado()).isCloseTo(1.1 * 0.9 * 1.1 - 1, within(1e-12));
+        assertThat(indicadores.retornoAnualizado()).isCloseTo(Math.pow(1.089, 365.25 / 3) - 1, within(1e-6));
+        assertThat(indicadores.volatilidadeAnual()).isCloseTo(desvio * Math.sqrt(365.25), within(1e-12));
+        assertThat(indicadores.sharpe()).isCloseTo(media / desvio * Math.sqrt(365.25), within(1e-12));
+        assertThat(indicadores.maxDrawdown()).isCloseTo(0.1, within(1e-12));
+
+        IndicadoresRentabilidadeDTO dto = indicadores.toDTO();
+        assertThat(dto.inicio()).isEqualTo("01-01-2024");
+        assertThat(dto.fim()).isEqualTo("04-01-2024");
+        assertThat(dto.inicioDrawdown()).isEqualTo("02-01-2024");
+        assertThat(dto.fimDrawdown()).isEqualTo("03-01-2024");
+        assertThat(dto.dataMelhorDia()).isEqualTo("02-01-2024");
+        assertThat(dto.melhorDia()).isCloseTo(0.1, within(1e-12));
+        assertThat(dto.dataPiorDia()).isEqualTo("03-01-2024");
+        assertThat(dto.piorDia()).isCloseTo(-0.1, within(1e-12));
+    }
+
+    @Test
+    void carteiraTrataInvestimentoQueComecaDepoisComoAporte() {
+        List<MontanteDiarioProjecao> pontos = new ArrayList<>(serie(1L, 0, 10_000L, 10_100L, 10_200L));
+        pontos.addAll(serie(2L, 1, 100_000L, 101_000L));
+        pontos.addAll(serie(3L, 0, 0L, 100L, 110L));
+        pontos.add(new MontanteDiarioProjecao(4L, INICIO, null));
+        AnaliseRentabilidade.Series series = AnaliseRentabilidade.Series.de(pontos);
+
+        AnaliseRentabilidade.Indicadores carteira = AnaliseRentabilidade.calcular(
+                AnaliseRentabilidade.retornosCarteira(series), 0);
+        double segundoDia = (100.0 + 1_000 + 10) / (10_100 + 100_000 + 100);
+        assertThat(carteira.observacoes()).isEqualTo(2);
+        assertThat(carteira.retornoAcumulado()).isCloseTo(1.01 * (1 + segundoDia) - 1, within(1e-12));
+        assertThat(carteira.toDTO().inicio()).isEqualTo("01-01-2024");
+        assertThat(carteira.toDTO().maxDrawdown()).isZero();
+        assertThat(carteira.toDTO().inicioDrawdown()).isNull();
+
+        // Poucos pontos espalhados por décadas: os intervalos são ordenados em vez de acumulados por dia
+        List<MontanteDiarioProjecao> espalhados = new ArrayList<>(serie(1L, 9_000, 100L, 110L));
+        espalhados.addAll(serie(2L, -9_000, 10_000L, 10_100L));
+        AnaliseRentabilidade.Indicadores decadas = AnaliseRentabilidade.calcular(
+                AnaliseRentabilidade.retornosCarteira(AnaliseRentabilidade.Series.de(espalhados)), 0);
+        assertThat(decadas.observacoes()).isEqualTo(2);
+        assertThat(decadas.retornoAcumulado()).isCloseTo(1.01 * 1.1 - 1, within(1e-12));
+        assertThat(decadas.toDTO().dataPiorDia()).isEqualTo(INICIO.plusDays(-8_999).format(RentabilidadeDiariaDTO.FORMATO_DATA));
+        assertThat(decadas.toDTO().fim()).isEqualTo(INICIO.plusDays(9_001).format(RentabilidadeDiariaDTO.FORMATO_DATA));
+
+        // Montante anterior zerado não gera retorno; investimento sem pontos válidos fica sem indicadores
+        AnaliseRentabilidade.Retornos retornos = new AnaliseRentabilidade.Retornos(series.maiorSerie());
+        assertThat(AnaliseRentabilidade.calcular(AnaliseRentabilidade.retornos(series, 2, retornos), 0).retornoAcumulado())
+                .isCloseTo(0.1, within(1e-12));
+        IndicadoresRentabilidadeDTO vazio = AnaliseRentabilidade.calcular(
+                AnaliseRentabilidade.retornos(series, 3, retornos), 0).toDTO();
+        assertThat(vazio).isEqualTo(new IndicadoresRentabilidadeDTO(0, null, null, null, null, null, null,
+                null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void serieLongaConfereComCalculoDiretoEComACarteiraDeUmInvestimento() {
+        Random aleatorio = new Random(5);
+        long[] centavos = new long[3 * 365];
+        centavos[0] = 1_000_000;
+        for (int d = 1; d < centavos.length; d++) {
+            centavos[d] = Math.round(centavos[d - 1] * (1 + aleatorio.nextGaussian() * 0.02));
+        }
+        AnaliseRentabilidade.Series series = AnaliseRentabilidade.Series.de(serie(7L, 0, centavos));
+        AnaliseRentabilidade.Indicadores investimento = AnaliseRentabilidade.calcular(
+                AnaliseRentabilidade.retornos(series, 0, new AnaliseRentabilidade.Retornos(series.maiorSerie())), 0.1);
+
+        double maiorQueda = 0;
+        for (int i = 0; i < centavos.length; i++) {
+            for (int j = i + 1; j < centavos.length; j++) {
+                maiorQueda = Math.max(maiorQueda, 1 - centavos[j] / (double) centavos[i]);
+            }
+        }
+        assertThat(investimento.observacoes()).isEqualTo(centavos.length - 1);
+        assertThat(investimento.retornoAcumulado())
+                .isCloseTo(centavos[centavos.length - 1] / (double) centavos[0] - 1, within(1e-9));
+        assertThat(investimento.maxDrawdown()).isCloseTo(maiorQueda, within(1e-9));
+        assertThat(investimento.volatilidadeAnual()).isCloseTo(0.02 * Math.sqrt(365.25), within(0.03));
+        assertThat(AnaliseRentabilidade.calcular(AnaliseRentabilidade.retornosCarteira(series), 0.1)).isEqualTo(investimento);
+    }
+
+    private static List<MontanteDiarioProjecao> serie(long investimentoId, int primeiroDia, long... centavos) {
+        List<MontanteDiarioProjecao> pontos = new ArrayList<>();
+        for (int d = 0; d < centavos.length; d++) {
+            pontos.add(new MontanteDiarioProjecao(investimentoId, INICIO.plusDays(primeiroDia + d), centavos[d]));
+        }
+        return pontos;
+    }
+}
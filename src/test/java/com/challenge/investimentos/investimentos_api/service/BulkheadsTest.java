@@ -0,0 +1,47 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.EstatisticasBulkheadDTO;
+import com.challenge.investimentos.investimentos_api.enums.TipoBulkhead;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica vagas, fila limitada e espera máxima dos bulkheads, sem contexto Spring.
+ */
+class BulkheadsTest {
+
+    @Test
+    void recusaQuandoAFilaEstaCheiaOuAEsperaAcaba() throws Exception {
+        Bulkheads bulkheads = new Bulkheads(10, 10, 100, 1, 1, 1, 2_000, 7);
+        bulkheads.entrar(TipoBulkhead.ESCRITA);
+
+        CompletableFuture<Void> naFila = CompletableFuture.runAsync(() -> bulkheads.entrar(TipoBulkhead.ESCRITA));
+        while (escrita(bulkheads).aguardando() == 0) {
+            Thread.onSpinWait();
+        }
+        long inicio = System.nanoTime();
+        assertThatThrownBy(() -> bulkheads.entrar(TipoBulkhead.ESCRITA))
+                .isInstanceOfSatisfying(BulkheadSaturadoException.class,
+                        e -> assertThat(e.getRetryAfterSegundos()).isEqualTo(7));
+        assertThat(System.nanoTime() - inicio).isLessThan(TimeUnit.MILLISECONDS.toNanos(500));
+
+        bulkheads.sair(TipoBulkhead.ESCRITA);
+        naFila.get(5, TimeUnit.SECONDS);
+        assertThat(escrita(bulkheads)).isEqualTo(new EstatisticasBulkheadDTO("escrita", 1, 1, 1, 0, 2, 1));
+        bulkheads.sair(TipoBulkhead.ESCRITA);
+
+        Bulkheads semFila = new Bulkheads(1, 1, 50, 1, 1, 1, 50, 1);
+        semFila.entrar(TipoBulkhead.LEITURA);
+        assertThatThrownBy(() -> semFila.entrar(TipoBulkhead.LEITURA)).isInstanceOf(BulkheadSaturadoException.class);
+        assertThat(semFila.estatisticas().get(0).rejeitadas()).isEqualTo(1);
+    }
+
+    private static EstatisticasBulkheadDTO escrita(Bulkheads bulkheads) {
+        return bulkheads.estatisticas().stream().filter(e -> e.nome().equals("escrita")).findFirst().orElseThrow();
+    }
+}
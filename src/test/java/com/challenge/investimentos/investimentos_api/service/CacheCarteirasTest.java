@@ -0,0 +1,162 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.dia;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica o cache de respostas de carteira por CPF: acertos sem ir ao banco,
+ * invalidação a cada escrita e descarte por tamanho.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class CacheCarteirasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private CacheCarteiras cacheCarteiras;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void acertoNaoVaiAoBancoEEscritaInvalida() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9012);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Cache 1", 1)));
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"));
+        long acertosAntes = cacheCarteiras.estatisticas().acertos();
+
+        contador.zerar();
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "HIT"))
+                .andExpect(jsonPath("$.cpfIdentificacao", is(cpf)))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("CDB Cache 1")))
+                .andExpect(jsonPath("$.investimentos[0].rentabilidadeDiaria", hasSize(1)));
+        assertThat(contador.total()).isZero();
+        assertThat(cacheCarteiras.estatisticas().acertos()).isEqualTo(acertosAntes + 1);
+
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Cache 2", 1)));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("CDB Cache 2")));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"));
+        Long id = objectMapper.readTree(mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "HIT"))
+                .andReturn().getResponse().getContentAsString()).get(0).get("id").asLong();
+
+        RentabilidadeDiariaDTO novoDia = dia(1);
+        mockMvc.perform(patch("/api/investimentos/{id}/rentabilidade", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(novoDia))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"))
+                .andExpect(jsonPath("$[0].rentabilidadeDiaria", hasSize(2)));
+
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", cpf).param("include", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CacheCarteiras.CABECALHO_CACHE));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", CpfsDeTeste.gerar(9013)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cpfComMascaraUsaAMesmaEntradaEEInvalidadoPelaEscrita() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9038);
+        String mascarado = CpfsDeTeste.mascarar(cpf);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Mascara 1", 1)));
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", mascarado))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", cpf))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "HIT"));
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", mascarado))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"));
+
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Mascara 2", 1)));
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}", mascarado))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"))
+                .andExpect(jsonPath("$.investimentos[0].nomeInvestimento", is("CDB Mascara 2")));
+        mockMvc.perform(get("/api/investimentos/usuario/{cpf}", mascarado))
+                .andExpect(header().string(CacheCarteiras.CABECALHO_CACHE, "MISS"))
+                .andExpect(jsonPath("$[0].nomeInvestimento", is("CDB Mascara 2")));
+    }
+
+    @Test
+    void respostaMontadaDuranteUmaEscritaNaoEhGuardada() {
+        CacheCarteiras cache = new CacheCarteiras(objectMapper, transactionManager, 1_000_000);
+        String cpf = "00000000191";
+
+        cache.obter(cpf, CacheCarteiras.Visao.USUARIO, null, () -> {
+            cache.aoAlterarCarteira(new CarteiraAlteradaEvent(1L, cpf));
+            return ResponseEntity.ok(Map.of("versao", "antiga"));
+        });
+        ResponseEntity<?> depois = cache.obter(cpf, CacheCarteiras.Visao.USUARIO, null,
+                () -> ResponseEntity.ok(Map.of("versao", "nova")));
+
+        assertThat(depois.getHeaders().getFirst(CacheCarteiras.CABECALHO_CACHE)).isEqualTo("MISS");
+        assertThat(new String((byte[]) depois.getBody())).contains("nova");
+    }
+
+    @Test
+    void limiteDeBytesDescartaAsMenosUsadas() {
+        CacheCarteiras cache = new CacheCarteiras(objectMapper, transactionManager, 16 * 40);
+        for (int i = 0; i < 50; i++) {
+            String cpf = String.format("%011d", i);
+            cache.obter(cpf, CacheCarteiras.Visao.INVESTIMENTOS, null, () -> ResponseEntity.ok(List.of("carteira " + cpf)));
+        }
+        assertThat(cache.estatisticas().bytes()).isLessThanOrEqualTo(16 * 40);
+        assertThat(cache.estatisticas().descartes()).isPositive();
+        ResponseEntity<?> recente = cache.obter(String.format("%011d", 49), CacheCarteiras.Visao.INVESTIMENTOS, null,
+                () -> ResponseEntity.ok(List.of()));
+        assertThat(recente.getHeaders().getFirst(CacheCarteiras.CABECALHO_CACHE)).isEqualTo("HIT");
+    }
+}
@@ -0,0 +1,115 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.enums.FormatoExportacao;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.repository.UsuarioInvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o conteúdo da exportação em NDJSON e CSV para uma carteira conhecida.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ExportacaoServiceTest {
+
+    private static final String CPF = CpfsDeTeste.gerar(4004);
+
+    @Autowired
+    private ExportacaoService exportacaoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoRepository usuarioInvestimentoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long usuarioId;
+
+    @BeforeEach
+    void criarCarteira() {
+        usuarioInvestimentoService.criarUsuarioInvestimento(CPF);
+        List<InvestimentoDTO> investimentos = new ArrayList<>();
+        for (int dias : new int[]{4, 0, 4}) {
+            InvestimentoDTO inv = new InvestimentoDTO();
+            inv.setNomeBanco("XP Investimentos");
+            inv.setTipoInvestimento("TESOURO_DIRETO");
+            inv.setNomeInvestimento("Tesouro, IPCA \"2035\"");
+            inv.setMontanteInicial(new BigDecimal("2500.00"));
+            inv.setValorInicialAcao(BigDecimal.ZERO);
+            inv.setTaxaRentabilidade(new BigDecimal("0.0650"));
+            inv.setNumeroAcoesInicial(0);
+            List<RentabilidadeDiariaDTO> serie = new ArrayList<>();
+            for (int d = 0; d < dias; d++) {
+                RentabilidadeDiariaDTO rd = new RentabilidadeDiariaDTO();
+                rd.setDataRentabilidadeDiaria(LocalDate.of(2025, 3, 1).plusDays(d).format(RentabilidadeDiariaDTO.FORMATO_DATA));
+                rd.setValorDiarioAcao(BigDecimal.ZERO);
+                rd.setTaxaDiarioRentabilidade(new BigDecimal("0.0002"));
+                rd.setMontanteAcumuladoDiario(new BigDecimal("2500.50"));
+                serie.add(rd);
+            }
+            inv.setRentabilidadeDiaria(serie);
+            investimentos.add(inv);
+        }
+        UsuarioInvestimentoDTO dto = new UsuarioInvestimentoDTO();
+        dto.setCpfIdentificacao(CPF);
+        dto.setDataUsuarioInvestimentos(investimentos);
+        usuarioInvestimentoService.salvarInvestimentos(dto);
+        usuarioId = usuarioInvestimentoRepository.findByCpf_Numero(CodecCpf.codificar(CPF)).getId();
+    }
+
+    @Test
+    void ndjsonTrazUmInvestimentoPorLinhaComSerieAninhada() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        exportacaoService.exportar(FormatoExportacao.NDJSON, saida);
+
+        List<Integer> tamanhosDasSeries = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode investimento = objectMapper.readTree(linha);
+            if (investimento.get("usuarioId").asLong() == usuarioId) {
+                tamanhosDasSeries.add(investimento.get("rentabilidadeDiaria").size());
+                assertThat(investimento.get("nomeInvestimento").asText()).isEqualTo("Tesouro, IPCA \"2035\"");
+            }
+        }
+        assertThat(tamanhosDasSeries).containsExactly(4, 0, 4);
+    }
+
+    @Test
+    void csvTrazUmaLinhaPorRentabilidadeDiaria() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        exportacaoService.exportar(FormatoExportacao.CSV, saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(linhas[0]).startsWith("investimentoId,usuarioId,");
+        long doUsuario = 0;
+        for (String linha : linhas) {
+            String[] colunas = linha.split(",", 3);
+            if (colunas.length > 1 && colunas[1].equals(Long.toString(usuarioId))) {
+                assertThat(linha).contains("\"Tesouro, IPCA \"\"2035\"\"\"");
+                doUsuario++;
+            }
+        }
+        assertThat(doUsuario).isEqualTo(4 + 1 + 4);
+    }
+}
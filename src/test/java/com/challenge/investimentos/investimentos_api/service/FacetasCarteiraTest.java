@@ -0,0 +1,88 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.TipoInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que as máscaras de bancos e tipos acompanham cada caminho de escrita.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FacetasCarteiraTest {
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private BancoService bancoService;
+
+    @Autowired
+    private TipoInvestimentoService tipoInvestimentoService;
+
+    @Autowired
+    private InvestimentoRepository investimentoRepository;
+
+    @Test
+    void facetasAcompanhamInclusaoAlteracaoERemocao() {
+        String cpf = CpfsDeTeste.gerar(5005);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        assertThat(bancoService.listarBancosPorCpf(cpf)).isEmpty();
+
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("Itaú", "LCI", "LCI Itaú", 0),
+                investimento("Nubank", "CDB", "CDB Nubank", 0)));
+        assertThat(bancoService.listarBancosPorCpf(cpf)).containsExactly("Nubank", "Itaú");
+        assertThat(tipos(cpf)).containsExactly("CDB", "LCI");
+
+        List<Investimento> salvos = investimentoRepository.findByUsuarioInvestimento_Cpf_Numero(CodecCpf.codificar(cpf));
+        Investimento itau = salvos.stream().filter(i -> i.getNomeBanco().equals("Itaú")).findFirst().orElseThrow();
+        investimentoService.atualizarInvestimento(itau.getId(), investimento("Inter", "LCA", "LCA Inter", 0));
+        assertThat(bancoService.listarBancosPorCpf(cpf)).containsExactly("Nubank", "Inter");
+        assertThat(tipos(cpf)).containsExactly("CDB", "LCA");
+
+        investimentoService.deletarPorId(itau.getId());
+        assertThat(bancoService.listarBancosPorCpf(cpf)).containsExactly("Nubank");
+        assertThat(tipos(cpf)).containsExactly("CDB");
+
+        usuarioInvestimentoService.salvarInvestimentos(
+                carteira(cpf, investimento("Banco Regional", "OUTRO", "OUTRO Banco Regional", 0)));
+        assertThat(bancoService.listarBancosPorCpf(cpf)).containsExactly("Banco Regional");
+        assertThat(tipos(cpf)).containsExactly("OUTRO");
+    }
+
+    @Test
+    void nomeDeBancoComOutrasMaiusculasVoltaComoFoiGravado() {
+        String cpf = CpfsDeTeste.gerar(9040);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("NUBANK", "CDB", "CDB NUBANK", 0),
+                investimento("nubank", "LCI", "LCI nubank", 0), investimento("Itaú", "LCA", "LCA Itaú", 0)));
+
+        assertThat(bancoService.listarBancosPorCpf(cpf)).containsExactlyInAnyOrder("NUBANK", "nubank", "Itaú");
+        assertThat(FacetasCarteira.bitBanco("NUBANK")).isEqualTo(FacetasCarteira.BIT_BANCO_NAO_CATALOGADO);
+    }
+
+    @Test
+    void cpfInexistenteNaoTemFacetas() {
+        assertThat(bancoService.listarBancosPorCpf(CpfsDeTeste.gerar(5999))).isEmpty();
+        assertThat(tipoInvestimentoService.listarTiposPorCpf(CpfsDeTeste.gerar(5999))).isEmpty();
+    }
+
+    private List<String> tipos(String cpf) {
+        return tipoInvestimentoService.listarTiposPorCpf(cpf).stream().map(TipoInvestimentoDTO::getTipoInvestimento).toList();
+    }
+}
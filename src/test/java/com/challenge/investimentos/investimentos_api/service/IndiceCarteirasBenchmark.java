@@ -0,0 +1,162 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.ChaveIndiceProjecao;
+import com.challenge.investimentos.investimentos_api.dto.ResultadoIndiceDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta ao índice invertido de carteiras ({@link IndiceCarteiras}) contra o SQL
+ * equivalente (um EXISTS por termo) num H2 em memória semeado com usuários de quatro
+ * investimentos cada, e a montagem do índice a partir das linhas já lidas.
+ *
+ * As consultas são as mesmas que {@code IndiceCarteirasSqlTest} confere contra o SQL.
+ * O reaproveitamento de resultados do H2 fica desligado para que o SQL seja de fato executado.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndiceCarteirasBenchmark {
+
+    /** Expressão do índice e filtro SQL equivalente sobre {@code USUARIO_INVESTIMENTO u}. */
+    static final String[][] CONSULTAS = {
+            {"tipo:CDB AND banco:Nubank",
+                    existe("i.TIPO_INVESTIMENTO = 'CDB'") + " AND " + existe("UPPER(TRIM(i.NOME_BANCO)) = 'NUBANK'")},
+            {"nome:\"Instrumento 7\" OR (tipo:LCI AND banco:Inter)",
+                    existe("UPPER(TRIM(i.NOME_INVESTIMENTO)) = 'INSTRUMENTO 7'") + " OR ("
+                            + existe("i.TIPO_INVESTIMENTO = 'LCI'") + " AND "
+                            + existe("UPPER(TRIM(i.NOME_BANCO)) = 'INTER'") + ")"},
+            {"(banco:Itaú OR banco:Bradesco) AND (tipo:RENDA_FIXA OR tipo:LCA)",
+                    "(" + existe("UPPER(TRIM(i.NOME_BANCO)) = 'ITAÚ'") + " OR "
+                            + existe("UPPER(TRIM(i.NOME_BANCO)) = 'BRADESCO'") + ") AND ("
+                            + existe("i.TIPO_INVESTIMENTO = 'RENDA_FIXA'") + " OR "
+                            + existe("i.TIPO_INVESTIMENTO = 'LCA'") + ")"}
+    };
+
+    static final int LIMITE = 500;
+
+    private static final int INVESTIMENTOS_POR_USUARIO = 4;
+
+    @Param({"5000", "50000"})
+    private int usuarios;
+
+    @Param({"0", "1", "2"})
+    private int consulta;
+
+    private JdbcTemplate jdbcTemplate;
+    private List<ChaveIndiceProjecao> linhas;
+    private IndiceCarteiras indice;
+    private String expressao;
+    private String sql;
+
+    @Setup
+    public void preparar() {
+        DriverManagerDataSource banco = new DriverManagerDataSource(
+                "jdbc:h2:mem:indice_benchmark;MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(banco).locations("classpath:db/migration-h2").load().migrate();
+        jdbcTemplate = new JdbcTemplate(banco);
+        semear(jdbcTemplate, 0, usuarios);
+        jdbcTemplate.execute("SET OPTIMIZE_REUSE_RESULTS FALSE");
+
+        linhas = jdbcTemplate.query("SELECT u.ID, u.CPF_IDENTIFICACAO, i.NOME_BANCO, i.TIPO_INVESTIMENTO, "
+                        + "i.NOME_INVESTIMENTO FROM INVESTIMENTO i JOIN USUARIO_INVESTIMENTO u ON u.ID = i.USUARIO_INVESTIMENTO_ID",
+                (rs, n) -> new ChaveIndiceProjecao(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        TipoInvestimentoEnum.valueOf(rs.getString(4)), rs.getString(5)));
+        indice = new IndiceCarteiras(null, null);
+        indice.montar(linhas.stream());
+        expressao = CONSULTAS[consulta][0];
+        sql = sql(CONSULTAS[consulta][1]);
+    }
+
+    @TearDown
+    public void encerrar() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Benchmark
+    public ResultadoIndiceDTO indice() {
+        return indice.consultar(expressao, LIMITE);
+    }
+
+    @Benchmark
+    public List<String> sqlEquivalente() {
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
+
+    @Benchmark
+    public IndiceCarteiras montar() {
+        IndiceCarteiras novo = new IndiceCarteiras(null, null);
+        novo.montar(linhas.stream());
+        return novo;
+    }
+
+    /** Consulta dos CPFs que atendem ao filtro, na ordem de ID usada pelo índice. */
+    static String sql(String filtro) {
+        return "SELECT u.CPF_IDENTIFICACAO FROM USUARIO_INVESTIMENTO u WHERE " + filtro + " ORDER BY u.ID";
+    }
+
+    /**
+     * Insere {@code quantidade} usuários a partir do CPF de base informado, com quatro
+     * investimentos de banco, tipo e nome sorteados (semente fixa).
+     */
+    static void semear(JdbcTemplate jdbcTemplate, int baseCpf, int quantidade) {
+        List<Object[]> usuarios = new ArrayList<>(quantidade);
+        for (int u = 0; u < quantidade; u++) {
+            String cpf = CpfsDeTeste.gerar(baseCpf + u);
+            usuarios.add(new Object[]{cpf, Long.parseLong(cpf)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO USUARIO_INVESTIMENTO (CPF_IDENTIFICACAO, CPF_NUMERO) VALUES (?, ?)", usuarios);
+
+        Random aleatorio = new Random(42);
+        BancoEnum[] bancos = BancoEnum.values();
+        TipoInvestimentoEnum[] tipos = TipoInvestimentoEnum.values();
+        List<Object[]> investimentos = new ArrayList<>(quantidade * INVESTIMENTOS_POR_USUARIO);
+        for (int u = 0; u < quantidade; u++) {
+            for (int i = 0; i < INVESTIMENTOS_POR_USUARIO; i++) {
+                investimentos.add(new Object[]{
+                        bancos[aleatorio.nextInt(bancos.length)].getNomeBanco(),
+                        tipos[aleatorio.nextInt(tipos.length)].name(),
+                        "Instrumento " + aleatorio.nextInt(300),
+                        CpfsDeTeste.gerar(baseCpf + u)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO INVESTIMENTO (ID, NOME_BANCO, TIPO_INVESTIMENTO, NOME_INVESTIMENTO, "
+                + "USUARIO_INVESTIMENTO_ID) SELECT INVESTIMENTO_SEQ.NEXTVAL, ?, ?, ?, u.ID "
+                + "FROM USUARIO_INVESTIMENTO u WHERE u.CPF_IDENTIFICACAO = ?", investimentos);
+    }
+
+    private static String existe(String condicao) {
+        return "EXISTS (SELECT 1 FROM INVESTIMENTO i WHERE i.USUARIO_INVESTIMENTO_ID = u.ID AND " + condicao + ")";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IndiceCarteirasBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.ResultadoIndiceDTO;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara o índice invertido de carteiras com o SQL equivalente (EXISTS por termo)
+ * sobre uma base semeada de 1.000 usuários x 4 investimentos, com as consultas de
+ * {@link IndiceCarteirasBenchmark}, que mede os tempos de cada lado.
+ *
+ * Verifica que os dois devolvem os mesmos usuários; os dados semeados são removidos ao final.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndiceCarteirasSqlTest {
+
+    private static final int USUARIOS = 1_000;
+    private static final int BASE_CPF = 700_000;
+
+    private static final String CPF_INICIAL = CpfsDeTeste.gerar(BASE_CPF).substring(0, 9) + "00";
+    private static final String CPF_FINAL = CpfsDeTeste.gerar(BASE_CPF + USUARIOS - 1).substring(0, 9) + "99";
+
+    @Autowired
+    private IndiceCarteiras indiceCarteiras;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indiceDevolveOsMesmosUsuariosQueOSqlEquivalente() {
+        IndiceCarteirasBenchmark.semear(jdbcTemplate, BASE_CPF, USUARIOS);
+        try {
+            indiceCarteiras.reconstruir();
+            for (String[] consulta : IndiceCarteirasBenchmark.CONSULTAS) {
+                comparar(consulta[0], consulta[1]);
+            }
+        } finally {
+            jdbcTemplate.update("DELETE FROM INVESTIMENTO WHERE USUARIO_INVESTIMENTO_ID IN "
+                    + "(SELECT ID FROM USUARIO_INVESTIMENTO WHERE CPF_IDENTIFICACAO BETWEEN ? AND ?)", CPF_INICIAL, CPF_FINAL);
+            jdbcTemplate.update("DELETE FROM USUARIO_INVESTIMENTO WHERE CPF_IDENTIFICACAO BETWEEN ? AND ?", CPF_INICIAL, CPF_FINAL);
+            indiceCarteiras.reconstruir();
+        }
+    }
+
+    private void comparar(String expressao, String filtroSql) {
+        int limite = IndiceCarteirasBenchmark.LIMITE;
+        ResultadoIndiceDTO doIndice = indiceCarteiras.consultar(expressao, limite);
+        List<String> doSql = jdbcTemplate.queryForList(IndiceCarteirasBenchmark.sql(filtroSql), String.class);
+
+        assertThat(doIndice.total()).as(expressao).isEqualTo(doSql.size()).isPositive();
+        assertThat(doIndice.cpfs()).as(expressao).isEqualTo(doSql.subList(0, Math.min(limite, doSql.size())));
+    }
+}
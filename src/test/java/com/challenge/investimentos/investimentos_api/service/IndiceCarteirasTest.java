@@ -0,0 +1,95 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.model.CodecCpf;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.repository.InvestimentoRepository;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que o índice de carteiras acompanha os caminhos de escrita dos serviços
+ * e que o endpoint de consulta respeita a precedência AND/OR.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IndiceCarteirasTest {
+
+    @Autowired
+    private IndiceCarteiras indiceCarteiras;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private InvestimentoRepository investimentoRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void indiceAcompanhaInclusaoAlteracaoSubstituicaoERemocao() {
+        String cpf = CpfsDeTeste.gerar(6006);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("Nubank", "CDB", "Indice 6006 A", 0)));
+        assertThat(cpfs("nome:\"Indice 6006 A\" AND banco:nubank AND tipo:cdb")).containsExactly(cpf);
+
+        Investimento salvo = investimentoRepository.findByUsuarioInvestimento_Cpf_Numero(CodecCpf.codificar(cpf)).get(0);
+        investimentoService.atualizarInvestimento(salvo.getId(), investimento("Inter", "LCA", "Indice 6006 B", 0));
+        assertThat(cpfs("nome:\"Indice 6006 A\"")).isEmpty();
+        assertThat(cpfs("nome:\"Indice 6006 B\" AND banco:Inter")).containsExactly(cpf);
+
+        usuarioInvestimentoService.salvarInvestimentos(carteira(cpf, investimento("Itaú", "LCI", "Indice 6006 C", 0)));
+        assertThat(cpfs("nome:\"Indice 6006 B\"")).isEmpty();
+        assertThat(cpfs("nome:\"Indice 6006 C\" AND banco:ITAÚ")).containsExactly(cpf);
+
+        usuarioInvestimentoService.deletarPorCpf(cpf);
+        assertThat(cpfs("nome:\"Indice 6006 C\"")).isEmpty();
+    }
+
+    @Test
+    void endpointRespeitaPrecedenciaERejeitaExpressaoInvalida() throws Exception {
+        String cpf = CpfsDeTeste.gerar(6007);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("Nubank", "CDB", "Indice 6007", 0)));
+
+        // AND antes de OR: "nome OR (tipo AND banco-inexistente)" encontra o usuário
+        mockMvc.perform(get("/api/indice/usuarios")
+                        .param("q", "nome:\"Indice 6007\" OR tipo:CDB AND banco:\"Sem Banco\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpfs[?(@ == '" + cpf + "')]").exists());
+        mockMvc.perform(get("/api/indice/usuarios")
+                        .param("q", "(nome:\"Indice 6007\" OR tipo:CDB) AND banco:\"Sem Banco\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0));
+
+        mockMvc.perform(get("/api/indice/usuarios").param("q", "tipo:INEXISTENTE"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/indice/usuarios").param("q", "(banco:Nubank"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/indice/usuarios").param("q", "cor:azul"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> cpfs(String expressao) {
+        return indiceCarteiras.consultar(expressao, null).cpfs();
+    }
+}
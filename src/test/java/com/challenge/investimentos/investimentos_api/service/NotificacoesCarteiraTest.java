@@ -0,0 +1,180 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica o envio SSE das alterações de carteira: evento inicial com a sequência,
+ * evento após cada commit, encerramento quando o usuário é removido e desconexão
+ * de assinantes lentos ou travados sem bloquear quem publica nem os demais.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class NotificacoesCarteiraTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private NotificacoesCarteira notificacoesCarteira;
+
+    @Test
+    void assinanteRecebeASequenciaAposCadaCommit() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9020);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+
+        MvcResult assinatura = mockMvc.perform(get("/api/usuario-investimentos/{cpf}/eventos", cpf))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        aguardar(assinatura, "\"sequencia\":0");
+
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Inter 2025", 1)));
+        aguardar(assinatura, "id:2");
+        assertThat(assinatura.getResponse().getContentAsString())
+                .contains("event:" + NotificacoesCarteira.EVENTO_CARTEIRA)
+                .contains("{\"cpf\":\"" + cpf + "\",\"sequencia\":2}");
+
+        usuarioInvestimentoService.deletarPorCpf(cpf);
+        aguardar(assinatura, "event:" + NotificacoesCarteira.EVENTO_REMOVIDA);
+        long limite = System.currentTimeMillis() + 5000;
+        while (notificacoesCarteira.totalAssinantes() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(notificacoesCarteira.totalAssinantes()).isZero();
+
+        mockMvc.perform(get("/api/usuario-investimentos/{cpf}/eventos", CpfsDeTeste.gerar(9021)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void assinaturaComCpfMascaradoRecebeOsEventos() throws Exception {
+        String cpf = CpfsDeTeste.gerar(9039);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+
+        MvcResult assinatura = mockMvc.perform(get("/api/usuario-investimentos/{cpf}/eventos", CpfsDeTeste.mascarar(cpf)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        aguardar(assinatura, "{\"cpf\":\"" + cpf + "\",\"sequencia\":0}");
+
+        investimentoService.salvarInvestimentos(carteira(cpf, investimento("CDB Inter 2025", 1)));
+        aguardar(assinatura, "{\"cpf\":\"" + cpf + "\",\"sequencia\":2}");
+        usuarioInvestimentoService.deletarPorCpf(cpf);
+        aguardar(assinatura, "event:" + NotificacoesCarteira.EVENTO_REMOVIDA);
+    }
+
+    @Test
+    void assinanteLentoEDesconectadoSemAtrasarOsDemais() {
+        List<Runnable> tarefas = new ArrayList<>();
+        NotificacoesCarteira notificacoes = new NotificacoesCarteira(null, null, objectMapper, 60_000, 2, 5_000, tarefas::add);
+        NotificacoesCarteira.Assinante lento = notificacoes.registrar("lento", new SseEmitter());
+        NotificacoesCarteira.Assinante rapido = notificacoes.registrar("rapido", new SseEmitter());
+
+        for (long sequencia = 1; sequencia <= 3; sequencia++) {
+            notificacoes.notificar("lento", sequencia);
+        }
+        notificacoes.notificar("rapido", 1L);
+        assertThat(notificacoes.descartados()).isEqualTo(1);
+        assertThat(lento.encerrado()).isTrue();
+        assertThat(tarefas).hasSize(2);
+
+        new ArrayList<>(tarefas).forEach(Runnable::run);
+        assertThat(lento.encerrado()).isTrue();
+        assertThat(rapido.encerrado()).isFalse();
+        assertThat(notificacoes.totalAssinantes()).isEqualTo(1);
+    }
+
+    @Test
+    void envioTravadoEDesconectadoEASuaThreadReposta() throws Exception {
+        CountDownLatch travou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch entregue = new CountDownLatch(1);
+        ThreadPoolExecutor envio = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        NotificacoesCarteira notificacoes = new NotificacoesCarteira(null, null, objectMapper, 60_000, 4, 100, envio);
+        try {
+            // cliente que parou de ler: a escrita não volta
+            NotificacoesCarteira.Assinante travado = notificacoes.registrar("travado", new SseEmitter() {
+                @Override
+                public synchronized void send(Set<DataWithMediaType> dados) throws IOException {
+                    travou.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IOException("timeout de escrita");
+                }
+            });
+            NotificacoesCarteira.Assinante outro = notificacoes.registrar("outro", new SseEmitter() {
+                @Override
+                public synchronized void send(Set<DataWithMediaType> dados) {
+                    entregue.countDown();
+                }
+            });
+
+            notificacoes.notificar("travado", 1L);
+            assertThat(travou.await(5, TimeUnit.SECONDS)).isTrue();
+            notificacoes.notificar("outro", 1L);
+            Thread.sleep(200);
+            assertThat(entregue.getCount()).isEqualTo(1);
+
+            notificacoes.verificarEnvios();
+            assertThat(entregue.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(travado.encerrado()).isTrue();
+            assertThat(outro.encerrado()).isFalse();
+            assertThat(notificacoes.descartados()).isEqualTo(1);
+            assertThat(envio.getMaximumPoolSize()).isEqualTo(2);
+
+            liberar.countDown();
+            long limite = System.currentTimeMillis() + 5000;
+            while (envio.getMaximumPoolSize() > 1 && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+            assertThat(envio.getMaximumPoolSize()).isEqualTo(1);
+        } finally {
+            liberar.countDown();
+            envio.shutdownNow();
+        }
+    }
+
+    private static void aguardar(MvcResult assinatura, String trecho) throws Exception {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!assinatura.getResponse().getContentAsString().contains(trecho) && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(assinatura.getResponse().getContentAsString()).contains(trecho);
+    }
+}
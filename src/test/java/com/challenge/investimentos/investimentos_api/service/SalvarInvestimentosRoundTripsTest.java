@@ -0,0 +1,77 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conta as idas ao banco de um upload grande de carteira (25 investimentos x 160 dias).
+ *
+ * Com allocationSize = 1 e sem batching seriam ~4.000 NEXTVAL + ~4.000 INSERTs.
+ * Com sequences pooled (blocos de 50) e JDBC batching (lotes de 50) o esperado é
+ * ~1/25 disso: um NEXTVAL e um executeBatch a cada 50 linhas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class SalvarInvestimentosRoundTripsTest {
+
+    private static final int INVESTIMENTOS = 25;
+    private static final int DIAS = 160;
+
+    @Autowired
+    private InvestimentoService investimentoService;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void uploadGrandeDeCarteiraUsaPoucasIdasAoBanco() {
+        String cpf = CpfsDeTeste.gerar(1001);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+
+        UsuarioInvestimentoDTO dto = carteiraGrande(cpf);
+        long linhas = INVESTIMENTOS + (long) INVESTIMENTOS * DIAS;
+
+        contador.zerar();
+        investimentoService.salvarInvestimentos(dto);
+        long roundTrips = contador.total();
+
+        assertThat(roundTrips)
+                .as("%d linhas, %d round trips (sem pooling nem batching: ~%d)", linhas, roundTrips, 2 * linhas)
+                .isLessThan(linhas / 20);
+        Long persistidas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM RENTABILIDADE_DIARIA_TABLE r JOIN INVESTIMENTO i ON i.ID = r.INVESTIMENTO_ID "
+                        + "JOIN USUARIO_INVESTIMENTO u ON u.ID = i.USUARIO_INVESTIMENTO_ID WHERE u.CPF_IDENTIFICACAO = ?",
+                Long.class, cpf);
+        assertThat(persistidas).isEqualTo((long) INVESTIMENTOS * DIAS);
+    }
+
+    private static UsuarioInvestimentoDTO carteiraGrande(String cpf) {
+        List<InvestimentoDTO> investimentos = new ArrayList<>();
+        for (int i = 0; i < INVESTIMENTOS; i++) {
+            investimentos.add(investimento("Nubank", "RENDA_FIXA", "CDB " + i, DIAS));
+        }
+        return carteira(cpf, investimentos);
+    }
+}
@@ -0,0 +1,75 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+import com.challenge.investimentos.investimentos_api.model.Investimento;
+import com.challenge.investimentos.investimentos_api.model.RentabilidadeDiaria;
+import com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão das séries recebidas no {@code PUT} de carteira em entidades: a leitura
+ * de uma data {@code dd-MM-yyyy} e a série inteira de um investimento
+ * ({@link SerieRentabilidade#porData}), como em {@code salvarInvestimentos}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerieRentabilidadeBenchmark {
+
+    @Param({"365", "1825"})
+    private int dias;
+
+    private List<RentabilidadeDiariaDTO> serie;
+    private String[] datas;
+    private Investimento investimento;
+    private int posicao;
+
+    @Setup
+    public void preparar() {
+        InvestimentoDTO dto = CarteirasDeTeste.investimento(BancoEnum.NUBANK, TipoInvestimentoEnum.CDB, "CDB", dias, new Random(1));
+        serie = dto.getRentabilidadeDiaria();
+        datas = serie.stream().map(RentabilidadeDiariaDTO::getDataRentabilidadeDiaria).toArray(String[]::new);
+        investimento = new Investimento();
+    }
+
+    @Benchmark
+    public LocalDate lerData() {
+        if (++posicao == datas.length) posicao = 0;
+        return LocalDate.parse(datas[posicao], RentabilidadeDiariaDTO.FORMATO_DATA);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<LocalDate, RentabilidadeDiaria> porData() {
+        return SerieRentabilidade.porData(serie, investimento);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerieRentabilidadeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package com.challenge.investimentos.investimentos_api.service;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.support.ContadorRoundTrips;
+import com.challenge.investimentos.investimentos_api.support.CpfsDeTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.carteira;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.dia;
+import static com.challenge.investimentos.investimentos_api.support.CarteirasDeTeste.investimento;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que a substituição da carteira grava somente as diferenças em
+ * relação ao que já está armazenado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ContadorRoundTrips.class)
+class SincronizacaoCarteiraTest {
+
+    private static final int DIAS = 30;
+
+    @Autowired
+    private UsuarioInvestimentoService usuarioInvestimentoService;
+
+    @Autowired
+    private ContadorRoundTrips contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sincronizacaoDiariaTocaSomenteAsLinhasAlteradas() {
+        String cpf = CpfsDeTeste.gerar(7007);
+        usuarioInvestimentoService.criarUsuarioInvestimento(cpf);
+
+        ResponseEntity<String> primeira = usuarioInvestimentoService.salvarInvestimentos(
+                carteira(cpf, investimento("Nubank", "CDB", "CDB 2030", DIAS),
+                        investimento("Itaú", "LCI", "LCI 2027", DIAS),
+                        investimento("Inter", "RENDA_FIXA", "Tesouro Selic", DIAS)));
+        assertThat(linhasAlteradas(primeira)).isEqualTo(3 + 3 * DIAS);
+        List<Long> idsAntes = idsDasRentabilidades(cpf);
+
+        contador.zerar();
+        ResponseEntity<String> repetida = usuarioInvestimentoService.salvarInvestimentos(
+                carteira(cpf, investimento("Nubank", "CDB", "CDB 2030", DIAS),
+                        investimento("Itaú", "LCI", "LCI 2027", DIAS),
+                        investimento("Inter", "RENDA_FIXA", "Tesouro Selic", DIAS)));
+        assertThat(linhasAlteradas(repetida)).isZero();
+        assertThat(contador.total()).isLessThanOrEqualTo(3);
+
+        // Sincronização típica: um valor corrigido, um dia novo e um investimento resgatado
+        InvestimentoDTO cdb = investimento("Nubank", "CDB", "CDB 2030", DIAS);
+        cdb.getRentabilidadeDiaria().get(10).setMontanteAcumuladoDiario(new BigDecimal("9999.99"));
+        cdb.getRentabilidadeDiaria().add(dia(DIAS));
+        ResponseEntity<String> diaria = usuarioInvestimentoService.salvarInvestimentos(
+                carteira(cpf, cdb, investimento("Itaú", "LCI", "LCI 2027", DIAS)));
+
+        assertThat(diaria.getBody()).contains("inseridas: 1", "atualizadas: 1", "removidas: " + (1 + DIAS));
+        assertThat(linhasAlteradas(diaria)).isEqualTo(1 + 1 + 1 + DIAS);
+        List<Long> idsDepois = idsDasRentabilidades(cpf);
+        assertThat(idsDepois).hasSize(2 * DIAS + 1);
+        assertThat(idsDepois).filteredOn(id -> !idsAntes.contains(id)).hasSize(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT MONTANTE_ACUMULADO_DIARIO FROM RENTABILIDADE_DIARIA_TABLE "
+                + "WHERE ID = ?", BigDecimal.class, idsDepois.get(10))).isEqualByComparingTo("9999.99");
+    }
+
+    private List<Long> idsDasRentabilidades(String cpf) {
+        return jdbcTemplate.queryForList("SELECT r.ID FROM RENTABILIDADE_DIARIA_TABLE r "
+                + "JOIN INVESTIMENTO i ON i.ID = r.INVESTIMENTO_ID JOIN USUARIO_INVESTIMENTO u ON u.ID = i.USUARIO_INVESTIMENTO_ID "
+                + "WHERE u.CPF_IDENTIFICACAO = ? ORDER BY i.ID, r.ID", Long.class, cpf);
+    }
+
+    private static int linhasAlteradas(ResponseEntity<String> resposta) {
+        return Integer.parseInt(resposta.getHeaders().getFirst(UsuarioInvestimentoService.CABECALHO_LINHAS_ALTERADAS));
+    }
+}
@@ -0,0 +1,154 @@
+package com.challenge.investimentos.investimentos_api.support;
+
+import com.challenge.investimentos.investimentos_api.dto.InvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.dto.RentabilidadeDiariaDTO;
+import com.challenge.investimentos.investimentos_api.dto.UsuarioInvestimentoDTO;
+import com.challenge.investimentos.investimentos_api.enums.BancoEnum;
+import com.challenge.investimentos.investimentos_api.enums.TipoInvestimentoEnum;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Monta carteiras para testes e benchmarks: com séries diárias plausíveis (passeio
+ * aleatório) ou com séries fixas de montante {@code 1000.00 + d} no dia {@code d}.
+ */
+public final class CarteirasDeTeste {
+
+    /** Primeiro dia das séries geradas. */
+    public static final LocalDate INICIO = LocalDate.of(2023, 1, 1);
+
+    private CarteirasDeTeste() {}
+
+    /**
+     * Carteira com um investimento por banco (tipos em rodízio), cada um com a série informada.
+     *
+     * @param cpf CPF do usuário
+     * @param dias dias de série por investimento
+     * @param aleatorio gerador da série
+     * @return DTO da carteira
+     */
+    public static UsuarioInvestimentoDTO umPorBanco(String cpf, int dias, Random aleatorio) {
+        List<InvestimentoDTO> investimentos = new ArrayList<>();
+        for (BancoEnum banco : BancoEnum.values()) {
+            TipoInvestimentoEnum tipo = TipoInvestimentoEnum.values()[banco.ordinal() % TipoInvestimentoEnum.values().length];
+            investimentos.add(investimento(banco, tipo, banco.getNomeBanco() + " " + tipo, dias, aleatorio));
+        }
+        return carteira(cpf, investimentos);
+    }
+
+    /**
+     * @param cpf CPF do usuário
+     * @param investimentos investimentos da carteira
+     * @return DTO da carteira
+     */
+    public static UsuarioInvestimentoDTO carteira(String cpf, InvestimentoDTO... investimentos) {
+        return carteira(cpf, List.of(investimentos));
+    }
+
+    /**
+     * @param cpf CPF do usuário
+     * @param investimentos investimentos da carteira
+     * @return DTO da carteira
+     */
+    public static UsuarioInvestimentoDTO carteira(String cpf, List<InvestimentoDTO> investimentos) {
+        UsuarioInvestimentoDTO dto = new UsuarioInvestimentoDTO();
+        dto.setCpfIdentificacao(cpf);
+        dto.setDataUsuarioInvestimentos(investimentos);
+        return dto;
+    }
+
+    /**
+     * CDB do Inter com série fixa ({@link #dia(int)}) de {@code dias} dias a partir de {@link #INICIO}.
+     *
+     * @param nome nome do investimento
+     * @param dias dias de série (a lista pode receber mais dias)
+     * @return DTO do investimento
+     */
+    public static InvestimentoDTO investimento(String nome, int dias) {
+        return investimento("Inter", "CDB", nome, dias);
+    }
+
+    /**
+     * Investimento com série fixa ({@link #dia(int)}) de {@code dias} dias a partir de {@link #INICIO}.
+     *
+     * @param banco nome do banco
+     * @param tipo tipo de investimento
+     * @param nome nome do investimento
+     * @param dias dias de série (a lista pode receber mais dias)
+     * @return DTO do investimento
+     */
+    public static InvestimentoDTO investimento(String banco, String tipo, String nome, int dias) {
+        InvestimentoDTO inv = new InvestimentoDTO();
+        inv.setNomeBanco(banco);
+        inv.setTipoInvestimento(tipo);
+        inv.setNomeInvestimento(nome);
+        inv.setMontanteInicial(new BigDecimal("1000.00"));
+        inv.setValorInicialAcao(BigDecimal.ZERO);
+        inv.setTaxaRentabilidade(new BigDecimal("0.11"));
+        inv.setNumeroAcoesInicial(0);
+        List<RentabilidadeDiariaDTO> serie = new ArrayList<>(dias);
+        for (int d = 0; d < dias; d++) {
+            serie.add(dia(d));
+        }
+        inv.setRentabilidadeDiaria(serie);
+        return inv;
+    }
+
+    /**
+     * Investimento com série diária em passeio aleatório a partir de {@link #INICIO}.
+     *
+     * @param banco banco
+     * @param tipo tipo de investimento
+     * @param nome nome do investimento
+     * @param dias dias de série
+     * @param aleatorio gerador da série
+     * @return DTO do investimento
+     */
+    public static InvestimentoDTO investimento(BancoEnum banco, TipoInvestimentoEnum tipo, String nome, int dias,
+                                               Random aleatorio) {
+        InvestimentoDTO inv = new InvestimentoDTO();
+        inv.setNomeBanco(banco.getNomeBanco());
+        inv.setTipoInvestimento(tipo.name());
+        inv.setNomeInvestimento(nome);
+        inv.setMontanteInicial(new BigDecimal("10000.00"));
+        inv.setValorInicialAcao(BigDecimal.ZERO);
+        inv.setTaxaRentabilidade(new BigDecimal("0.11"));
+        inv.setNumeroAcoesInicial(0);
+        List<RentabilidadeDiariaDTO> serie = new ArrayList<>(dias);
+        BigDecimal montante = inv.getMontanteInicial();
+        for (int d = 0; d < dias; d++) {
+            montante = montante.multiply(BigDecimal.valueOf(1 + aleatorio.nextGaussian() * 0.004))
+                    .setScale(2, RoundingMode.HALF_EVEN);
+            serie.add(dia(d, montante));
+        }
+        inv.setRentabilidadeDiaria(serie);
+        return inv;
+    }
+
+    /**
+     * @param d dias desde {@link #INICIO}
+     * @return ponto da série diária com montante {@code 1000.00 + d}
+     */
+    public static RentabilidadeDiariaDTO dia(int d) {
+        return dia(d, new BigDecimal("1000.00").add(BigDecimal.valueOf(d)));
+    }
+
+    /**
+     * @param d dias desde {@link #INICIO}
+     * @param montante montante acumulado no dia
+     * @return ponto da série diária
+     */
+    public static RentabilidadeDiariaDTO dia(int d, BigDecimal montante) {
+        RentabilidadeDiariaDTO rd = new RentabilidadeDiariaDTO();
+        rd.setDataRentabilidadeDiaria(INICIO.plusDays(d).format(RentabilidadeDiariaDTO.FORMATO_DATA));
+        rd.setValorDiarioAcao(BigDecimal.ZERO);
+        rd.setTaxaDiarioRentabilidade(new BigDecimal("0.0004"));
+        rd.setMontanteAcumuladoDiario(montante);
+        return rd;
+    }
+}
@@ -0,0 +1,82 @@
+package com.challenge.investimentos.investimentos_api.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestComponent;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conta as idas ao banco (round trips) feitas pela aplicação durante os testes.
+ *
+ * Envolve o {@link DataSource} da aplicação (o bean {@code dataSource}, e não os pools
+ * por trás dele) em um proxy JDBC e incrementa o contador a cada
+ * chamada {@code execute*} de um {@link Statement}. Um {@code executeBatch()}
+ * conta como uma única ida, independentemente de quantas linhas carrega.
+ */
+@TestComponent
+public class ContadorRoundTrips implements BeanPostProcessor {
+
+    private final AtomicLong execucoes = new AtomicLong();
+
+    /**
+     * Zera o contador.
+     */
+    public void zerar() {
+        execucoes.set(0);
+    }
+
+    /**
+     * Obtém o total de execuções desde o último {@link #zerar()}.
+     * @return quantidade de round trips
+     */
+    public long total() {
+        return execucoes.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return envolver(dataSource, DataSource.class);
+        }
+        return bean;
+    }
+
+    private <T> T envolver(T alvo, Class<T> tipo) {
+        Object proxy = Proxy.newProxyInstance(Envolvido.class.getClassLoader(), new Class<?>[]{tipo, Envolvido.class}, (p, metodo, args) -> {
+            Object resultado;
+            try {
+                resultado = metodo.invoke(alvo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (alvo instanceof Statement && metodo.getName().startsWith("execute")) {
+                execucoes.incrementAndGet();
+            }
+            if (resultado instanceof Connection conexao && !(resultado instanceof Envolvido)) {
+                return envolver(conexao, Connection.class);
+            }
+            if (resultado instanceof CallableStatement cs) {
+                return envolver(cs, CallableStatement.class);
+            }
+            if (resultado instanceof PreparedStatement ps) {
+                return envolver(ps, PreparedStatement.class);
+            }
+            if (resultado instanceof Statement st) {
+                return envolver(st, Statement.class);
+            }
+            return resultado;
+        });
+        return tipo.cast(proxy);
+    }
+
+    /** Marca os proxies criados aqui, para não envolver duas vezes a mesma conexão. */
+    interface Envolvido {
+    }
+}
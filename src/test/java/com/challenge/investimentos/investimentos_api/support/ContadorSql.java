@@ -0,0 +1,66 @@
+package com.challenge.investimentos.investimentos_api.support;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registra os comandos SQL preparados pelo Hibernate durante os testes.
+ *
+ * É um {@link StatementInspector} instalado na fábrica de sessões: vê toda consulta
+ * JPQL, nativa ou de Spring Data, e cada comando de escrita uma vez por lote JDBC.
+ * Diferente de {@link ContadorRoundTrips}, guarda o texto dos comandos, para que uma
+ * falha de orçamento mostre exatamente o que foi executado.
+ */
+@TestComponent
+public class ContadorSql implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final List<String> comandos = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (comandos) {
+            comandos.add(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> propriedades) {
+        propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    /**
+     * Descarta os comandos registrados.
+     */
+    public void zerar() {
+        synchronized (comandos) {
+            comandos.clear();
+        }
+    }
+
+    /**
+     * Obtém a quantidade de comandos desde o último {@link #zerar()}.
+     * @return comandos SQL preparados
+     */
+    public int total() {
+        synchronized (comandos) {
+            return comandos.size();
+        }
+    }
+
+    /**
+     * Obtém os comandos desde o último {@link #zerar()}, na ordem de execução.
+     * @return texto SQL de cada comando
+     */
+    public List<String> comandos() {
+        synchronized (comandos) {
+            return List.copyOf(comandos);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.challenge.investimentos.investimentos_api.support;
+
+/**
+ * Gera CPFs válidos (dígitos verificadores corretos) para uso nos testes.
+ */
+public final class CpfsDeTeste {
+
+    private CpfsDeTeste() {}
+
+    /**
+     * Gera um CPF válido a partir de um número base de até 9 dígitos.
+     *
+     * Os nove primeiros dígitos são {@code 100.000.000 + base}, o que evita
+     * CPFs com todos os dígitos iguais para as bases usadas nos testes.
+     *
+     * @param base número base (0 a 899.999.999); bases distintas geram CPFs distintos
+     * @return CPF com 11 dígitos, sem máscara
+     */
+    public static String gerar(long base) {
+        int[] d = new int[11];
+        long resto = base + 100_000_000L;
+        for (int i = 8; i >= 0; i--) {
+            d[i] = (int) (resto % 10);
+            resto /= 10;
+        }
+        int soma = 0;
+        for (int i = 0; i < 9; i++) soma += d[i] * (10 - i);
+        d[9] = 11 - (soma % 11) >= 10 ? 0 : 11 - (soma % 11);
+        soma = 0;
+        for (int i = 0; i < 10; i++) soma += d[i] * (11 - i);
+        d[10] = 11 - (soma % 11) >= 10 ? 0 : 11 - (soma % 11);
+        StringBuilder sb = new StringBuilder(11);
+        for (int digito : d) sb.append(digito);
+        return sb.toString();
+    }
+
+    /**
+     * Aplica a máscara {@code 000.000.000-00} a um CPF de 11 dígitos.
+     *
+     * @param cpf CPF sem máscara
+     * @return CPF com pontos e traço
+     */
+    public static String mascarar(String cpf) {
+        return cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+    }
+}